@@ -0,0 +1,20 @@
+// generated by src/scripts/write-version-info.sh
+package org.apache.sqoop;
+
+public class SqoopVersion {
+  public SqoopVersion() {
+  }
+
+  public static final String VERSION="1.4.7-SNAPSHOT";
+  public static final String GIT_HASH="7abd1d9db9ecb7ffd4211a2385560cd39e10ebf1";
+  public static final String COMPILE_USER="";
+  public static final String COMPILE_DATE="Mon Oct 19 04:25:50 UTC 2026";
+
+  @Override
+  public String toString() {
+    return "Sqoop " + VERSION + "\n"
+        + "git commit id " + GIT_HASH + "\n"
+        + "Compiled by " + COMPILE_USER
+        + " on " + COMPILE_DATE + "\n";
+  }
+}
@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.Schema;
+import org.apache.sqoop.avro.AvroUtil;
+import org.apache.sqoop.orm.AvroSchemaGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.cloudera.sqoop.lib.SqoopRecord;
+
+/**
+ * Benchmarks turning generated records into Avro GenericRecords, as the
+ * Avro import mapper does for every row. The large objects of LOB_HEAVY
+ * records are not loaded, so their fields convert to null.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AvroConversionBenchmark {
+
+  private static final int ROWS = 1000;
+
+  @Param({ "NARROW_NUMERIC", "WIDE_NUMERIC", "NARROW_TEXT", "WIDE_TEXT",
+      "LOB_HEAVY" })
+  public BenchmarkSchema schema;
+
+  @Param({ "false", "true" })
+  public boolean bigDecimalFormatString;
+
+  private GeneratedRecords generated;
+  private SqoopRecord [] records;
+  private Schema avroSchema;
+
+  @Setup
+  public void setUp() throws Exception {
+    generated = new GeneratedRecords(schema, BenchmarkDelimiters.DEFAULT,
+        "javac", ROWS, false);
+    records = generated.getRecords();
+    avroSchema = new AvroSchemaGenerator(generated.getOptions(),
+        generated.getManager(), generated.getTableName()).generate();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    generated.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void toGenericRecord(Blackhole bh) {
+    for (SqoopRecord record : records) {
+      bh.consume(AvroUtil.toGenericRecord(record.getFieldMap(), avroSchema,
+          bigDecimalFormatString));
+    }
+  }
+}
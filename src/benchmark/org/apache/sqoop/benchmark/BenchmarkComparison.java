@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.benchmark;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two JMH result files written with "-rf csv", e.g. of two
+ * versions of Sqoop, and prints the change of every benchmark they both
+ * ran. A change is marked significant if the scores differ by more than
+ * their errors combined.
+ *
+ * Usage: BenchmarkComparison old.csv new.csv
+ */
+public final class BenchmarkComparison {
+
+  /** The score of one benchmark with one set of parameters. */
+  static final class Result {
+    private final String unit;
+    private final double score;
+    private final double error;
+
+    Result(String unit, double score, double error) {
+      this.unit = unit;
+      this.score = score;
+      this.error = error;
+    }
+  }
+
+  private BenchmarkComparison() {
+  }
+
+  public static void main(String [] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: BenchmarkComparison old.csv new.csv");
+      System.exit(1);
+    }
+
+    Map<String, Result> oldResults = read(args[0]);
+    Map<String, Result> newResults = read(args[1]);
+    System.out.println(String.format("%-80s %14s %14s %9s  %s",
+        "Benchmark", "Old", "New", "Change", "Unit"));
+    for (Map.Entry<String, Result> entry : newResults.entrySet()) {
+      Result oldResult = oldResults.get(entry.getKey());
+      if (null == oldResult) {
+        continue;
+      }
+      Result newResult = entry.getValue();
+      double change = (newResult.score - oldResult.score) / oldResult.score;
+      boolean significant = Math.abs(newResult.score - oldResult.score)
+          > oldResult.error + newResult.error;
+      System.out.println(String.format("%-80s %14.3f %14.3f %+8.1f%%  %s%s",
+          entry.getKey(), oldResult.score, newResult.score, change * 100,
+          newResult.unit, significant ? "  *" : ""));
+    }
+  }
+
+  /**
+   * @return the results of a JMH CSV file, keyed by the benchmark and its
+   * parameters.
+   */
+  static Map<String, Result> read(String fileName) throws IOException {
+    Map<String, Result> results = new LinkedHashMap<String, Result>();
+    BufferedReader r = new BufferedReader(new InputStreamReader(
+        new FileInputStream(fileName), StandardCharsets.UTF_8));
+    try {
+      List<String> header = parseLine(r.readLine());
+      if (null == header) {
+        throw new IOException("Empty result file " + fileName);
+      }
+      int benchmarkCol = header.indexOf("Benchmark");
+      int scoreCol = header.indexOf("Score");
+      int unitCol = header.indexOf("Unit");
+      int errorCol = -1;
+      for (int i = 0; i < header.size(); i++) {
+        if (header.get(i).startsWith("Score Error")) {
+          errorCol = i;
+        }
+      }
+      if (benchmarkCol < 0 || scoreCol < 0 || unitCol < 0 || errorCol < 0) {
+        throw new IOException("Not a JMH CSV result file: " + fileName);
+      }
+
+      String line;
+      while ((line = r.readLine()) != null) {
+        List<String> fields = parseLine(line);
+        StringBuilder key = new StringBuilder(fields.get(benchmarkCol));
+        for (int i = 0; i < header.size(); i++) {
+          if (header.get(i).startsWith("Param: ") && !fields.get(i).isEmpty()) {
+            key.append(' ').append(header.get(i).substring(7))
+                .append('=').append(fields.get(i));
+          }
+        }
+        String error = fields.get(errorCol);
+        results.put(key.toString(), new Result(fields.get(unitCol),
+            Double.parseDouble(fields.get(scoreCol)),
+            error.isEmpty() || "NaN".equals(error)
+            ? 0 : Double.parseDouble(error)));
+      }
+    } finally {
+      r.close();
+    }
+    return results;
+  }
+
+  /** @return the fields of a CSV line, or null at the end of the file. */
+  static List<String> parseLine(String line) {
+    if (null == line) {
+      return null;
+    }
+    List<String> fields = new ArrayList<String>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          field.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+}
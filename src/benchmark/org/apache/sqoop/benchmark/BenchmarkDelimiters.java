@@ -0,0 +1,58 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.benchmark;
+
+import com.cloudera.sqoop.lib.DelimiterSet;
+
+/**
+ * The delimiter settings to benchmark with.
+ */
+public enum BenchmarkDelimiters {
+
+  /** Comma separated, neither enclosed nor escaped. */
+  DEFAULT(DelimiterSet.DEFAULT_DELIMITERS),
+
+  /** mysqldump's settings: optionally enclosed in quotes, escaped. */
+  MYSQL(DelimiterSet.MYSQL_DELIMITERS),
+
+  /** Every field enclosed in double quotes, escaped. */
+  ENCLOSED(new DelimiterSet(',', '\n', '"', '\\', true)),
+
+  /** Hive's default field delimiter, neither enclosed nor escaped. */
+  HIVE(DelimiterSet.HIVE_DELIMITERS);
+
+  private final DelimiterSet delimiters;
+
+  BenchmarkDelimiters(DelimiterSet delimiters) {
+    this.delimiters = delimiters;
+  }
+
+  public DelimiterSet get() {
+    return delimiters.copy();
+  }
+
+  /**
+   * @return true if text containing the field delimiter can be written in
+   * these delimiters.
+   */
+  public boolean canQuote() {
+    return delimiters.getEnclosedBy() != DelimiterSet.NULL_CHAR
+        || delimiters.getEscapedBy() != DelimiterSet.NULL_CHAR;
+  }
+}
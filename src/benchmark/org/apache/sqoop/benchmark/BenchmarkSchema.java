@@ -0,0 +1,217 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic table shapes to benchmark with. Each shape is a list of
+ * columns, and generates the SQL literals of any number of rows; the
+ * same row number always gives the same values.
+ */
+public enum BenchmarkSchema {
+
+  /** A few numeric columns. */
+  NARROW_NUMERIC(numericColumns(4)),
+
+  /** Many numeric columns. */
+  WIDE_NUMERIC(numericColumns(64)),
+
+  /** A few short text columns. */
+  NARROW_TEXT(textColumns(4, 16)),
+
+  /** Many text columns. */
+  WIDE_TEXT(textColumns(64, 32)),
+
+  /** A key, some text and large binary and character columns. */
+  LOB_HEAVY(lobColumns());
+
+  /** The kinds of column a shape is made of. */
+  enum ColumnType {
+    INT("INTEGER"),
+    BIGINT("BIGINT"),
+    DOUBLE("DOUBLE"),
+    DECIMAL("DECIMAL(18,4)"),
+    TIMESTAMP("TIMESTAMP"),
+    VARCHAR("VARCHAR(%d)"),
+    LONG_TEXT("LONGVARCHAR"),
+    LONG_BINARY("LONGVARBINARY");
+
+    private final String sqlType;
+
+    ColumnType(String sqlType) {
+      this.sqlType = sqlType;
+    }
+  }
+
+  /** A column of a shape. */
+  static final class Column {
+    private final String name;
+    private final ColumnType type;
+    private final int length;
+
+    Column(String name, ColumnType type, int length) {
+      this.name = name;
+      this.type = type;
+      this.length = length;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    String getSqlType() {
+      return String.format(type.sqlType, length);
+    }
+  }
+
+  // Characters that the delimiter settings have to escape or enclose.
+  private static final String SPECIAL_CHARS = ",'\"\\\t|";
+
+  private final List<Column> columns;
+
+  BenchmarkSchema(List<Column> columns) {
+    this.columns = columns;
+  }
+
+  private static List<Column> numericColumns(int count) {
+    ColumnType [] types = {
+      ColumnType.INT, ColumnType.BIGINT, ColumnType.DOUBLE,
+      ColumnType.DECIMAL, ColumnType.TIMESTAMP,
+    };
+    List<Column> cols = new ArrayList<Column>();
+    cols.add(new Column("ID", ColumnType.INT, 0));
+    for (int i = 1; i < count; i++) {
+      cols.add(new Column("N" + i, types[i % types.length], 0));
+    }
+    return cols;
+  }
+
+  private static List<Column> textColumns(int count, int length) {
+    List<Column> cols = new ArrayList<Column>();
+    cols.add(new Column("ID", ColumnType.INT, 0));
+    for (int i = 1; i < count; i++) {
+      cols.add(new Column("S" + i, ColumnType.VARCHAR, length));
+    }
+    return cols;
+  }
+
+  private static List<Column> lobColumns() {
+    List<Column> cols = new ArrayList<Column>();
+    cols.add(new Column("ID", ColumnType.INT, 0));
+    cols.add(new Column("TITLE", ColumnType.VARCHAR, 64));
+    cols.add(new Column("BODY", ColumnType.LONG_TEXT, 4096));
+    cols.add(new Column("DATA", ColumnType.LONG_BINARY, 16384));
+    return cols;
+  }
+
+  /** @return the CREATE TABLE statement of the shape. */
+  public String getCreateTable(String tableName) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("CREATE TABLE ").append(tableName).append(" (");
+    for (int i = 0; i < columns.size(); i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(columns.get(i).getName()).append(' ')
+          .append(columns.get(i).getSqlType());
+    }
+    sb.append(')');
+    return sb.toString();
+  }
+
+  /**
+   * @return the INSERT statement of one row.
+   * @param specialChars if true, the text values contain delimiter, quote
+   *        and escape characters.
+   */
+  public String getInsert(String tableName, int row, boolean specialChars) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("INSERT INTO ").append(tableName).append(" VALUES (");
+    for (int i = 0; i < columns.size(); i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(getLiteral(columns.get(i), row, i, specialChars));
+    }
+    sb.append(')');
+    return sb.toString();
+  }
+
+  private static String getLiteral(Column col, int row, int colNum,
+      boolean specialChars) {
+    long seed = (long) row * 31 + colNum;
+    switch (col.type) {
+    case INT:
+      return colNum == 0 ? Integer.toString(row) : Long.toString(seed % 100000);
+    case BIGINT:
+      return Long.toString(seed * 1000003L);
+    case DOUBLE:
+      return Double.toString(seed / 7.0);
+    case DECIMAL:
+      return (seed % 1000000) + "." + (seed % 10000);
+    case TIMESTAMP:
+      return "'2017-0" + (1 + seed % 9) + "-1" + (seed % 10) + " 12:"
+          + (10 + seed % 50) + ":00.0'";
+    case VARCHAR:
+    case LONG_TEXT:
+      return quote(text(seed, col.length, specialChars));
+    case LONG_BINARY:
+      return "'" + hex(seed, col.length) + "'";
+    default:
+      throw new IllegalStateException("Unknown column type " + col.type);
+    }
+  }
+
+  /**
+   * @return a text value of the given length.
+   * @param specialChars if true, the text contains delimiter, quote and
+   *        escape characters.
+   */
+  static String text(long seed, int length, boolean specialChars) {
+    StringBuilder sb = new StringBuilder(length);
+    long x = seed;
+    while (sb.length() < length) {
+      x = x * 6364136223846793005L + 1442695040888963407L;
+      int r = (int) ((x >>> 33) % 40);
+      if (specialChars && r < SPECIAL_CHARS.length()) {
+        sb.append(SPECIAL_CHARS.charAt(r));
+      } else if (r < 4) {
+        sb.append(' ');
+      } else {
+        sb.append((char) ('a' + r % 26));
+      }
+    }
+    return sb.toString();
+  }
+
+  private static String hex(long seed, int length) {
+    StringBuilder sb = new StringBuilder(length * 2);
+    for (int i = 0; i < length; i++) {
+      sb.append(Character.forDigit((int) ((seed + i) >>> 4 & 0xf), 16));
+      sb.append(Character.forDigit((int) ((seed + i) & 0xf), 16));
+    }
+    return sb.toString();
+  }
+
+  private static String quote(String str) {
+    return "'" + str.replace("'", "''") + "'";
+  }
+}
@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.sqoop.orm.ClassWriter;
+import org.apache.sqoop.orm.CompilationManager;
+import org.apache.sqoop.util.ClassLoaderStack;
+
+import com.cloudera.sqoop.SqoopOptions;
+import com.cloudera.sqoop.lib.SqoopRecord;
+import com.cloudera.sqoop.manager.ConnManager;
+import com.cloudera.sqoop.manager.HsqldbManager;
+
+/**
+ * A table of a benchmark shape in an in-memory HSQLDB database, its record
+ * class generated by Sqoop's code generator, and its rows read into
+ * instances of that class.
+ */
+public final class GeneratedRecords {
+
+  private static final String CONNECT_STRING =
+      "jdbc:hsqldb:mem:sqoopbenchmark";
+
+  private static final AtomicInteger TABLE_COUNT = new AtomicInteger();
+
+  private final SqoopOptions options;
+  private final ConnManager manager;
+  private final String tableName;
+  private final File workDir;
+  private final Class<?> recordClass;
+  private final SqoopRecord [] records;
+  private final ClassLoader prevClassLoader;
+
+  /**
+   * @param schema the shape of the table.
+   * @param delimiters the delimiters of the record class.
+   * @param backend the codegen.backend to generate the class with.
+   * @param rows the number of rows of the table.
+   * @param specialChars if true, text values contain characters the
+   *        delimiters have to escape or enclose.
+   */
+  public GeneratedRecords(BenchmarkSchema schema,
+      BenchmarkDelimiters delimiters, String backend, int rows,
+      boolean specialChars) throws IOException, SQLException {
+    int id = TABLE_COUNT.incrementAndGet();
+    this.tableName = "BENCH_" + schema.name() + "_" + id;
+    this.workDir = Files.createTempDirectory("sqoop-benchmark").toFile();
+
+    options = new SqoopOptions(CONNECT_STRING, tableName);
+    options.setUsername("SA");
+    options.setPassword("");
+    options.setOutputDelimiters(delimiters.get());
+    options.setCodeOutputDir(new File(workDir, "src").getPath());
+    options.setJarOutputDir(new File(workDir, "jar").getPath());
+    options.setClassName("benchmark.Record" + id);
+    options.getConf().set(ClassWriter.PROPERTY_CODEGEN_BACKEND, backend);
+    manager = new HsqldbManager(options);
+
+    Connection conn = manager.getConnection();
+    Statement stmt = conn.createStatement();
+    try {
+      stmt.executeUpdate(schema.getCreateTable(tableName));
+      for (int i = 0; i < rows; i++) {
+        stmt.executeUpdate(schema.getInsert(tableName, i, specialChars));
+      }
+    } finally {
+      stmt.close();
+    }
+    conn.commit();
+
+    CompilationManager compileMgr = new CompilationManager(options);
+    new ClassWriter(options, manager, tableName, compileMgr).generate();
+    compileMgr.compile();
+    compileMgr.jar();
+    prevClassLoader = ClassLoaderStack.addJarFile(
+        compileMgr.getJarFilename(), options.getClassName());
+    try {
+      recordClass = Class.forName(options.getClassName(), true,
+          Thread.currentThread().getContextClassLoader());
+    } catch (ClassNotFoundException cnfe) {
+      throw new IOException("Generated class was not loaded", cnfe);
+    }
+
+    records = new SqoopRecord[rows];
+    ResultSet results = query();
+    try {
+      for (int i = 0; i < rows && results.next(); i++) {
+        records[i] = newRecord();
+        records[i].readFields(results);
+      }
+    } finally {
+      results.getStatement().close();
+    }
+  }
+
+  /** @return a new instance of the generated class. */
+  public SqoopRecord newRecord() throws IOException {
+    try {
+      return (SqoopRecord) recordClass.newInstance();
+    } catch (ReflectiveOperationException roe) {
+      throw new IOException("Could not instantiate " + recordClass, roe);
+    }
+  }
+
+  /** @return the rows of the table, read into the generated class. */
+  public SqoopRecord [] getRecords() {
+    return records;
+  }
+
+  /**
+   * @return the rows of the table, in row order. The caller closes the
+   * statement of the ResultSet.
+   */
+  public ResultSet query() throws SQLException {
+    Statement stmt = manager.getConnection().createStatement();
+    return stmt.executeQuery("SELECT * FROM " + tableName + " ORDER BY ID");
+  }
+
+  public SqoopOptions getOptions() {
+    return options;
+  }
+
+  public ConnManager getManager() {
+    return manager;
+  }
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  /** @return a directory to write files to, removed by close(). */
+  public File getWorkDir() {
+    return workDir;
+  }
+
+  /** Drop the table and remove the generated files. */
+  public void close() throws IOException, SQLException {
+    Connection conn = manager.getConnection();
+    Statement stmt = conn.createStatement();
+    try {
+      stmt.executeUpdate("DROP TABLE " + tableName);
+    } finally {
+      stmt.close();
+    }
+    conn.commit();
+    manager.close();
+    ClassLoaderStack.setCurrentClassLoader(prevClassLoader);
+    FileUtils.deleteDirectory(workDir);
+  }
+}
@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.cloudera.sqoop.io.LobFile;
+
+/**
+ * Benchmarks reading the records of a LobFile on the local filesystem,
+ * both in order and by seeking to their offsets, as BlobRefs and ClobRefs
+ * of externally stored large objects do. The score is per record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LobFileBenchmark {
+
+  private static final int RECORDS = 256;
+
+  @Param({ "1024", "65536", "1048576" })
+  public int recordLength;
+
+  @Param({ "false", "true" })
+  public boolean charData;
+
+  @Param({ "none", "deflate" })
+  public String codec;
+
+  private Configuration conf;
+  private File workDir;
+  private Path path;
+  private long [] offsets;
+  private int [] randomOrder;
+  private byte [] byteBuf;
+  private char [] charBuf;
+
+  @Setup
+  public void setUp() throws IOException {
+    conf = new Configuration();
+    conf.set("fs.defaultFS", "file:///");
+    workDir = Files.createTempDirectory("sqoop-benchmark").toFile();
+    path = new Path(new File(workDir, "lobs.lob").toURI());
+    offsets = new long[RECORDS];
+
+    LobFile.Writer writer = LobFile.create(path, conf, charData,
+        "none".equals(codec) ? null : codec);
+    try {
+      for (int i = 0; i < RECORDS; i++) {
+        offsets[i] = writer.tell();
+        if (charData) {
+          Writer w = writer.writeClobRecord(recordLength);
+          w.write(BenchmarkSchema.text(i, recordLength, false));
+          w.close();
+        } else {
+          byte [] data = new byte[recordLength];
+          new Random(i).nextBytes(data);
+          OutputStream os = writer.writeBlobRecord(recordLength);
+          os.write(data);
+          os.close();
+        }
+        writer.finishRecord();
+      }
+    } finally {
+      writer.close();
+    }
+
+    randomOrder = new int[RECORDS];
+    Random random = new Random(RECORDS);
+    for (int i = 0; i < RECORDS; i++) {
+      randomOrder[i] = random.nextInt(RECORDS);
+    }
+    byteBuf = new byte[8192];
+    charBuf = new char[8192];
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(workDir);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void sequentialRead(Blackhole bh) throws IOException {
+    LobFile.Reader reader = LobFile.open(path, conf);
+    try {
+      while (reader.next()) {
+        bh.consume(readRecord(reader));
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void randomRead(Blackhole bh) throws IOException {
+    LobFile.Reader reader = LobFile.open(path, conf);
+    try {
+      for (int i : randomOrder) {
+        reader.seek(offsets[i]);
+        reader.next();
+        bh.consume(readRecord(reader));
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  /** Read the current record fully. */
+  private long readRecord(LobFile.Reader reader) throws IOException {
+    long total = 0;
+    if (charData) {
+      Reader r = reader.readClobRecord();
+      int len;
+      while ((len = r.read(charBuf)) > 0) {
+        total += len;
+      }
+    } else {
+      InputStream is = reader.readBlobRecord();
+      int len;
+      while ((len = is.read(byteBuf)) > 0) {
+        total += len;
+      }
+    }
+    return total;
+  }
+}
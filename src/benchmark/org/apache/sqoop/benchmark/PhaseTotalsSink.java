@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.benchmark;
+
+import java.io.IOException;
+
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.sqoop.mapreduce.TaskMetricsSink;
+import org.apache.sqoop.mapreduce.TaskPhaseMetrics;
+import org.apache.sqoop.mapreduce.TaskPhaseMetrics.Phase;
+
+/**
+ * Adds up the phases of every task that runs in this JVM, as all tasks of
+ * the LocalJobRunner do.
+ */
+public class PhaseTotalsSink implements TaskMetricsSink {
+
+  private static final long [] COUNTS = new long[Phase.values().length];
+  private static final long [] NANOS = new long[Phase.values().length];
+
+  @Override
+  public void publish(TaskAttemptContext context, String source,
+      TaskPhaseMetrics metrics) throws IOException {
+    synchronized (PhaseTotalsSink.class) {
+      for (Phase phase : Phase.values()) {
+        COUNTS[phase.ordinal()] += metrics.getCount(phase);
+        NANOS[phase.ordinal()] += metrics.getNanos(phase);
+      }
+    }
+  }
+
+  /** Forget the phases added up so far. */
+  public static synchronized void reset() {
+    for (int i = 0; i < COUNTS.length; i++) {
+      COUNTS[i] = 0;
+      NANOS[i] = 0;
+    }
+  }
+
+  /** @return how often all tasks went through the phase. */
+  public static synchronized long getCount(Phase phase) {
+    return COUNTS[phase.ordinal()];
+  }
+
+  /** @return the estimated nanoseconds all tasks spent in the phase. */
+  public static synchronized long getNanos(Phase phase) {
+    return NANOS[phase.ordinal()];
+  }
+}
@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.benchmark;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.Text;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.cloudera.sqoop.lib.RecordParser;
+import com.cloudera.sqoop.lib.SqoopRecord;
+
+/**
+ * Benchmarks the per-row methods of generated record classes: parse() and
+ * toString() of text files, write() and readFields() of SequenceFiles and
+ * readFields() of a JDBC ResultSet. Each invocation handles every row of
+ * the table, and the score is per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RecordBenchmark {
+
+  private static final int ROWS = 1000;
+
+  @Param({ "NARROW_NUMERIC", "WIDE_NUMERIC", "NARROW_TEXT", "WIDE_TEXT",
+      "LOB_HEAVY" })
+  public BenchmarkSchema schema;
+
+  @Param({ "DEFAULT", "MYSQL", "ENCLOSED" })
+  public BenchmarkDelimiters delimiters;
+
+  // Only with delimiters that can quote them; with the others, records
+  // with special characters could not be parsed again.
+  @Param({ "false", "true" })
+  public boolean specialChars;
+
+  @Param({ "javac", "bytecode" })
+  public String backend;
+
+  private GeneratedRecords generated;
+  private SqoopRecord [] records;
+  private Text [] lines;
+  private SqoopRecord target;
+  private DataOutputBuffer out;
+  private DataInputBuffer in;
+  private byte [] serialized;
+  private int serializedLength;
+
+  @Setup
+  public void setUp() throws Exception {
+    generated = new GeneratedRecords(schema, delimiters, backend, ROWS,
+        specialChars && delimiters.canQuote());
+    records = generated.getRecords();
+    lines = new Text[ROWS];
+    out = new DataOutputBuffer();
+    for (int i = 0; i < ROWS; i++) {
+      lines[i] = new Text(records[i].toString(false));
+      records[i].write(out);
+    }
+    serializedLength = out.getLength();
+    serialized = Arrays.copyOf(out.getData(), serializedLength);
+    in = new DataInputBuffer();
+    target = generated.newRecord();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    generated.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void format(Blackhole bh) {
+    for (SqoopRecord record : records) {
+      bh.consume(record.toString(false));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void parse(Blackhole bh) throws RecordParser.ParseError {
+    for (Text line : lines) {
+      target.parse(line);
+      bh.consume(target);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void write(Blackhole bh) throws IOException {
+    out.reset();
+    for (SqoopRecord record : records) {
+      record.write(out);
+    }
+    bh.consume(out.getLength());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void readFieldsWritable(Blackhole bh) throws IOException {
+    in.reset(serialized, serializedLength);
+    for (int i = 0; i < ROWS; i++) {
+      target.readFields(in);
+      bh.consume(target);
+    }
+  }
+
+  /**
+   * Reads the table through JDBC; this includes the driver's own cost of
+   * executing the query and moving through the rows.
+   */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void readFieldsResultSet(Blackhole bh) throws SQLException {
+    ResultSet results = generated.query();
+    try {
+      while (results.next()) {
+        target.readFields(results);
+        bh.consume(target);
+      }
+    } finally {
+      results.getStatement().close();
+    }
+  }
+}
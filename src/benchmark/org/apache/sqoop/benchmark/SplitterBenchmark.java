@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.sqoop.config.ConfigurationHelper;
+import org.apache.sqoop.mapreduce.db.BigDecimalSplitter;
+import org.apache.sqoop.mapreduce.db.DBSplitter;
+import org.apache.sqoop.mapreduce.db.DateSplitter;
+import org.apache.sqoop.mapreduce.db.IntegerSplitter;
+import org.apache.sqoop.mapreduce.db.TextSplitter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks the splitters that turn the bounds of the split-by column
+ * into the splits of an import.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SplitterBenchmark {
+
+  /** The splitters, and the column of the bounds table they split. */
+  public enum SplitColumn {
+    INTEGER(new IntegerSplitter(), "I"),
+    DECIMAL(new BigDecimalSplitter(), "D"),
+    TEXT(new TextSplitter(), "T"),
+    DATE(new DateSplitter(), "TS");
+
+    private final DBSplitter splitter;
+    private final String column;
+
+    SplitColumn(DBSplitter splitter, String column) {
+      this.splitter = splitter;
+      this.column = column;
+    }
+  }
+
+  private static final String CONNECT_STRING =
+      "jdbc:hsqldb:mem:sqoopbenchmark";
+
+  private static final String TABLE_NAME = "BENCH_SPLIT_BOUNDS";
+
+  @Param({ "INTEGER", "DECIMAL", "TEXT", "DATE" })
+  public SplitColumn column;
+
+  @Param({ "4", "64", "1024" })
+  public int numSplits;
+
+  private Connection conn;
+  private Statement stmt;
+  private ResultSet bounds;
+  private Configuration conf;
+
+  @Setup
+  public void setUp() throws Exception {
+    Class.forName("org.hsqldb.jdbcDriver");
+    conn = DriverManager.getConnection(CONNECT_STRING, "SA", "");
+    stmt = conn.createStatement();
+    stmt.executeUpdate("CREATE TABLE " + TABLE_NAME + " (I BIGINT, "
+        + "D DECIMAL(38,10), T VARCHAR(64), TS TIMESTAMP)");
+    stmt.executeUpdate("INSERT INTO " + TABLE_NAME + " VALUES (-1000000, "
+        + "-12345.6789, 'Aardvark', '2001-01-01 00:00:00.0')");
+    stmt.executeUpdate("INSERT INTO " + TABLE_NAME + " VALUES (987654321, "
+        + "98765432.1, 'zymurgy', '2017-06-30 23:59:59.0')");
+    conn.commit();
+
+    bounds = stmt.executeQuery("SELECT MIN(" + column.column + "), MAX("
+        + column.column + ") FROM " + TABLE_NAME);
+    bounds.next();
+
+    Job job = Job.getInstance(new Configuration());
+    ConfigurationHelper.setJobNumMaps(job, numSplits);
+    conf = job.getConfiguration();
+    conf.setBoolean(TextSplitter.ALLOW_TEXT_SPLITTER_PROPERTY, true);
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    bounds.close();
+    stmt.executeUpdate("DROP TABLE " + TABLE_NAME);
+    stmt.close();
+    conn.commit();
+    conn.close();
+  }
+
+  @Benchmark
+  public Object split() throws Exception {
+    return column.splitter.split(conf, bounds, column.column);
+  }
+}
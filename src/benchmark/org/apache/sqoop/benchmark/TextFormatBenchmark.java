@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.io.Text;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.cloudera.sqoop.lib.DelimiterSet;
+import com.cloudera.sqoop.lib.FieldFormatter;
+import com.cloudera.sqoop.lib.RecordParser;
+
+/**
+ * Benchmarks the text format on its own, without a record class:
+ * FieldFormatter.escapeAndEnclose() per field and RecordParser per line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TextFormatBenchmark {
+
+  private static final int VALUES = 1000;
+
+  @Param({ "DEFAULT", "MYSQL", "ENCLOSED", "HIVE" })
+  public BenchmarkDelimiters delimiters;
+
+  @Param({ "false", "true" })
+  public boolean specialChars;
+
+  @Param({ "8", "64", "1024" })
+  public int fieldLength;
+
+  @Param({ "4", "64" })
+  public int fieldsPerLine;
+
+  private DelimiterSet delimiterSet;
+  private String [] values;
+  private Text [] lines;
+  private RecordParser parser;
+
+  @Setup
+  public void setUp() throws RecordParser.ParseError {
+    delimiterSet = delimiters.get();
+    values = new String[VALUES];
+    for (int i = 0; i < VALUES; i++) {
+      values[i] = BenchmarkSchema.text(i, fieldLength, specialChars);
+    }
+    lines = new Text[VALUES / fieldsPerLine];
+    for (int i = 0; i < lines.length; i++) {
+      StringBuilder sb = new StringBuilder();
+      for (int j = 0; j < fieldsPerLine; j++) {
+        if (j > 0) {
+          sb.append(delimiterSet.getFieldsTerminatedBy());
+        }
+        sb.append(FieldFormatter.escapeAndEnclose(
+            values[i * fieldsPerLine + j], delimiterSet));
+      }
+      lines[i] = new Text(sb.toString());
+    }
+    parser = new RecordParser(delimiterSet);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void escapeAndEnclose(Blackhole bh) {
+    for (String value : values) {
+      bh.consume(FieldFormatter.escapeAndEnclose(value, delimiterSet));
+    }
+  }
+
+  /** The score is per field, to compare with escapeAndEnclose. */
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void parseRecord(Blackhole bh) throws RecordParser.ParseError {
+    for (Text line : lines) {
+      bh.consume(parser.parseRecord(line));
+    }
+  }
+}
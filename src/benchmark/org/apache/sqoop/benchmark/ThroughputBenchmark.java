@@ -0,0 +1,440 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.conf.Configured;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.util.StringUtils;
+import org.apache.hadoop.util.Tool;
+import org.apache.hadoop.util.ToolRunner;
+import org.apache.sqoop.Sqoop;
+import org.apache.sqoop.mapreduce.TaskPhaseMetrics;
+import org.apache.sqoop.mapreduce.TaskPhaseMetrics.Phase;
+
+/**
+ * Measures the throughput of whole Sqoop imports and exports of a
+ * generated table, run in the LocalJobRunner: the splitter, record
+ * reader, mapper and output format of an import, and the reverse for an
+ * export. By default the table is held in an in-memory HSQLDB database;
+ * any other database the local JDBC drivers reach can be used instead, as
+ * long as it has the column types of the table shape.
+ *
+ * Every run reports rows and bytes per second, the time spent in garbage
+ * collection, and the time the tasks spent in each phase of moving rows,
+ * as measured by TaskPhaseMetrics.
+ *
+ * Run with: java org.apache.sqoop.benchmark.ThroughputBenchmark
+ *     [-D property=value...] [--connect str] [--username user]
+ *     [--password pass] [--driver class] [--schema shape] [--rows n]
+ *     [--num-mappers n] [--runs n] [--mode import|export|both]
+ *     [--special-chars] [--import-args "args"] [--export-args "args"]
+ */
+public class ThroughputBenchmark extends Configured implements Tool {
+
+  public static final String DEFAULT_CONNECT_STRING =
+      "jdbc:hsqldb:mem:sqoopbenchmark";
+
+  private static final int INSERT_BATCH_SIZE = 1000;
+
+  /** The result of one import or export. */
+  static final class Result {
+    private final long rows;
+    private final long bytes;
+    private final long nanos;
+    private final long gcMillis;
+    private final long [] phaseCounts = new long[Phase.values().length];
+    private final long [] phaseNanos = new long[Phase.values().length];
+
+    Result(long rows, long bytes, long nanos, long gcMillis) {
+      this.rows = rows;
+      this.bytes = bytes;
+      this.nanos = nanos;
+      this.gcMillis = gcMillis;
+      for (Phase phase : Phase.values()) {
+        phaseCounts[phase.ordinal()] = PhaseTotalsSink.getCount(phase);
+        phaseNanos[phase.ordinal()] = PhaseTotalsSink.getNanos(phase);
+      }
+    }
+  }
+
+  private String connectString = DEFAULT_CONNECT_STRING;
+  private String username = "SA";
+  private String password = "";
+  private String driver;
+  private BenchmarkSchema schema = BenchmarkSchema.NARROW_TEXT;
+  private int rows = 100000;
+  private int numMappers = 1;
+  private int runs = 3;
+  private String mode = "both";
+  private boolean specialChars;
+  private List<String> importArgs = new ArrayList<String>();
+  private List<String> exportArgs = new ArrayList<String>();
+
+  private String tableName;
+  private File workDir;
+  // The garbage collection time before the last Sqoop run.
+  private long gcMillisBefore;
+
+  @Override
+  public int run(String [] args) {
+    try {
+      parseArgs(args);
+    } catch (IllegalArgumentException iae) {
+      System.err.println("Error: " + iae.getMessage());
+      return 1;
+    }
+
+    tableName = "BENCH_" + schema.name();
+    try {
+      workDir = Files.createTempDirectory("sqoop-throughput").toFile();
+      try {
+        createTables();
+        boolean imports = !"export".equals(mode);
+        boolean exports = !"import".equals(mode);
+        if (!imports) {
+          // The export reads the output of an import.
+          runImport();
+        }
+        List<Result> importResults = new ArrayList<Result>();
+        List<Result> exportResults = new ArrayList<Result>();
+        for (int i = 1; i <= runs; i++) {
+          if (imports) {
+            importResults.add(report("import", i, runImport()));
+          }
+          if (exports) {
+            exportResults.add(report("export", i, runExport()));
+          }
+        }
+        summarize("import", importResults);
+        summarize("export", exportResults);
+      } finally {
+        dropTables();
+        FileUtils.deleteDirectory(workDir);
+      }
+    } catch (Exception e) {
+      System.err.println("Error: " + StringUtils.stringifyException(e));
+      return 1;
+    }
+    return 0;
+  }
+
+  private void parseArgs(String [] args) {
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if ("--special-chars".equals(arg)) {
+        specialChars = true;
+        continue;
+      }
+      if (i + 1 >= args.length) {
+        throw new IllegalArgumentException("Missing value of " + arg);
+      }
+      String value = args[++i];
+      if ("--connect".equals(arg)) {
+        connectString = value;
+      } else if ("--username".equals(arg)) {
+        username = value;
+      } else if ("--password".equals(arg)) {
+        password = value;
+      } else if ("--driver".equals(arg)) {
+        driver = value;
+      } else if ("--schema".equals(arg)) {
+        schema = BenchmarkSchema.valueOf(value);
+      } else if ("--rows".equals(arg)) {
+        rows = Integer.parseInt(value);
+      } else if ("--num-mappers".equals(arg)) {
+        numMappers = Integer.parseInt(value);
+      } else if ("--runs".equals(arg)) {
+        runs = Integer.parseInt(value);
+      } else if ("--mode".equals(arg)
+          && Arrays.asList("import", "export", "both").contains(value)) {
+        mode = value;
+      } else if ("--import-args".equals(arg)) {
+        importArgs = Arrays.asList(value.trim().split("\\s+"));
+      } else if ("--export-args".equals(arg)) {
+        exportArgs = Arrays.asList(value.trim().split("\\s+"));
+      } else {
+        throw new IllegalArgumentException("Unknown argument " + arg + " "
+            + value);
+      }
+    }
+  }
+
+  private Connection getConnection() throws ClassNotFoundException,
+      SQLException {
+    if (null != driver) {
+      Class.forName(driver);
+    } else if (connectString.startsWith("jdbc:hsqldb:")) {
+      Class.forName("org.hsqldb.jdbcDriver");
+    }
+    Connection conn = DriverManager.getConnection(connectString, username,
+        password);
+    conn.setAutoCommit(false);
+    return conn;
+  }
+
+  /** Create and fill the table to import, and the table to export to. */
+  private void createTables() throws ClassNotFoundException, SQLException {
+    dropTables();
+    Connection conn = getConnection();
+    try {
+      Statement stmt = conn.createStatement();
+      try {
+        stmt.executeUpdate(schema.getCreateTable(tableName));
+        stmt.executeUpdate(schema.getCreateTable(tableName + "_EXPORT"));
+        for (int i = 0; i < rows; i++) {
+          stmt.addBatch(schema.getInsert(tableName, i, specialChars));
+          if ((i + 1) % INSERT_BATCH_SIZE == 0) {
+            stmt.executeBatch();
+          }
+        }
+        stmt.executeBatch();
+      } finally {
+        stmt.close();
+      }
+      conn.commit();
+    } finally {
+      conn.close();
+    }
+  }
+
+  private void dropTables() throws ClassNotFoundException, SQLException {
+    Connection conn = getConnection();
+    try {
+      for (String table : new String [] { tableName, tableName + "_EXPORT" }) {
+        Statement stmt = conn.createStatement();
+        try {
+          stmt.executeUpdate("DROP TABLE " + table);
+          conn.commit();
+        } catch (SQLException sqlE) {
+          // The table did not exist.
+          conn.rollback();
+        } finally {
+          stmt.close();
+        }
+      }
+    } finally {
+      conn.close();
+    }
+  }
+
+  private long countRows(String table) throws ClassNotFoundException,
+      SQLException {
+    Connection conn = getConnection();
+    try {
+      Statement stmt = conn.createStatement();
+      try {
+        ResultSet results = stmt.executeQuery("SELECT COUNT(*) FROM "
+            + table);
+        results.next();
+        return results.getLong(1);
+      } finally {
+        stmt.close();
+      }
+    } finally {
+      conn.close();
+    }
+  }
+
+  private void clearExportTable() throws ClassNotFoundException,
+      SQLException {
+    Connection conn = getConnection();
+    try {
+      Statement stmt = conn.createStatement();
+      try {
+        stmt.executeUpdate("DELETE FROM " + tableName + "_EXPORT");
+      } finally {
+        stmt.close();
+      }
+      conn.commit();
+    } finally {
+      conn.close();
+    }
+  }
+
+  /** @return the arguments every import and export is run with. */
+  private List<String> getCommonArgs(String tool, String table) {
+    List<String> args = new ArrayList<String>();
+    args.add(tool);
+    args.add("--connect");
+    args.add(connectString);
+    args.add("--username");
+    args.add(username);
+    args.add("--password");
+    args.add(password);
+    if (null != driver) {
+      args.add("--driver");
+      args.add(driver);
+    }
+    args.add("--table");
+    args.add(table);
+    args.add("--num-mappers");
+    args.add(Integer.toString(numMappers));
+    args.add("--outdir");
+    args.add(new File(workDir, "src").getPath());
+    args.add("--bindir");
+    args.add(new File(workDir, "classes").getPath());
+    if (specialChars) {
+      args.add("--mysql-delimiters");
+    }
+    return args;
+  }
+
+  private Path getImportDir() {
+    return new Path(new File(workDir, "import").toURI());
+  }
+
+  private Result runImport() throws Exception {
+    List<String> args = getCommonArgs("import", tableName);
+    args.add("--target-dir");
+    args.add(getImportDir().toString());
+    args.add("--delete-target-dir");
+    args.add("--split-by");
+    args.add("ID");
+    args.addAll(importArgs);
+    long nanos = runSqoop(args);
+    return new Result(rows, getImportSize(), nanos,
+        getGcMillis() - gcMillisBefore);
+  }
+
+  private Result runExport() throws Exception {
+    clearExportTable();
+    List<String> args = getCommonArgs("export", tableName + "_EXPORT");
+    args.add("--export-dir");
+    args.add(getImportDir().toString());
+    args.addAll(exportArgs);
+    long nanos = runSqoop(args);
+    long exported = countRows(tableName + "_EXPORT");
+    if (exported != rows) {
+      throw new IOException("Exported " + exported + " of " + rows
+          + " rows");
+    }
+    return new Result(exported, getImportSize(), nanos,
+        getGcMillis() - gcMillisBefore);
+  }
+
+  /** @return the nanoseconds it took to run Sqoop. */
+  private long runSqoop(List<String> args) throws IOException {
+    Configuration conf = new Configuration(getConf());
+    conf.set("mapreduce.jobtracker.address", "local");
+    conf.set("fs.defaultFS", "file:///");
+    conf.setInt("mapreduce.local.map.tasks.maximum", numMappers);
+    conf.setBoolean(TaskPhaseMetrics.ENABLED_KEY, true);
+    conf.set(TaskPhaseMetrics.SINKS_KEY, PhaseTotalsSink.class.getName());
+
+    PhaseTotalsSink.reset();
+    System.gc();
+    gcMillisBefore = getGcMillis();
+    long start = System.nanoTime();
+    int ret = Sqoop.runTool(args.toArray(new String[args.size()]), conf);
+    long nanos = System.nanoTime() - start;
+    if (0 != ret) {
+      throw new IOException("Sqoop " + args.get(0) + " failed; ret=" + ret);
+    }
+    return nanos;
+  }
+
+  /** @return the milliseconds spent in garbage collection so far. */
+  private static long getGcMillis() {
+    long total = 0;
+    for (GarbageCollectorMXBean gc
+        : ManagementFactory.getGarbageCollectorMXBeans()) {
+      total += Math.max(0, gc.getCollectionTime());
+    }
+    return total;
+  }
+
+  /** @return the bytes of the data files the import wrote. */
+  private long getImportSize() throws IOException {
+    Path dir = getImportDir();
+    FileSystem fs = dir.getFileSystem(getConf());
+    long total = 0;
+    for (FileStatus stat : fs.listStatus(dir)) {
+      String name = stat.getPath().getName();
+      if (stat.isFile() && !name.startsWith("_") && !name.startsWith(".")) {
+        total += stat.getLen();
+      }
+    }
+    return total;
+  }
+
+  private Result report(String tool, int run, Result result) {
+    double seconds = result.nanos / 1e9;
+    System.out.println(String.format("%s of %d %s rows, run %d: %.3f s, "
+        + "%.0f rows/s, %.2f MB/s, GC %d ms", tool, result.rows, schema,
+        run, seconds, result.rows / seconds,
+        result.bytes / seconds / (1024 * 1024), result.gcMillis));
+    long totalNanos = 0;
+    for (long phaseNanos : result.phaseNanos) {
+      totalNanos += phaseNanos;
+    }
+    for (Phase phase : Phase.values()) {
+      int i = phase.ordinal();
+      if (result.phaseCounts[i] > 0) {
+        System.out.println(String.format("  %-20s %12d times %10.3f ms %5.1f%%",
+            phase, result.phaseCounts[i], result.phaseNanos[i] / 1e6,
+            100.0 * result.phaseNanos[i] / Math.max(1, totalNanos)));
+      }
+    }
+    return result;
+  }
+
+  private void summarize(String tool, List<Result> results) {
+    if (results.isEmpty()) {
+      return;
+    }
+    long totalRows = 0;
+    long totalBytes = 0;
+    long totalNanos = 0;
+    long totalGcMillis = 0;
+    for (Result result : results) {
+      totalRows += result.rows;
+      totalBytes += result.bytes;
+      totalNanos += result.nanos;
+      totalGcMillis += result.gcMillis;
+    }
+    double seconds = totalNanos / 1e9;
+    System.out.println(String.format("%s of %s, %d runs: %.0f rows/s, "
+        + "%.2f MB/s, GC %d ms per run", tool, schema, results.size(),
+        totalRows / seconds, totalBytes / seconds / (1024 * 1024),
+        totalGcMillis / results.size()));
+  }
+
+  public static void main(String [] args) throws Exception {
+    int ret = ToolRunner.run(new ThroughputBenchmark(), args);
+    System.exit(ret);
+  }
+}
@@ -44,19 +44,23 @@ public enum FileLayout {
   }
 
   /**
-   * Incremental imports support two modes:
+   * Incremental imports support three modes:
    * <ul>
    * <li>new rows being appended to the end of a table with an
    * incrementing id</li>
    * <li>new data results in a date-last-modified column being
    * updated to NOW(); Sqoop will pull all dirty rows in the next
    * incremental import.</li>
+   * <li>rows may be inserted, updated or deleted anywhere; Sqoop compares
+   * digests of ranges of an integer key with those of the previous import,
+   * and pulls the ranges that changed in the next incremental import.</li>
    * </ul>
    */
   public enum IncrementalMode {
     None,
     AppendRows,
     DateLastModified,
+    DigestRanges,
   }
 
   /**
@@ -74,6 +74,31 @@ public static Boolean readBoolean(int colNum, ResultSet r)
     return org.apache.sqoop.lib.JdbcWritableBridge.readBoolean(colNum, r);
   }
 
+  public static int readIntValue(int colNum, ResultSet r)
+      throws SQLException {
+    return org.apache.sqoop.lib.JdbcWritableBridge.readIntValue(colNum, r);
+  }
+
+  public static long readLongValue(int colNum, ResultSet r)
+      throws SQLException {
+    return org.apache.sqoop.lib.JdbcWritableBridge.readLongValue(colNum, r);
+  }
+
+  public static float readFloatValue(int colNum, ResultSet r)
+      throws SQLException {
+    return org.apache.sqoop.lib.JdbcWritableBridge.readFloatValue(colNum, r);
+  }
+
+  public static double readDoubleValue(int colNum, ResultSet r)
+      throws SQLException {
+    return org.apache.sqoop.lib.JdbcWritableBridge.readDoubleValue(colNum, r);
+  }
+
+  public static boolean readBooleanValue(int colNum, ResultSet r)
+      throws SQLException {
+    return org.apache.sqoop.lib.JdbcWritableBridge.readBooleanValue(colNum, r);
+  }
+
   public static Time readTime(int colNum, ResultSet r) throws SQLException {
     return org.apache.sqoop.lib.JdbcWritableBridge.readTime(colNum, r);
   }
@@ -137,6 +162,36 @@ public static void writeFloat(Float val, int paramIdx, int sqlType,
         val, paramIdx, sqlType, s);
   }
 
+  public static void writeInteger(int val, boolean isNull, int paramIdx,
+      int sqlType, PreparedStatement s) throws SQLException {
+    org.apache.sqoop.lib.JdbcWritableBridge.writeInteger(val, isNull, paramIdx,
+        sqlType, s);
+  }
+
+  public static void writeLong(long val, boolean isNull, int paramIdx,
+      int sqlType, PreparedStatement s) throws SQLException {
+    org.apache.sqoop.lib.JdbcWritableBridge.writeLong(val, isNull, paramIdx,
+        sqlType, s);
+  }
+
+  public static void writeFloat(float val, boolean isNull, int paramIdx,
+      int sqlType, PreparedStatement s) throws SQLException {
+    org.apache.sqoop.lib.JdbcWritableBridge.writeFloat(val, isNull, paramIdx,
+        sqlType, s);
+  }
+
+  public static void writeDouble(double val, boolean isNull, int paramIdx,
+      int sqlType, PreparedStatement s) throws SQLException {
+    org.apache.sqoop.lib.JdbcWritableBridge.writeDouble(val, isNull, paramIdx,
+        sqlType, s);
+  }
+
+  public static void writeBoolean(boolean val, boolean isNull, int paramIdx,
+      int sqlType, PreparedStatement s) throws SQLException {
+    org.apache.sqoop.lib.JdbcWritableBridge.writeBoolean(val, isNull, paramIdx,
+        sqlType, s);
+  }
+
   public static void writeString(String val, int paramIdx, int sqlType,
       PreparedStatement s) throws SQLException {
     org.apache.sqoop.lib.JdbcWritableBridge.writeString(
@@ -129,6 +129,8 @@ public String toString() {
   @StoredAsProperty("db.username") private String username;
   @StoredAsProperty("db.export.staging.table") private String stagingTableName;
   @StoredAsProperty("db.clear.staging.table") private boolean clearStagingTable;
+  @StoredAsProperty("db.export.split.commit.table")
+  private String splitCommitTable;
   @StoredAsProperty("db.export.call") private String call;
   private Properties connectionParams; //Properties stored as db.connect.params
 
@@ -305,6 +307,10 @@ public String toString() {
   @StoredAsProperty("mainframe.input.dataset.tape")
   private String mainframeInputDatasetTape;
 
+  // Copybook describing fixed-length records for binary mainframe import
+  @StoredAsProperty("mainframe.input.record.layout")
+  private String mainframeRecordLayout;
+
   // Accumulo home directory
   private String accumuloHome; // not serialized to metastore.
   // Zookeeper home directory
@@ -1239,6 +1245,14 @@ public void setClearStagingTable(boolean clear) {
     clearStagingTable = clear;
   }
 
+  public String getSplitCommitTable() {
+    return splitCommitTable;
+  }
+
+  public void setSplitCommitTable(String table) {
+    this.splitCommitTable = table;
+  }
+
   public String getExportDir() {
     return exportDir;
   }
@@ -2380,6 +2394,18 @@ public void setMainframeInputDatasetTape(String txtIsFromTape) {
 	  mainframeInputDatasetTape = Boolean.valueOf(Boolean.parseBoolean(txtIsFromTape)).toString();
   }
 
+  /**
+   * Return the path of the copybook describing fixed-length mainframe
+   * records, or null to import each record as a single text field.
+   */
+  public String getMainframeRecordLayout() {
+    return mainframeRecordLayout;
+  }
+
+  public void setMainframeRecordLayout(String layoutFile) {
+    mainframeRecordLayout = layoutFile;
+  }
+
   public static String getAccumuloHomeDefault() {
     // Set this with $ACCUMULO_HOME, but -Daccumulo.home can override.
     String accumuloHome = System.getenv("ACCUMULO_HOME");
@@ -36,6 +36,7 @@
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.sqoop.lib.BlobRef;
 import org.apache.sqoop.lib.ClobRef;
+import org.apache.sqoop.lib.ColumnBatch;
 import org.apache.sqoop.orm.ClassWriter;
 
 import java.io.IOException;
@@ -151,6 +152,30 @@ public static GenericRecord toGenericRecord(Map<String, Object> fieldMap,
     return record;
   }
 
+  /**
+   * @return the field of the schema of each column of a column batch.
+   */
+  public static Schema.Field [] getFields(ColumnBatch batch, Schema schema) {
+    Schema.Field [] fields = new Schema.Field[batch.getColumnCount()];
+    for (int i = 0; i < fields.length; i++) {
+      fields[i] = schema.getField(toAvroColumn(batch.getColumnName(i)));
+    }
+    return fields;
+  }
+
+  /**
+   * Set the fields of a GenericRecord to a row of a column batch.
+   * @param fields the field of each column, as returned by getFields().
+   */
+  public static void toGenericRecord(ColumnBatch batch, int row,
+      Schema.Field [] fields, GenericRecord record,
+      boolean bigDecimalFormatString) {
+    for (int i = 0; i < fields.length; i++) {
+      record.put(fields[i].pos(), toAvro(batch.getValue(i, row), fields[i],
+          bigDecimalFormatString));
+    }
+  }
+
   private static final String TIMESTAMP_TYPE = "java.sql.Timestamp";
   private static final String TIME_TYPE = "java.sql.Time";
   private static final String DATE_TYPE = "java.sql.Date";
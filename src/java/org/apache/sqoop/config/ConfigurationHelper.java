@@ -101,6 +101,17 @@ public static int getConfNumMaps(Configuration conf) {
     }
   }
 
+  /**
+   * Set the (hinted) number of map tasks in a configuration.
+   */
+  public static void setConfNumMaps(Configuration conf, int numMapTasks) {
+    if (isLocalJobTracker(conf)) {
+      numLocalModeMaps = numMapTasks;
+    } else {
+      conf.setInt(ConfigurationConstants.PROP_MAPRED_MAP_TASKS, numMapTasks);
+    }
+  }
+
   /**
    * Set the mapper speculative execution property for a job.
    */
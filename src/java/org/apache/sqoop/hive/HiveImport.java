@@ -76,6 +76,16 @@ public static void setTestMode(boolean mode) {
   private static final String HIVE_MAIN_CLASS =
       "org.apache.hadoop.hive.cli.CliDriver";
 
+  /**
+   * If true, create the table and load the data through the Hive metastore
+   * client instead of running the generated script with the Hive CLI.
+   */
+  public static final String HIVE_METASTORE_LOAD_KEY =
+      "sqoop.hive.load.via.metastore";
+
+  private static final String HIVE_METASTORE_CLIENT_CLASS =
+      "org.apache.hadoop.hive.metastore.HiveMetaStoreClient";
+
   public HiveImport(final SqoopOptions opts, final ConnManager connMgr,
       final Configuration conf, final boolean generateOnly) {
     this.options = opts;
@@ -208,6 +218,14 @@ public void importTable(String inputTableName, String outputTableName,
           throw new IOException("Error indexing lzo files", ex);
         }
       }
+
+      if (!testMode
+          && configuration.getBoolean(HIVE_METASTORE_LOAD_KEY, false)
+          && loadThroughMetaStore(tableWriter, finalPath, createOnly)) {
+        LOG.info("Hive import complete.");
+        cleanUp(finalPath);
+        return;
+      }
     }
 
     // write them to a script file.
@@ -256,6 +274,28 @@ public void importTable(String inputTableName, String outputTableName,
     }
   }
 
+  /**
+   * Create the table and move the data into it using the metastore client.
+   *
+   * @return false if the Hive metastore classes are not available, in which
+   * case the caller should fall back to running the script through Hive.
+   */
+  private boolean loadThroughMetaStore(TableDefWriter tableWriter,
+      Path finalPath, boolean createOnly) throws IOException {
+    try {
+      Class.forName(HIVE_METASTORE_CLIENT_CLASS);
+    } catch (ClassNotFoundException cnfe) {
+      LOG.warn("Hive metastore client is not on the classpath; "
+          + "falling back to the Hive CLI.");
+      return false;
+    }
+
+    LOG.debug("Using the Hive metastore client to load the table.");
+    new HiveMetaStoreLoader(options, configuration, tableWriter)
+        .load(finalPath, createOnly);
+    return true;
+  }
+
   /**
    * Clean up after successful HIVE import.
    *
@@ -0,0 +1,351 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.hive;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PathFilter;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.HiveMetaStoreClient;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.MetaStoreUtils;
+import org.apache.hadoop.hive.metastore.TableType;
+import org.apache.hadoop.hive.metastore.Warehouse;
+import org.apache.hadoop.hive.metastore.api.AlreadyExistsException;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.hadoop.hive.metastore.api.Order;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.SerDeInfo;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.thrift.TException;
+
+import com.cloudera.sqoop.SqoopOptions;
+
+/**
+ * Loads imported data into Hive by talking to the metastore directly,
+ * instead of generating a script and running it through the Hive CLI.
+ *
+ * The table is created from the definitions computed by TableDefWriter,
+ * the imported files are renamed into the table (or partition) location,
+ * and any new partitions are registered with a single metastore call.
+ * The semantics follow the CREATE TABLE [IF NOT EXISTS] and
+ * LOAD DATA INPATH [OVERWRITE] statements used by the script path.
+ */
+public class HiveMetaStoreLoader {
+
+  public static final Log LOG = LogFactory.getLog(
+      HiveMetaStoreLoader.class.getName());
+
+  public static final String TEXT_INPUT_FORMAT =
+      "org.apache.hadoop.mapred.TextInputFormat";
+  public static final String LZO_INPUT_FORMAT =
+      "com.hadoop.mapred.DeprecatedLzoTextInputFormat";
+  public static final String TEXT_OUTPUT_FORMAT =
+      "org.apache.hadoop.hive.ql.io.HiveIgnoreKeyTextOutputFormat";
+  public static final String LAZY_SIMPLE_SERDE =
+      "org.apache.hadoop.hive.serde2.lazy.LazySimpleSerDe";
+
+  /** Table parameter Hive uses to mark its statistics as up to date. */
+  private static final String STATS_ACCURATE = "COLUMN_STATS_ACCURATE";
+
+  /** Suffix Hive uses when LOAD DATA meets an existing file name. */
+  private static final String COPY_SUFFIX = "_copy_";
+
+  private final SqoopOptions options;
+  private final Configuration configuration;
+  private final TableDefWriter tableWriter;
+
+  public HiveMetaStoreLoader(final SqoopOptions opts,
+      final Configuration conf, final TableDefWriter writer) {
+    this.options = opts;
+    this.configuration = conf;
+    this.tableWriter = writer;
+  }
+
+  /**
+   * Create the table if required and, unless createOnly is set, move the
+   * imported files into it.
+   *
+   * @param sourcePath the directory holding the imported files.
+   * @param createOnly if true, only create the table.
+   */
+  public void load(Path sourcePath, boolean createOnly) throws IOException {
+    HiveConf hiveConf = getHiveConf();
+    IMetaStoreClient client = null;
+    try {
+      client = new HiveMetaStoreClient(hiveConf);
+
+      String dbName = getDatabaseName();
+      String tableName = tableWriter.getOutputTableName();
+      Table table = createOrGetTable(client, dbName, tableName);
+      if (createOnly) {
+        return;
+      }
+
+      Path destPath;
+      String partitionKey = options.getHivePartitionKey();
+      if (null == partitionKey) {
+        destPath = new Path(table.getSd().getLocation());
+        moveFiles(sourcePath, destPath);
+        invalidateStats(client, table);
+      } else {
+        List<String> values =
+            Collections.singletonList(options.getHivePartitionValue());
+        Partition partition = getPartition(client, dbName, tableName, values);
+        if (null != partition) {
+          destPath = new Path(partition.getSd().getLocation());
+          moveFiles(sourcePath, destPath);
+        } else {
+          String partName =
+              Warehouse.makePartName(table.getPartitionKeys(), values);
+          destPath = new Path(table.getSd().getLocation(), partName);
+          moveFiles(sourcePath, destPath);
+          List<Partition> newParts = new ArrayList<Partition>();
+          newParts.add(newPartition(table, values, destPath));
+          registerPartitions(client, newParts);
+        }
+      }
+      LOG.info("Loaded data into Hive table " + dbName + "." + tableName
+          + " at " + destPath);
+    } catch (TException te) {
+      throw new IOException("Error communicating with the Hive metastore", te);
+    } finally {
+      if (null != client) {
+        client.close();
+      }
+    }
+  }
+
+  private HiveConf getHiveConf() throws IOException {
+    Configuration conf = HiveConfig.getHiveConf(configuration);
+    HiveConfig.addHiveConfigs(conf, configuration);
+    return (HiveConf) conf;
+  }
+
+  private String getDatabaseName() {
+    String dbName = options.getHiveDatabaseName();
+    if (null == dbName) {
+      return MetaStoreUtils.DEFAULT_DATABASE_NAME;
+    }
+    return dbName;
+  }
+
+  /**
+   * Create the table described by the TableDefWriter, or return the
+   * existing definition if one is already present.
+   */
+  private Table createOrGetTable(IMetaStoreClient client, String dbName,
+      String tableName) throws IOException, TException {
+    if (client.tableExists(dbName, tableName)) {
+      if (options.doFailIfHiveTableExists()) {
+        throw new IOException("Hive table " + dbName + "." + tableName
+            + " already exists");
+      }
+      LOG.debug("Using existing Hive table " + dbName + "." + tableName);
+      return client.getTable(dbName, tableName);
+    }
+
+    try {
+      client.createTable(newTable(dbName, tableName));
+      LOG.info("Created Hive table " + dbName + "." + tableName);
+    } catch (AlreadyExistsException aee) {
+      // Another import created the table concurrently.
+      if (options.doFailIfHiveTableExists()) {
+        throw new IOException("Hive table " + dbName + "." + tableName
+            + " already exists", aee);
+      }
+    }
+
+    // Re-read the table to pick up the location assigned by the metastore.
+    return client.getTable(dbName, tableName);
+  }
+
+  /**
+   * @return a metastore Table equivalent to the CREATE TABLE statement
+   * generated by TableDefWriter.
+   */
+  Table newTable(String dbName, String tableName) throws IOException {
+    List<FieldSchema> cols = new ArrayList<FieldSchema>();
+    for (Map.Entry<String, String> entry
+        : tableWriter.getColumnHiveTypes().entrySet()) {
+      cols.add(new FieldSchema(entry.getKey(),
+          entry.getValue().toLowerCase(), null));
+    }
+
+    Map<String, String> serdeParams = new HashMap<String, String>();
+    String fieldDelim = Character.toString(options.getOutputFieldDelim());
+    serdeParams.put("field.delim", fieldDelim);
+    serdeParams.put("serialization.format", fieldDelim);
+    serdeParams.put("line.delim",
+        Character.toString(options.getOutputRecordDelim()));
+
+    StorageDescriptor sd = new StorageDescriptor();
+    sd.setCols(cols);
+    sd.setInputFormat(tableWriter.isLzopCompressed()
+        ? LZO_INPUT_FORMAT : TEXT_INPUT_FORMAT);
+    sd.setOutputFormat(TEXT_OUTPUT_FORMAT);
+    sd.setSerdeInfo(new SerDeInfo(null, LAZY_SIMPLE_SERDE, serdeParams));
+    sd.setCompressed(false);
+    sd.setNumBuckets(-1);
+    sd.setBucketCols(new ArrayList<String>());
+    sd.setSortCols(new ArrayList<Order>());
+    sd.setParameters(new HashMap<String, String>());
+
+    Map<String, String> params = new HashMap<String, String>();
+    String comment = tableWriter.getTableComment();
+    if (null != comment) {
+      params.put("comment", comment);
+    }
+
+    List<FieldSchema> partCols = new ArrayList<FieldSchema>();
+    if (null != options.getHivePartitionKey()) {
+      partCols.add(new FieldSchema(options.getHivePartitionKey(),
+          "string", null));
+    }
+
+    Table table = new Table();
+    table.setDbName(dbName);
+    table.setTableName(tableName);
+    table.setOwner(UserGroupInformation.getCurrentUser().getShortUserName());
+    table.setCreateTime((int) (System.currentTimeMillis() / 1000));
+    table.setTableType(TableType.MANAGED_TABLE.toString());
+    table.setSd(sd);
+    table.setPartitionKeys(partCols);
+    table.setParameters(params);
+    return table;
+  }
+
+  private Partition newPartition(Table table, List<String> values,
+      Path location) {
+    StorageDescriptor sd = new StorageDescriptor(table.getSd());
+    sd.setLocation(location.toString());
+
+    Partition partition = new Partition();
+    partition.setDbName(table.getDbName());
+    partition.setTableName(table.getTableName());
+    partition.setValues(values);
+    partition.setSd(sd);
+    partition.setCreateTime((int) (System.currentTimeMillis() / 1000));
+    partition.setParameters(new HashMap<String, String>());
+    return partition;
+  }
+
+  private Partition getPartition(IMetaStoreClient client, String dbName,
+      String tableName, List<String> values) throws TException {
+    try {
+      return client.getPartition(dbName, tableName, values);
+    } catch (NoSuchObjectException nsoe) {
+      return null;
+    }
+  }
+
+  /**
+   * Register all new partitions in one metastore round trip.
+   */
+  private void registerPartitions(IMetaStoreClient client,
+      List<Partition> partitions) throws TException {
+    if (partitions.isEmpty()) {
+      return;
+    }
+    int added = client.add_partitions(partitions);
+    LOG.debug("Registered " + added + " partition(s) with the metastore");
+  }
+
+  /**
+   * Files were added behind Hive's back; drop the marker that claims the
+   * table statistics are current so the optimizer does not trust them.
+   */
+  private void invalidateStats(IMetaStoreClient client, Table table)
+      throws TException {
+    Map<String, String> params = table.getParameters();
+    if (null != params && params.containsKey(STATS_ACCURATE)) {
+      params.remove(STATS_ACCURATE);
+      client.alter_table(table.getDbName(), table.getTableName(), table);
+    }
+  }
+
+  /**
+   * Move the data files from the import directory into the destination.
+   * Mirrors LOAD DATA INPATH: with --hive-overwrite the existing data files
+   * are removed first, otherwise clashing names get a _copy_N suffix.
+   */
+  void moveFiles(Path sourcePath, Path destPath) throws IOException {
+    FileSystem srcFs = sourcePath.getFileSystem(configuration);
+    FileSystem destFs = destPath.getFileSystem(configuration);
+    if (!srcFs.getUri().equals(destFs.getUri())) {
+      throw new IOException("Cannot move " + sourcePath + " to " + destPath
+          + ": the paths are on different filesystems");
+    }
+
+    if (!destFs.exists(destPath)) {
+      destFs.mkdirs(destPath);
+    } else if (options.doOverwriteHiveTable()) {
+      for (FileStatus stat : destFs.listStatus(destPath, DATA_FILES)) {
+        if (!destFs.delete(stat.getPath(), true)) {
+          throw new IOException("Could not delete " + stat.getPath());
+        }
+      }
+    }
+
+    FileStatus[] sources = srcFs.listStatus(sourcePath, DATA_FILES);
+    LOG.info("Moving " + sources.length + " file(s) from " + sourcePath
+        + " to " + destPath);
+    for (FileStatus stat : sources) {
+      Path dest = getUniquePath(destFs, destPath, stat.getPath().getName());
+      if (!srcFs.rename(stat.getPath(), dest)) {
+        throw new IOException("Could not rename " + stat.getPath()
+            + " to " + dest);
+      }
+    }
+  }
+
+  private Path getUniquePath(FileSystem fs, Path dir, String name)
+      throws IOException {
+    Path candidate = new Path(dir, name);
+    int counter = 1;
+    while (fs.exists(candidate)) {
+      candidate = new Path(dir, name + COPY_SUFFIX + counter);
+      counter++;
+    }
+    return candidate;
+  }
+
+  /** Skips the job's bookkeeping files such as _SUCCESS and _logs. */
+  private static final PathFilter DATA_FILES = new PathFilter() {
+    @Override
+    public boolean accept(Path path) {
+      String name = path.getName();
+      return !name.startsWith("_") && !name.startsWith(".");
+    }
+  };
+}
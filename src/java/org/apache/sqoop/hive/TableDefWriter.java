@@ -21,6 +21,7 @@
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Date;
 import java.text.DateFormat;
@@ -35,6 +36,7 @@
 import org.apache.sqoop.io.CodecMap;
 
 import com.cloudera.sqoop.SqoopOptions;
+import com.cloudera.sqoop.io.UnsupportedCodecException;
 import com.cloudera.sqoop.manager.ConnManager;
 import org.apache.sqoop.util.FileSystemUtil;
 
@@ -112,9 +114,12 @@ public void setColumnTypes(Map<String, Integer> colTypes) {
   }
 
   /**
-   * @return the CREATE TABLE statement for the table to load into hive.
+   * Resolve the Hive type of every column to import, honoring any
+   * user-specified --map-column-hive overrides.
+   *
+   * @return an ordered map from column name to Hive column type.
    */
-  public String getCreateTableStmt() throws IOException {
+  public Map<String, String> getColumnHiveTypes() throws IOException {
     Map<String, Integer> columnTypes;
     Properties userMapping = options.getMapColumnHive();
 
@@ -131,17 +136,6 @@ public String getCreateTableStmt() throws IOException {
     }
 
     String [] colNames = getColumnNames();
-    StringBuilder sb = new StringBuilder();
-    if (options.doFailIfHiveTableExists()) {
-      sb.append("CREATE TABLE `");
-    } else {
-      sb.append("CREATE TABLE IF NOT EXISTS `");
-    }
-
-    if(options.getHiveDatabaseName() != null) {
-      sb.append(options.getHiveDatabaseName()).append("`.`");
-    }
-    sb.append(outputTableName).append("` ( ");
 
     // Check that all explicitly mapped columns are present in result set
     for(Object column : userMapping.keySet()) {
@@ -159,7 +153,7 @@ public String getCreateTableStmt() throws IOException {
       }
     }
 
-    boolean first = true;
+    Map<String, String> hiveTypes = new LinkedHashMap<String, String>();
     String partitionKey = options.getHivePartitionKey();
     for (String col : colNames) {
       if (col.equals(partitionKey)) {
@@ -167,12 +161,6 @@ public String getCreateTableStmt() throws IOException {
             + "be a column to import.");
       }
 
-      if (!first) {
-        sb.append(", ");
-      }
-
-      first = false;
-
       Integer colType = columnTypes.get(col);
       String hiveColType = userMapping.getProperty(col);
       if (hiveColType == null) {
@@ -183,7 +171,7 @@ public String getCreateTableStmt() throws IOException {
             + col);
       }
 
-      sb.append('`').append(col).append("` ").append(hiveColType);
+      hiveTypes.put(col, hiveColType);
 
       if (HiveTypes.isHiveTypeImprovised(colType)) {
         LOG.warn(
@@ -191,14 +179,85 @@ public String getCreateTableStmt() throws IOException {
       }
     }
 
+    return hiveTypes;
+  }
+
+  /**
+   * @return the comment to attach to the created table, or null if
+   * comments are disabled.
+   */
+  public String getTableComment() {
+    if (!commentsEnabled) {
+      return null;
+    }
+
+    DateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss");
+    String curDateStr = dateFormat.format(new Date());
+    return "Imported by sqoop on " + curDateStr;
+  }
+
+  /**
+   * @return true if the imported files are LZO-compressed and the table
+   * should be read through the splittable LZO input format.
+   */
+  public boolean isLzopCompressed() {
+    String codec = options.getCompressionCodec();
+    if (codec == null) {
+      return false;
+    } else if (codec.equals(CodecMap.LZOP)) {
+      return true;
+    }
+    try {
+      return codec.equals(CodecMap.getCodecClassName(CodecMap.LZOP));
+    } catch (UnsupportedCodecException uce) {
+      // Not thrown: lzop is one of the codecs CodecMap always knows.
+      return false;
+    }
+  }
+
+  /**
+   * @return the name of the Hive table being created.
+   */
+  public String getOutputTableName() {
+    return outputTableName;
+  }
+
+  /**
+   * @return the CREATE TABLE statement for the table to load into hive.
+   */
+  public String getCreateTableStmt() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    if (options.doFailIfHiveTableExists()) {
+      sb.append("CREATE TABLE `");
+    } else {
+      sb.append("CREATE TABLE IF NOT EXISTS `");
+    }
+
+    if(options.getHiveDatabaseName() != null) {
+      sb.append(options.getHiveDatabaseName()).append("`.`");
+    }
+    sb.append(outputTableName).append("` ( ");
+
+    boolean first = true;
+    for (Map.Entry<String, String> entry : getColumnHiveTypes().entrySet()) {
+      if (!first) {
+        sb.append(", ");
+      }
+
+      first = false;
+
+      sb.append('`').append(entry.getKey()).append("` ")
+        .append(entry.getValue());
+    }
+
     sb.append(") ");
 
-    if (commentsEnabled) {
-      DateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss");
-      String curDateStr = dateFormat.format(new Date());
-      sb.append("COMMENT 'Imported by sqoop on " + curDateStr + "' ");
+    String comment = getTableComment();
+    if (comment != null) {
+      sb.append("COMMENT '" + comment + "' ");
     }
 
+    String partitionKey = options.getHivePartitionKey();
     if (partitionKey != null) {
       sb.append("PARTITIONED BY (")
         .append(partitionKey)
@@ -209,9 +268,7 @@ public String getCreateTableStmt() throws IOException {
     sb.append(getHiveOctalCharCode((int) options.getOutputFieldDelim()));
     sb.append("' LINES TERMINATED BY '");
     sb.append(getHiveOctalCharCode((int) options.getOutputRecordDelim()));
-    String codec = options.getCompressionCodec();
-    if (codec != null && (codec.equals(CodecMap.LZOP)
-            || codec.equals(CodecMap.getCodecClassName(CodecMap.LZOP)))) {
+    if (isLzopCompressed()) {
       sb.append("' STORED AS INPUTFORMAT "
               + "'com.hadoop.mapred.DeprecatedLzoTextInputFormat'");
       sb.append(" OUTPUTFORMAT "
@@ -0,0 +1,240 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * An in-memory pipe from a writing thread to a reading thread, over a
+ * fixed pool of reusable buffers.
+ *
+ * The writer fills a buffer and hands it to the reader, which returns it
+ * to the pool once read; a writer that gets ahead waits for a free
+ * buffer. Closing the output stream ends the stream for the reader.
+ * Either side may abort the pipe, or close its end early, which wakes
+ * the other side with an IOException instead of leaving it blocked.
+ *
+ * The pipe may be used for several streams in turn: once the reader has
+ * seen the end of one stream, the next pair of streams may be opened.
+ */
+public class BufferPipe {
+
+  /** A buffer and the number of bytes of data in it. */
+  private static final class Chunk {
+    private final byte [] data;
+    private int length;
+
+    Chunk(int size) {
+      this.data = new byte[size];
+    }
+  }
+
+  /** Marks the end of a stream for the reader. */
+  private static final Chunk END = new Chunk(0);
+
+  /** Wakes both sides of an aborted pipe. */
+  private static final Chunk ABORTED = new Chunk(0);
+
+  private final BlockingQueue<Chunk> free = new LinkedBlockingQueue<Chunk>();
+  private final BlockingQueue<Chunk> full = new LinkedBlockingQueue<Chunk>();
+
+  private volatile IOException failure;
+
+  /**
+   * @param bufferSize the size of each buffer in bytes.
+   * @param buffers the number of buffers; at least two.
+   */
+  public BufferPipe(int bufferSize, int buffers) {
+    for (int i = 0; i < Math.max(2, buffers); i++) {
+      free.add(new Chunk(Math.max(1, bufferSize)));
+    }
+  }
+
+  /**
+   * Stop the pipe. Blocked and later reads and writes throw an
+   * IOException with the given cause.
+   */
+  public void abort(Throwable cause) {
+    if (null == failure) {
+      failure = new IOException("Pipe aborted", cause);
+    }
+    free.add(ABORTED);
+    full.add(ABORTED);
+  }
+
+  /**
+   * @return the stream to write the next stream of data to.
+   */
+  public OutputStream getOutputStream() {
+    return new PipeOutputStream();
+  }
+
+  /**
+   * @return the stream to read the next stream of data from.
+   */
+  public InputStream getInputStream() {
+    return new PipeInputStream();
+  }
+
+  private void checkFailure() throws IOException {
+    if (null != failure) {
+      throw failure;
+    }
+  }
+
+  private Chunk take(BlockingQueue<Chunk> queue) throws IOException {
+    checkFailure();
+    Chunk chunk;
+    try {
+      chunk = queue.take();
+    } catch (InterruptedException ie) {
+      throw new IOException("Interrupted waiting on pipe", ie);
+    }
+    if (ABORTED == chunk) {
+      // Leave the marker for anyone else waiting on this side.
+      queue.add(ABORTED);
+      checkFailure();
+    }
+    return chunk;
+  }
+
+  /** The writing end of one stream. */
+  private class PipeOutputStream extends OutputStream {
+    private Chunk chunk;
+    private boolean closed;
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte [] b, int off, int len) throws IOException {
+      if (closed) {
+        throw new IOException("Stream closed");
+      }
+      while (len > 0) {
+        if (null == chunk) {
+          chunk = take(free);
+          chunk.length = 0;
+        }
+        int n = Math.min(len, chunk.data.length - chunk.length);
+        System.arraycopy(b, off, chunk.data, chunk.length, n);
+        chunk.length += n;
+        off += n;
+        len -= n;
+        if (chunk.length == chunk.data.length) {
+          flush();
+        }
+      }
+    }
+
+    /** Hand the data written so far to the reader. */
+    @Override
+    public void flush() throws IOException {
+      checkFailure();
+      if (null != chunk && chunk.length > 0) {
+        full.add(chunk);
+        chunk = null;
+      }
+    }
+
+    /** End the stream. */
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        flush();
+      } finally {
+        if (null != chunk) {
+          free.add(chunk);
+          chunk = null;
+        }
+        full.add(END);
+      }
+    }
+  }
+
+  /** The reading end of one stream. */
+  private class PipeInputStream extends InputStream {
+    private Chunk chunk;
+    private int pos;
+    private boolean eof;
+
+    @Override
+    public int read() throws IOException {
+      byte [] b = new byte[1];
+      int n;
+      do {
+        n = read(b, 0, 1);
+      } while (n == 0);
+      return n < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte [] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      if (eof) {
+        return -1;
+      }
+      if (null == chunk) {
+        chunk = take(full);
+        if (END == chunk) {
+          chunk = null;
+          eof = true;
+          return -1;
+        }
+        pos = 0;
+      }
+      int n = Math.min(len, chunk.length - pos);
+      System.arraycopy(chunk.data, pos, b, off, n);
+      pos += n;
+      if (pos == chunk.length) {
+        free.add(chunk);
+        chunk = null;
+      }
+      return n;
+    }
+
+    /**
+     * Stop reading. A writer still writing to the stream gets an
+     * IOException rather than waiting for buffers forever.
+     */
+    @Override
+    public void close() throws IOException {
+      if (null != chunk) {
+        free.add(chunk);
+        chunk = null;
+      }
+      if (!eof) {
+        eof = true;
+        abort(new IOException("Reader closed the pipe"));
+      }
+    }
+  }
+}
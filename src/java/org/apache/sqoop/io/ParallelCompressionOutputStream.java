@@ -0,0 +1,208 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionOutputStream;
+import org.apache.hadoop.io.compress.GzipCodec;
+
+/**
+ * An output stream that compresses fixed-size blocks of its data on a
+ * pool of threads, and writes the compressed blocks in order.
+ *
+ * Each block is compressed as a complete gzip member of its own. A series
+ * of members is read back as one stream of the data by the gzip codec and
+ * by the usual command-line tools, so only gzip is supported; the Hadoop
+ * bzip2 reader does not read concatenated streams.
+ */
+public class ParallelCompressionOutputStream extends OutputStream {
+
+  private final OutputStream out;
+  private final CompressionCodec codec;
+  private final ExecutorService pool;
+  private final int maxPending;
+  private final Deque<Future<byte []>> pending =
+      new ArrayDeque<Future<byte []>>();
+  // The number of bytes of data of each pending block.
+  private final Deque<Integer> pendingLengths = new ArrayDeque<Integer>();
+  private long pendingBytes;
+
+  // The bytes of data written out so far, and their compressed size.
+  private long dataBytesWritten;
+  private long compressedBytesWritten;
+
+  private byte [] block;
+  private int count;
+  private boolean closed;
+
+  /**
+   * @param out the stream the compressed blocks are written to.
+   * @param codec the codec to compress with; see
+   *     {@link #isSupported(CompressionCodec)}.
+   * @param pool the threads to compress blocks on.
+   * @param blockSize the number of bytes of data in a block.
+   * @param maxPending the number of blocks that may be compressed at
+   *     once; writes wait for the oldest block when there are more.
+   */
+  public ParallelCompressionOutputStream(OutputStream out,
+      CompressionCodec codec, ExecutorService pool, int blockSize,
+      int maxPending) {
+    this.out = out;
+    this.codec = codec;
+    this.pool = pool;
+    this.maxPending = Math.max(1, maxPending);
+    this.block = new byte[Math.max(1, blockSize)];
+  }
+
+  /**
+   * @return true if streams of the codec can be concatenated.
+   */
+  public static boolean isSupported(CompressionCodec codec) {
+    return codec instanceof GzipCodec;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (count == block.length) {
+      submitBlock();
+    }
+    block[count++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte [] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (count == block.length) {
+        submitBlock();
+      }
+      int n = Math.min(len, block.length - count);
+      System.arraycopy(b, off, block, count, n);
+      count += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * @return an estimate of the compressed size of the data that has not
+   * been written out yet, at the ratio of the blocks written out so far;
+   * before any was, the size of the data itself.
+   */
+  public long getPendingBytes() {
+    long bytes = pendingBytes + count;
+    if (dataBytesWritten == 0) {
+      return bytes;
+    }
+    return (long) ((double) bytes * compressedBytesWritten
+        / dataBytesWritten);
+  }
+
+  /**
+   * Compress the data written so far, and write it out.
+   */
+  @Override
+  public void flush() throws IOException {
+    submitBlock();
+    while (!pending.isEmpty()) {
+      writeOldest();
+    }
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      flush();
+    } finally {
+      for (Future<byte []> future : pending) {
+        future.cancel(true);
+      }
+      pending.clear();
+      pendingLengths.clear();
+      pendingBytes = 0;
+      out.close();
+    }
+  }
+
+  private void submitBlock() throws IOException {
+    if (count == 0) {
+      return;
+    }
+    while (pending.size() >= maxPending) {
+      writeOldest();
+    }
+    final byte [] data = block;
+    final int length = count;
+    pending.add(pool.submit(new Callable<byte []>() {
+      @Override
+      public byte [] call() throws IOException {
+        return compress(data, length);
+      }
+    }));
+    pendingLengths.add(length);
+    pendingBytes += length;
+    block = new byte[block.length];
+    count = 0;
+  }
+
+  private byte [] compress(byte [] data, int length) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(length / 2 + 64);
+    CompressionOutputStream stream = codec.createOutputStream(bytes);
+    try {
+      stream.write(data, 0, length);
+      stream.finish();
+    } finally {
+      stream.close();
+    }
+    return bytes.toByteArray();
+  }
+
+  private void writeOldest() throws IOException {
+    Future<byte []> future = pending.removeFirst();
+    int length = pendingLengths.removeFirst();
+    pendingBytes -= length;
+    try {
+      byte [] compressed = future.get();
+      out.write(compressed);
+      dataBytesWritten += length;
+      compressedBytesWritten += compressed.length;
+    } catch (InterruptedException ie) {
+      throw new IOException("Interrupted while compressing", ie);
+    } catch (ExecutionException ee) {
+      if (ee.getCause() instanceof IOException) {
+        throw (IOException) ee.getCause();
+      }
+      throw new IOException("Could not compress a block", ee.getCause());
+    }
+  }
+}
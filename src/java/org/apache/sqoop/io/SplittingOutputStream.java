@@ -20,6 +20,8 @@
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Formatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.commons.logging.Log;
@@ -40,14 +42,37 @@ public class SplittingOutputStream extends OutputStream {
   public static final Log LOG = LogFactory.getLog(
       SplittingOutputStream.class.getName());
 
+  /**
+   * The number of threads that compress blocks of a file at once. With
+   * more than one, and gzip compression, the files are written as a
+   * series of gzip members; see
+   * {@link ParallelCompressionOutputStream}.
+   */
+  public static final String COMPRESS_THREADS_KEY =
+      "sqoop.io.compress.threads";
+  public static final int DEFAULT_COMPRESS_THREADS = 1;
+
+  /**
+   * The number of bytes of data compressed as one block. Up to two blocks
+   * per thread may be compressing when a file is checked against its size
+   * limit; they are counted at the compression ratio of the blocks written
+   * so far.
+   */
+  public static final String COMPRESS_BLOCK_SIZE_KEY =
+      "sqoop.io.compress.block.size";
+  public static final int DEFAULT_COMPRESS_BLOCK_SIZE = 1024 * 1024;
+
   private OutputStream writeStream;
   private CountingOutputStream countingFilterStream;
+  private ParallelCompressionOutputStream parallelStream;
   private Configuration conf;
   private Path destDir;
   private String filePrefix;
   private long cutoffBytes;
   private CompressionCodec codec;
   private int fileNum;
+  private ExecutorService compressPool;
+  private int compressThreads;
 
   /**
    * Create a new SplittingOutputStream.
@@ -74,6 +99,18 @@ public SplittingOutputStream(final Configuration conf, final Path destDir,
     this.codec = codec;
     this.fileNum = 0;
 
+    this.compressThreads = conf.getInt(COMPRESS_THREADS_KEY,
+        DEFAULT_COMPRESS_THREADS);
+    if (codec != null && compressThreads > 1) {
+      if (ParallelCompressionOutputStream.isSupported(codec)) {
+        LOG.debug("Compressing on " + compressThreads + " threads");
+        this.compressPool = Executors.newFixedThreadPool(compressThreads);
+      } else {
+        LOG.warn("Codec " + codec.getClass().getName() + " cannot compress "
+            + "on several threads; compressing on one");
+      }
+    }
+
     openNextFile();
   }
 
@@ -101,7 +138,15 @@ private void openNextFile() throws IOException {
     // Count how many actual bytes hit HDFS.
     this.countingFilterStream = new CountingOutputStream(fsOut);
 
-    if (codec != null) {
+    this.parallelStream = null;
+    if (compressPool != null) {
+      // Compress blocks of the data on the pool.
+      this.parallelStream = new ParallelCompressionOutputStream(
+          this.countingFilterStream, codec, compressPool,
+          conf.getInt(COMPRESS_BLOCK_SIZE_KEY, DEFAULT_COMPRESS_BLOCK_SIZE),
+          2 * compressThreads);
+      this.writeStream = this.parallelStream;
+    } else if (codec != null) {
       // Wrap that in a compressing stream.
       this.writeStream = codec.createOutputStream(this.countingFilterStream);
     } else {
@@ -114,8 +159,15 @@ private void openNextFile() throws IOException {
    * @return true if allowSplit() would actually cause a split.
    */
   public boolean wouldSplit() {
-    return this.cutoffBytes > 0
-        && this.countingFilterStream.getByteCount() >= this.cutoffBytes;
+    if (this.cutoffBytes <= 0) {
+      return false;
+    }
+    long bytes = this.countingFilterStream.getByteCount();
+    if (this.parallelStream != null) {
+      // Blocks still being compressed will be written to this file too.
+      bytes += this.parallelStream.getPendingBytes();
+    }
+    return bytes >= this.cutoffBytes;
   }
 
   /** If we've written more to the disk than the user's split size,
@@ -138,7 +190,13 @@ public void allowSplit() throws IOException {
   }
 
   public void close() throws IOException {
-    this.writeStream.close();
+    try {
+      this.writeStream.close();
+    } finally {
+      if (compressPool != null) {
+        compressPool.shutdownNow();
+      }
+    }
   }
 
   public void flush() throws IOException {
@@ -0,0 +1,305 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.lib;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DefaultStringifier;
+import org.apache.hadoop.io.Text;
+import org.apache.sqoop.lib.SchemaSqoopRecord.FieldType;
+import org.apache.sqoop.mapreduce.DBWritable;
+
+/**
+ * A batch of rows read from a ResultSet and stored by column: integral
+ * and boolean columns in a long array, floating point columns in a
+ * double array, and the others as objects, each with a null mask.
+ *
+ * Columnar imports read a whole batch at a time instead of one record
+ * object per row, and write all its rows at once. The columns are
+ * described by the schema of the bytecode record class of the table,
+ * and are formatted the same way.
+ *
+ * Batches are only made by imports, and cannot be written to the
+ * database.
+ */
+public class ColumnBatch implements DBWritable, Configurable {
+
+  /** conf key: if true, imports that support it read columnar batches. */
+  public static final String ENABLED_KEY = "sqoop.import.columnar";
+
+  /** conf key: the number of rows of a batch. */
+  public static final String SIZE_KEY = "sqoop.import.columnar.batch.size";
+
+  public static final int DEFAULT_SIZE = 1024;
+
+  /** conf key: the encoded record schema of the columns. */
+  public static final String SCHEMA_KEY = "sqoop.import.columnar.schema";
+
+  private Configuration conf;
+  private SchemaSqoopRecord.Schema schema;
+  private FieldType [] types;
+  private long [][] longs;
+  private double [][] doubles;
+  private Object [][] objects;
+  private boolean [][] nulls;
+  private int capacity;
+  private int size;
+
+  /**
+   * Describe the columns of the batches of a job.
+   */
+  public static void setSchema(Configuration conf,
+      SchemaSqoopRecord.Schema schema) throws IOException {
+    // The encoded schema has NUL separators, which a job's XML cannot hold.
+    DefaultStringifier.store(conf, new Text(schema.encode()), SCHEMA_KEY);
+  }
+
+  /**
+   * @return true if batches can hold columns of the schema; large objects
+   * have to be loaded through a record.
+   */
+  public static boolean isSupported(SchemaSqoopRecord.Schema schema) {
+    for (int i = 0; i < schema.getFieldCount(); i++) {
+      FieldType type = schema.getFieldType(i);
+      if (type == FieldType.CLOB || type == FieldType.BLOB) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void setConf(Configuration configuration) {
+    this.conf = configuration;
+    try {
+      setSchema(SchemaSqoopRecord.Schema.decode(DefaultStringifier.load(
+          configuration, SCHEMA_KEY, Text.class).toString()),
+          configuration.getInt(SIZE_KEY, DEFAULT_SIZE));
+    } catch (IOException ioe) {
+      throw new IllegalStateException("No column batch schema in "
+          + SCHEMA_KEY, ioe);
+    }
+  }
+
+  @Override
+  public Configuration getConf() {
+    return conf;
+  }
+
+  /**
+   * Allocate the columns of a schema.
+   * @param batchSize the number of rows of a batch.
+   */
+  void setSchema(SchemaSqoopRecord.Schema s, int batchSize) {
+    this.schema = s;
+    this.capacity = Math.max(1, batchSize);
+    int count = s.getFieldCount();
+    types = new FieldType[count];
+    longs = new long[count][];
+    doubles = new double[count][];
+    objects = new Object[count][];
+    nulls = new boolean[count][];
+    for (int i = 0; i < count; i++) {
+      types[i] = s.getFieldType(i);
+      switch (types[i]) {
+      case INTEGER:
+      case LONG:
+      case BOOLEAN:
+        longs[i] = new long[capacity];
+        break;
+      case FLOAT:
+      case DOUBLE:
+        doubles[i] = new double[capacity];
+        break;
+      default:
+        objects[i] = new Object[capacity];
+        break;
+      }
+      nulls[i] = new boolean[capacity];
+    }
+    size = 0;
+  }
+
+  /** @return the number of rows in the batch. */
+  public int size() {
+    return size;
+  }
+
+  /** @return the number of rows a batch can hold. */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /** @return true if the batch holds as many rows as it can. */
+  public boolean isFull() {
+    return size == capacity;
+  }
+
+  public int getColumnCount() {
+    return types.length;
+  }
+
+  /** @return the name of a column, as the key of a record's field map. */
+  public String getColumnName(int col) {
+    return schema.getFieldName(col);
+  }
+
+  public boolean isNull(int col, int row) {
+    return nulls[col][row];
+  }
+
+  /** @return the value of an integral or boolean column, boolean as 0/1. */
+  public long getLong(int col, int row) {
+    return longs[col][row];
+  }
+
+  /** @return the value of a floating point column. */
+  public double getDouble(int col, int row) {
+    return doubles[col][row];
+  }
+
+  /**
+   * @return the value of a column as the field of a record would hold
+   * it, e.g. an Integer for an INTEGER column, or null.
+   */
+  public Object getValue(int col, int row) {
+    if (nulls[col][row]) {
+      return null;
+    }
+    switch (types[col]) {
+    case INTEGER:
+      return Integer.valueOf((int) longs[col][row]);
+    case LONG:
+      return Long.valueOf(longs[col][row]);
+    case BOOLEAN:
+      return Boolean.valueOf(longs[col][row] != 0);
+    case FLOAT:
+      return Float.valueOf((float) doubles[col][row]);
+    case DOUBLE:
+      return Double.valueOf(doubles[col][row]);
+    default:
+      return objects[col][row];
+    }
+  }
+
+  /**
+   * Append a row as text, as the record's toString() would, followed by
+   * the line delimiter.
+   */
+  public void appendText(int row, StringBuilder sb) {
+    com.cloudera.sqoop.lib.DelimiterSet delimiters =
+        schema.getOutputDelimiters();
+    char fieldDelim = delimiters.getFieldsTerminatedBy();
+    for (int col = 0; col < types.length; col++) {
+      if (col > 0) {
+        sb.append(fieldDelim);
+      }
+      String str;
+      if (nulls[col][row]) {
+        str = schema.formatNull(col);
+      } else {
+        switch (types[col]) {
+        case INTEGER:
+        case LONG:
+          str = Long.toString(longs[col][row]);
+          break;
+        case BOOLEAN:
+          str = longs[col][row] != 0 ? "true" : "false";
+          break;
+        case FLOAT:
+          str = Float.toString((float) doubles[col][row]);
+          break;
+        case DOUBLE:
+          str = Double.toString(doubles[col][row]);
+          break;
+        default:
+          str = schema.format(col, objects[col][row]);
+          break;
+        }
+      }
+      schema.append(sb, col, str, delimiters);
+    }
+    sb.append(delimiters.getLinesTerminatedBy());
+  }
+
+  /** Empty the batch. */
+  public void clear() {
+    for (Object [] column : objects) {
+      if (null != column) {
+        // Let go of the values of the previous batch.
+        Arrays.fill(column, 0, size, null);
+      }
+    }
+    size = 0;
+  }
+
+  /**
+   * Add the current row of the ResultSet to the batch.
+   */
+  @Override
+  public void readFields(ResultSet rs) throws SQLException {
+    if (isFull()) {
+      throw new IllegalStateException("Column batch of " + capacity
+          + " rows is full");
+    }
+    int row = size;
+    for (int col = 0; col < types.length; col++) {
+      int colNum = col + 1;
+      switch (types[col]) {
+      case INTEGER:
+        longs[col][row] = rs.getInt(colNum);
+        nulls[col][row] = rs.wasNull();
+        break;
+      case LONG:
+        longs[col][row] = rs.getLong(colNum);
+        nulls[col][row] = rs.wasNull();
+        break;
+      case BOOLEAN:
+        longs[col][row] = rs.getBoolean(colNum) ? 1 : 0;
+        nulls[col][row] = rs.wasNull();
+        break;
+      case FLOAT:
+        doubles[col][row] = rs.getFloat(colNum);
+        nulls[col][row] = rs.wasNull();
+        break;
+      case DOUBLE:
+        doubles[col][row] = rs.getDouble(colNum);
+        nulls[col][row] = rs.wasNull();
+        break;
+      default:
+        Object val = SchemaSqoopRecord.readColumn(types[col], colNum, rs);
+        objects[col][row] = val;
+        nulls[col][row] = null == val;
+        break;
+      }
+    }
+    size++;
+  }
+
+  @Override
+  public void write(PreparedStatement statement) throws SQLException {
+    throw new SQLException("Column batches are import-only");
+  }
+}
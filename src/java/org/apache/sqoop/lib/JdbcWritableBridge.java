@@ -102,6 +102,34 @@ public static Boolean readBoolean(int colNum, ResultSet r)
     }
   }
 
+  // The read*Value() methods return primitives for generated classes with
+  // primitive fields; the caller checks ResultSet.wasNull() for NULLs.
+
+  public static int readIntValue(int colNum, ResultSet r)
+      throws SQLException {
+    return r.getInt(colNum);
+  }
+
+  public static long readLongValue(int colNum, ResultSet r)
+      throws SQLException {
+    return r.getLong(colNum);
+  }
+
+  public static float readFloatValue(int colNum, ResultSet r)
+      throws SQLException {
+    return r.getFloat(colNum);
+  }
+
+  public static double readDoubleValue(int colNum, ResultSet r)
+      throws SQLException {
+    return r.getDouble(colNum);
+  }
+
+  public static boolean readBooleanValue(int colNum, ResultSet r)
+      throws SQLException {
+    return r.getBoolean(colNum);
+  }
+
   public static Time readTime(int colNum, ResultSet r) throws SQLException {
     return r.getTime(colNum);
   }
@@ -183,6 +211,51 @@ public static void writeFloat(Float val, int paramIdx, int sqlType,
     }
   }
 
+  public static void writeInteger(int val, boolean isNull, int paramIdx,
+      int sqlType, PreparedStatement s) throws SQLException {
+    if (isNull) {
+      s.setNull(paramIdx, sqlType);
+    } else {
+      s.setInt(paramIdx, val);
+    }
+  }
+
+  public static void writeLong(long val, boolean isNull, int paramIdx,
+      int sqlType, PreparedStatement s) throws SQLException {
+    if (isNull) {
+      s.setNull(paramIdx, sqlType);
+    } else {
+      s.setLong(paramIdx, val);
+    }
+  }
+
+  public static void writeFloat(float val, boolean isNull, int paramIdx,
+      int sqlType, PreparedStatement s) throws SQLException {
+    if (isNull) {
+      s.setNull(paramIdx, sqlType);
+    } else {
+      s.setFloat(paramIdx, val);
+    }
+  }
+
+  public static void writeDouble(double val, boolean isNull, int paramIdx,
+      int sqlType, PreparedStatement s) throws SQLException {
+    if (isNull) {
+      s.setNull(paramIdx, sqlType);
+    } else {
+      s.setDouble(paramIdx, val);
+    }
+  }
+
+  public static void writeBoolean(boolean val, boolean isNull, int paramIdx,
+      int sqlType, PreparedStatement s) throws SQLException {
+    if (isNull) {
+      s.setNull(paramIdx, sqlType);
+    } else {
+      s.setBoolean(paramIdx, val);
+    }
+  }
+
   public static void writeString(String val, int paramIdx, int sqlType,
       PreparedStatement s) throws SQLException {
     if (null == val) {
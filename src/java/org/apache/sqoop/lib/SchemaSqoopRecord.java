@@ -0,0 +1,860 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.lib;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+
+/**
+ * A record whose fields are described by a schema string instead of by
+ * generated code.
+ *
+ * Record classes generated without a Java compiler are empty subclasses
+ * of this class whose constructor passes the schema of their table. The
+ * schema holds everything ClassWriter would otherwise compile into the
+ * class: the columns and their types, the column order used to write to
+ * the database, the delimiters, and the null representations. Records of
+ * such a class behave like those of the generated source, except that
+ * they have no typed get_ and set_ accessors; their fields are reached
+ * through getFieldMap(), getFieldValues() and setField().
+ */
+public abstract class SchemaSqoopRecord
+    extends com.cloudera.sqoop.lib.SqoopRecord
+    implements org.apache.hadoop.mapred.lib.db.DBWritable {
+
+  // Separates the items of an encoded schema.
+  private static final char SEPARATOR = '\000';
+  private static final int SCHEMA_VERSION = 1;
+
+  // Decoded schemas, by their encoded form.
+  private static final Map<String, Schema> SCHEMAS =
+      new ConcurrentHashMap<String, Schema>();
+
+  /**
+   * The Java types a schema field can have.
+   */
+  enum FieldType {
+    STRING(String.class),
+    INTEGER(Integer.class),
+    LONG(Long.class),
+    FLOAT(Float.class),
+    DOUBLE(Double.class),
+    BOOLEAN(Boolean.class),
+    DATE(Date.class),
+    TIME(Time.class),
+    TIMESTAMP(Timestamp.class),
+    DECIMAL(BigDecimal.class),
+    BYTES(BytesWritable.class),
+    CLOB(com.cloudera.sqoop.lib.ClobRef.class),
+    BLOB(com.cloudera.sqoop.lib.BlobRef.class);
+
+    private final Class<?> javaClass;
+
+    private FieldType(Class<?> javaClass) {
+      this.javaClass = javaClass;
+    }
+
+    /**
+     * @return the type of a field with the given ClassWriter Java type
+     * name, or null if there is none.
+     */
+    static FieldType forJavaType(String javaType) {
+      for (FieldType type : values()) {
+        if (javaType.equals(type.javaClass.getName())
+            || javaType.equals(type.javaClass.getSimpleName())) {
+          return type;
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * The description of the fields of a record class.
+   */
+  public static class Schema {
+    private int classFormatVersion;
+    private String [] fieldNames;
+    private String [] javaTypes;
+    private FieldType [] fieldTypes;
+    private int [] sqlTypes;
+    private int [] dbWriteFields;
+    private com.cloudera.sqoop.lib.DelimiterSet outputDelimiters;
+    private com.cloudera.sqoop.lib.DelimiterSet inputDelimiters;
+    private String nullString = "null";
+    private String nullNonString = "null";
+    private String inNullString = "null";
+    private String inNullNonString = "null";
+    private boolean bigDecimalPlainString;
+    private boolean hiveDropDelims;
+    private String hiveDelimsReplacement;
+
+    private Map<String, Integer> fieldIndexes;
+
+    /**
+     * @param classFormatVersion the version reported by
+     *        getClassFormatVersion().
+     * @param fieldNames the names of the fields, as the keys of
+     *        getFieldMap().
+     * @param javaTypes the Java type of each field.
+     * @param sqlTypes the SQL type of each field.
+     * @param dbWriteFields the indexes of the fields written to the
+     *        database by write(PreparedStatement), in parameter order.
+     */
+    public Schema(int classFormatVersion, String [] fieldNames,
+        String [] javaTypes, int [] sqlTypes, int [] dbWriteFields) {
+      this.classFormatVersion = classFormatVersion;
+      this.fieldNames = fieldNames;
+      this.javaTypes = javaTypes;
+      this.sqlTypes = sqlTypes;
+      this.dbWriteFields = dbWriteFields;
+      this.outputDelimiters = new com.cloudera.sqoop.lib.DelimiterSet();
+      this.inputDelimiters = new com.cloudera.sqoop.lib.DelimiterSet();
+      this.fieldTypes = new FieldType[javaTypes.length];
+      for (int i = 0; i < javaTypes.length; i++) {
+        fieldTypes[i] = FieldType.forJavaType(javaTypes[i]);
+        if (null == fieldTypes[i]) {
+          throw new IllegalArgumentException("Unsupported Java type "
+              + javaTypes[i] + " of field " + fieldNames[i]);
+        }
+      }
+      this.fieldIndexes = new HashMap<String, Integer>();
+      for (int i = 0; i < fieldNames.length; i++) {
+        fieldIndexes.put(fieldNames[i], i);
+      }
+    }
+
+    public void setOutputDelimiters(
+        com.cloudera.sqoop.lib.DelimiterSet delimiters) {
+      this.outputDelimiters = delimiters;
+    }
+
+    public void setInputDelimiters(
+        com.cloudera.sqoop.lib.DelimiterSet delimiters) {
+      this.inputDelimiters = delimiters;
+    }
+
+    /**
+     * Set the strings that stand for null when formatting and parsing
+     * String and non-String fields.
+     */
+    public void setNullStrings(String nullStr, String nullNonStr,
+        String inNullStr, String inNullNonStr) {
+      this.nullString = nullStr;
+      this.nullNonString = nullNonStr;
+      this.inNullString = inNullStr;
+      this.inNullNonString = inNullNonStr;
+    }
+
+    /** Format BigDecimal fields with toPlainString(). */
+    public void setBigDecimalPlainString(boolean plainString) {
+      this.bigDecimalPlainString = plainString;
+    }
+
+    /**
+     * Drop the Hive delimiters from String fields when formatting them, or
+     * replace them with the given replacement if it is not null.
+     */
+    public void setHiveDelims(boolean dropDelims, String replacement) {
+      this.hiveDropDelims = dropDelims;
+      this.hiveDelimsReplacement = replacement;
+    }
+
+    int getFieldCount() {
+      return fieldNames.length;
+    }
+
+    String getFieldName(int field) {
+      return fieldNames[field];
+    }
+
+    FieldType getFieldType(int field) {
+      return fieldTypes[field];
+    }
+
+    com.cloudera.sqoop.lib.DelimiterSet getOutputDelimiters() {
+      return outputDelimiters;
+    }
+
+    /**
+     * @return the text of a non-null value of a field, as toString()
+     * writes it before escaping.
+     */
+    String format(int field, Object val) {
+      if (fieldTypes[field] == FieldType.DECIMAL && bigDecimalPlainString) {
+        return ((BigDecimal) val).toPlainString();
+      }
+      return val.toString();
+    }
+
+    /** @return the text of a null value of a field. */
+    String formatNull(int field) {
+      return fieldTypes[field] == FieldType.STRING ? nullString
+          : nullNonString;
+    }
+
+    /**
+     * Append the text of a field, escaped or enclosed as the delimiters
+     * require.
+     */
+    void append(StringBuilder sb, int field, String str,
+        com.cloudera.sqoop.lib.DelimiterSet delimiters) {
+      if (fieldTypes[field] == FieldType.STRING && hiveDropDelims) {
+        sb.append(FieldFormatter.hiveStringDropDelims(str, delimiters));
+      } else if (fieldTypes[field] == FieldType.STRING
+          && null != hiveDelimsReplacement) {
+        sb.append(FieldFormatter.hiveStringReplaceDelims(str,
+            hiveDelimsReplacement, delimiters));
+      } else {
+        sb.append(FieldFormatter.escapeAndEnclose(str, delimiters));
+      }
+    }
+
+    /**
+     * @return true if a field of the given ClassWriter Java type can be
+     * described by a schema.
+     */
+    public static boolean isSupportedType(String javaType) {
+      return null != FieldType.forJavaType(javaType);
+    }
+
+    /**
+     * @return the schema as a string, to be passed to the constructor of
+     * SchemaSqoopRecord.
+     * @throws IOException if an item of the schema cannot be encoded.
+     */
+    public String encode() throws IOException {
+      List<String> items = new ArrayList<String>();
+      items.add(Integer.toString(SCHEMA_VERSION));
+      items.add(Integer.toString(classFormatVersion));
+      addDelimiters(items, outputDelimiters);
+      addDelimiters(items, inputDelimiters);
+      items.add(nullString);
+      items.add(nullNonString);
+      items.add(inNullString);
+      items.add(inNullNonString);
+      items.add(Boolean.toString(bigDecimalPlainString));
+      items.add(Boolean.toString(hiveDropDelims));
+      items.add(Boolean.toString(null != hiveDelimsReplacement));
+      items.add(null == hiveDelimsReplacement ? "" : hiveDelimsReplacement);
+      items.add(Integer.toString(fieldNames.length));
+      for (int i = 0; i < fieldNames.length; i++) {
+        items.add(fieldNames[i]);
+        items.add(javaTypes[i]);
+        items.add(Integer.toString(sqlTypes[i]));
+      }
+      items.add(Integer.toString(dbWriteFields.length));
+      for (int field : dbWriteFields) {
+        items.add(Integer.toString(field));
+      }
+
+      StringBuilder sb = new StringBuilder();
+      for (String item : items) {
+        if (item.indexOf(SEPARATOR) >= 0) {
+          throw new IOException("Cannot encode schema item containing a "
+              + "NUL character: " + item);
+        }
+        sb.append(item).append(SEPARATOR);
+      }
+      return sb.toString();
+    }
+
+    private static void addDelimiters(List<String> items,
+        com.cloudera.sqoop.lib.DelimiterSet delimiters) {
+      items.add(Integer.toString(delimiters.getFieldsTerminatedBy()));
+      items.add(Integer.toString(delimiters.getLinesTerminatedBy()));
+      items.add(Integer.toString(delimiters.getEnclosedBy()));
+      items.add(Integer.toString(delimiters.getEscapedBy()));
+      items.add(Boolean.toString(delimiters.isEncloseRequired()));
+    }
+
+    private static com.cloudera.sqoop.lib.DelimiterSet readDelimiters(
+        Iterator<String> it) {
+      return new com.cloudera.sqoop.lib.DelimiterSet(
+          (char) Integer.parseInt(it.next()),
+          (char) Integer.parseInt(it.next()),
+          (char) Integer.parseInt(it.next()),
+          (char) Integer.parseInt(it.next()),
+          Boolean.parseBoolean(it.next()));
+    }
+
+    /**
+     * Rebuild a schema from the string returned by encode().
+     */
+    public static Schema decode(String encoded) {
+      List<String> items = new ArrayList<String>();
+      int start = 0;
+      for (int end = encoded.indexOf(SEPARATOR); end >= 0;
+          end = encoded.indexOf(SEPARATOR, start)) {
+        items.add(encoded.substring(start, end));
+        start = end + 1;
+      }
+
+      Iterator<String> it = items.iterator();
+      int version = Integer.parseInt(it.next());
+      if (version != SCHEMA_VERSION) {
+        throw new IllegalArgumentException("Unknown record schema version "
+            + version);
+      }
+      int formatVersion = Integer.parseInt(it.next());
+      com.cloudera.sqoop.lib.DelimiterSet output = readDelimiters(it);
+      com.cloudera.sqoop.lib.DelimiterSet input = readDelimiters(it);
+      String nullStr = it.next();
+      String nullNonStr = it.next();
+      String inNullStr = it.next();
+      String inNullNonStr = it.next();
+      boolean plainString = Boolean.parseBoolean(it.next());
+      boolean dropDelims = Boolean.parseBoolean(it.next());
+      boolean hasReplacement = Boolean.parseBoolean(it.next());
+      String replacement = it.next();
+
+      int count = Integer.parseInt(it.next());
+      String [] names = new String[count];
+      String [] types = new String[count];
+      int [] sqlTypes = new int[count];
+      for (int i = 0; i < count; i++) {
+        names[i] = it.next();
+        types[i] = it.next();
+        sqlTypes[i] = Integer.parseInt(it.next());
+      }
+      int [] dbWrite = new int[Integer.parseInt(it.next())];
+      for (int i = 0; i < dbWrite.length; i++) {
+        dbWrite[i] = Integer.parseInt(it.next());
+      }
+
+      Schema schema = new Schema(formatVersion, names, types, sqlTypes,
+          dbWrite);
+      schema.setOutputDelimiters(output);
+      schema.setInputDelimiters(input);
+      schema.setNullStrings(nullStr, nullNonStr, inNullStr, inNullNonStr);
+      schema.setBigDecimalPlainString(plainString);
+      schema.setHiveDelims(dropDelims, hasReplacement ? replacement : null);
+      return schema;
+    }
+  }
+
+  private final Schema schema;
+  private Object [] values;
+  private ResultSet curResultSet;
+  private com.cloudera.sqoop.lib.RecordParser parser;
+
+  /**
+   * @param encodedSchema the schema of the record, as returned by
+   * Schema.encode().
+   */
+  protected SchemaSqoopRecord(String encodedSchema) {
+    Schema s = SCHEMAS.get(encodedSchema);
+    if (null == s) {
+      s = Schema.decode(encodedSchema);
+      SCHEMAS.put(encodedSchema, s);
+    }
+    this.schema = s;
+    this.values = new Object[s.fieldNames.length];
+  }
+
+  @Override
+  public int getClassFormatVersion() {
+    return schema.classFormatVersion;
+  }
+
+  @Override
+  public void readFields(ResultSet rs) throws SQLException {
+    // Kept for loadLargeObjects().
+    this.curResultSet = rs;
+    for (int i = 0; i < values.length; i++) {
+      values[i] = readColumn(schema.fieldTypes[i], i + 1, rs);
+    }
+  }
+
+  static Object readColumn(FieldType type, int colNum, ResultSet rs)
+      throws SQLException {
+    switch (type) {
+    case STRING:
+      return JdbcWritableBridge.readString(colNum, rs);
+    case INTEGER:
+      return JdbcWritableBridge.readInteger(colNum, rs);
+    case LONG:
+      return JdbcWritableBridge.readLong(colNum, rs);
+    case FLOAT:
+      return JdbcWritableBridge.readFloat(colNum, rs);
+    case DOUBLE:
+      return JdbcWritableBridge.readDouble(colNum, rs);
+    case BOOLEAN:
+      return JdbcWritableBridge.readBoolean(colNum, rs);
+    case DATE:
+      return JdbcWritableBridge.readDate(colNum, rs);
+    case TIME:
+      return JdbcWritableBridge.readTime(colNum, rs);
+    case TIMESTAMP:
+      return JdbcWritableBridge.readTimestamp(colNum, rs);
+    case DECIMAL:
+      return JdbcWritableBridge.readBigDecimal(colNum, rs);
+    case BYTES:
+      return JdbcWritableBridge.readBytesWritable(colNum, rs);
+    case CLOB:
+      return JdbcWritableBridge.readClobRef(colNum, rs);
+    case BLOB:
+      return JdbcWritableBridge.readBlobRef(colNum, rs);
+    default:
+      throw new IllegalStateException("Unknown field type " + type);
+    }
+  }
+
+  @Override
+  public void loadLargeObjects(com.cloudera.sqoop.lib.LargeObjectLoader loader)
+      throws SQLException, IOException, InterruptedException {
+    for (int i = 0; i < values.length; i++) {
+      if (schema.fieldTypes[i] == FieldType.CLOB) {
+        values[i] = loader.readClobRef(i + 1, curResultSet);
+      } else if (schema.fieldTypes[i] == FieldType.BLOB) {
+        values[i] = loader.readBlobRef(i + 1, curResultSet);
+      }
+    }
+  }
+
+  @Override
+  public void write(PreparedStatement stmt) throws SQLException {
+    write(stmt, 0);
+  }
+
+  @Override
+  public int write(PreparedStatement stmt, int offset) throws SQLException {
+    int [] fields = schema.dbWriteFields;
+    for (int i = 0; i < fields.length; i++) {
+      int field = fields[i];
+      int sqlType = schema.sqlTypes[field];
+      Object val = values[field];
+      switch (schema.fieldTypes[field]) {
+      case STRING:
+        if (sqlType == 2002) {
+          // STRUCT columns, as ClassWriter writes them.
+          stmt.setString(i + 1, (String) val);
+        } else {
+          JdbcWritableBridge.writeString((String) val, i + 1 + offset,
+              sqlType, stmt);
+        }
+        break;
+      case INTEGER:
+        JdbcWritableBridge.writeInteger((Integer) val, i + 1 + offset,
+            sqlType, stmt);
+        break;
+      case LONG:
+        JdbcWritableBridge.writeLong((Long) val, i + 1 + offset, sqlType,
+            stmt);
+        break;
+      case FLOAT:
+        JdbcWritableBridge.writeFloat((Float) val, i + 1 + offset, sqlType,
+            stmt);
+        break;
+      case DOUBLE:
+        JdbcWritableBridge.writeDouble((Double) val, i + 1 + offset,
+            sqlType, stmt);
+        break;
+      case BOOLEAN:
+        JdbcWritableBridge.writeBoolean((Boolean) val, i + 1 + offset,
+            sqlType, stmt);
+        break;
+      case DATE:
+        JdbcWritableBridge.writeDate((Date) val, i + 1 + offset, sqlType,
+            stmt);
+        break;
+      case TIME:
+        JdbcWritableBridge.writeTime((Time) val, i + 1 + offset, sqlType,
+            stmt);
+        break;
+      case TIMESTAMP:
+        JdbcWritableBridge.writeTimestamp((Timestamp) val, i + 1 + offset,
+            sqlType, stmt);
+        break;
+      case DECIMAL:
+        JdbcWritableBridge.writeBigDecimal((BigDecimal) val, i + 1 + offset,
+            sqlType, stmt);
+        break;
+      case BYTES:
+        JdbcWritableBridge.writeBytesWritable((BytesWritable) val,
+            i + 1 + offset, sqlType, stmt);
+        break;
+      case CLOB:
+        JdbcWritableBridge.writeClobRef((com.cloudera.sqoop.lib.ClobRef) val,
+            i + 1 + offset, sqlType, stmt);
+        break;
+      case BLOB:
+        JdbcWritableBridge.writeBlobRef((com.cloudera.sqoop.lib.BlobRef) val,
+            i + 1 + offset, sqlType, stmt);
+        break;
+      default:
+        throw new IllegalStateException("Unknown field type "
+            + schema.fieldTypes[field]);
+      }
+    }
+    return fields.length;
+  }
+
+  @Override
+  public void readFields(DataInput in) throws IOException {
+    for (int i = 0; i < values.length; i++) {
+      if (in.readBoolean()) {
+        values[i] = null;
+        continue;
+      }
+      switch (schema.fieldTypes[i]) {
+      case STRING:
+        values[i] = Text.readString(in);
+        break;
+      case INTEGER:
+        values[i] = Integer.valueOf(in.readInt());
+        break;
+      case LONG:
+        values[i] = Long.valueOf(in.readLong());
+        break;
+      case FLOAT:
+        values[i] = Float.valueOf(in.readFloat());
+        break;
+      case DOUBLE:
+        values[i] = Double.valueOf(in.readDouble());
+        break;
+      case BOOLEAN:
+        values[i] = Boolean.valueOf(in.readBoolean());
+        break;
+      case DATE:
+        values[i] = new Date(in.readLong());
+        break;
+      case TIME:
+        values[i] = new Time(in.readLong());
+        break;
+      case TIMESTAMP:
+        Timestamp ts = new Timestamp(in.readLong());
+        ts.setNanos(in.readInt());
+        values[i] = ts;
+        break;
+      case DECIMAL:
+        values[i] = BigDecimalSerializer.readFields(in);
+        break;
+      case BYTES:
+        BytesWritable bytes = new BytesWritable();
+        bytes.readFields(in);
+        values[i] = bytes;
+        break;
+      case CLOB:
+        values[i] = LobSerializer.readClobFields(in);
+        break;
+      case BLOB:
+        values[i] = LobSerializer.readBlobFields(in);
+        break;
+      default:
+        throw new IllegalStateException("Unknown field type "
+            + schema.fieldTypes[i]);
+      }
+    }
+  }
+
+  @Override
+  public void write(DataOutput out) throws IOException {
+    for (int i = 0; i < values.length; i++) {
+      Object val = values[i];
+      out.writeBoolean(null == val);
+      if (null == val) {
+        continue;
+      }
+      switch (schema.fieldTypes[i]) {
+      case STRING:
+        Text.writeString(out, (String) val);
+        break;
+      case INTEGER:
+        out.writeInt((Integer) val);
+        break;
+      case LONG:
+        out.writeLong((Long) val);
+        break;
+      case FLOAT:
+        out.writeFloat((Float) val);
+        break;
+      case DOUBLE:
+        out.writeDouble((Double) val);
+        break;
+      case BOOLEAN:
+        out.writeBoolean((Boolean) val);
+        break;
+      case DATE:
+      case TIME:
+        out.writeLong(((java.util.Date) val).getTime());
+        break;
+      case TIMESTAMP:
+        out.writeLong(((Timestamp) val).getTime());
+        out.writeInt(((Timestamp) val).getNanos());
+        break;
+      case DECIMAL:
+        BigDecimalSerializer.write((BigDecimal) val, out);
+        break;
+      case BYTES:
+        ((BytesWritable) val).write(out);
+        break;
+      case CLOB:
+        LobSerializer.writeClob((com.cloudera.sqoop.lib.ClobRef) val, out);
+        break;
+      case BLOB:
+        LobSerializer.writeBlob((com.cloudera.sqoop.lib.BlobRef) val, out);
+        break;
+      default:
+        throw new IllegalStateException("Unknown field type "
+            + schema.fieldTypes[i]);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return toString(schema.outputDelimiters, true);
+  }
+
+  @Override
+  public String toString(com.cloudera.sqoop.lib.DelimiterSet delimiters) {
+    return toString(delimiters, true);
+  }
+
+  @Override
+  public String toString(boolean useRecordDelim) {
+    return toString(schema.outputDelimiters, useRecordDelim);
+  }
+
+  @Override
+  public String toString(com.cloudera.sqoop.lib.DelimiterSet delimiters,
+      boolean useRecordDelim) {
+    StringBuilder sb = new StringBuilder();
+    char fieldDelim = delimiters.getFieldsTerminatedBy();
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        sb.append(fieldDelim);
+      }
+      Object val = values[i];
+      schema.append(sb, i, null == val ? schema.formatNull(i)
+          : schema.format(i, val), delimiters);
+    }
+    if (useRecordDelim) {
+      sb.append(delimiters.getLinesTerminatedBy());
+    }
+    return sb.toString();
+  }
+
+  private com.cloudera.sqoop.lib.RecordParser getParser() {
+    if (null == parser) {
+      parser = new com.cloudera.sqoop.lib.RecordParser(
+          schema.inputDelimiters);
+    }
+    return parser;
+  }
+
+  @Override
+  public void parse(CharSequence record)
+      throws com.cloudera.sqoop.lib.RecordParser.ParseError {
+    loadFromFields(getParser().parseRecord(record));
+  }
+
+  @Override
+  public void parse(Text record)
+      throws com.cloudera.sqoop.lib.RecordParser.ParseError {
+    loadFromFields(getParser().parseRecord(record));
+  }
+
+  @Override
+  public void parse(byte [] record)
+      throws com.cloudera.sqoop.lib.RecordParser.ParseError {
+    loadFromFields(getParser().parseRecord(record));
+  }
+
+  @Override
+  public void parse(char [] record)
+      throws com.cloudera.sqoop.lib.RecordParser.ParseError {
+    loadFromFields(getParser().parseRecord(record));
+  }
+
+  @Override
+  public void parse(ByteBuffer record)
+      throws com.cloudera.sqoop.lib.RecordParser.ParseError {
+    loadFromFields(getParser().parseRecord(record));
+  }
+
+  @Override
+  public void parse(CharBuffer record)
+      throws com.cloudera.sqoop.lib.RecordParser.ParseError {
+    loadFromFields(getParser().parseRecord(record));
+  }
+
+  private void loadFromFields(List<String> fields) {
+    Iterator<String> it = fields.iterator();
+    String cur = null;
+    try {
+      for (int i = 0; i < values.length; i++) {
+        cur = it.next();
+        FieldType type = schema.fieldTypes[i];
+        if (type == FieldType.STRING) {
+          values[i] = cur.equals(schema.inNullString) ? null : cur;
+        } else if (cur.equals(schema.inNullNonString) || cur.length() == 0) {
+          values[i] = null;
+        } else {
+          values[i] = parseValue(type, cur);
+        }
+      }
+    } catch (RuntimeException e) {
+      throw new RuntimeException("Can't parse input data: '" + cur + "'", e);
+    }
+  }
+
+  private static Object parseValue(FieldType type, String str) {
+    switch (type) {
+    case INTEGER:
+      return Integer.valueOf(str);
+    case LONG:
+      return Long.valueOf(str);
+    case FLOAT:
+      return Float.valueOf(str);
+    case DOUBLE:
+      return Double.valueOf(str);
+    case BOOLEAN:
+      return BooleanParser.valueOf(str);
+    case DATE:
+      return Date.valueOf(str);
+    case TIME:
+      return Time.valueOf(str);
+    case TIMESTAMP:
+      return Timestamp.valueOf(str);
+    case DECIMAL:
+      return new BigDecimal(str);
+    case BYTES:
+      // Unsigned hex bytes separated by spaces, as BytesWritable prints them.
+      String [] hexBytes = str.trim().split(" ");
+      byte [] bytes = new byte[hexBytes.length];
+      for (int i = 0; i < bytes.length; i++) {
+        bytes[i] = (byte) Integer.parseInt(hexBytes[i], 16);
+      }
+      return new BytesWritable(bytes);
+    case CLOB:
+      return com.cloudera.sqoop.lib.ClobRef.parse(str);
+    case BLOB:
+      return com.cloudera.sqoop.lib.BlobRef.parse(str);
+    default:
+      throw new IllegalStateException("Unknown field type " + type);
+    }
+  }
+
+  @Override
+  public Object clone() throws CloneNotSupportedException {
+    SchemaSqoopRecord o = (SchemaSqoopRecord) super.clone();
+    o.values = values.clone();
+    o.parser = null;
+    for (int i = 0; i < values.length; i++) {
+      Object val = values[i];
+      if (null == val) {
+        continue;
+      }
+      switch (schema.fieldTypes[i]) {
+      case DATE:
+      case TIME:
+      case TIMESTAMP:
+        o.values[i] = ((java.util.Date) val).clone();
+        break;
+      case CLOB:
+      case BLOB:
+        o.values[i] = ((LobRef<?, ?, ?>) val).clone();
+        break;
+      case BYTES:
+        BytesWritable bytes = (BytesWritable) val;
+        o.values[i] = new BytesWritable(
+            Arrays.copyOf(bytes.getBytes(), bytes.getLength()));
+        break;
+      default:
+        break;
+      }
+    }
+    return o;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (null == o || o.getClass() != getClass()) {
+      return false;
+    }
+    return Arrays.equals(values, ((SchemaSqoopRecord) o).values);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(values);
+  }
+
+  @Override
+  public Map<String, Object> getFieldMap() {
+    Map<String, Object> fieldMap = new HashMap<String, Object>();
+    for (int i = 0; i < values.length; i++) {
+      fieldMap.put(schema.fieldNames[i], values[i]);
+    }
+    return fieldMap;
+  }
+
+  @Override
+  public String [] getFieldNames() {
+    return schema.fieldNames.clone();
+  }
+
+  @Override
+  public void getFieldValues(Object [] fieldValues) {
+    System.arraycopy(values, 0, fieldValues, 0, values.length);
+  }
+
+  @Override
+  public void setField(String fieldName, Object fieldVal) {
+    Integer index = schema.fieldIndexes.get(fieldName);
+    if (null == index) {
+      throw new RuntimeException("No such field:" + fieldName);
+    }
+    setField(index.intValue(), fieldVal);
+  }
+
+  @Override
+  public void setField(int fieldIndex, Object fieldVal) {
+    if (fieldIndex < 0 || fieldIndex >= values.length) {
+      throw new RuntimeException("No such field index:" + fieldIndex);
+    }
+    values[fieldIndex] = schema.fieldTypes[fieldIndex].javaClass.cast(
+        fieldVal);
+  }
+}
@@ -23,6 +23,7 @@
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.Writable;
@@ -156,4 +157,42 @@ public void setField(String fieldName, Object fieldVal) {
         + "Regenerate your record class.");
   }
 
+  /**
+   * Returns the names of the fields of this record, as used as the keys of
+   * getFieldMap(), in column order. The index of a name is the position
+   * used by getFieldValues() and setField(int, Object).
+   */
+  public String[] getFieldNames() {
+    // Generated classes from 1.4.7 on override this; older ones get the
+    // keys of their field map.
+    Set<String> names = getFieldMap().keySet();
+    return names.toArray(new String[names.size()]);
+  }
+
+  /**
+   * Copies the values of the fields of this record into the given array,
+   * in the order of getFieldNames(). Unlike getFieldMap() this allocates
+   * nothing, which matters to callers converting every record.
+   */
+  public void getFieldValues(Object[] values) {
+    Map<String, Object> fieldMap = getFieldMap();
+    String[] names = getFieldNames();
+    for (int i = 0; i < names.length; i++) {
+      values[i] = fieldMap.get(names[i]);
+    }
+  }
+
+  /**
+   * Sets the field at the given position of getFieldNames() to the
+   * specified value object, with the same rules as setField(String, Object).
+   * @throws RuntimeException if there is no field at that position.
+   */
+  public void setField(int fieldIndex, Object fieldVal) {
+    String[] names = getFieldNames();
+    if (fieldIndex < 0 || fieldIndex >= names.length) {
+      throw new RuntimeException("No such field index:" + fieldIndex);
+    }
+    setField(names[fieldIndex], fieldVal);
+  }
+
 }
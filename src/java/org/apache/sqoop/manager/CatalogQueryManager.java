@@ -29,6 +29,7 @@
 import org.apache.commons.logging.LogFactory;
 
 import com.cloudera.sqoop.SqoopOptions;
+import org.apache.sqoop.mapreduce.db.TablePartition;
 import org.apache.sqoop.util.LoggingUtils;
 
 /**
@@ -243,5 +244,82 @@ public String getPrimaryKey(String tableName) {
 
     return columns.get(0);
   }
-}
 
+  /**
+   * @return a query listing the partitions of a table, one per row, or
+   * null if the database has no partitions.
+   */
+  protected String getListPartitionsQuery(String tableName) {
+    return null;
+  }
+
+  /**
+   * @return the partition described by the current row of the results of
+   * the query returned by {@link #getListPartitionsQuery(String)}, or null
+   * if it cannot be described, in which case the table is split as a
+   * whole. Managers that override getListPartitionsQuery() override this
+   * too.
+   */
+  protected TablePartition toTablePartition(String tableName, ResultSet rs)
+    throws SQLException {
+    return null;
+  }
+
+  @Override
+  public List<TablePartition> getTablePartitions(String tableName) {
+    String listPartitionsQuery = getListPartitionsQuery(tableName);
+    if (null == listPartitionsQuery) {
+      return null;
+    }
+    Connection c = null;
+    Statement s = null;
+    ResultSet rs = null;
+    List<TablePartition> partitions = new ArrayList<TablePartition>();
+    try {
+      c = getConnection();
+      s = c.createStatement();
+      LOG.debug("Retrieving partitions of table '"
+        + tableName + "' with query " + listPartitionsQuery);
+      rs = s.executeQuery(listPartitionsQuery);
+      while (rs.next()) {
+        TablePartition partition = toTablePartition(tableName, rs);
+        if (null == partition) {
+          LOG.warn("Could not describe a partition of table " + tableName
+            + "; splitting it as a whole");
+          partitions.clear();
+          break;
+        }
+        partitions.add(partition);
+      }
+      c.commit();
+    } catch (SQLException sqle) {
+      try {
+        if (c != null) {
+          c.rollback();
+        }
+      } catch (SQLException ce) {
+        LoggingUtils.logAll(LOG, "Failed to rollback transaction", ce);
+      }
+      // The table is then split as a whole, as if it had no partitions.
+      LoggingUtils.logAll(LOG, "Failed to list partitions", sqle);
+      return null;
+    } finally {
+      if (rs != null) {
+        try {
+          rs.close();
+        } catch (SQLException re) {
+          LoggingUtils.logAll(LOG, "Failed to close resultset", re);
+        }
+      }
+      if (s != null) {
+        try {
+          s.close();
+        } catch (SQLException se) {
+          LoggingUtils.logAll(LOG, "Failed to close statement", se);
+        }
+      }
+    }
+
+    return partitions.isEmpty() ? null : partitions;
+  }
+}
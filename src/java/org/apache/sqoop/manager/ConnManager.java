@@ -38,6 +38,7 @@
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.io.BytesWritable;
+import org.apache.sqoop.mapreduce.db.TablePartition;
 import org.apache.sqoop.mapreduce.hcat.SqoopHCatUtilities;
 
 import com.cloudera.sqoop.SqoopOptions;
@@ -499,6 +500,31 @@ public long getTableRowCount(String tableName) throws SQLException {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Returns the partitions of the given table, so that imports can split
+   * the table within its partitions.
+   * @param tableName the name of the table.
+   * @return the partitions of the table in the order they are stored, or
+   * null if the table is not partitioned or the connection manager cannot
+   * list its partitions.
+   */
+  public List<TablePartition> getTablePartitions(String tableName) {
+    return null;
+  }
+
+  /**
+   * Returns an SQL expression that hashes the given columns of a row to an
+   * integer, so that digests of ranges of rows can be summed from it.
+   * Changing the value of any of the columns, including to or from null,
+   * should change the hash.
+   * @param colNames the names of the columns, unescaped.
+   * @return the expression, or null if the connection manager cannot hash
+   * rows.
+   */
+  public String getRowHashExpression(String [] colNames) {
+    return null;
+  }
+
   /**
    * Deletes all records from the given table. This method is invoked during
    * and export run when a staging table is specified. The staging table is
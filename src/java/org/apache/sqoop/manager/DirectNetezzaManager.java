@@ -86,6 +86,11 @@ public class DirectNetezzaManager extends NetezzaManager {
   public static final String NETEZZA_TABLE_ENCODING_LONG_ARG =
       "encoding";
 
+  public static final String NETEZZA_IMPORT_STREAMS_OPT =
+      "netezza.import.streams";
+  public static final String NETEZZA_IMPORT_STREAMS_LONG_ARG =
+      "import-streams";
+
 
   private static final String QUERY_CHECK_DICTIONARY_FOR_TABLE =
       "SELECT 1 FROM _V_TABLE WHERE OWNER= ? "
@@ -293,6 +298,10 @@ protected  RelatedOptions getNetezzaExtraOpts() {
     netezzaOpts.addOption(OptionBuilder.withArgName(NETEZZA_TABLE_ENCODING_OPT)
         .hasArg().withDescription("Table encoding")
         .withLongOpt(NETEZZA_TABLE_ENCODING_LONG_ARG).create());
+    netezzaOpts.addOption(OptionBuilder.withArgName(NETEZZA_IMPORT_STREAMS_OPT)
+        .hasArg().withDescription("Concurrent external table unloads per "
+        + "mapper")
+        .withLongOpt(NETEZZA_IMPORT_STREAMS_LONG_ARG).create());
     return netezzaOpts;
   }
 
@@ -319,6 +328,11 @@ private void handleNetezzaExtraArgs(SqoopOptions opts)
           .getOptionValue(NETEZZA_TABLE_ENCODING_LONG_ARG);
       conf.set(NETEZZA_TABLE_ENCODING_OPT, encoding);
     }
+    if (cmdLine.hasOption(NETEZZA_IMPORT_STREAMS_LONG_ARG)) {
+      int streams = Integer.parseInt(cmdLine
+          .getOptionValue(NETEZZA_IMPORT_STREAMS_LONG_ARG));
+      conf.setInt(NETEZZA_IMPORT_STREAMS_OPT, streams);
+    }
     
     conf.setBoolean(NETEZZA_CTRL_CHARS_OPT,
       cmdLine.hasOption(NETEZZA_CTRL_CHARS_LONG_ARG));
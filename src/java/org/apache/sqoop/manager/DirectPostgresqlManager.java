@@ -26,6 +26,7 @@
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +42,8 @@
 import org.apache.sqoop.mapreduce.postgresql.PostgreSQLCopyExportJob;
 import org.apache.sqoop.util.PostgreSQLUtils;
 import org.apache.sqoop.util.SubstitutionUtils;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyOut;
 
 import com.cloudera.sqoop.SqoopOptions;
 import com.cloudera.sqoop.io.SplittableBufferedWriter;
@@ -58,8 +61,8 @@
 
 
 /**
- * Manages direct dumps from Postgresql databases via psql COPY TO STDOUT
- * commands.
+ * Manages direct dumps from Postgresql databases via COPY TO STDOUT
+ * commands, streamed over the JDBC connection or through psql.
  */
 public class DirectPostgresqlManager
     extends com.cloudera.sqoop.manager.PostgresqlManager {
@@ -73,6 +76,12 @@
   public static final String BOOLEAN_FALSE_STRING = "boolean-false-string";
   public static final String DEFAULT_BOOLEAN_FALSE_STRING = "FALSE";
 
+  /**
+   * Configuration key that makes imports run COPY through a psql process
+   * instead of streaming it over the JDBC connection.
+   */
+  public static final String PSQL_IMPORT_KEY = "sqoop.postgresql.import.psql";
+
   public DirectPostgresqlManager(final SqoopOptions opts) {
     super(opts);
 
@@ -353,8 +362,6 @@ public void importTable(com.cloudera.sqoop.manager.ImportJobContext context)
     String tableName = context.getTableName();
     SqoopOptions options = context.getOptions();
 
-    LOG.info("Beginning psql fast path import");
-
     if (options.getFileLayout() != SqoopOptions.FileLayout.TextFile) {
       // TODO(aaron): Support SequenceFile-based load-in
       LOG.warn("File import layout" + options.getFileLayout()
@@ -370,6 +377,13 @@ public void importTable(com.cloudera.sqoop.manager.ImportJobContext context)
         "either use the same values or omit the --direct parameter.");
     }
 
+    if (!options.getConf().getBoolean(PSQL_IMPORT_KEY, false)) {
+      importThroughCopyApi(context, tableName, options);
+      return;
+    }
+
+    LOG.info("Beginning psql fast path import");
+
     String commandFilename = null;
     String passwordFilename = null;
     Process p = null;
@@ -538,6 +552,63 @@ public void importTable(com.cloudera.sqoop.manager.ImportJobContext context)
     }
   }
 
+  /**
+   * Import the table into HDFS by streaming the rows of COPY TO STDOUT
+   * from the JDBC connection straight into the HDFS writer. No psql
+   * process, command file or password file is involved.
+   */
+  private void importThroughCopyApi(
+      com.cloudera.sqoop.manager.ImportJobContext context, String tableName,
+      SqoopOptions options) throws IOException {
+    LOG.info("Beginning JDBC COPY fast path import");
+    String copyCmd = getCopyCommand(tableName);
+    PerfCounters counters = new PerfCounters();
+    CopyOut copyOut = null;
+    SplittableBufferedWriter w = DirectImportUtils.createHdfsSink(
+        options.getConf(), options, context);
+    try {
+      copyOut = ((PGConnection) getConnection()).getCopyAPI()
+          .copyOut(copyCmd);
+      counters.startClock();
+      copyRows(copyOut, w, options.getOutputRecordDelim(), counters);
+    } catch (SQLException sqle) {
+      throw new IOException("Could not copy table " + tableName, sqle);
+    } finally {
+      if (null != copyOut && copyOut.isActive()) {
+        try {
+          copyOut.cancelCopy();
+        } catch (SQLException sqle) {
+          LOG.info("Error cancelling COPY: " + sqle.toString());
+        }
+      }
+      w.close();
+    }
+
+    counters.stopClock();
+    LOG.info("Transferred " + counters.toString());
+  }
+
+  /**
+   * Write each row of a COPY to the writer, ending it with the user's
+   * record delimiter. The driver returns one row per read, in UTF-8.
+   */
+  static void copyRows(CopyOut copyOut, SplittableBufferedWriter w,
+      char recordDelim, PerfCounters counters)
+      throws IOException, SQLException {
+    byte [] row;
+    while (null != (row = copyOut.readFromCopy())) {
+      int len = row.length;
+      if (len > 0 && row[len - 1] == '\n') {
+        len--;
+      }
+      String line = new String(row, 0, len, "UTF-8");
+      w.write(line);
+      w.write(recordDelim);
+      w.allowSplit();
+      counters.addBytes(1 + len);
+    }
+  }
+
   @Override
   public boolean supportsStagingForExport() {
     return true;
@@ -19,6 +19,8 @@
 package org.apache.sqoop.manager;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -80,6 +82,32 @@ protected String getCurTimestampQuery() {
     return "SELECT CURRENT_TIMESTAMP FROM INFORMATION_SCHEMA.SYSTEM_TABLES";
   }
 
+  /**
+   * Hashes the text of a row for {@link #getRowHashExpression(String[])}.
+   * HSQLDB calls it as a Java function, so it has to be on the classpath
+   * of the database.
+   */
+  public static long hashRow(String row) {
+    CRC32 crc = new CRC32();
+    crc.update(row.getBytes(Charset.forName("UTF-8")));
+    return crc.getValue();
+  }
+
+  @Override
+  public String getRowHashExpression(String [] colNames) {
+    StringBuilder row = new StringBuilder();
+    for (String colName : colNames) {
+      String value = "CAST(" + escapeColName(colName) + " AS VARCHAR)";
+      // Each value is prefixed with its length, so that no two rows have
+      // the same text; a null has no length.
+      row.append(row.length() == 0 ? "" : " || ")
+          .append("CASE WHEN ").append(value).append(" IS NULL THEN '-' ")
+          .append("ELSE CAST(CHAR_LENGTH(").append(value)
+          .append(") AS VARCHAR) || ':' || ").append(value).append(" END");
+    }
+    return "\"" + HsqldbManager.class.getName() + ".hashRow\"(" + row + ")";
+  }
+
   @Override
   public boolean supportsStagingForExport() {
     return true;
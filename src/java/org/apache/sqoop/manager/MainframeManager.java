@@ -36,6 +36,7 @@
 import org.apache.sqoop.mapreduce.ImportJobBase;
 import org.apache.sqoop.mapreduce.mainframe.MainframeDatasetInputFormat;
 import org.apache.sqoop.mapreduce.mainframe.MainframeImportJob;
+import org.apache.sqoop.mapreduce.mainframe.MainframeRecordLayout;
 
 import com.cloudera.sqoop.SqoopOptions;
 import com.cloudera.sqoop.util.ImportException;
@@ -47,6 +48,7 @@
 public class MainframeManager extends com.cloudera.sqoop.manager.ConnManager {
   public static final String DEFAULT_DATASET_COLUMN_NAME = "DEFAULT_COLUMN";
   protected SqoopOptions options;
+  private MainframeRecordLayout recordLayout;
   private static final Log LOG
       = LogFactory.getLog(MainframeManager.class.getName());
 
@@ -97,8 +99,34 @@ public void importTable(com.cloudera.sqoop.manager.ImportJobContext context)
     importer.runImport(pdsName, jarFile, null, opts.getConf());
   }
 
+  /**
+   * @return the record layout given with --record-layout, or null if
+   * records are imported as a single text column.
+   */
+  private MainframeRecordLayout getRecordLayout() throws IOException {
+    String layoutFile = options.getMainframeRecordLayout();
+    if (null == layoutFile) {
+      return null;
+    }
+    if (null == recordLayout) {
+      recordLayout = MainframeRecordLayout.parse(
+          MainframeRecordLayout.readLayoutFile(layoutFile));
+    }
+    return recordLayout;
+  }
+
   @Override
   public String[] getColumnNames(String tableName) {
+    try {
+      MainframeRecordLayout layout = getRecordLayout();
+      if (null != layout) {
+        return layout.getColumnNames();
+      }
+    } catch (IOException ioe) {
+      LOG.error("Error reading record layout: " + ioe.toString());
+      return null;
+    }
+
     // default is one column for the whole record
     String[] colNames = new String[1];
     colNames[0] = DEFAULT_DATASET_COLUMN_NAME;
@@ -107,6 +135,16 @@ public String[] getColumnNames(String tableName) {
 
   @Override
   public Map<String, Integer> getColumnTypes(String tableName) {
+    try {
+      MainframeRecordLayout layout = getRecordLayout();
+      if (null != layout) {
+        return layout.getColumnTypes();
+      }
+    } catch (IOException ioe) {
+      LOG.error("Error reading record layout: " + ioe.toString());
+      return null;
+    }
+
     Map<String, Integer> colTypes = new HashMap<String, Integer>();
     String[] colNames = getColumnNames(tableName);
     colTypes.put(colNames[0], Types.VARCHAR);
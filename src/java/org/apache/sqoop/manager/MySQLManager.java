@@ -42,6 +42,7 @@
 import com.cloudera.sqoop.util.ImportException;
 import com.cloudera.sqoop.util.ExportException;
 import com.cloudera.sqoop.mapreduce.JdbcUpsertExportJob;
+import org.apache.sqoop.mapreduce.db.TablePartition;
 import org.apache.sqoop.mapreduce.mysql.MySQLUpsertOutputFormat;
 import org.apache.sqoop.util.LoggingUtils;
 
@@ -407,6 +408,41 @@ protected String getSchemaQuery() {
     return "SELECT SCHEMA()";
   }
 
+  @Override
+  protected String getListPartitionsQuery(String tableName) {
+    // Subpartitions are the units of storage of the tables that have them.
+    return "SELECT COALESCE(SUBPARTITION_NAME, PARTITION_NAME), TABLE_ROWS "
+         + "FROM INFORMATION_SCHEMA.PARTITIONS "
+         + "WHERE TABLE_SCHEMA = (" + getSchemaQuery() + ") "
+         + "AND TABLE_NAME = '" + tableName + "' "
+         + "AND PARTITION_NAME IS NOT NULL "
+         + "ORDER BY PARTITION_ORDINAL_POSITION, "
+         + "SUBPARTITION_ORDINAL_POSITION";
+  }
+
+  @Override
+  protected TablePartition toTablePartition(String tableName, ResultSet rs)
+      throws SQLException {
+    String partition = rs.getString(1);
+    long rows = rs.getLong(2);
+    if (rs.wasNull()) {
+      rows = -1;
+    }
+    // Explicit partition selection requires MySQL 5.6 or later.
+    return new TablePartition(partition, escapeTableName(tableName)
+        + " PARTITION (" + escapeColName(partition) + ")", null, rows);
+  }
+
+  @Override
+  public String getRowHashExpression(String [] colNames) {
+    // QUOTE escapes the separator within a value, and returns NULL unquoted.
+    StringBuilder values = new StringBuilder();
+    for (String colName : colNames) {
+      values.append(", QUOTE(").append(escapeColName(colName)).append(")");
+    }
+    return "CRC32(CONCAT_WS(','" + values + "))";
+  }
+
   private Map<String, String> colTypeNames;
   private static final int YEAR_TYPE_OVERWRITE = Types.SMALLINT;
 
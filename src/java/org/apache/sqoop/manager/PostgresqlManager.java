@@ -19,6 +19,7 @@
 package org.apache.sqoop.manager;
 
 import java.io.IOException;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 
 import org.apache.commons.cli.CommandLine;
@@ -32,6 +33,7 @@
 import com.cloudera.sqoop.SqoopOptions;
 import com.cloudera.sqoop.util.ImportException;
 import org.apache.sqoop.cli.RelatedOptions;
+import org.apache.sqoop.mapreduce.db.TablePartition;
 
 /**
  * Manages connections to Postgresql databases.
@@ -174,6 +176,51 @@ protected String getPrimaryKeyQuery(String tableName) {
     + "  AND ind.INDISPRIMARY";
   }
 
+  @Override
+  protected String getListPartitionsQuery(String tableName) {
+    // Every table of the inheritance tree of the table holds rows of its
+    // own, except for the partitioned tables of declarative partitioning.
+    return
+      "WITH RECURSIVE part(RELID) AS ("
+    + "  SELECT tab.OID FROM PG_CATALOG.PG_NAMESPACE sch,"
+    + "    PG_CATALOG.PG_CLASS tab "
+    + "  WHERE sch.OID = tab.RELNAMESPACE "
+    + "    AND sch.NSPNAME = " + getSchemaSqlFragment()
+    + "    AND tab.RELNAME = '" + escapeLiteral(tableName) + "' "
+    + "  UNION ALL "
+    + "  SELECT inh.INHRELID FROM PG_CATALOG.PG_INHERITS inh, part "
+    + "  WHERE inh.INHPARENT = part.RELID) "
+    + "SELECT sch.NSPNAME, tab.RELNAME, tab.RELTUPLES "
+    + "FROM part, PG_CATALOG.PG_NAMESPACE sch, PG_CATALOG.PG_CLASS tab "
+    + "WHERE tab.OID = part.RELID "
+    + "  AND sch.OID = tab.RELNAMESPACE "
+    + "  AND tab.RELKIND IN ('r', 'f') "
+    + "  AND (SELECT COUNT(*) FROM part) > 1 "
+    + "ORDER BY sch.NSPNAME, tab.RELNAME";
+  }
+
+  @Override
+  protected TablePartition toTablePartition(String tableName, ResultSet rs)
+      throws SQLException {
+    String partition = escapeIdentifier(rs.getString(1)) + "."
+        + escapeIdentifier(rs.getString(2));
+    // RELTUPLES is an estimate, and negative if the table was never
+    // analyzed.
+    long rows = Math.max(-1, (long) rs.getFloat(3));
+    // ONLY leaves out the rows of the tables inheriting from this one.
+    return new TablePartition(partition, "ONLY " + partition, null, rows);
+  }
+
+  @Override
+  public String getRowHashExpression(String [] colNames) {
+    // The text of a row quotes empty strings, and leaves nulls empty.
+    StringBuilder row = new StringBuilder();
+    for (String colName : colNames) {
+      row.append(row.length() == 0 ? "" : ", ").append(escapeColName(colName));
+    }
+    return "('x' || SUBSTR(MD5(ROW(" + row + ")::TEXT), 1, 8))::BIT(32)::INT";
+  }
+
   private String getSchemaSqlFragment() {
     if (schema != null && !schema.isEmpty()) {
       return "'" + escapeLiteral(schema) + "'";
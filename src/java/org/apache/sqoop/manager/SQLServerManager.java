@@ -19,6 +19,8 @@
 package org.apache.sqoop.manager;
 
 import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -33,6 +35,7 @@
 import org.apache.sqoop.mapreduce.SQLServerResilientUpdateOutputFormat;
 import org.apache.sqoop.mapreduce.db.SQLServerDBInputFormat;
 import org.apache.sqoop.mapreduce.db.SQLServerConnectionFailureHandler;
+import org.apache.sqoop.mapreduce.db.TablePartition;
 
 import com.cloudera.sqoop.SqoopOptions;
 import com.cloudera.sqoop.mapreduce.JdbcExportJob;
@@ -290,6 +293,58 @@ protected String getPrimaryKeyQuery(String tableName) {
   }
 
 
+  @Override
+  protected String getListPartitionsQuery(String tableName) {
+    // The partitions of the heap or clustered index of the table, with the
+    // partition function and column the table is partitioned by.
+    return
+      "SELECT p.partition_number, p.rows, pf.name, c.name "
+    + "FROM sys.partitions p "
+    + "  JOIN sys.indexes i ON i.object_id = p.object_id "
+    + "    AND i.index_id = p.index_id "
+    + "  JOIN sys.partition_schemes ps ON ps.data_space_id = i.data_space_id "
+    + "  JOIN sys.partition_functions pf ON pf.function_id = ps.function_id "
+    + "  JOIN sys.index_columns ic ON ic.object_id = i.object_id "
+    + "    AND ic.index_id = i.index_id AND ic.partition_ordinal = 1 "
+    + "  JOIN sys.columns c ON c.object_id = ic.object_id "
+    + "    AND c.column_id = ic.column_id "
+    + "WHERE p.object_id = OBJECT_ID(N'"
+    + escapeTableName(tableName).replace("'", "''") + "') "
+    + "  AND i.index_id IN (0, 1) "
+    + "ORDER BY p.partition_number";
+  }
+
+  @Override
+  protected TablePartition toTablePartition(String tableName, ResultSet rs)
+      throws SQLException {
+    int partition = rs.getInt(1);
+    // The partitions are in the table itself, and are pruned by conditions
+    // on the partition number.
+    return new TablePartition("partition " + partition, null,
+        "$PARTITION." + escapeObjectName(rs.getString(3)) + "("
+        + escapeObjectName(rs.getString(4)) + ") = " + partition,
+        rs.getLong(2));
+  }
+
+  @Override
+  public String getRowHashExpression(String [] colNames) {
+    StringBuilder row = new StringBuilder();
+    for (String colName : colNames) {
+      String value = "CAST(" + escapeColName(colName) + " AS NVARCHAR(MAX))";
+      // Each value is prefixed with its length, so that no two rows have
+      // the same text; a null has no length.
+      row.append(row.length() == 0 ? "" : " + ")
+          .append("CASE WHEN ").append(value).append(" IS NULL THEN N'-' ")
+          .append("ELSE CAST(DATALENGTH(").append(value)
+          .append(") AS NVARCHAR(20)) + N':' + ").append(value).append(" END");
+    }
+    // The first four bytes of the digest are an INT; their sum is not, so
+    // it is widened to a BIGINT. HASHBYTES takes at most 8000 bytes before
+    // SQL Server 2016.
+    return "CAST(CAST(SUBSTRING(HASHBYTES('MD5', " + row
+        + "), 1, 4) AS INT) AS BIGINT)";
+  }
+
   @Override
   public String escapeColName(String colName) {
     return escapeObjectName(colName);
@@ -418,6 +418,12 @@ public boolean nextKeyValue() throws IOException {
     return result;
   }
 
+  @Override
+  protected boolean isPrefetchSupported() {
+    // nextKeyValue() reads the data chunk id from the current row.
+    return false;
+  }
+
   @Override
   protected ResultSet executeQuery(String query) throws SQLException {
 
@@ -32,6 +32,7 @@
 import org.apache.hadoop.mapreduce.OutputFormat;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.util.StringUtils;
+import org.apache.sqoop.mapreduce.TaskPhaseMetrics.Phase;
 
 import com.cloudera.sqoop.lib.SqoopRecord;
 
@@ -96,6 +97,9 @@ public void checkOutputSpecs(JobContext context)
   /** {@inheritDoc} */
   public OutputCommitter getOutputCommitter(TaskAttemptContext context)
       throws IOException, InterruptedException {
+    if (null != ExportSplitCommitTable.get(context.getConfiguration())) {
+      return new ExportSplitCommitTable.TaskCommitter();
+    }
     return new NullOutputCommitter();
   }
 
@@ -190,6 +194,8 @@ public static class AsyncSqlExecThread extends Thread {
     protected int curNumStatements; // statements executed thus far in the tx.
     protected final int stmtsPerTx;  // statements per transaction.
 
+    private TaskPhaseMetrics phaseMetrics = TaskPhaseMetrics.DISABLED;
+
     /**
      * Create a new update thread that interacts with the database.
      * @param conn the connection to use. This must only be used by this
@@ -204,6 +210,14 @@ public AsyncSqlExecThread(Connection conn, int stmtsPerTx) {
       this.stmtsPerTx = stmtsPerTx;
     }
 
+    /**
+     * Measure executing statements and committing; call before start().
+     * The metrics must not be published before the thread has exited.
+     */
+    public void setPhaseMetrics(TaskPhaseMetrics metrics) {
+      this.phaseMetrics = metrics;
+    }
+
     public void run() {
       while (true) {
         AsyncDBOperation op = null;
@@ -227,11 +241,13 @@ public void run() {
         synchronized (conn) {
           try {
             if (null != stmt) {
+              long start = phaseMetrics.start(Phase.STATEMENT_EXECUTION);
               if (op.execAsBatch()) {
                 stmt.executeBatch();
               } else {
                 stmt.execute();
               }
+              phaseMetrics.end(Phase.STATEMENT_EXECUTION, start);
               stmt.close();
               stmt = null;
               this.curNumStatements++;
@@ -241,7 +257,9 @@ public void run() {
                 && stmtsPerTx != UNLIMITED_STATEMENTS_PER_TRANSACTION)) {
               LOG.debug("Committing transaction of " + curNumStatements
                   + " statements");
+              long start = phaseMetrics.start(Phase.COMMIT);
               this.conn.commit();
+              phaseMetrics.end(Phase.COMMIT, start);
               this.curNumStatements = 0;
             }
           } catch (BatchUpdateException batchE) {
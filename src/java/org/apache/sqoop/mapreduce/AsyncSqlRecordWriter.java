@@ -29,6 +29,8 @@
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.mapreduce.RecordWriter;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.sqoop.mapreduce.TaskPhaseMetrics.Phase;
+import org.apache.sqoop.mapreduce.db.BatchSizeTuner;
 import org.apache.sqoop.util.LoggingUtils;
 import com.cloudera.sqoop.mapreduce.db.DBConfiguration;
 import com.cloudera.sqoop.lib.SqoopRecord;
@@ -42,6 +44,12 @@
  * statements; this requires that the key implement the SqoopRecord interface.
  *
  * Uses DBOutputFormat/DBConfiguration for configuring the output.
+ *
+ * If an ExportSplitCommitTable is configured, the whole task runs in one
+ * transaction which also records the chunks of the task's split as
+ * committed. The transaction is committed by the task's OutputCommitter,
+ * and a task whose chunks were all committed by an earlier attempt writes
+ * nothing.
  */
 public abstract class AsyncSqlRecordWriter<K extends SqoopRecord, V>
     extends RecordWriter<K, V> {
@@ -54,6 +62,12 @@
 
   protected final int rowsPerStmt; // rows to insert per statement.
 
+  // Tunes the rows per statement while exporting, if enabled.
+  private BatchSizeTuner batchSizeTuner;
+  private boolean limitedBatchSize;
+
+  private TaskPhaseMetrics phaseMetrics;
+
   // Buffer for records to be put into export SQL statements.
   private List<SqoopRecord> records;
 
@@ -63,6 +77,12 @@
 
   private boolean closed;
 
+  // Control table for per-split commits, or null.
+  private ExportSplitCommitTable splitCommitTable;
+  private List<String> chunkKeys;
+  private boolean skipSplit;
+  private long rowCount;
+
   public AsyncSqlRecordWriter(TaskAttemptContext context)
       throws ClassNotFoundException, SQLException {
     this.conf = context.getConfiguration();
@@ -78,10 +98,26 @@ public AsyncSqlRecordWriter(TaskAttemptContext context)
     this.connection = dbConf.getConnection();
     this.connection.setAutoCommit(false);
 
+    this.splitCommitTable = ExportSplitCommitTable.get(conf);
+    if (null != splitCommitTable) {
+      // The split is committed atomically along with its marker.
+      stmtsPerTx = AsyncSqlOutputFormat.UNLIMITED_STATEMENTS_PER_TRANSACTION;
+      this.chunkKeys = splitCommitTable.getTaskChunks(connection, context);
+      this.skipSplit = chunkKeys.isEmpty();
+      if (skipSplit) {
+        LOG.info("The split was already committed by an earlier attempt; "
+            + "skipping it.");
+      }
+    }
+
     this.records = new ArrayList<SqoopRecord>(this.rowsPerStmt);
+    this.batchSizeTuner = BatchSizeTuner.get(conf, "records per statement",
+        rowsPerStmt);
 
+    this.phaseMetrics = TaskPhaseMetrics.get(conf);
     this.execThread = new AsyncSqlOutputFormat.AsyncSqlExecThread(
         connection, stmtsPerTx);
+    this.execThread.setPhaseMetrics(phaseMetrics);
     this.execThread.setDaemon(true);
     this.startedExecThread = false;
 
@@ -150,7 +186,9 @@ private void execUpdate(boolean commit, boolean stopThread)
     boolean successfulPut = false;
     try {
       if (records.size() > 0) {
+        long start = phaseMetrics.start(Phase.SERIALIZE);
         stmt = getPreparedStatement(records);
+        phaseMetrics.end(Phase.SERIALIZE, start);
         this.records.clear();
       }
 
@@ -189,10 +227,26 @@ public void close(TaskAttemptContext context)
 	}
 	closed = true;
 
+    boolean commitPending = false;
     try {
       try {
-        execUpdate(true, true);
-        execThread.join();
+        if (null != splitCommitTable && !skipSplit) {
+          // Flush the remaining rows and record the split as committed in
+          // the same transaction, but leave committing it to the
+          // OutputCommitter: this method is also called when the map fails.
+          execUpdate(false, false);
+          PreparedStatement marker;
+          synchronized (connection) {
+            marker = splitCommitTable.getMarkerStatement(connection,
+                chunkKeys, rowCount);
+          }
+          execThread.put(new AsyncSqlOutputFormat.AsyncDBOperation(marker,
+              true, false, true));
+          execThread.join();
+        } else {
+          execUpdate(true, true);
+          execThread.join();
+        }
       } catch (SQLException sqle) {
         throw new IOException(sqle);
       }
@@ -204,11 +258,27 @@ public void close(TaskAttemptContext context)
       if (null != lastErr) {
         throw new IOException(lastErr);
       }
+      phaseMetrics.publish(context, getClass().getSimpleName());
+
+      if (null != splitCommitTable && !skipSplit) {
+        ExportSplitCommitTable.setPendingCommit(context.getTaskAttemptID(),
+            connection);
+        commitPending = true;
+      }
     } finally {
-      try {
-        closeConnection(context);
-      } catch (SQLException sqle) {
-        throw new IOException(sqle);
+      if (null != batchSizeTuner) {
+        batchSizeTuner.reportCounters(context, "RECORDS_PER_STATEMENT");
+      }
+      if (!commitPending) {
+        try {
+          if (null != splitCommitTable) {
+            // Some drivers commit on close; make sure nothing is kept.
+            connection.rollback();
+          }
+          closeConnection(context);
+        } catch (SQLException sqle) {
+          throw new IOException(sqle);
+        }
       }
     }
   }
@@ -218,14 +288,65 @@ public void closeConnection(TaskAttemptContext context)
     this.connection.close();
   }
 
+  /**
+   * Bound the rows per statement the tuner may try, or stop tuning them if
+   * the statements cannot have several rows.
+   */
+  private void limitBatchSize(K key) {
+    limitedBatchSize = true;
+    if (isBatchExec()) {
+      return;
+    }
+    if (rowsPerStmt <= 1) {
+      // The database may not support multi-row statements at all.
+      LOG.info("Not tuning the records per statement of single-row "
+          + "statements");
+      batchSizeTuner = null;
+      return;
+    }
+    // All rows of the statement are its parameters, and databases limit
+    // the number of those.
+    int maxParams = conf.getInt(BatchSizeTuner.MAX_PARAMETERS_KEY,
+        BatchSizeTuner.DEFAULT_MAX_PARAMETERS);
+    int columns = Math.max(1, key.getFieldNames().length);
+    batchSizeTuner.limitSize(Math.max(rowsPerStmt, maxParams / columns));
+  }
+
+  /**
+   * Flush the buffered records when there are as many as the tuner asks
+   * for, and time them.
+   */
+  private void tuneBatchSize(K key)
+      throws InterruptedException, IOException, SQLException {
+    if (batchSizeTuner.isTuning()) {
+      batchSizeTuner.sampleRow(key);
+    }
+    int flushed = records.size();
+    if (flushed >= batchSizeTuner.getSize()) {
+      execUpdate(false, false);
+      batchSizeTuner.recordRows(flushed);
+    }
+  }
+
   @Override
   /** {@inheritDoc} */
   public void write(K key, V value)
       throws InterruptedException, IOException {
+    if (skipSplit) {
+      return;
+    }
     try {
+      rowCount++;
       records.add((SqoopRecord) key.clone());
-      if (records.size() >= this.rowsPerStmt) {
-        execUpdate(false, false);
+      if (null != batchSizeTuner && !limitedBatchSize) {
+        limitBatchSize(key);
+      }
+      if (null == batchSizeTuner) {
+        if (records.size() >= this.rowsPerStmt) {
+          execUpdate(false, false);
+        }
+      } else {
+        tuneBatchSize(key);
       }
     } catch (CloneNotSupportedException cnse) {
       throw new IOException("Could not buffer record", cnse);
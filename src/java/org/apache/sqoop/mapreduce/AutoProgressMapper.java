@@ -47,8 +47,18 @@
   // Disable max progress, by default.
   public static final int DEFAULT_MAX_PROGRESS = 0;
 
+  private TaskPhaseMetrics phaseMetrics = TaskPhaseMetrics.DISABLED;
+
   // map() method intentionally omitted; Mapper.map() is the identity mapper.
 
+  /**
+   * @return the metrics subclasses measure the phases of their records
+   * with; they are published when the task is done.
+   */
+  protected TaskPhaseMetrics getPhaseMetrics() {
+    return phaseMetrics;
+  }
+
   /**
    * Run the mapping process for this task, wrapped in an auto-progress system.
    */
@@ -60,8 +70,12 @@ public void run(Context context) throws IOException, InterruptedException {
       thread.setDaemon(true);
       thread.start();
 
+      phaseMetrics = TaskPhaseMetrics.get(context.getConfiguration());
+
       // use default run() method to actually drive the mapping.
       super.run(context);
+
+      phaseMetrics.publish(context, getClass().getSimpleName());
     } finally {
       // Tell the progress thread to exit..
       LOG.debug("Instructing auto-progress thread to quit.");
@@ -21,6 +21,7 @@
 import com.cloudera.sqoop.lib.LargeObjectLoader;
 import com.cloudera.sqoop.lib.SqoopRecord;
 import com.cloudera.sqoop.mapreduce.AutoProgressMapper;
+import org.apache.sqoop.mapreduce.TaskPhaseMetrics.Phase;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.mapred.AvroWrapper;
@@ -61,16 +62,24 @@ protected void setup(Context context)
   protected void map(LongWritable key, SqoopRecord val, Context context)
       throws IOException, InterruptedException {
 
+    TaskPhaseMetrics metrics = getPhaseMetrics();
+    long start = metrics.start(Phase.LOAD_LARGE_OBJECTS);
     try {
       // Loading of LOBs was delayed until we have a Context.
       val.loadLargeObjects(lobLoader);
     } catch (SQLException sqlE) {
       throw new IOException(sqlE);
     }
+    metrics.end(Phase.LOAD_LARGE_OBJECTS, start);
 
+    start = metrics.start(Phase.SERIALIZE);
     GenericRecord outKey = AvroUtil.toGenericRecord(val.getFieldMap(), schema, bigDecimalFormatString);
+    metrics.end(Phase.SERIALIZE, start);
     wrapper.datum(outKey);
+
+    start = metrics.start(Phase.OUTPUT_WRITE);
     context.write(wrapper, NullWritable.get());
+    metrics.end(Phase.OUTPUT_WRITE, start);
   }
 
   @Override
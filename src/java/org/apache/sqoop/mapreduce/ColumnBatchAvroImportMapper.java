@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.mapred.AvroWrapper;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.sqoop.avro.AvroUtil;
+import org.apache.sqoop.lib.ColumnBatch;
+import org.apache.sqoop.mapreduce.TaskPhaseMetrics.Phase;
+
+import com.cloudera.sqoop.mapreduce.AutoProgressMapper;
+
+/**
+ * Imports column batches by converting their rows to Avro records in an
+ * Avro data file. The Avro writer serializes each record as it is
+ * written, so one record is reused for all rows.
+ */
+public class ColumnBatchAvroImportMapper
+    extends AutoProgressMapper<LongWritable, ColumnBatch,
+    AvroWrapper<GenericRecord>, NullWritable> {
+
+  private final AvroWrapper<GenericRecord> wrapper =
+    new AvroWrapper<GenericRecord>();
+  private Schema schema;
+  private Schema.Field [] fields;
+  private GenericRecord record;
+  private boolean bigDecimalFormatString;
+
+  @Override
+  protected void setup(Context context)
+      throws IOException, InterruptedException {
+    Configuration conf = context.getConfiguration();
+    schema = AvroJob.getMapOutputSchema(conf);
+    record = new GenericData.Record(schema);
+    wrapper.datum(record);
+    bigDecimalFormatString = conf.getBoolean(
+        ImportJobBase.PROPERTY_BIGDECIMAL_FORMAT,
+        ImportJobBase.PROPERTY_BIGDECIMAL_FORMAT_DEFAULT);
+  }
+
+  @Override
+  protected void map(LongWritable key, ColumnBatch val, Context context)
+      throws IOException, InterruptedException {
+    if (null == fields) {
+      fields = AvroUtil.getFields(val, schema);
+    }
+    TaskPhaseMetrics metrics = getPhaseMetrics();
+    for (int row = 0; row < val.size(); row++) {
+      long start = metrics.start(Phase.SERIALIZE);
+      AvroUtil.toGenericRecord(val, row, fields, record,
+          bigDecimalFormatString);
+      metrics.end(Phase.SERIALIZE, start);
+
+      start = metrics.start(Phase.OUTPUT_WRITE);
+      context.write(wrapper, NullWritable.get());
+      metrics.end(Phase.OUTPUT_WRITE, start);
+    }
+  }
+}
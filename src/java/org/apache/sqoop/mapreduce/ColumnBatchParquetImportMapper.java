@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.sqoop.avro.AvroUtil;
+import org.apache.sqoop.lib.ColumnBatch;
+import org.apache.sqoop.mapreduce.TaskPhaseMetrics.Phase;
+
+import com.cloudera.sqoop.mapreduce.AutoProgressMapper;
+
+/**
+ * Imports column batches by writing their rows to a Parquet file.
+ */
+public class ColumnBatchParquetImportMapper
+    extends AutoProgressMapper<LongWritable, ColumnBatch,
+        GenericRecord, NullWritable> {
+
+  private Schema schema = null;
+  private Schema.Field [] fields;
+  private boolean bigDecimalFormatString = true;
+
+  @Override
+  protected void setup(Context context)
+      throws IOException, InterruptedException {
+    Configuration conf = context.getConfiguration();
+    schema = ParquetJob.getAvroSchema(conf);
+    bigDecimalFormatString = conf.getBoolean(
+        ImportJobBase.PROPERTY_BIGDECIMAL_FORMAT,
+        ImportJobBase.PROPERTY_BIGDECIMAL_FORMAT_DEFAULT);
+  }
+
+  @Override
+  protected void map(LongWritable key, ColumnBatch val, Context context)
+      throws IOException, InterruptedException {
+    if (null == fields) {
+      fields = AvroUtil.getFields(val, schema);
+    }
+    TaskPhaseMetrics metrics = getPhaseMetrics();
+    for (int row = 0; row < val.size(); row++) {
+      long start = metrics.start(Phase.SERIALIZE);
+      // The dataset writer may hold on to the records it is given.
+      GenericRecord outKey = new GenericData.Record(schema);
+      AvroUtil.toGenericRecord(val, row, fields, outKey,
+          bigDecimalFormatString);
+      metrics.end(Phase.SERIALIZE, start);
+
+      start = metrics.start(Phase.OUTPUT_WRITE);
+      context.write(outKey, null);
+      metrics.end(Phase.OUTPUT_WRITE, start);
+    }
+  }
+}
@@ -0,0 +1,160 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+/**
+ * InputFormat that groups the files to compact into splits of about the
+ * size of a compacted file, as exports group their input files, and hands
+ * each whole file to the mapper by its path.
+ */
+public class CompactInputFormat
+    extends CombineFileInputFormat<Text, NullWritable> {
+
+  /**
+   * Configuration key specifying the file that lists the names of the
+   * files of the input dir to compact.
+   */
+  public static final String INPUT_LIST_KEY = "sqoop.compact.input.list";
+
+  @Override
+  public List<InputSplit> getSplits(JobContext job) throws IOException {
+    // Set the max split size based on the number of map tasks we want, as
+    // ExportInputFormat does.
+    long numFileBytes = 0;
+    for (FileStatus stat : listStatus(job)) {
+      numFileBytes += stat.getLen();
+    }
+    setMaxSplitSize(numFileBytes / ExportInputFormat.getNumMapTasks(job));
+    return super.getSplits(job);
+  }
+
+  @Override
+  protected boolean isSplitable(JobContext context, Path file) {
+    return false;
+  }
+
+  @Override
+  protected List<FileStatus> listStatus(JobContext job) throws IOException {
+    Path listPath = new Path(job.getConfiguration().get(INPUT_LIST_KEY));
+    Set<String> names = readInputList(
+        listPath.getFileSystem(job.getConfiguration()), listPath);
+
+    List<FileStatus> files = new ArrayList<FileStatus>();
+    for (FileStatus stat : super.listStatus(job)) {
+      if (names.contains(stat.getPath().getName())) {
+        files.add(stat);
+      }
+    }
+    return files;
+  }
+
+  /**
+   * @return the names of the files listed in a file, one per line.
+   */
+  static Set<String> readInputList(FileSystem fs, Path path)
+      throws IOException {
+    Set<String> names = new HashSet<String>();
+    BufferedReader r = new BufferedReader(
+        new InputStreamReader(fs.open(path), "UTF-8"));
+    try {
+      String line;
+      while (null != (line = r.readLine())) {
+        if (!line.isEmpty()) {
+          names.add(line);
+        }
+      }
+    } finally {
+      r.close();
+    }
+    return names;
+  }
+
+  @Override
+  public RecordReader<Text, NullWritable> createRecordReader(
+      InputSplit split, TaskAttemptContext context) throws IOException {
+    return new FileListRecordReader();
+  }
+
+  /**
+   * RecordReader that returns the path of each file in a CombineFileSplit.
+   */
+  public static class FileListRecordReader
+      extends RecordReader<Text, NullWritable> {
+
+    private CombineFileSplit split;
+    private int index = -1;
+    private final Text key = new Text();
+
+    @Override
+    public void initialize(InputSplit inputSplit, TaskAttemptContext context)
+        throws IOException {
+      this.split = (CombineFileSplit) inputSplit;
+    }
+
+    @Override
+    public boolean nextKeyValue() {
+      if (index + 1 >= split.getNumPaths()) {
+        return false;
+      }
+      index++;
+      key.set(split.getPath(index).toString());
+      return true;
+    }
+
+    @Override
+    public Text getCurrentKey() {
+      return key;
+    }
+
+    @Override
+    public NullWritable getCurrentValue() {
+      return NullWritable.get();
+    }
+
+    @Override
+    public float getProgress() {
+      if (null == split || split.getNumPaths() == 0) {
+        return 1.0f;
+      }
+      return (index + 1) / (float) split.getNumPaths();
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
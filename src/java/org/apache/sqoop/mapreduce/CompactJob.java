@@ -0,0 +1,313 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.LazyOutputFormat;
+import org.apache.sqoop.util.AppendManifest;
+import org.apache.sqoop.util.AppendUtils;
+import org.apache.sqoop.util.FileSystemUtil;
+import org.apache.sqoop.util.Jars;
+
+import com.cloudera.sqoop.SqoopOptions;
+import com.cloudera.sqoop.mapreduce.JobBase;
+
+/**
+ * Run a MapReduce job that compacts the small data files of a dataset
+ * into files of about a given size, and swap them in for the small files.
+ *
+ * The compacted files are written to a staging dir next to the dataset,
+ * along with the names of the files they replace. The dataset dir is then
+ * renamed to a backup dir, the files it keeps are moved into the staging
+ * dir, and the staging dir is renamed to the dataset dir. A compaction
+ * cut short in the middle of the swap is finished by the next one.
+ *
+ * Nothing else may write to the dataset while it is compacted: an append
+ * during the swap would recreate the dataset dir, so a compaction that
+ * finds the dir recreated fails rather than guess which files to keep.
+ */
+public class CompactJob extends JobBase {
+
+  /** Configuration key specifying the size of a compacted file in bytes. */
+  public static final String FILE_SIZE_KEY = "sqoop.compact.file.size";
+  public static final long DEFAULT_FILE_SIZE = 128L * 1024 * 1024;
+
+  /** The name of the file in the staging dir listing the files compacted. */
+  public static final String COMPACTED_LIST_NAME = "_sqoop_compacted";
+
+  private static final String STAGING_SUFFIX = "_sqoop_compact";
+  private static final String BACKUP_SUFFIX = "_sqoop_compact_old";
+  private static final String JOB_OUTPUT_NAME = "_output";
+  private static final String PART_FILE_NAME = "part-m-00000";
+
+  public CompactJob(final SqoopOptions opts) {
+    super(opts, null, null, null);
+  }
+
+  public boolean runCompactJob() throws IOException {
+    Configuration conf = options.getConf();
+    Path dir = FileSystemUtil.makeQualified(
+        new Path(options.getTargetDir()), conf);
+    FileSystem fs = dir.getFileSystem(conf);
+    Path staging = getSiblingPath(dir, STAGING_SUFFIX);
+    Path backup = getSiblingPath(dir, BACKUP_SUFFIX);
+
+    recover(fs, dir, staging, backup);
+    if (!fs.exists(dir)) {
+      throw new IOException("No such directory: " + dir);
+    }
+
+    // Files of at least half the size of a compacted file stay as they are.
+    long fileSize = conf.getLong(FILE_SIZE_KEY, DEFAULT_FILE_SIZE);
+    List<String> smallFiles = new ArrayList<String>();
+    long smallBytes = 0;
+    int nextPartition = 0;
+    for (FileStatus stat : fs.listStatus(dir)) {
+      String name = stat.getPath().getName();
+      if (stat.isDir() || !isDataFile(name)) {
+        continue;
+      }
+      nextPartition = Math.max(nextPartition,
+          AppendUtils.getPartition(name) + 1);
+      if (stat.getLen() < fileSize / 2) {
+        smallFiles.add(name);
+        smallBytes += stat.getLen();
+      }
+    }
+    if (smallFiles.size() < 2) {
+      LOG.info("No small files to compact in " + dir);
+      return true;
+    }
+    LOG.info("Compacting " + smallFiles.size() + " files of " + smallBytes
+        + " bytes in " + dir);
+
+    fs.mkdirs(staging);
+    Path inputList = new Path(staging, COMPACTED_LIST_NAME);
+    writeNames(fs, inputList, smallFiles);
+
+    Path jobOutput = new Path(staging, JOB_OUTPUT_NAME);
+    if (!runJob(conf, dir, inputList, jobOutput,
+        (int) Math.max(1, (smallBytes + fileSize - 1) / fileSize))) {
+      fs.delete(staging, true);
+      return false;
+    }
+
+    // Number the compacted files after the partitions in use, as appends
+    // do.
+    AppendManifest manifest = AppendManifest.read(fs, dir);
+    if (null != manifest) {
+      nextPartition = Math.max(nextPartition, manifest.getNextPartition());
+    }
+    List<String> compacted = new ArrayList<String>();
+    FileStatus [] outputs = fs.listStatus(jobOutput);
+    Arrays.sort(outputs);
+    for (FileStatus stat : outputs) {
+      String name = stat.getPath().getName();
+      if (stat.isDir() || name.startsWith("_") || name.startsWith(".")) {
+        continue;
+      }
+      int dot = name.indexOf('.');
+      String extension = dot < 0 ? "" : name.substring(dot);
+      String newName = extension.equals(".parquet")
+          ? UUID.randomUUID() + extension
+          : AppendUtils.getPartFilename(PART_FILE_NAME + extension,
+              nextPartition++);
+      if (!fs.rename(stat.getPath(), new Path(staging, newName))) {
+        throw new IOException("Could not move " + stat.getPath()
+            + " to " + staging);
+      }
+      compacted.add(newName);
+    }
+    fs.delete(jobOutput, true);
+
+    if (null != manifest) {
+      Set<String> replaced = new HashSet<String>(smallFiles);
+      AppendManifest newManifest = new AppendManifest(nextPartition);
+      for (String name : manifest.getFiles()) {
+        if (!replaced.contains(name)) {
+          newManifest.addFiles(Arrays.asList(name));
+        }
+      }
+      newManifest.addFiles(compacted);
+      newManifest.write(fs, staging);
+    }
+
+    LOG.info("Replacing " + smallFiles.size() + " files with "
+        + compacted.size() + " compacted files");
+    swap(fs, dir, staging, backup);
+    return true;
+  }
+
+  private boolean runJob(Configuration conf, Path dir, Path inputList,
+      Path jobOutput, int numTasks) throws IOException {
+    Job job = createJob(conf);
+
+    // SequenceFiles need their record class.
+    String existingJar = options.getExistingJarName();
+    String userClassName = options.getClassName();
+    if (existingJar != null) {
+      LOG.debug("Setting job jar to user-specified jar: " + existingJar);
+      job.getConfiguration().set("mapred.jar", existingJar);
+    } else if (userClassName != null) {
+      try {
+        String userJar = Jars.getJarPathForClass(
+            conf.getClassByName(userClassName));
+        LOG.debug("Setting job jar based on user class " + userClassName
+            + ": " + userJar);
+        job.getConfiguration().set("mapred.jar", userJar);
+      } catch (ClassNotFoundException cnfe) {
+        throw new IOException(cnfe);
+      }
+    }
+
+    try {
+      Configuration jobConf = job.getConfiguration();
+      propagateOptionsToJob(job);
+
+      FileInputFormat.addInputPath(job, dir);
+      jobConf.set(CompactInputFormat.INPUT_LIST_KEY, inputList.toString());
+      ExportInputFormat.setNumMapTasks(job, numTasks);
+      job.setInputFormatClass(CompactInputFormat.class);
+
+      job.setMapperClass(CompactMapper.class);
+      job.setNumReduceTasks(0);
+      job.setOutputKeyClass(NullWritable.class);
+      job.setOutputValueClass(NullWritable.class);
+      // The mapper writes its files itself; don't create empty ones.
+      LazyOutputFormat.setOutputFormatClass(job,
+          RawKeyTextOutputFormat.class);
+      FileOutputFormat.setOutputPath(job, jobOutput);
+
+      cacheJars(job, null);
+      setJob(job);
+      return this.runJob(job);
+    } catch (InterruptedException ie) {
+      throw new IOException(ie);
+    } catch (ClassNotFoundException cnfe) {
+      throw new IOException(cnfe);
+    }
+  }
+
+  /**
+   * @return true if a file holds data of the dataset.
+   */
+  static boolean isDataFile(String name) {
+    return AppendUtils.getPartition(name) >= 0 || name.endsWith(".parquet");
+  }
+
+  private static Path getSiblingPath(Path dir, String suffix) {
+    return new Path(dir.getParent(), "." + dir.getName() + suffix);
+  }
+
+  private static void writeNames(FileSystem fs, Path path,
+      List<String> names) throws IOException {
+    Writer w = new BufferedWriter(
+        new OutputStreamWriter(fs.create(path, true), "UTF-8"));
+    try {
+      for (String name : names) {
+        w.write(name + "\n");
+      }
+    } finally {
+      w.close();
+    }
+  }
+
+  /**
+   * Finish a swap cut short, or clean up after a compaction that failed
+   * before its swap.
+   */
+  private void recover(FileSystem fs, Path dir, Path staging, Path backup)
+      throws IOException {
+    if (fs.exists(backup)) {
+      if (!fs.exists(dir)) {
+        LOG.info("Finishing the interrupted compaction of " + dir);
+        swap(fs, dir, staging, backup);
+      } else if (fs.exists(staging)) {
+        // The dir was recreated in the middle of a swap.
+        throw new IOException("Both " + dir + " and the backup " + backup
+            + " of an interrupted compaction exist, with the staging dir "
+            + staging + ". Was the dataset written to while it was "
+            + "compacted? Merge the entries of the backup and staging dirs "
+            + "into " + dir + " by hand and delete them.");
+      } else {
+        // The swap was done but for deleting the backup.
+        fs.delete(backup, true);
+        fs.delete(new Path(dir, COMPACTED_LIST_NAME), false);
+      }
+    } else if (fs.exists(staging)) {
+      LOG.info("Deleting the staging dir of a failed compaction: "
+          + staging);
+      fs.delete(staging, true);
+    }
+  }
+
+  /**
+   * Replace dir with staging, moving the entries of dir that were not
+   * compacted into it.
+   */
+  private void swap(FileSystem fs, Path dir, Path staging, Path backup)
+      throws IOException {
+    if (fs.exists(dir) && !fs.rename(dir, backup)) {
+      throw new IOException("Could not rename " + dir + " to " + backup);
+    }
+
+    Set<String> replaced = CompactInputFormat.readInputList(fs,
+        new Path(staging, COMPACTED_LIST_NAME));
+    // The staging dir has its own manifest if the dir had one.
+    replaced.add(AppendManifest.FILE_NAME);
+    replaced.add(AppendManifest.FILE_NAME + ".new");
+    for (FileStatus stat : fs.listStatus(backup)) {
+      String name = stat.getPath().getName();
+      if (!replaced.contains(name)
+          && !fs.rename(stat.getPath(), new Path(staging, name))) {
+        throw new IOException("Could not move " + stat.getPath() + " to "
+            + staging);
+      }
+    }
+
+    // Renaming onto an existing dir would move staging inside it.
+    if (fs.exists(dir)) {
+      throw new IOException("Could not rename " + staging + " to " + dir
+          + ": " + dir + " was recreated while it was compacted");
+    }
+    if (!fs.rename(staging, dir)) {
+      throw new IOException("Could not rename " + staging + " to " + dir);
+    }
+    fs.delete(new Path(dir, COMPACTED_LIST_NAME), false);
+    fs.delete(backup, true);
+  }
+}
@@ -0,0 +1,444 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileConstants;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.mapred.FsInput;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.sqoop.mapreduce.ExportJobBase.FileType;
+
+import parquet.avro.AvroParquetReader;
+import parquet.avro.AvroParquetWriter;
+import parquet.hadoop.ParquetFileReader;
+import parquet.hadoop.ParquetWriter;
+import parquet.hadoop.metadata.CompressionCodecName;
+import parquet.hadoop.metadata.ParquetMetadata;
+
+/**
+ * Mapper that concatenates the files of its split into one file, of the
+ * same format and with the same compression as the files. Files that
+ * cannot go into the same file as the ones before them start a new one.
+ */
+public class CompactMapper
+    extends AutoProgressMapper<Text, NullWritable, NullWritable, NullWritable> {
+
+  public static final Log LOG = LogFactory.getLog(
+      CompactMapper.class.getName());
+
+  private Configuration conf;
+  private Appender appender;
+  private int outputs;
+
+  @Override
+  protected void setup(Context context)
+      throws IOException, InterruptedException {
+    super.setup(context);
+    this.conf = context.getConfiguration();
+  }
+
+  @Override
+  public void map(Text key, NullWritable value, Context context)
+      throws IOException, InterruptedException {
+    Path input = new Path(key.toString());
+    FileSystem fs = input.getFileSystem(conf);
+    if (null != appender && !appender.accepts(fs, input)) {
+      appender.close();
+      appender = null;
+    }
+    if (null == appender) {
+      appender = newAppender(fs, input);
+      // Each file after the first of a task needs a name of its own.
+      Path output = FileOutputFormat.getPathForWorkFile(context,
+          "part" + (outputs == 0 ? "" : String.valueOf(outputs)),
+          appender.getExtension());
+      outputs++;
+      appender.open(output.getFileSystem(conf), output);
+    }
+    LOG.debug("Appending " + input);
+    appender.append(fs, input);
+  }
+
+  @Override
+  protected void cleanup(Context context)
+      throws IOException, InterruptedException {
+    if (null != appender) {
+      appender.close();
+      appender = null;
+    }
+    super.cleanup(context);
+  }
+
+  private Appender newAppender(FileSystem fs, Path input) throws IOException {
+    FileType fileType = ExportJobBase.getFileType(conf, input);
+    switch (fileType) {
+      case SEQUENCE_FILE:
+        return new SequenceFileAppender(conf, fs, input);
+      case AVRO_DATA_FILE:
+        return new AvroAppender(conf, input);
+      case PARQUET_FILE:
+        return new ParquetAppender(conf, input);
+      default:
+        return new TextAppender(conf, input);
+    }
+  }
+
+  /**
+   * Writes files of one format and compression one after another into a
+   * single file.
+   */
+  abstract static class Appender {
+    /** @return the extension of the file written, or an empty string. */
+    abstract String getExtension();
+
+    /** @return true if the file can be appended to this one. */
+    abstract boolean accepts(FileSystem fs, Path input) throws IOException;
+
+    abstract void open(FileSystem fs, Path output) throws IOException;
+
+    abstract void append(FileSystem fs, Path input) throws IOException;
+
+    abstract void close() throws IOException;
+  }
+
+  /**
+   * Appends text files, decompressing and compressing them again with the
+   * codec their names call for.
+   */
+  static class TextAppender extends Appender {
+    private final Configuration conf;
+    private final CompressionCodecFactory codecs;
+    private final CompressionCodec codec;
+    private OutputStream out;
+
+    TextAppender(Configuration conf, Path first) {
+      this.conf = conf;
+      this.codecs = new CompressionCodecFactory(conf);
+      this.codec = codecs.getCodec(first);
+    }
+
+    @Override
+    String getExtension() {
+      return null == codec ? "" : codec.getDefaultExtension();
+    }
+
+    @Override
+    boolean accepts(FileSystem fs, Path input) throws IOException {
+      if (ExportJobBase.getFileType(conf, input) != FileType.UNKNOWN) {
+        return false;
+      }
+      CompressionCodec other = codecs.getCodec(input);
+      if (null == codec || null == other) {
+        return codec == other;
+      }
+      return codec.getClass().equals(other.getClass());
+    }
+
+    @Override
+    void open(FileSystem fs, Path output) throws IOException {
+      out = fs.create(output, false);
+      if (null != codec) {
+        out = codec.createOutputStream(out);
+      }
+    }
+
+    @Override
+    void append(FileSystem fs, Path input) throws IOException {
+      InputStream in = fs.open(input);
+      if (null != codec) {
+        in = codec.createInputStream(in);
+      }
+      try {
+        IOUtils.copyBytes(in, out, conf, false);
+      } finally {
+        in.close();
+      }
+    }
+
+    @Override
+    void close() throws IOException {
+      out.close();
+    }
+  }
+
+  /**
+   * Appends SequenceFiles record by record without deserializing them, so
+   * records stay compressed as they were.
+   */
+  static class SequenceFileAppender extends Appender {
+    private final Configuration conf;
+    private final String keyClassName;
+    private final String valueClassName;
+    private final SequenceFile.CompressionType compressionType;
+    private final CompressionCodec codec;
+    private final SequenceFile.Metadata metadata;
+    private SequenceFile.Writer writer;
+
+    SequenceFileAppender(Configuration conf, FileSystem fs, Path first)
+        throws IOException {
+      this.conf = conf;
+      SequenceFile.Reader reader = new SequenceFile.Reader(fs, first, conf);
+      try {
+        this.keyClassName = reader.getKeyClassName();
+        this.valueClassName = reader.getValueClassName();
+        this.compressionType = reader.getCompressionType();
+        this.codec = reader.getCompressionCodec();
+        this.metadata = reader.getMetadata();
+      } finally {
+        reader.close();
+      }
+    }
+
+    @Override
+    String getExtension() {
+      return "";
+    }
+
+    @Override
+    boolean accepts(FileSystem fs, Path input) throws IOException {
+      if (ExportJobBase.getFileType(conf, input) != FileType.SEQUENCE_FILE) {
+        return false;
+      }
+      SequenceFile.Reader reader = new SequenceFile.Reader(fs, input, conf);
+      try {
+        return keyClassName.equals(reader.getKeyClassName())
+            && valueClassName.equals(reader.getValueClassName())
+            && compressionType == reader.getCompressionType()
+            && getCodecName(codec).equals(
+                getCodecName(reader.getCompressionCodec()));
+      } finally {
+        reader.close();
+      }
+    }
+
+    private static String getCodecName(CompressionCodec c) {
+      return null == c ? "" : c.getClass().getName();
+    }
+
+    @Override
+    void open(FileSystem fs, Path output) throws IOException {
+      try {
+        writer = SequenceFile.createWriter(fs, conf, output,
+            conf.getClassByName(keyClassName),
+            conf.getClassByName(valueClassName),
+            compressionType, codec, null, metadata);
+      } catch (ClassNotFoundException cnfe) {
+        throw new IOException("Cannot load the record class of the "
+            + "SequenceFiles; set it with --class-name and --jar-file", cnfe);
+      }
+    }
+
+    @Override
+    void append(FileSystem fs, Path input) throws IOException {
+      SequenceFile.Reader reader = new SequenceFile.Reader(fs, input, conf);
+      try {
+        DataOutputBuffer key = new DataOutputBuffer();
+        SequenceFile.ValueBytes value = reader.createValueBytes();
+        while (reader.nextRaw(key, value) != -1) {
+          writer.appendRaw(key.getData(), 0, key.getLength(), value);
+          key.reset();
+        }
+      } finally {
+        reader.close();
+      }
+    }
+
+    @Override
+    void close() throws IOException {
+      writer.close();
+    }
+  }
+
+  /**
+   * Appends Avro data files block by block, without recompressing them.
+   */
+  static class AvroAppender extends Appender {
+    private final Configuration conf;
+    private final Schema schema;
+    private final String codec;
+    private DataFileWriter<GenericRecord> writer;
+
+    AvroAppender(Configuration conf, Path first) throws IOException {
+      this.conf = conf;
+      DataFileReader<GenericRecord> reader = openReader(first);
+      try {
+        this.schema = reader.getSchema();
+        this.codec = getCodec(reader);
+      } finally {
+        reader.close();
+      }
+    }
+
+    private DataFileReader<GenericRecord> openReader(Path input)
+        throws IOException {
+      return new DataFileReader<GenericRecord>(new FsInput(input, conf),
+          new GenericDatumReader<GenericRecord>());
+    }
+
+    private static String getCodec(DataFileReader<GenericRecord> reader) {
+      String name = reader.getMetaString(DataFileConstants.CODEC);
+      return null == name ? DataFileConstants.NULL_CODEC : name;
+    }
+
+    @Override
+    String getExtension() {
+      return ".avro";
+    }
+
+    @Override
+    boolean accepts(FileSystem fs, Path input) throws IOException {
+      if (ExportJobBase.getFileType(conf, input) != FileType.AVRO_DATA_FILE) {
+        return false;
+      }
+      DataFileReader<GenericRecord> reader = openReader(input);
+      try {
+        return schema.equals(reader.getSchema())
+            && codec.equals(getCodec(reader));
+      } finally {
+        reader.close();
+      }
+    }
+
+    @Override
+    void open(FileSystem fs, Path output) throws IOException {
+      writer = new DataFileWriter<GenericRecord>(
+          new GenericDatumWriter<GenericRecord>(schema));
+      writer.setCodec(CodecFactory.fromString(codec));
+      writer.create(schema, fs.create(output, false));
+    }
+
+    @Override
+    void append(FileSystem fs, Path input) throws IOException {
+      DataFileReader<GenericRecord> reader = openReader(input);
+      try {
+        writer.appendAllFrom(reader, false);
+      } finally {
+        reader.close();
+      }
+    }
+
+    @Override
+    void close() throws IOException {
+      writer.close();
+    }
+  }
+
+  /**
+   * Appends the records of Parquet files written from Avro records, with
+   * the compression codec of the files.
+   */
+  static class ParquetAppender extends Appender {
+    private static final String AVRO_SCHEMA_KEY = "avro.schema";
+
+    private final Configuration conf;
+    private final String schema;
+    private final CompressionCodecName codec;
+    private ParquetWriter<GenericRecord> writer;
+
+    ParquetAppender(Configuration conf, Path first) throws IOException {
+      this.conf = conf;
+      ParquetMetadata footer = ParquetFileReader.readFooter(conf, first);
+      this.schema = getSchema(footer, first);
+      this.codec = getCodec(footer);
+    }
+
+    private static String getSchema(ParquetMetadata footer, Path input)
+        throws IOException {
+      String s = footer.getFileMetaData().getKeyValueMetaData()
+          .get(AVRO_SCHEMA_KEY);
+      if (null == s) {
+        throw new IOException("Parquet file " + input
+            + " has no Avro schema");
+      }
+      return s;
+    }
+
+    private static CompressionCodecName getCodec(ParquetMetadata footer) {
+      if (footer.getBlocks().isEmpty()
+          || footer.getBlocks().get(0).getColumns().isEmpty()) {
+        return CompressionCodecName.UNCOMPRESSED;
+      }
+      return footer.getBlocks().get(0).getColumns().get(0).getCodec();
+    }
+
+    @Override
+    String getExtension() {
+      return ".parquet";
+    }
+
+    @Override
+    boolean accepts(FileSystem fs, Path input) throws IOException {
+      if (ExportJobBase.getFileType(conf, input) != FileType.PARQUET_FILE) {
+        return false;
+      }
+      ParquetMetadata footer = ParquetFileReader.readFooter(conf, input);
+      return schema.equals(getSchema(footer, input))
+          && codec == getCodec(footer);
+    }
+
+    @Override
+    void open(FileSystem fs, Path output) throws IOException {
+      writer = new AvroParquetWriter<GenericRecord>(output,
+          new Schema.Parser().parse(schema), codec,
+          ParquetWriter.DEFAULT_BLOCK_SIZE, ParquetWriter.DEFAULT_PAGE_SIZE,
+          true, conf);
+    }
+
+    @Override
+    void append(FileSystem fs, Path input) throws IOException {
+      AvroParquetReader<GenericRecord> reader =
+          new AvroParquetReader<GenericRecord>(conf, input);
+      try {
+        GenericRecord record;
+        while (null != (record = reader.read())) {
+          writer.write(record);
+        }
+      } finally {
+        reader.close();
+      }
+    }
+
+    @Override
+    void close() throws IOException {
+      writer.close();
+    }
+  }
+}
@@ -21,6 +21,7 @@
 import java.io.File;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.List;
 
 import org.apache.avro.Schema;
 import org.apache.commons.io.FileUtils;
@@ -38,7 +39,11 @@
 import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.mapreduce.OutputFormat;
 import org.apache.hadoop.mapreduce.lib.output.SequenceFileOutputFormat;
+import org.apache.sqoop.lib.ColumnBatch;
+import org.apache.sqoop.lib.SchemaSqoopRecord;
 import org.apache.sqoop.mapreduce.hcat.SqoopHCatUtilities;
+import org.apache.sqoop.mapreduce.db.SplitCheckpoint;
+import org.apache.sqoop.mapreduce.db.TablePartition;
 
 import com.cloudera.sqoop.SqoopOptions;
 import com.cloudera.sqoop.config.ConfigurationHelper;
@@ -49,6 +54,7 @@
 import com.cloudera.sqoop.mapreduce.db.DBConfiguration;
 import com.cloudera.sqoop.mapreduce.db.DataDrivenDBInputFormat;
 import com.cloudera.sqoop.orm.AvroSchemaGenerator;
+import com.cloudera.sqoop.orm.ClassWriter;
 import org.apache.sqoop.util.FileSystemUtil;
 import org.kitesdk.data.Datasets;
 import org.kitesdk.data.mapreduce.DatasetKeyOutputFormat;
@@ -62,6 +68,9 @@ public class DataDrivenImportJob extends ImportJobBase {
   public static final Log LOG = LogFactory.getLog(
       DataDrivenImportJob.class.getName());
 
+  // True if the mappers are passed column batches instead of records.
+  private boolean columnBatches;
+
   @SuppressWarnings("unchecked")
   public DataDrivenImportJob(final SqoopOptions opts) {
     super(opts, null, DataDrivenDBInputFormat.class, null, null);
@@ -177,6 +186,16 @@ protected Class<? extends Mapper> getMapperClass() {
     if (options.getHCatTableName() != null) {
       return SqoopHCatUtilities.getImportMapperClass();
     }
+    if (columnBatches) {
+      if (options.getFileLayout() == SqoopOptions.FileLayout.TextFile) {
+        return ColumnBatchTextImportMapper.class;
+      } else if (options.getFileLayout()
+          == SqoopOptions.FileLayout.AvroDataFile) {
+        return ColumnBatchAvroImportMapper.class;
+      } else {
+        return ColumnBatchParquetImportMapper.class;
+      }
+    }
     if (options.getFileLayout() == SqoopOptions.FileLayout.TextFile) {
       return TextImportMapper.class;
     } else if (options.getFileLayout()
@@ -246,6 +265,75 @@ private String buildBoundaryQuery(String col, String query) {
         + "FROM (" + query + ") AS " + alias;
   }
 
+  /**
+   * Read column batches instead of records if that is enabled and
+   * supported by the import.
+   * @return true if the mappers are passed column batches.
+   */
+  private boolean configureColumnBatches(Job job, ConnManager mgr,
+      String tableName) throws IOException {
+    Configuration conf = job.getConfiguration();
+    if (!conf.getBoolean(ColumnBatch.ENABLED_KEY, false)) {
+      return false;
+    }
+    SqoopOptions.FileLayout layout = options.getFileLayout();
+    if (isHCatJob || (layout != SqoopOptions.FileLayout.TextFile
+        && layout != SqoopOptions.FileLayout.AvroDataFile
+        && layout != SqoopOptions.FileLayout.ParquetFile)) {
+      LOG.info("Not importing column batches into " + layout);
+      return false;
+    }
+    if (inputFormatClass != DataDrivenDBInputFormat.class
+        && inputFormatClass
+            != org.apache.sqoop.mapreduce.db.DataDrivenDBInputFormat.class) {
+      // Other input formats read records their own way.
+      LOG.info("Not importing column batches with " + inputFormatClass);
+      return false;
+    }
+    if (conf.getLong(SplitCheckpoint.CHECKPOINT_ROWS_KEY, 0) > 0) {
+      LOG.info("Not importing column batches of checkpointed splits");
+      return false;
+    }
+    if (mgr.isORMFacilitySelfManaged()) {
+      return false;
+    }
+    SchemaSqoopRecord.Schema schema = new ClassWriter(options, mgr,
+        tableName, null).getRecordSchema();
+    if (null == schema || !ColumnBatch.isSupported(schema)) {
+      LOG.info("Not importing column batches of these column types");
+      return false;
+    }
+    ColumnBatch.setSchema(conf, schema);
+    conf.set(ConfigurationHelper.getDbInputClassProperty(),
+        ColumnBatch.class.getName());
+    LOG.info("Importing column batches of "
+        + conf.getInt(ColumnBatch.SIZE_KEY, ColumnBatch.DEFAULT_SIZE)
+        + " rows");
+    return true;
+  }
+
+  /**
+   * If partition splits are enabled, pass the partitions of the table to
+   * the input format to split the table within each partition.
+   */
+  private void configurePartitions(Job job, ConnManager mgr,
+      String tableName) {
+    DBConfiguration dbConf = new DBConfiguration(job.getConfiguration());
+    if (!dbConf.isInputPartitionSplits()
+        || ConfigurationHelper.getJobNumMaps(job) <= 1) {
+      return;
+    }
+    List<TablePartition> partitions = mgr.getTablePartitions(tableName);
+    if (null == partitions) {
+      LOG.info("Splitting " + tableName + " as a whole, as no partitions"
+          + " of it were found");
+      return;
+    }
+    LOG.info("Splitting " + tableName + " within its " + partitions.size()
+        + " partitions");
+    dbConf.setInputPartitions(partitions);
+  }
+
   @Override
   protected void configureInputFormat(Job job, String tableName,
       String tableClassName, String splitByCol) throws IOException {
@@ -293,6 +381,8 @@ protected void configureInputFormat(Job job, String tableName,
         if (options.getBoundaryQuery() != null) {
           DataDrivenDBInputFormat.setBoundingQuery(job.getConfiguration(),
                   options.getBoundaryQuery());
+        } else {
+          configurePartitions(job, mgr, tableName);
         }
       } else {
         // Import a free-form query.
@@ -309,6 +399,11 @@ protected void configureInputFormat(Job job, String tableName,
         new DBConfiguration(job.getConfiguration()).setInputOrderBy(
             splitByCol);
       }
+      if (job.getConfiguration().getLong(
+          SplitCheckpoint.CHECKPOINT_ROWS_KEY, 0) > 0) {
+        // Two attempts of a task running at once would share its checkpoint.
+        ConfigurationHelper.setJobMapSpeculativeExecution(job, false);
+      }
       if (options.getRelaxedIsolation()) {
         LOG
           .info("Enabling relaxed (read uncommitted) transaction "
@@ -319,6 +414,7 @@ protected void configureInputFormat(Job job, String tableName,
       LOG.debug("Using table class: " + tableClassName);
       job.getConfiguration().set(ConfigurationHelper.getDbInputClassProperty(),
           tableClassName);
+      columnBatches = configureColumnBatches(job, mgr, tableName);
 
       job.getConfiguration().setLong(LargeObjectLoader.MAX_INLINE_LOB_LEN_KEY,
           options.getInlineLobLimit());
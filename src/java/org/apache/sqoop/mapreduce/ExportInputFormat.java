@@ -88,6 +88,22 @@ public RecordReader createRecordReader(
 
     CombineFileSplit combineSplit = (CombineFileSplit) split;
 
+    // Leave out the chunks committed by an earlier attempt, if the export
+    // commits its splits.
+    final CombineFileSplit uncommitted = ExportSplitCommitTable
+        .selectUncommittedChunks(combineSplit, context);
+    if (uncommitted != combineSplit) {
+      // The framework initializes the reader with the whole split.
+      return new CombineFileRecordReader<LongWritable, Object>(uncommitted,
+          context, CombineShimRecordReader.class) {
+        @Override
+        public void initialize(InputSplit whole, TaskAttemptContext ctxt)
+            throws IOException, InterruptedException {
+          super.initialize(uncommitted, ctxt);
+        }
+      };
+    }
+
     // Use CombineFileRecordReader since this can handle CombineFileSplits
     // and instantiate another RecordReader in a loop; do this with the
     // CombineShimRecordReader.
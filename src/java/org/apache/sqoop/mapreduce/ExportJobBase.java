@@ -343,6 +343,7 @@ public void runExport() throws ExportException, IOException {
 
     String tableName = outputTableName;
     boolean stagingEnabled = false;
+    ExportSplitCommitTable splitCommits = null;
 
     // Check if there are runtime error checks to do
     if (isHCatJob && options.isDirect()
@@ -434,7 +435,11 @@ public void runExport() throws ExportException, IOException {
       configureInputFormat(job, tableName, tableClassName, null);
       configureOutputFormat(job, tableName, tableClassName);
       configureMapper(job, tableName, tableClassName);
-      configureNumTasks(job);
+      int numMapTasks = configureNumTasks(job);
+      if (null != options.getSplitCommitTable()) {
+        splitCommits = prepareSplitCommitTable(job, outputTableName,
+            numMapTasks);
+      }
       cacheJars(job, context.getConnManager());
 
       jobSetup(job);
@@ -464,6 +469,11 @@ public void runExport() throws ExportException, IOException {
       jobTeardown(job);
     }
 
+    // The export is complete; its split markers are no longer needed.
+    if (null != splitCommits) {
+      clearSplitCommitTable(splitCommits);
+    }
+
     // Unstage the data if needed
     if (stagingEnabled) {
       // Migrate data from staging table to the output table
@@ -480,6 +490,49 @@ public void runExport() throws ExportException, IOException {
     }
   }
 
+  /**
+   * Configure the job to commit each split along with a marker row in the
+   * split commit table, creating the table if needed.
+   */
+  protected ExportSplitCommitTable prepareSplitCommitTable(Job job, String outputTableName,
+      int numMapTasks) throws IOException {
+    String table = options.getSplitCommitTable();
+    String source = isHCatJob ? options.getHCatDatabaseName() + "."
+        + options.getHCatTableName() : null;
+    Configuration jobConf = job.getConfiguration();
+    String exportId = jobConf.get(ExportSplitCommitTable.EXPORT_ID_KEY);
+    if (null == exportId) {
+      exportId = ExportSplitCommitTable.computeExportId(outputTableName,
+          numMapTasks, getInputPath(), source, jobConf);
+    }
+    jobConf.set(ExportSplitCommitTable.TABLE_KEY, table);
+    jobConf.set(ExportSplitCommitTable.EXPORT_ID_KEY, exportId);
+    ExportSplitCommitTable splitCommits =
+        new ExportSplitCommitTable(table, exportId);
+    try {
+      splitCommits.createIfMissing(context.getConnManager().getConnection());
+    } catch (SQLException sqle) {
+      throw new IOException("Failed to prepare split commit table "
+          + table, sqle);
+    }
+    LOG.info("Committing each split with a marker in " + table
+        + " (export id " + exportId + ")");
+    return splitCommits;
+  }
+
+  private void clearSplitCommitTable(ExportSplitCommitTable splitCommits)
+      throws ExportException {
+    try {
+      int count = splitCommits.clear(context.getConnManager().getConnection());
+      LOG.debug("Removed " + count + " split commit markers");
+    } catch (SQLException ex) {
+      LoggingUtils.logAll(LOG, "Failed to remove split commit markers of "
+          + "export " + splitCommits.getExportId() + " from "
+          + splitCommits.getTableName(), ex);
+      throw new ExportException("Failed to remove split commit markers", ex);
+    }
+  }
+
   protected void validateExport(String tableName, Configuration conf, Job job)
     throws ExportException {
     LOG.debug("Validating exported data.");
@@ -0,0 +1,485 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.OutputCommitter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.util.StringUtils;
+import org.apache.sqoop.mapreduce.db.DBConfiguration;
+
+/**
+ * A control table recording which splits of an export have been committed.
+ *
+ * When it is enabled, each export task inserts its split in a single
+ * transaction which also inserts a marker row (export id, chunk key) into
+ * the control table for every chunk of input the split holds. That
+ * transaction is committed by the task's OutputCommitter, so only the
+ * attempt the framework lets commit makes its rows visible. The input
+ * format leaves out the chunks whose markers are already present, so
+ * retried and resumed tasks do not insert the same rows twice. The markers
+ * of an export are removed once the whole export has succeeded.
+ *
+ * Markers are kept per chunk (a file, offset and length) rather than per
+ * task, because the chunks the input format groups into a given task
+ * depend on where their blocks are stored, which may change before a
+ * failed export is resumed. Input formats that do not name the chunks of
+ * their splits fall back to markers per task attempt's task, which only
+ * hold for retries within the same job.
+ *
+ * The export id identifies the target table and the input being exported,
+ * so that rerunning a failed export with the same arguments resumes it.
+ */
+public class ExportSplitCommitTable {
+
+  public static final Log LOG = LogFactory.getLog(
+      ExportSplitCommitTable.class.getName());
+
+  /** conf key: name of the control table; the feature is off if unset. */
+  public static final String TABLE_KEY = "sqoop.export.split.commit.table";
+
+  /**
+   * conf key: the id of the running export. Computed from the export's
+   * arguments and input unless set by the user.
+   */
+  public static final String EXPORT_ID_KEY = "sqoop.export.split.commit.id";
+
+  /**
+   * conf key: the keys of the chunks the running task exports, set by its
+   * input format once it has left out the committed ones.
+   */
+  public static final String TASK_CHUNKS_KEY =
+      "sqoop.export.split.commit.task.chunks";
+
+  public static final String EXPORT_ID_COL = "EXPORT_ID";
+  public static final String CHUNK_KEY_COL = "CHUNK_KEY";
+  public static final String ROW_COUNT_COL = "ROW_COUNT";
+
+  // Uncommitted transactions of the record writers closed in this JVM.
+  private static final Map<TaskAttemptID, Connection> PENDING_COMMITS =
+      new HashMap<TaskAttemptID, Connection>();
+
+  private final String tableName;
+  private final String exportId;
+
+  public ExportSplitCommitTable(String tableName, String exportId) {
+    this.tableName = tableName;
+    this.exportId = exportId;
+  }
+
+  /**
+   * @return the control table configured for this job, or null if split
+   * commits are not enabled.
+   */
+  public static ExportSplitCommitTable get(Configuration conf) {
+    String table = conf.get(TABLE_KEY);
+    if (null == table) {
+      return null;
+    }
+    return new ExportSplitCommitTable(table, conf.get(EXPORT_ID_KEY));
+  }
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  public String getExportId() {
+    return exportId;
+  }
+
+  /**
+   * Create the control table unless it already exists.
+   */
+  public void createIfMissing(Connection conn) throws SQLException {
+    Statement stmt = conn.createStatement();
+    try {
+      try {
+        stmt.executeQuery("SELECT " + EXPORT_ID_COL + " FROM " + tableName
+            + " WHERE 1 = 0").close();
+        return;
+      } catch (SQLException sqle) {
+        LOG.debug("Control table " + tableName + " not readable: "
+            + sqle.getMessage());
+        if (!conn.getAutoCommit()) {
+          conn.rollback();
+        }
+      }
+      LOG.info("Creating split commit table " + tableName);
+      stmt.executeUpdate("CREATE TABLE " + tableName + " ("
+          + EXPORT_ID_COL + " VARCHAR(64) NOT NULL, "
+          + CHUNK_KEY_COL + " VARCHAR(128) NOT NULL, "
+          + ROW_COUNT_COL + " BIGINT, "
+          + "PRIMARY KEY (" + EXPORT_ID_COL + ", " + CHUNK_KEY_COL + "))");
+      if (!conn.getAutoCommit()) {
+        conn.commit();
+      }
+    } finally {
+      stmt.close();
+    }
+  }
+
+  /**
+   * @return the keys of the chunks of this export that have been
+   * committed.
+   */
+  public Set<String> getCommittedChunks(Connection conn)
+      throws SQLException {
+    PreparedStatement stmt = conn.prepareStatement("SELECT "
+        + CHUNK_KEY_COL + " FROM " + tableName + " WHERE "
+        + EXPORT_ID_COL + " = ?");
+    try {
+      stmt.setString(1, exportId);
+      ResultSet rs = stmt.executeQuery();
+      try {
+        Set<String> chunks = new HashSet<String>();
+        while (rs.next()) {
+          chunks.add(rs.getString(1));
+        }
+        return chunks;
+      } finally {
+        rs.close();
+      }
+    } finally {
+      stmt.close();
+    }
+  }
+
+  /**
+   * @return a batch statement inserting the markers of the chunks of a
+   * split, each with the row count of the whole split; it must be run in
+   * the transaction which inserts the split's rows.
+   */
+  public PreparedStatement getMarkerStatement(Connection conn,
+      Collection<String> chunkKeys, long rowCount) throws SQLException {
+    PreparedStatement stmt = conn.prepareStatement("INSERT INTO "
+        + tableName + " (" + EXPORT_ID_COL + ", " + CHUNK_KEY_COL + ", "
+        + ROW_COUNT_COL + ") VALUES (?, ?, ?)");
+    for (String chunkKey : chunkKeys) {
+      stmt.setString(1, exportId);
+      stmt.setString(2, chunkKey);
+      stmt.setLong(3, rowCount);
+      stmt.addBatch();
+    }
+    return stmt;
+  }
+
+  /**
+   * @return the key of a chunk of input, which names its file, offset and
+   * length.
+   */
+  public static String getChunkKey(Path path, long offset, long length)
+      throws IOException {
+    MessageDigest digester = getDigester();
+    update(digester, path.toString());
+    update(digester, Long.toString(offset));
+    update(digester, Long.toString(length));
+    return toHex(digester.digest());
+  }
+
+  /**
+   * @return the keys of the chunks of a split.
+   */
+  public static List<String> getChunkKeys(CombineFileSplit split)
+      throws IOException {
+    List<String> keys = new ArrayList<String>();
+    for (int i = 0; i < split.getNumPaths(); i++) {
+      keys.add(getChunkKey(split.getPath(i), split.getOffset(i),
+          split.getLength(i)));
+    }
+    return keys;
+  }
+
+  /**
+   * Leave out of a split the chunks an earlier attempt or run of the
+   * export has committed, and tell the task's record writer which chunks
+   * it exports. Called by the input format when it makes the task's
+   * record reader, which happens before the record writer is made.
+   * @return the split to read, which is the given one if split commits
+   * are not enabled.
+   */
+  public static CombineFileSplit selectUncommittedChunks(
+      CombineFileSplit split, TaskAttemptContext context) throws IOException {
+    Configuration conf = context.getConfiguration();
+    ExportSplitCommitTable table = get(conf);
+    if (null == table) {
+      return split;
+    }
+
+    Set<String> committed;
+    try {
+      Connection conn = new DBConfiguration(conf).getConnection();
+      try {
+        committed = table.getCommittedChunks(conn);
+      } finally {
+        conn.close();
+      }
+    } catch (SQLException sqle) {
+      throw new IOException("Failed to read split commit table "
+          + table.getTableName(), sqle);
+    } catch (ClassNotFoundException cnfe) {
+      throw new IOException(cnfe);
+    }
+
+    List<String> keys = getChunkKeys(split);
+    List<Integer> kept = new ArrayList<Integer>();
+    for (int i = 0; i < keys.size(); i++) {
+      if (!committed.contains(keys.get(i))) {
+        kept.add(i);
+      }
+    }
+    if (kept.size() < keys.size()) {
+      LOG.info("Skipping " + (keys.size() - kept.size()) + " of "
+          + keys.size() + " chunks of the split, committed by an earlier "
+          + "attempt");
+    }
+
+    Path[] paths = new Path[kept.size()];
+    long[] offsets = new long[kept.size()];
+    long[] lengths = new long[kept.size()];
+    List<String> keptKeys = new ArrayList<String>();
+    for (int i = 0; i < kept.size(); i++) {
+      int chunk = kept.get(i);
+      paths[i] = split.getPath(chunk);
+      offsets[i] = split.getOffset(chunk);
+      lengths[i] = split.getLength(chunk);
+      keptKeys.add(keys.get(chunk));
+    }
+    conf.set(TASK_CHUNKS_KEY, StringUtils.join(",", keptKeys));
+    return new CombineFileSplit(paths, offsets, lengths,
+        split.getLocations());
+  }
+
+  /**
+   * @return the keys of the chunks the given task attempt exports and
+   * must mark as committed; empty if it has nothing left to export.
+   */
+  public List<String> getTaskChunks(Connection conn,
+      TaskAttemptContext context) throws SQLException {
+    String chunks = context.getConfiguration().get(TASK_CHUNKS_KEY);
+    if (null != chunks) {
+      if (chunks.isEmpty()) {
+        return Collections.emptyList();
+      }
+      return Arrays.asList(chunks.split(","));
+    }
+
+    // The input format does not name its chunks, so mark the task. A
+    // later job may group the input into its tasks differently, so such
+    // markers only hold for retries within this job.
+    String taskKey = context.getTaskAttemptID().getTaskID().toString();
+    LOG.info("Marking the split of " + taskKey + " as a whole; an export "
+        + "resumed by a later job exports it again");
+    if (getCommittedChunks(conn).contains(taskKey)) {
+      return Collections.emptyList();
+    }
+    return Collections.singletonList(taskKey);
+  }
+
+  /**
+   * Remove the markers of this export.
+   * @return the number of markers removed.
+   */
+  public int clear(Connection conn) throws SQLException {
+    PreparedStatement stmt = conn.prepareStatement("DELETE FROM "
+        + tableName + " WHERE " + EXPORT_ID_COL + " = ?");
+    try {
+      stmt.setString(1, exportId);
+      int count = stmt.executeUpdate();
+      if (!conn.getAutoCommit()) {
+        conn.commit();
+      }
+      return count;
+    } finally {
+      stmt.close();
+    }
+  }
+
+  /**
+   * Hand over the open transaction of a task attempt to its committer.
+   */
+  public static void setPendingCommit(TaskAttemptID attempt,
+      Connection conn) {
+    synchronized (PENDING_COMMITS) {
+      PENDING_COMMITS.put(attempt, conn);
+    }
+  }
+
+  private static Connection getPendingCommit(TaskAttemptID attempt,
+      boolean remove) {
+    synchronized (PENDING_COMMITS) {
+      return remove ? PENDING_COMMITS.remove(attempt)
+          : PENDING_COMMITS.get(attempt);
+    }
+  }
+
+  /**
+   * OutputCommitter that commits or rolls back the transaction left open by
+   * the task's record writer.
+   */
+  public static class TaskCommitter extends OutputCommitter {
+
+    @Override
+    public void setupJob(JobContext jobContext) { }
+
+    @Override
+    public void setupTask(TaskAttemptContext taskContext) { }
+
+    @Override
+    public boolean needsTaskCommit(TaskAttemptContext taskContext) {
+      return null != getPendingCommit(taskContext.getTaskAttemptID(), false);
+    }
+
+    @Override
+    public void commitTask(TaskAttemptContext taskContext) throws IOException {
+      Connection conn = getPendingCommit(taskContext.getTaskAttemptID(), true);
+      if (null == conn) {
+        return;
+      }
+      try {
+        conn.commit();
+        LOG.info("Committed split of " + taskContext.getTaskAttemptID());
+      } catch (SQLException sqle) {
+        throw new IOException("Failed to commit export split", sqle);
+      } finally {
+        closeQuietly(conn);
+      }
+    }
+
+    @Override
+    public void abortTask(TaskAttemptContext taskContext) {
+      Connection conn = getPendingCommit(taskContext.getTaskAttemptID(), true);
+      if (null == conn) {
+        return;
+      }
+      try {
+        conn.rollback();
+      } catch (SQLException sqle) {
+        LOG.warn("Failed to roll back export split: " + sqle.getMessage());
+      } finally {
+        closeQuietly(conn);
+      }
+    }
+
+    private void closeQuietly(Connection conn) {
+      try {
+        conn.close();
+      } catch (SQLException sqle) {
+        LOG.debug("Exception closing connection: " + sqle.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Compute the id of an export from its target table, the number of map
+   * tasks and the name, size and modification time of every input file.
+   * Any change to these may change how the input is split, and so gives a
+   * different id.
+   * @param inputPath the export directory, or null for HCatalog exports.
+   * @param source describes the input when there is no input path.
+   */
+  public static String computeExportId(String table, int numMapTasks,
+      Path inputPath, String source, Configuration conf) throws IOException {
+    MessageDigest digester = getDigester();
+    update(digester, table);
+    update(digester, Integer.toString(numMapTasks));
+    update(digester, source);
+    if (null != inputPath) {
+      FileSystem fs = inputPath.getFileSystem(conf);
+      List<String> files = new ArrayList<String>();
+      FileStatus[] statuses = fs.globStatus(inputPath);
+      if (null != statuses) {
+        for (FileStatus stat : statuses) {
+          listFiles(fs, stat, files);
+        }
+      }
+      Collections.sort(files);
+      for (String file : files) {
+        update(digester, file);
+      }
+    }
+
+    return toHex(digester.digest());
+  }
+
+  private static MessageDigest getDigester() throws IOException {
+    try {
+      return MessageDigest.getInstance("MD5");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private static String toHex(byte[] digest) {
+    StringBuilder sb = new StringBuilder();
+    for (byte b : digest) {
+      int x = ((int) b) & 0xFF;
+      sb.append(String.format("%02x", x));
+    }
+    return sb.toString();
+  }
+
+  private static void update(MessageDigest digester, String s)
+      throws IOException {
+    if (null != s) {
+      digester.update(s.getBytes("UTF-8"));
+    }
+    digester.update((byte) 0);
+  }
+
+  private static void listFiles(FileSystem fs, FileStatus stat,
+      List<String> out) throws IOException {
+    String name = stat.getPath().getName();
+    if (name.startsWith("_") || name.startsWith(".")) {
+      return;
+    }
+    if (stat.isDirectory()) {
+      for (FileStatus child : fs.listStatus(stat.getPath())) {
+        listFiles(fs, child, out);
+      }
+    } else {
+      out.add(stat.getPath() + ":" + stat.getLen() + ":"
+          + stat.getModificationTime());
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+/**
+ * Writes the phase metrics of a task to the task's log.
+ */
+public class LogTaskMetricsSink implements TaskMetricsSink {
+
+  public static final Log LOG = LogFactory.getLog(
+      LogTaskMetricsSink.class.getName());
+
+  @Override
+  public void publish(TaskAttemptContext context, String source,
+      TaskPhaseMetrics metrics) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("Phases of ").append(source).append(" in ")
+        .append(context.getTaskAttemptID()).append(':');
+    for (TaskPhaseMetrics.Phase phase : TaskPhaseMetrics.Phase.values()) {
+      long count = metrics.getCount(phase);
+      if (count > 0) {
+        sb.append(String.format(" %s %d times in %.3f ms;", phase, count,
+            metrics.getNanos(phase) / 1e6));
+      }
+    }
+    LOG.info(sb.toString());
+  }
+}
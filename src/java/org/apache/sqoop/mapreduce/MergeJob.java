@@ -43,6 +43,7 @@
 import org.apache.sqoop.avro.AvroUtil;
 import org.apache.sqoop.mapreduce.ExportJobBase.FileType;
 import org.apache.sqoop.util.Jars;
+import org.apache.sqoop.util.RangeDigestSync;
 
 import com.cloudera.sqoop.SqoopOptions;
 import com.cloudera.sqoop.mapreduce.JobBase;
@@ -67,6 +68,15 @@ public class MergeJob extends JobBase {
    */
   public static final String MERGE_SQOOP_RECORD_KEY = "sqoop.merge.class";
 
+  /**
+   * Configuration key specifying key ranges of the "old" dataset that the
+   * "new" dataset replaces; the old records with a key in them are dropped,
+   * even if the new dataset has no record of the same key. The ranges are
+   * written as by {@link RangeDigestSync#formatRanges(java.util.List)}.
+   */
+  public static final String MERGE_REPLACED_RANGES_KEY =
+      "sqoop.merge.replaced.ranges";
+
   public MergeJob(final SqoopOptions opts) {
     super(opts, null, null, null);
   }
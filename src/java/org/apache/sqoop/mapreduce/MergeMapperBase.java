@@ -19,6 +19,7 @@
 package org.apache.sqoop.mapreduce;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -28,6 +29,7 @@
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.sqoop.util.RangeDigestSync;
 import com.cloudera.sqoop.lib.SqoopRecord;
 
 /**
@@ -43,12 +45,17 @@
 
   private String keyColName; // name of the key column.
   private boolean isNew; // true if this split is from the new dataset.
+  private List<long[]> replacedRanges; // key ranges the new dataset replaces.
 
   @Override
   protected void setup(Context context)
       throws IOException, InterruptedException {
     Configuration conf = context.getConfiguration();
     keyColName = conf.get(MergeJob.MERGE_KEY_COL_KEY);
+    String ranges = conf.get(MergeJob.MERGE_REPLACED_RANGES_KEY);
+    if (null != ranges) {
+      replacedRanges = RangeDigestSync.parseRanges(ranges);
+    }
 
     InputSplit is = context.getInputSplit();
     FileSplit fs = (FileSplit) is;
@@ -78,8 +85,33 @@ protected void processRecord(SqoopRecord r, Context c)
     if (null == keyObj) {
       throw new IOException("Cannot join values on null key. "
           + "Did you specify a key column that exists?");
+    } else if (!isNew && isReplaced(keyObj)) {
+      return; // dropped; the new dataset holds all records of its range.
     } else {
       c.write(new Text(keyObj.toString()), mr);
     }
   }
+
+  private boolean isReplaced(Object keyObj) throws IOException {
+    if (null == replacedRanges) {
+      return false;
+    }
+    long key;
+    if (keyObj instanceof Number) {
+      key = ((Number) keyObj).longValue();
+    } else {
+      try {
+        key = Long.parseLong(keyObj.toString());
+      } catch (NumberFormatException nfe) {
+        throw new IOException("Key " + keyObj + " of replaced ranges is not "
+            + "an integer", nfe);
+      }
+    }
+    for (long [] range : replacedRanges) {
+      if (key >= range[0] && key < range[1]) {
+        return true;
+      }
+    }
+    return false;
+  }
 }
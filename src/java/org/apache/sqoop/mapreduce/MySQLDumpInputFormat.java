@@ -20,6 +20,7 @@
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.RecordReader;
@@ -93,5 +94,12 @@ public RecordReader<String, NullWritable> createRecordReader(InputSplit split,
     return new MySQLDumpRecordReader(split);
   }
 
+  @Override
+  /** {@inheritDoc} */
+  protected int getSubranges(Configuration conf) {
+    // Each mapper hands its whole split to a single mysqldump.
+    return 1;
+  }
+
 }
 
@@ -22,13 +22,19 @@
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapred.JobConf;
+import org.apache.sqoop.io.BufferPipe;
 import org.apache.sqoop.util.AsyncSink;
 import org.apache.sqoop.util.JdbcUrl;
 import org.apache.sqoop.util.LoggingAsyncSink;
@@ -46,6 +52,11 @@
  * SequenceFiles (containing existing SqoopRecords) or text files
  * (containing delimited lines) and deliver these results to the fifo
  * used to interface with mysqlimport.
+ *
+ * If {@link #MYSQL_LOCAL_INFILE_KEY} is set, the mapper instead issues
+ * LOAD DATA LOCAL INFILE over its own JDBC connection, and the driver
+ * reads the records from an in-memory pipe. No mysqlimport binary, FIFO
+ * or password file is needed.
  */
 public class MySQLExportMapper<KEYIN, VALIN>
     extends SqoopMapper<KEYIN, VALIN, NullWritable, NullWritable> {
@@ -77,6 +88,23 @@
   // Configured value for MYSQL_CHECKPOINT_SLEEP_KEY.
   protected long checkpointSleepMs;
 
+  /** Configuration key that makes the mapper load its records through
+   * LOAD DATA LOCAL INFILE over JDBC rather than through mysqlimport.
+   * The JDBC driver must be MySQL Connector/J with local infile allowed.
+   */
+  public static final String MYSQL_LOCAL_INFILE_KEY =
+      "sqoop.mysql.export.local.infile";
+
+  /** Size and number of the buffers of the pipe to the JDBC driver. */
+  private static final int LOCAL_INFILE_BUFFER_SIZE = 64 * 1024;
+  private static final int LOCAL_INFILE_BUFFERS = 16;
+
+  /** The statement classes of Connector/J with setLocalInfileInputStream. */
+  private static final String [] LOCAL_INFILE_STATEMENT_CLASSES = {
+    "com.mysql.jdbc.Statement",
+    "com.mysql.cj.jdbc.JdbcStatement",
+  };
+
   protected Configuration conf;
 
   /** The FIFO being used to communicate with mysqlimport. */
@@ -98,6 +126,15 @@
   /** Character set used to write to mysqlimport. */
   protected String mysqlCharSet;
 
+  /** The connection LOAD DATA LOCAL INFILE statements are run on. */
+  protected Connection loadConnection;
+
+  /** The pipe the records are handed to the JDBC driver through. */
+  protected BufferPipe loadPipe;
+
+  /** The thread running the current LOAD DATA LOCAL INFILE statement. */
+  private LocalInfileLoader loader;
+
   /**
    * Tally of bytes written to current mysqlimport instance.
    * We commit an interim tx and open a new mysqlimport after this
@@ -235,23 +272,254 @@ private void initMySQLImportProcess() throws IOException {
     this.bytesWritten = 0;
   }
 
+  /**
+   * Start a LOAD DATA LOCAL INFILE statement on a thread of its own,
+   * reading from a pipe that 'importStream' writes to.
+   */
+  private void initLocalInfileLoad() throws IOException {
+    if (null == this.loadConnection) {
+      try {
+        this.loadConnection = new DBConfiguration(conf).getConnection();
+        this.loadConnection.setAutoCommit(false);
+      } catch (SQLException sqle) {
+        throw new IOException("Could not connect to the database", sqle);
+      } catch (ClassNotFoundException cnfe) {
+        throw new IOException("Could not load the JDBC driver", cnfe);
+      }
+      this.loadPipe = new BufferPipe(LOCAL_INFILE_BUFFER_SIZE,
+          LOCAL_INFILE_BUFFERS);
+    }
+
+    String sql = getLoadDataStatement(conf);
+    LOG.debug("Starting load: " + sql);
+    this.loader = new LocalInfileLoader(loadConnection, sql, loadPipe);
+    this.loader.start();
+    this.importStream = loadPipe.getOutputStream();
+    this.bytesWritten = 0;
+  }
+
+  /**
+   * @return the LOAD DATA LOCAL INFILE statement that loads records in
+   * the format mysqlimport would be told to expect.
+   */
+  static String getLoadDataStatement(Configuration conf) {
+    int outputFieldDelim = conf.getInt(MySQLUtils.OUTPUT_FIELD_DELIM_KEY,
+        (int) ',');
+    int outputRecordDelim = conf.getInt(MySQLUtils.OUTPUT_RECORD_DELIM_KEY,
+        (int) '\n');
+    int enclosedBy = conf.getInt(MySQLUtils.OUTPUT_ENCLOSED_BY_KEY, 0);
+    int escapedBy = conf.getInt(MySQLUtils.OUTPUT_ESCAPED_BY_KEY, 0);
+    boolean encloseRequired = conf.getBoolean(
+        MySQLUtils.OUTPUT_ENCLOSE_REQUIRED_KEY, false);
+
+    // The file name is only a label; the driver reads our stream instead.
+    StringBuilder sb = new StringBuilder();
+    sb.append("LOAD DATA LOCAL INFILE 'sqoop-export' INTO TABLE `");
+    sb.append(conf.get(MySQLUtils.TABLE_NAME_KEY)).append("`");
+    sb.append(" FIELDS TERMINATED BY 0x");
+    sb.append(Integer.toString(outputFieldDelim, 16));
+    if (0 != enclosedBy) {
+      sb.append(encloseRequired ? " ENCLOSED BY 0x"
+          : " OPTIONALLY ENCLOSED BY 0x");
+      sb.append(Integer.toString(enclosedBy, 16));
+    }
+    if (0 != escapedBy) {
+      sb.append(" ESCAPED BY 0x").append(Integer.toString(escapedBy, 16));
+    }
+    sb.append(" LINES TERMINATED BY 0x");
+    sb.append(Integer.toString(outputRecordDelim, 16));
+
+    String [] cols = new DBConfiguration(conf).getInputFieldNames();
+    if (null != cols) {
+      sb.append(" (");
+      for (int i = 0; i < cols.length; i++) {
+        if (i > 0) {
+          sb.append(",");
+        }
+        sb.append(cols[i]);
+      }
+      sb.append(")");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Hand the stream to read a LOAD DATA LOCAL INFILE statement's data
+   * from to the MySQL JDBC driver.
+   */
+  static void setLocalInfileInputStream(Statement stmt, InputStream in)
+      throws IOException {
+    for (String className : LOCAL_INFILE_STATEMENT_CLASSES) {
+      Class<?> stmtClass;
+      try {
+        stmtClass = Class.forName(className, false,
+            stmt.getClass().getClassLoader());
+      } catch (ClassNotFoundException cnfe) {
+        continue;
+      }
+      if (!stmtClass.isInstance(stmt)) {
+        continue;
+      }
+      try {
+        stmtClass.getMethod("setLocalInfileInputStream", InputStream.class)
+            .invoke(stmt, in);
+        return;
+      } catch (NoSuchMethodException nsme) {
+        throw new IOException("Could not stream records to the driver",
+            nsme);
+      } catch (IllegalAccessException iae) {
+        throw new IOException("Could not stream records to the driver",
+            iae);
+      } catch (InvocationTargetException ite) {
+        throw new IOException("Could not stream records to the driver",
+            ite.getCause());
+      }
+    }
+    throw new IOException("The JDBC driver " + stmt.getClass().getName()
+        + " cannot stream LOAD DATA LOCAL INFILE data; unset "
+        + MYSQL_LOCAL_INFILE_KEY + " to export through mysqlimport");
+  }
+
+  /**
+   * Runs a LOAD DATA LOCAL INFILE statement reading from a pipe, and
+   * commits it. A failed load aborts the pipe, so that a writer still
+   * writing to it fails too instead of waiting forever.
+   */
+  private static class LocalInfileLoader extends Thread {
+    private final Connection conn;
+    private final String sql;
+    private final BufferPipe pipe;
+    private final InputStream in;
+    private volatile Exception exception;
+
+    LocalInfileLoader(Connection conn, String sql, BufferPipe pipe) {
+      super("LocalInfileLoader");
+      setDaemon(true);
+      this.conn = conn;
+      this.sql = sql;
+      this.pipe = pipe;
+      this.in = pipe.getInputStream();
+    }
+
+    Exception getException() {
+      return exception;
+    }
+
+    @Override
+    public void run() {
+      Statement stmt = null;
+      try {
+        stmt = conn.createStatement();
+        setLocalInfileInputStream(stmt, in);
+        int rows = stmt.executeUpdate(sql);
+        conn.commit();
+        LOG.info("Loaded " + rows + " rows");
+      } catch (SQLException sqle) {
+        exception = sqle;
+      } catch (IOException ioe) {
+        exception = ioe;
+      } finally {
+        if (null != exception) {
+          pipe.abort(exception);
+          try {
+            conn.rollback();
+          } catch (SQLException sqle) {
+            LOG.debug("Exception rolling back: " + sqle.getMessage());
+          }
+        }
+        try {
+          in.close();
+        } catch (IOException ioe) {
+          LOG.debug("Exception closing load stream: " + ioe.getMessage());
+        }
+        if (null != stmt) {
+          try {
+            stmt.close();
+          } catch (SQLException sqle) {
+            LOG.debug("Exception closing statement: " + sqle.getMessage());
+          }
+        }
+      }
+    }
+  }
+
+  private void initExport() throws IOException {
+    if (conf.getBoolean(MYSQL_LOCAL_INFILE_KEY, false)) {
+      initLocalInfileLoad();
+    } else {
+      initMySQLImportProcess();
+    }
+  }
+
   @Override
   public void run(Context context) throws IOException, InterruptedException {
     this.conf = context.getConfiguration();
     setup(context);
-    initMySQLImportProcess();
     try {
-      while (context.nextKeyValue()) {
-        map(context.getCurrentKey(), context.getCurrentValue(), context);
+      initExport();
+      boolean success = false;
+      try {
+        while (context.nextKeyValue()) {
+          map(context.getCurrentKey(), context.getCurrentValue(), context);
+        }
+        cleanup(context);
+        success = true;
+      } finally {
+        if (!success && null != this.loader) {
+          // Fail the load rather than commit part of it.
+          this.loadPipe.abort(new IOException("Export task failed"));
+          try {
+            finishLocalInfileLoad();
+          } catch (IOException ioe) {
+            LOG.debug("Load aborted: " + ioe.getMessage());
+          }
+        }
+        // Shut down the mysqlimport process or the load.
+        closeExportHandles();
       }
-      cleanup(context);
     } finally {
-      // Shut down the mysqlimport process.
-      closeExportHandles();
+      closeLoadConnection();
+    }
+  }
+
+  private void closeLoadConnection() {
+    if (null != this.loadConnection) {
+      try {
+        this.loadConnection.close();
+      } catch (SQLException sqle) {
+        LOG.debug("Exception closing connection: " + sqle.getMessage());
+      }
+      this.loadConnection = null;
+    }
+  }
+
+  /**
+   * End the stream of the current load, and wait for it to commit.
+   */
+  private void finishLocalInfileLoad()
+      throws IOException, InterruptedException {
+    try {
+      // This throws if the load failed; the loader has the reason.
+      this.importStream.close();
+    } catch (IOException ioe) {
+      LOG.debug("Exception closing load stream: " + ioe.getMessage());
+    } finally {
+      this.importStream = null;
+    }
+
+    this.loader.join();
+    Exception loadException = this.loader.getException();
+    this.loader = null;
+    if (null != loadException) {
+      throw new IOException("LOAD DATA LOCAL INFILE failed", loadException);
     }
   }
 
   private void closeExportHandles() throws IOException, InterruptedException {
+    if (null != this.loader) {
+      finishLocalInfileLoad();
+    }
+
     int ret = 0;
     if (null != this.importStream) {
       // Close the stream that writes to mysqlimport's stdin first.
@@ -382,7 +650,7 @@ protected void writeRecord(String record, String terminator)
       }
 
       closeExportHandles();
-      initMySQLImportProcess();
+      initExport();
       this.bytesWritten = 0;
     }
   }
@@ -31,6 +31,7 @@
 import org.apache.hadoop.mapreduce.RecordWriter;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.util.*;
+import org.apache.sqoop.mapreduce.db.SplitCheckpoint;
 
 /**
  * An {@link OutputFormat} that writes plain text files.
@@ -77,6 +78,74 @@ public synchronized void close(TaskAttemptContext context)
 
   }
 
+  /**
+   * RecordWriter that starts a new file whenever the task's split is
+   * checkpointed, so that the rows written so far can be kept if the task
+   * attempt fails.
+   */
+  public static class SegmentedRecordWriter<K, V>
+      extends RawKeyRecordWriter<K, V>
+      implements SplitCheckpoint.SegmentWriter {
+
+    private final FileSystem fs;
+    private final Path file;
+    private final CompressionCodec codec;
+    private final SplitCheckpoint checkpoint;
+
+    public SegmentedRecordWriter(FileSystem fs, Path file,
+        CompressionCodec codec, SplitCheckpoint checkpoint)
+        throws IOException {
+      super(null);
+      this.fs = fs;
+      this.file = file;
+      this.codec = codec;
+      this.checkpoint = checkpoint;
+      this.out = openStream(fs, file, codec);
+      checkpoint.setWriter(this);
+    }
+
+    @Override
+    public synchronized String rollSegment(Path dir, int index)
+        throws IOException {
+      out.close();
+      // part-m-00000.gz becomes part-m-00000-00001.gz
+      String name = file.getName();
+      int dot = name.indexOf('.');
+      String base = dot < 0 ? name : name.substring(0, dot);
+      String ext = dot < 0 ? "" : name.substring(dot);
+      String segment = base + "-" + String.format("%05d", index) + ext;
+      fs.mkdirs(dir);
+      Path dest = new Path(dir, segment);
+      if (!fs.rename(file, dest)) {
+        throw new IOException("Could not move " + file + " to " + dest);
+      }
+      out = openStream(fs, file, codec);
+      return segment;
+    }
+
+    @Override
+    public synchronized void close(TaskAttemptContext context)
+        throws IOException {
+      try {
+        super.close(context);
+        checkpoint.restoreSegments(file.getParent());
+      } finally {
+        SplitCheckpoint.release(context);
+      }
+    }
+  }
+
+  private static DataOutputStream openStream(FileSystem fs, Path file,
+      CompressionCodec codec) throws IOException {
+    FSDataOutputStream fileOut = fs.create(file, false);
+    DataOutputStream ostream = fileOut;
+
+    if (codec != null) {
+      ostream = new DataOutputStream(codec.createOutputStream(fileOut));
+    }
+    return ostream;
+  }
+
   public RecordWriter<K, V> getRecordWriter(TaskAttemptContext context)
       throws IOException {
     boolean isCompressed = getCompressOutput(context);
@@ -95,15 +164,12 @@ public RecordWriter<K, V> getRecordWriter(TaskAttemptContext context)
 
     Path file = getDefaultWorkFile(context, ext);
     FileSystem fs = file.getFileSystem(conf);
-    FSDataOutputStream fileOut = fs.create(file, false);
-    DataOutputStream ostream = fileOut;
 
-    if (isCompressed) {
-      ostream = new DataOutputStream(codec.createOutputStream(fileOut));
+    SplitCheckpoint checkpoint = SplitCheckpoint.forTask(context);
+    if (null != checkpoint) {
+      return new SegmentedRecordWriter<K, V>(fs, file, codec, checkpoint);
     }
-
-    return new RawKeyRecordWriter<K, V>(ostream);
+    return new RawKeyRecordWriter<K, V>(openStream(fs, file, codec));
   }
 
 }
-
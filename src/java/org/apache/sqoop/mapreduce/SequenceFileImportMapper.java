@@ -25,6 +25,7 @@
 import com.cloudera.sqoop.lib.LargeObjectLoader;
 import com.cloudera.sqoop.lib.SqoopRecord;
 import com.cloudera.sqoop.mapreduce.AutoProgressMapper;
+import org.apache.sqoop.mapreduce.TaskPhaseMetrics.Phase;
 
 /**
  * Imports records by writing them to a SequenceFile.
@@ -45,14 +46,20 @@ protected void setup(Context context)
   public void map(LongWritable key, SqoopRecord val, Context context)
       throws IOException, InterruptedException {
 
+    TaskPhaseMetrics metrics = getPhaseMetrics();
+    long start = metrics.start(Phase.LOAD_LARGE_OBJECTS);
     try {
       // Loading of LOBs was delayed until we have a Context.
       val.loadLargeObjects(lobLoader);
     } catch (SQLException sqlE) {
       throw new IOException(sqlE);
     }
+    metrics.end(Phase.LOAD_LARGE_OBJECTS, start);
 
+    // The record is serialized as it is written.
+    start = metrics.start(Phase.OUTPUT_WRITE);
     context.write(key, val);
+    metrics.end(Phase.OUTPUT_WRITE, start);
   }
 
   @Override
@@ -0,0 +1,41 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+/**
+ * Receives the phase metrics of a task, e.g. to send them to a monitoring
+ * system. Sinks are named by TaskPhaseMetrics.SINKS_KEY, and are created
+ * with a public no-argument constructor; a sink implementing Configurable
+ * is given the job's configuration.
+ */
+public interface TaskMetricsSink {
+
+  /**
+   * Called once for each part of a task that measured its phases.
+   * @param context the task.
+   * @param source what was measured, e.g. the class that measured it.
+   * @param metrics the measurements.
+   */
+  void publish(TaskAttemptContext context, String source,
+      TaskPhaseMetrics metrics) throws IOException;
+}
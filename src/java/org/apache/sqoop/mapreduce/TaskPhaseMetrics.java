@@ -0,0 +1,189 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.sqoop.config.ConfigurationHelper;
+
+/**
+ * Counts how often a task goes through each phase of moving a row, and
+ * how long it spends in them, to tell whether a slow task waits for the
+ * database, the driver or the output.
+ *
+ * Every phase is counted, but only one in so many of them is timed, and
+ * the time of the others is estimated from those; reading the clock for
+ * every row would cost more than some of the phases themselves. The
+ * results are added to the job counters and passed to any configured
+ * TaskMetricsSink.
+ *
+ * The phases of a task may be measured on several threads, as long as
+ * each phase is only measured on one of them and the results are only
+ * published once those threads are done.
+ */
+public class TaskPhaseMetrics {
+
+  /** conf key: if true, tasks measure their phases. */
+  public static final String ENABLED_KEY = "sqoop.task.metrics.enabled";
+
+  /** conf key: one phase in this many is timed. */
+  public static final String SAMPLE_INTERVAL_KEY =
+      "sqoop.task.metrics.sample.interval";
+
+  public static final int DEFAULT_SAMPLE_INTERVAL = 16;
+
+  /** conf key: TaskMetricsSink classes to publish the results to. */
+  public static final String SINKS_KEY = "sqoop.task.metrics.sinks";
+
+  /** The counter group of the phases. */
+  public static final String COUNTER_GROUP = "Sqoop task phases";
+
+  /** Used where measuring is disabled. */
+  public static final TaskPhaseMetrics DISABLED = new TaskPhaseMetrics(0);
+
+  /** The phases of moving a row between the database and the output. */
+  public enum Phase {
+    /** Executing the import query. */
+    QUERY,
+    /** Moving the ResultSet to the next row. */
+    FETCH,
+    /** Reading a row, or a line to export, into a record. */
+    READ_FIELDS,
+    /** Reading the large objects of a record. */
+    LOAD_LARGE_OBJECTS,
+    /** Turning a record into text, Avro or statement parameters. */
+    SERIALIZE,
+    /** Writing a record to the output. */
+    OUTPUT_WRITE,
+    /** Executing an export statement or batch. */
+    STATEMENT_EXECUTION,
+    /** Committing an export transaction. */
+    COMMIT,
+  }
+
+  private final int sampleInterval;
+  private final long [] counts = new long[Phase.values().length];
+  private final long [] sampledCounts = new long[Phase.values().length];
+  private final long [] sampledNanos = new long[Phase.values().length];
+
+  /**
+   * @param sampleInterval one phase in this many is timed; if 0, nothing
+   *        is measured.
+   */
+  public TaskPhaseMetrics(int sampleInterval) {
+    this.sampleInterval = Math.max(0, sampleInterval);
+  }
+
+  /**
+   * @return the metrics to measure a task with, which measure nothing if
+   * that is disabled.
+   */
+  public static TaskPhaseMetrics get(Configuration conf) {
+    if (!conf.getBoolean(ENABLED_KEY, false)) {
+      return DISABLED;
+    }
+    return new TaskPhaseMetrics(Math.max(1,
+        conf.getInt(SAMPLE_INTERVAL_KEY, DEFAULT_SAMPLE_INTERVAL)));
+  }
+
+  /** @return true if phases are measured. */
+  public boolean isEnabled() {
+    return sampleInterval > 0;
+  }
+
+  /** @return the current time in nanoseconds. */
+  protected long now() {
+    return System.nanoTime();
+  }
+
+  /**
+   * Call as a phase starts.
+   * @return the time to pass to end(), or -1 if the phase is not timed.
+   */
+  public long start(Phase phase) {
+    if (sampleInterval == 0
+        || counts[phase.ordinal()] % sampleInterval != 0) {
+      return -1;
+    }
+    return now();
+  }
+
+  /**
+   * Call as a phase ends.
+   * @param startTime the value returned by start().
+   */
+  public void end(Phase phase, long startTime) {
+    if (sampleInterval == 0) {
+      return;
+    }
+    int i = phase.ordinal();
+    counts[i]++;
+    if (startTime >= 0) {
+      sampledCounts[i]++;
+      sampledNanos[i] += now() - startTime;
+    }
+  }
+
+  /** @return how often the phase was gone through. */
+  public long getCount(Phase phase) {
+    return counts[phase.ordinal()];
+  }
+
+  /** @return the estimated nanoseconds spent in the phase. */
+  public long getNanos(Phase phase) {
+    int i = phase.ordinal();
+    if (sampledCounts[i] == 0) {
+      return 0;
+    }
+    return (long) ((double) sampledNanos[i] * counts[i] / sampledCounts[i]);
+  }
+
+  /**
+   * Add the phases gone through to the task's counters, as
+   * &lt;PHASE&gt;_COUNT and &lt;PHASE&gt;_NANOS, and pass them to the
+   * configured sinks.
+   * @param source what was measured, e.g. the class that measured it.
+   */
+  public void publish(TaskAttemptContext context, String source)
+      throws IOException {
+    if (!isEnabled() || null == context) {
+      return;
+    }
+    boolean measured = false;
+    for (Phase phase : Phase.values()) {
+      long count = getCount(phase);
+      if (count > 0) {
+        context.getCounter(COUNTER_GROUP, phase.name() + "_COUNT")
+            .increment(count);
+        context.getCounter(COUNTER_GROUP, phase.name() + "_NANOS")
+            .increment(getNanos(phase));
+        measured = true;
+      }
+    }
+    if (!measured) {
+      return;
+    }
+    for (TaskMetricsSink sink : ConfigurationHelper.getInstances(
+        context.getConfiguration(), SINKS_KEY, TaskMetricsSink.class)) {
+      sink.publish(context, source, this);
+    }
+  }
+}
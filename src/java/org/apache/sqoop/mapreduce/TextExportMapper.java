@@ -28,6 +28,7 @@
 import org.apache.hadoop.util.ReflectionUtils;
 import com.cloudera.sqoop.lib.SqoopRecord;
 import com.cloudera.sqoop.mapreduce.AutoProgressMapper;
+import org.apache.sqoop.mapreduce.TaskPhaseMetrics.Phase;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -85,9 +86,15 @@ protected void setup(Context context)
 
   public void map(LongWritable key, Text val, Context context)
       throws IOException, InterruptedException {
+    TaskPhaseMetrics metrics = getPhaseMetrics();
     try {
+      long start = metrics.start(Phase.READ_FIELDS);
       recordImpl.parse(val);
+      metrics.end(Phase.READ_FIELDS, start);
+
+      start = metrics.start(Phase.OUTPUT_WRITE);
       context.write(recordImpl, NullWritable.get());
+      metrics.end(Phase.OUTPUT_WRITE, start);
     } catch (Exception e) {
       // Something bad has happened
       LOG.error("");
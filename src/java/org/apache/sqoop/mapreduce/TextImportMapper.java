@@ -28,6 +28,7 @@
 import com.cloudera.sqoop.lib.LargeObjectLoader;
 import com.cloudera.sqoop.lib.SqoopRecord;
 import com.cloudera.sqoop.mapreduce.AutoProgressMapper;
+import org.apache.sqoop.mapreduce.TaskPhaseMetrics.Phase;
 
 /**
  * Imports records by transforming them to strings for a plain-text flat file.
@@ -52,15 +53,23 @@ protected void setup(Context context)
   public void map(LongWritable key, SqoopRecord val, Context context)
       throws IOException, InterruptedException {
 
+    TaskPhaseMetrics metrics = getPhaseMetrics();
+    long start = metrics.start(Phase.LOAD_LARGE_OBJECTS);
     try {
       // Loading of LOBs was delayed until we have a Context.
       val.loadLargeObjects(lobLoader);
     } catch (SQLException sqlE) {
       throw new IOException(sqlE);
     }
+    metrics.end(Phase.LOAD_LARGE_OBJECTS, start);
 
+    start = metrics.start(Phase.SERIALIZE);
     outkey.set(val.toString());
+    metrics.end(Phase.SERIALIZE, start);
+
+    start = metrics.start(Phase.OUTPUT_WRITE);
     context.write(outkey, NullWritable.get());
+    metrics.end(Phase.OUTPUT_WRITE, start);
   }
 
   @Override
@@ -0,0 +1,270 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.IOException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+/**
+ * Picks the number of rows moved per database round trip -- the fetch size
+ * of an import, the rows per statement of an export -- from the throughput
+ * a task observes, instead of using a fixed number.
+ *
+ * The rows are counted in windows of several round trips. After each
+ * window the size is doubled as long as that makes the task faster, and
+ * settles on the fastest size as soon as it does not, or when the tuning
+ * time is over. The size is kept below what the memory budget allows for
+ * the average size of a row, which is estimated by serializing a sample of
+ * the rows. Once settled the size no longer changes and rows are no longer
+ * timed or sampled.
+ */
+public class BatchSizeTuner {
+
+  public static final Log LOG = LogFactory.getLog(
+      BatchSizeTuner.class.getName());
+
+  /** conf key: if true, tasks tune their fetch size or batch size. */
+  public static final String ADAPTIVE_KEY = "sqoop.adaptive.batch.size";
+
+  /** conf key: bytes the rows of one round trip may take up. */
+  public static final String MEMORY_BUDGET_KEY =
+      "sqoop.adaptive.batch.memory.bytes";
+
+  public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+  /** conf key: the largest number of rows per round trip to try. */
+  public static final String MAX_ROWS_KEY = "sqoop.adaptive.batch.max.rows";
+
+  public static final int DEFAULT_MAX_ROWS = 10000;
+
+  /**
+   * conf key: the most parameters a multi-row statement may have, which
+   * limits the rows per statement of exports that do not use JDBC batches.
+   */
+  public static final String MAX_PARAMETERS_KEY =
+      "sqoop.adaptive.batch.max.parameters";
+
+  public static final int DEFAULT_MAX_PARAMETERS = 2000;
+
+  /** conf key: milliseconds after which a task stops tuning. */
+  public static final String TUNING_MILLIS_KEY =
+      "sqoop.adaptive.batch.tuning.ms";
+
+  public static final long DEFAULT_TUNING_MILLIS = 20000;
+
+  /** The counter group of the tuned sizes. */
+  public static final String COUNTER_GROUP = "Sqoop adaptive batch size";
+
+  // Round trips per measurement window, and the fewest rows in a window.
+  private static final int WINDOW_ROUND_TRIPS = 4;
+  private static final int MIN_WINDOW_ROWS = 1000;
+
+  // A larger size is kept only if it is this much faster.
+  private static final double MIN_GAIN = 0.05;
+
+  // One row in this many is serialized to estimate the size of a row.
+  private static final int SAMPLE_INTERVAL = 64;
+
+  private final String name;
+  private final long memoryBudget;
+  private final long tuningNanos;
+  private int maxSize;
+
+  private int size;
+  private boolean tuning = true;
+  private long startTime = -1;
+
+  private long windowStart;
+  private long windowRows;
+  private int bestSize;
+  private double bestThroughput;
+
+  private long rowsSeen;
+  private long sampledRows;
+  private long sampledBytes;
+  private DataOutputBuffer sampleBuffer;
+
+  /**
+   * @param name what is being tuned, for log messages.
+   * @param initialSize the size to start from.
+   * @param maxSize the largest size to try.
+   * @param memoryBudget the bytes the rows of one round trip may take up.
+   * @param tuningMillis the time after which to stop tuning.
+   */
+  public BatchSizeTuner(String name, int initialSize, int maxSize,
+      long memoryBudget, long tuningMillis) {
+    this.name = name;
+    this.maxSize = Math.max(1, maxSize);
+    this.size = Math.max(1, Math.min(initialSize, this.maxSize));
+    this.bestSize = size;
+    this.memoryBudget = memoryBudget;
+    this.tuningNanos = tuningMillis * 1000000L;
+  }
+
+  /**
+   * @return a tuner configured from the job, or null if tuning is disabled.
+   */
+  public static BatchSizeTuner get(Configuration conf, String name,
+      int initialSize) {
+    if (!conf.getBoolean(ADAPTIVE_KEY, false)) {
+      return null;
+    }
+    return new BatchSizeTuner(name, initialSize,
+        conf.getInt(MAX_ROWS_KEY, DEFAULT_MAX_ROWS),
+        conf.getLong(MEMORY_BUDGET_KEY, DEFAULT_MEMORY_BUDGET),
+        conf.getLong(TUNING_MILLIS_KEY, DEFAULT_TUNING_MILLIS));
+  }
+
+  /** @return the number of rows per round trip to use now. */
+  public int getSize() {
+    return size;
+  }
+
+  /** @return true until the size has settled. */
+  public boolean isTuning() {
+    return tuning;
+  }
+
+  /**
+   * Lower the largest size to try, e.g. to stay within a limit on the
+   * parameters of a statement.
+   */
+  public void limitSize(int limit) {
+    maxSize = Math.max(1, Math.min(maxSize, limit));
+    size = Math.min(size, maxSize);
+    bestSize = Math.min(bestSize, maxSize);
+  }
+
+  /** @return the current time in nanoseconds. */
+  protected long now() {
+    return System.nanoTime();
+  }
+
+  /**
+   * Account for a row, and serialize every so many of them to estimate the
+   * size of a row. Call before recordRows() for the same rows.
+   */
+  public void sampleRow(Object row) throws IOException {
+    if (!tuning || rowsSeen++ % SAMPLE_INTERVAL != 0
+        || !(row instanceof Writable)) {
+      return;
+    }
+    if (null == sampleBuffer) {
+      sampleBuffer = new DataOutputBuffer();
+    }
+    sampleBuffer.reset();
+    ((Writable) row).write(sampleBuffer);
+    recordRowBytes(sampleBuffer.getLength());
+  }
+
+  /** Record the size in bytes of a sampled row. */
+  public void recordRowBytes(long bytes) {
+    sampledRows++;
+    sampledBytes += bytes;
+  }
+
+  /** @return the estimated size of a row, or 0 if none was sampled. */
+  public long getBytesPerRow() {
+    return sampledRows == 0 ? 0 : sampledBytes / sampledRows;
+  }
+
+  /**
+   * Record that rows have been moved, and adjust the size when a
+   * measurement window is complete.
+   * @return true if the size has changed.
+   */
+  public boolean recordRows(int rows) {
+    if (!tuning) {
+      return false;
+    }
+    if (startTime < 0) {
+      // Start timing with the first rows, so the query is not counted.
+      startTime = now();
+      windowStart = startTime;
+      return false;
+    }
+    windowRows += rows;
+    if (windowRows < Math.max(MIN_WINDOW_ROWS,
+        (long) size * WINDOW_ROUND_TRIPS)) {
+      return false;
+    }
+    long time = now();
+    int oldSize = size;
+    endWindow(windowRows, time - windowStart, time - startTime);
+    windowRows = 0;
+    windowStart = time;
+    return size != oldSize;
+  }
+
+  private void endWindow(long rows, long nanos, long elapsed) {
+    double throughput = rows * 1e9 / Math.max(1, nanos);
+    if (throughput > bestThroughput * (1 + MIN_GAIN)) {
+      bestThroughput = throughput;
+      bestSize = size;
+      int next = (int) Math.min(getLimit(), size * 2L);
+      if (next > size && elapsed < tuningNanos) {
+        LOG.debug(name + " of " + size + " moved " + (long) throughput
+            + " rows/s; trying " + next);
+        size = next;
+        return;
+      }
+    }
+    settle();
+  }
+
+  /** @return the largest size the memory budget allows. */
+  private int getLimit() {
+    long bytesPerRow = getBytesPerRow();
+    if (bytesPerRow <= 0) {
+      return maxSize;
+    }
+    return (int) Math.max(1, Math.min(maxSize, memoryBudget / bytesPerRow));
+  }
+
+  private void settle() {
+    tuning = false;
+    size = Math.min(bestSize, getLimit());
+    sampleBuffer = null;
+    LOG.info("Using " + name + " of " + size + " (" + (long) bestThroughput
+        + " rows/s, about " + getBytesPerRow() + " bytes per row)");
+  }
+
+  /**
+   * Add the size in use to the task's counters. The counters hold the sums
+   * over all tasks, and the number of tasks to divide them by.
+   * @param counterPrefix the prefix of the counter names.
+   */
+  public void reportCounters(TaskAttemptContext context,
+      String counterPrefix) {
+    if (null == context) {
+      return;
+    }
+    context.getCounter(COUNTER_GROUP, counterPrefix + "_TASKS").increment(1);
+    context.getCounter(COUNTER_GROUP, counterPrefix + "_ROWS")
+        .increment(size);
+    context.getCounter(COUNTER_GROUP, counterPrefix + "_BYTES_PER_ROW")
+        .increment(getBytesPerRow());
+  }
+}
@@ -78,6 +78,20 @@ public class DBConfiguration {
   /** Fetch size. */
   public static final String FETCH_SIZE = "mapreduce.jdbc.fetchsize";
 
+  /**
+   * Number of records read ahead of the mapper by a background thread;
+   * 0 reads records on the mapper thread.
+   */
+  public static final String PREFETCH_RECORDS =
+    "mapreduce.jdbc.prefetch.records";
+
+  /**
+   * Number of sub-ranges each data-driven split is divided into and read
+   * concurrently over as many connections; 1 reads each split whole.
+   */
+  public static final String INPUT_SUBRANGES_PROPERTY =
+    "mapreduce.jdbc.input.subranges";
+
   /** Input table name. */
   public static final String INPUT_TABLE_NAME_PROPERTY =
     "mapreduce.jdbc.input.table.name";
@@ -94,6 +108,34 @@ public class DBConfiguration {
   public static final String INPUT_ORDER_BY_PROPERTY =
     "mapreduce.jdbc.input.orderby";
 
+  /**
+   * If true, DBInputFormat splits input tables on ranges of a unique key
+   * instead of on row offsets.
+   */
+  public static final String INPUT_KEYSET_SPLITS_PROPERTY =
+    "mapreduce.jdbc.input.keyset.splits";
+
+  /**
+   * The unique, non-null columns to split input tables on; by default the
+   * primary key or a unique index.
+   */
+  public static final String INPUT_KEYSET_COLUMNS_PROPERTY =
+    "mapreduce.jdbc.input.keyset.columns";
+
+  /**
+   * If true, imports of partitioned tables make their data-driven splits
+   * within each partition of the table.
+   */
+  public static final String INPUT_PARTITION_SPLITS_PROPERTY =
+    "mapreduce.jdbc.input.partition.splits";
+
+  /**
+   * The number of partitions of the input table, each described by the
+   * properties with this prefix and its index.
+   */
+  public static final String INPUT_PARTITIONS_PROPERTY =
+    "mapreduce.jdbc.input.partitions";
+
   /** Whole input query, exluding LIMIT...OFFSET. */
   public static final String INPUT_QUERY = "mapreduce.jdbc.input.query";
 
@@ -326,6 +368,14 @@ public Integer getFetchSize() {
     return conf.getInt(DBConfiguration.FETCH_SIZE, 0);
   }
 
+  public int getPrefetchRecords() {
+    return conf.getInt(DBConfiguration.PREFETCH_RECORDS, 0);
+  }
+
+  public int getInputSubranges() {
+    return conf.getInt(DBConfiguration.INPUT_SUBRANGES_PROPERTY, 1);
+  }
+
   public void setFetchSize(Integer fetchSize) {
     if (fetchSize != null) {
       conf.setInt(DBConfiguration.FETCH_SIZE, fetchSize);
@@ -369,6 +419,66 @@ public void setInputOrderBy(String orderby) {
     }
   }
 
+  public boolean isInputKeysetSplits() {
+    return conf.getBoolean(DBConfiguration.INPUT_KEYSET_SPLITS_PROPERTY,
+        false);
+  }
+
+  public void setInputKeysetSplits(boolean keysetSplits) {
+    conf.setBoolean(DBConfiguration.INPUT_KEYSET_SPLITS_PROPERTY,
+        keysetSplits);
+  }
+
+  public String[] getInputKeysetColumns() {
+    return conf.getStrings(DBConfiguration.INPUT_KEYSET_COLUMNS_PROPERTY);
+  }
+
+  public void setInputKeysetColumns(String... columns) {
+    conf.setStrings(DBConfiguration.INPUT_KEYSET_COLUMNS_PROPERTY, columns);
+  }
+
+  public boolean isInputPartitionSplits() {
+    return conf.getBoolean(DBConfiguration.INPUT_PARTITION_SPLITS_PROPERTY,
+        false);
+  }
+
+  public void setInputPartitionSplits(boolean partitionSplits) {
+    conf.setBoolean(DBConfiguration.INPUT_PARTITION_SPLITS_PROPERTY,
+        partitionSplits);
+  }
+
+  /**
+   * @return the partitions of the input table to split, or an empty list
+   * if the table is split as a whole.
+   */
+  public List<TablePartition> getInputPartitions() {
+    int count = conf.getInt(DBConfiguration.INPUT_PARTITIONS_PROPERTY, 0);
+    List<TablePartition> partitions = new ArrayList<TablePartition>(count);
+    for (int i = 0; i < count; i++) {
+      String prefix = DBConfiguration.INPUT_PARTITIONS_PROPERTY + "." + i;
+      partitions.add(new TablePartition(conf.get(prefix + ".name"),
+          conf.get(prefix + ".table"), conf.get(prefix + ".condition"),
+          conf.getLong(prefix + ".rows", -1)));
+    }
+    return partitions;
+  }
+
+  public void setInputPartitions(List<TablePartition> partitions) {
+    conf.setInt(DBConfiguration.INPUT_PARTITIONS_PROPERTY, partitions.size());
+    for (int i = 0; i < partitions.size(); i++) {
+      TablePartition partition = partitions.get(i);
+      String prefix = DBConfiguration.INPUT_PARTITIONS_PROPERTY + "." + i;
+      conf.set(prefix + ".name", partition.getName());
+      if (null != partition.getTableExpression()) {
+        conf.set(prefix + ".table", partition.getTableExpression());
+      }
+      if (null != partition.getCondition()) {
+        conf.set(prefix + ".condition", partition.getCondition());
+      }
+      conf.setLong(prefix + ".rows", partition.getRows());
+    }
+  }
+
   public String getInputQuery() {
     return conf.get(DBConfiguration.INPUT_QUERY);
   }
@@ -56,6 +56,11 @@
  *
  * The SQL query, and input class can be using one of the two
  * setInput methods.
+ *
+ * Splits normally select their rows by offset, with LIMIT and OFFSET or
+ * their equivalent. If DBConfiguration.INPUT_KEYSET_SPLITS_PROPERTY is
+ * set, tables with a unique key are split on ranges of it instead; see
+ * KeysetSplitter.
  */
 public class DBInputFormat<T extends DBWritable>
 extends InputFormat<LongWritable, T> implements Configurable  {
@@ -225,6 +230,14 @@ public Connection getConnection() {
     return connection;
   }
 
+  /**
+   * Leave the current connection to the record reader it was passed to,
+   * which closes it; the next call to getConnection() opens a new one.
+   */
+  protected void releaseConnection() {
+    this.connection = null;
+  }
+
   public String getDBProductName() {
     return dbProductName;
   }
@@ -287,18 +300,29 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
       results.close();
       statement.close();
 
+      if (dbConf.isInputKeysetSplits() && dbConf.getInputQuery() == null) {
+        List<InputSplit> keysetSplits = getKeysetSplitter().split(dbConf,
+            connection, tableName, conditions, count, chunks);
+        if (null != keysetSplits) {
+          connection.commit();
+          return keysetSplits;
+        }
+        LOG.info("Splitting " + tableName + " on row offsets");
+      }
+
       List<InputSplit> splits = new ArrayList<InputSplit>();
 
       // Split the rows into n-number of chunks and adjust the last chunk
-      // accordingly
+      // accordingly. The splits are of the class createRecordReader() takes.
       for (int i = 0; i < chunks; i++) {
         DBInputSplit split;
 
         if ((i + 1) == chunks) {
-          split = new DBInputSplit(i * chunkSize, count);
+          split = new com.cloudera.sqoop.mapreduce.db.DBInputFormat
+              .DBInputSplit(i * chunkSize, count);
         } else {
-          split = new DBInputSplit(i * chunkSize, (i * chunkSize)
-              + chunkSize);
+          split = new com.cloudera.sqoop.mapreduce.db.DBInputFormat
+              .DBInputSplit(i * chunkSize, (i * chunkSize) + chunkSize);
         }
 
         splits.add(split);
@@ -320,6 +344,17 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
     }
   }
 
+  /**
+   * @return the splitter to split tables on a unique key with, if
+   * DBConfiguration.INPUT_KEYSET_SPLITS_PROPERTY is set.
+   */
+  protected KeysetSplitter getKeysetSplitter() {
+    if (dbProductName.startsWith("ORACLE")) {
+      return new OracleKeysetSplitter();
+    }
+    return new KeysetSplitter();
+  }
+
   /** Returns the query for getting the total number of rows,
    * subclasses can override this for custom behaviour.*/
   protected String getCountQuery() {
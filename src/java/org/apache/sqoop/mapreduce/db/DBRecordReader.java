@@ -22,7 +22,9 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -31,8 +33,12 @@
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.sqoop.lib.LobRef;
 import org.apache.sqoop.mapreduce.DBWritable;
+import org.apache.sqoop.mapreduce.TaskPhaseMetrics;
+import org.apache.sqoop.mapreduce.TaskPhaseMetrics.Phase;
 import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.sqoop.lib.ColumnBatch;
 
 import com.cloudera.sqoop.mapreduce.db.DBConfiguration;
 import com.cloudera.sqoop.mapreduce.db.DBInputFormat;
@@ -41,7 +47,8 @@
 /**
  * A RecordReader that reads records from a SQL table.
  * Emits LongWritables containing the record number as
- * key and DBWritables as value.
+ * key and DBWritables as value. If the value class is ColumnBatch, each
+ * value holds a batch of rows, and its key is the number of the first.
  */
 public class DBRecordReader<T extends DBWritable> extends
   RecordReader<LongWritable, T> {
@@ -50,6 +57,10 @@
 
   private ResultSet results = null;
 
+  // True once the results have no more rows; some drivers fail if next()
+  // is called again.
+  private boolean resultsExhausted;
+
   private Class<T> inputClass;
 
   private Configuration conf;
@@ -74,6 +85,18 @@
 
   private String tableName;
 
+  // Reads rows ahead of the mapper, if enabled.
+  private ResultSetPrefetcher<T> prefetcher;
+
+  private int prefetchRecords;
+
+  // Tunes the fetch size while the rows are read, if enabled.
+  private BatchSizeTuner fetchSizeTuner;
+
+  private TaskAttemptContext context;
+
+  private TaskPhaseMetrics phaseMetrics;
+
   /**
    * @param split The InputSplit to read data for
    * @throws SQLException
@@ -87,6 +110,7 @@ public DBRecordReader(DBInputFormat.DBInputSplit split,
     this.inputClass = inputClass;
     this.split = split;
     this.conf = conf;
+    this.phaseMetrics = TaskPhaseMetrics.get(conf);
     this.connection = conn;
     this.dbConf = dbConfig;
     this.conditions = cond;
@@ -94,6 +118,8 @@ public DBRecordReader(DBInputFormat.DBInputSplit split,
       this.fieldNames = Arrays.copyOf(fields, fields.length);
     }
     this.tableName = table;
+    this.prefetchRecords = null == dbConfig ? 0
+        : dbConfig.getPrefetchRecords();
   }
   // CHECKSTYLE:ON
 
@@ -102,22 +128,36 @@ protected ResultSet executeQuery(String query) throws SQLException {
         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
 
     Integer fetchSize = dbConf.getFetchSize();
+    if (null != fetchSizeTuner) {
+      // A re-executed query continues with the tuned size.
+      fetchSize = fetchSizeTuner.getSize();
+    }
     if (fetchSize != null) {
       LOG.debug("Using fetchSize for next query: " + fetchSize);
       statement.setFetchSize(fetchSize);
     }
 
+    setQueryParameters(statement);
+
     LOG.info("Executing query: " + query);
     return statement.executeQuery();
   }
 
+  /**
+   * Bind the parameters of the select query, if it has any. Does nothing
+   * by default.
+   */
+  protected void setQueryParameters(PreparedStatement stmt)
+      throws SQLException {
+  }
+
   /** Returns the query for selecting the records,
    * subclasses can override this for custom behaviour.*/
   protected String getSelectQuery() {
     StringBuilder query = new StringBuilder();
 
     // Default codepath for MySQL, HSQLDB, etc.
-    // Relies on LIMIT/OFFSET for splits.
+    // Relies on LIMIT/OFFSET for splits that are not on a unique key.
     if (dbConf.getInputQuery() == null) {
       query.append("SELECT ");
 
@@ -130,9 +170,7 @@ protected String getSelectQuery() {
 
       query.append(" FROM ").append(tableName);
       query.append(" AS ").append(tableName); //in hsqldb this is necessary
-      if (conditions != null && conditions.length() > 0) {
-        query.append(" WHERE (").append(conditions).append(")");
-      }
+      appendConditions(query, conditions, getKeyConditions());
 
       String orderBy = dbConf.getInputOrderBy();
       if (orderBy != null && orderBy.length() > 0) {
@@ -143,18 +181,162 @@ protected String getSelectQuery() {
       query.append(dbConf.getInputQuery());
     }
 
-    try {
-      query.append(" LIMIT ").append(split.getLength());
-      query.append(" OFFSET ").append(split.getStart());
-    } catch (IOException ex) {
-      // Ignore, will not throw.
+    if (!(split instanceof KeysetDBInputSplit)) {
+      try {
+        query.append(" LIMIT ").append(split.getLength());
+        query.append(" OFFSET ").append(split.getStart());
+      } catch (IOException ex) {
+        // Ignore, will not throw.
+      }
     }
 
     return query.toString();
   }
 
+  /**
+   * @return the condition selecting the rows of a split on a unique key,
+   * or null if the split selects its rows by offset or selects all rows.
+   */
+  protected String getKeyConditions() {
+    if (split instanceof KeysetDBInputSplit) {
+      return ((KeysetDBInputSplit) split).getKeyConditions();
+    }
+    return null;
+  }
+
+  /**
+   * Append a WHERE clause of the input conditions and the key conditions
+   * of the split, either of which may be null.
+   */
+  protected static void appendConditions(StringBuilder query,
+      String conditions, String keyConditions) {
+    boolean hasConditions = conditions != null && conditions.length() > 0;
+    if (hasConditions) {
+      query.append(" WHERE (").append(conditions).append(")");
+    }
+    if (null != keyConditions) {
+      query.append(hasConditions ? " AND " : " WHERE ");
+      query.append("(").append(keyConditions).append(")");
+    }
+  }
+
+  /**
+   * @return true if rows may be read ahead of the mapper. Subclasses that
+   * read the current row of the ResultSet themselves return false.
+   */
+  protected boolean isPrefetchSupported() {
+    if (prefetchRecords <= 0) {
+      return false;
+    }
+    if (isColumnBatch()) {
+      LOG.info("Not prefetching column batches");
+      return false;
+    }
+    // Large objects are loaded from the current row after readFields(), so
+    // the cursor must not move on before the mapper has loaded them.
+    if (hasLargeObjectFields()) {
+      LOG.info("Not prefetching records with large object fields");
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return true if each value read is a batch of rows.
+   */
+  protected boolean isColumnBatch() {
+    return ColumnBatch.class.isAssignableFrom(inputClass);
+  }
+
+  /**
+   * @return true if the records read have large object fields.
+   */
+  protected boolean hasLargeObjectFields() {
+    for (Class<?> cls = inputClass; cls != null; cls = cls.getSuperclass()) {
+      for (java.lang.reflect.Field field : cls.getDeclaredFields()) {
+        if (LobRef.class.isAssignableFrom(field.getType())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Set up tuning of the fetch size, if it is enabled and the fetch size
+   * can be changed while the rows are read.
+   */
+  private void startFetchSizeTuning() {
+    Integer fetchSize = dbConf.getFetchSize();
+    fetchSizeTuner = BatchSizeTuner.get(conf, "fetch size",
+        null == fetchSize ? 0 : fetchSize);
+    if (null == fetchSizeTuner) {
+      return;
+    }
+    if (null == fetchSize || fetchSize <= 0) {
+      // e.g. MySQL's row-by-row streaming.
+      LOG.info("Not tuning the driver's fetch size of " + fetchSize);
+      fetchSizeTuner = null;
+    } else if (null != prefetcher) {
+      // The ResultSet belongs to the prefetching thread.
+      LOG.info("Not tuning the fetch size of prefetched records");
+      fetchSizeTuner = null;
+    } else if (isColumnBatch()) {
+      LOG.info("Not tuning the fetch size of column batches");
+      fetchSizeTuner = null;
+    }
+  }
+
+  /**
+   * Account for a row read by the mapper, and pass a new fetch size on to
+   * the driver.
+   */
+  private void tuneFetchSize() throws IOException {
+    fetchSizeTuner.sampleRow(value);
+    if (fetchSizeTuner.recordRows(1)) {
+      try {
+        results.setFetchSize(fetchSizeTuner.getSize());
+      } catch (SQLException e) {
+        LoggingUtils.logAll(LOG, "Could not change the fetch size", e);
+        fetchSizeTuner = null;
+      }
+    }
+  }
+
+  /**
+   * Start reading rows of the ResultSet on a background thread.
+   */
+  private void startPrefetcher() {
+    List<T> records = new ArrayList<T>(prefetchRecords + 1);
+    records.add(value);
+    for (int i = 0; i < prefetchRecords; i++) {
+      records.add(createValue());
+    }
+    LOG.info("Prefetching up to " + prefetchRecords + " records");
+    prefetcher = new ResultSetPrefetcher<T>(results, records);
+    prefetcher.setPhaseMetrics(phaseMetrics);
+    prefetcher.start();
+    value = null;
+  }
+
+  private void stopPrefetcher() {
+    if (null != prefetcher) {
+      try {
+        prefetcher.stop();
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+      prefetcher = null;
+    }
+  }
+
   @Override
   public void close() throws IOException {
+    stopPrefetcher();
+    if (null != fetchSizeTuner) {
+      fetchSizeTuner.reportCounters(context, "FETCH");
+    }
+    phaseMetrics.publish(context, getClass().getSimpleName());
     try {
       if (null != results) {
         results.close();
@@ -176,7 +358,8 @@ public void close() throws IOException {
 
   public void initialize(InputSplit inputSplit, TaskAttemptContext context)
       throws IOException, InterruptedException {
-    //do nothing
+    // Kept to report counters.
+    this.context = context;
   }
 
   @Override
@@ -210,6 +393,8 @@ public long getPos() throws IOException {
    */
   @Deprecated
   public boolean next(LongWritable k, T v) throws IOException {
+    // The rows must be read into the caller's value.
+    this.prefetchRecords = 0;
     this.key = k;
     this.value = v;
     return nextKeyValue();
@@ -232,20 +417,57 @@ public boolean nextKeyValue() throws IOException {
       if (null == this.results) {
         // First time into this method, run the query.
         LOG.info("Working on split: " + split);
+        long queryStart = phaseMetrics.start(Phase.QUERY);
         this.results = executeQuery(getSelectQuery());
+        resultsExhausted = false;
+        phaseMetrics.end(Phase.QUERY, queryStart);
+        if (isPrefetchSupported()) {
+          startPrefetcher();
+        }
+        startFetchSizeTuning();
       }
-      if (!results.next()) {
-        return false;
+      if (value instanceof ColumnBatch) {
+        ColumnBatch batch = (ColumnBatch) value;
+        if (!readBatch(batch)) {
+          return false;
+        }
+        key.set(pos + split.getStart());
+        pos += batch.size();
+        return true;
+      } else if (null != prefetcher) {
+        if (null != value) {
+          prefetcher.recycle(value);
+        }
+        value = prefetcher.next();
+        if (null == value) {
+          return false;
+        }
+      } else {
+        long fetchStart = phaseMetrics.start(Phase.FETCH);
+        boolean hasNext = results.next();
+        phaseMetrics.end(Phase.FETCH, fetchStart);
+        if (!hasNext) {
+          return false;
+        }
+        long readStart = phaseMetrics.start(Phase.READ_FIELDS);
+        value.readFields(results);
+        phaseMetrics.end(Phase.READ_FIELDS, readStart);
+        if (null != fetchSizeTuner && fetchSizeTuner.isTuning()) {
+          tuneFetchSize();
+        }
       }
 
       // Set the key field value as the output key value
       key.set(pos + split.getStart());
 
-      value.readFields(results);
-
       pos++;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for the next record",
+          e);
     } catch (SQLException e) {
       LoggingUtils.logAll(LOG, e);
+      stopPrefetcher();
       if (this.statement != null) {
         try {
           statement.close();
@@ -279,10 +501,35 @@ public boolean nextKeyValue() throws IOException {
     return true;
   }
 
+  /**
+   * Fill a column batch with the next rows of the results.
+   * @return false if there were no more rows.
+   */
+  private boolean readBatch(ColumnBatch batch) throws SQLException {
+    batch.clear();
+    while (!batch.isFull() && !resultsExhausted) {
+      long fetchStart = phaseMetrics.start(Phase.FETCH);
+      boolean hasNext = results.next();
+      phaseMetrics.end(Phase.FETCH, fetchStart);
+      if (!hasNext) {
+        resultsExhausted = true;
+        break;
+      }
+      long readStart = phaseMetrics.start(Phase.READ_FIELDS);
+      batch.readFields(results);
+      phaseMetrics.end(Phase.READ_FIELDS, readStart);
+    }
+    return batch.size() > 0;
+  }
+
   /**
    * @return true if nextKeyValue() would return false.
    */
   protected boolean isDone() {
+    if (null != prefetcher) {
+      // The ResultSet belongs to the prefetching thread.
+      return prefetcher.isExhausted();
+    }
     try {
       return this.results != null && results.isAfterLast();
     } catch (SQLException sqlE) {
@@ -38,6 +38,7 @@
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.JobContext;
 import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.sqoop.mapreduce.DBWritable;
 
 import com.cloudera.sqoop.config.ConfigurationHelper;
@@ -150,6 +151,7 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
 
     int targetNumTasks = ConfigurationHelper.getJobNumMaps(job);
     String boundaryQuery = getDBConf().getInputBoundingQuery();
+    int subranges = getSubranges(job.getConfiguration());
 
     long splitLimit = org.apache.sqoop.config.ConfigurationHelper
       .getSplitLimit(job.getConfiguration());
@@ -157,7 +159,7 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
     // bacause there is only one mapper we will return single split that
     // separates nothing. This can be considerably more optimal for a large
     // table with no index.
-    if (1 == targetNumTasks
+    if (1 == targetNumTasks && 1 == subranges
             && (boundaryQuery == null || boundaryQuery.isEmpty())
             && splitLimit <= 0) {
       List<InputSplit> singletonSplit = new ArrayList<InputSplit>();
@@ -166,37 +168,51 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
       return singletonSplit;
     }
 
+    List<TablePartition> partitions = getDBConf().getInputPartitions();
+    if (!partitions.isEmpty() && null == getDBConf().getInputQuery()
+        && (boundaryQuery == null || boundaryQuery.isEmpty())) {
+      return getPartitionSplits(job.getConfiguration(), partitions,
+          targetNumTasks, splitLimit);
+    }
+
+    SplitBounds bounds = SplitBounds.load(job.getConfiguration(),
+        getDBConf().getInputOrderBy(), null != getDBConf().getInputQuery()
+        ? getDBConf().getInputQuery() : getDBConf().getInputConditions());
+    int numMaps = ConfigurationHelper.getConfNumMaps(job.getConfiguration());
+    boolean capped = false;
     ResultSet results = null;
     Statement statement = null;
-    Connection connection = getConnection();
+    Connection connection = null;
     try {
-      statement = connection.createStatement();
-
-      String query = getBoundingValsQuery();
-      LOG.info("BoundingValsQuery: " + query);
-
-      results = statement.executeQuery(query);
-      results.next();
+      if (null != bounds) {
+        LOG.info("Using split column bounds found with the incremental"
+            + " import bounds: " + bounds.getMin() + " to " + bounds.getMax()
+            + ", " + bounds.getRows() + " rows");
+        results = bounds.toResultSet();
+        // There is no use in more tasks than rows.
+        if (bounds.getRows() >= 0 && bounds.getRows() < targetNumTasks) {
+          targetNumTasks = (int) Math.max(1, bounds.getRows());
+          org.apache.sqoop.config.ConfigurationHelper.setConfNumMaps(
+              job.getConfiguration(), targetNumTasks);
+          capped = true;
+        }
+      } else {
+        connection = getConnection();
+        statement = connection.createStatement();
 
-      // Based on the type of the results, use a different mechanism
-      // for interpolating split points (i.e., numeric splits, text splits,
-      // dates, etc.)
-      int sqlDataType = results.getMetaData().getColumnType(1);
-      boolean isSigned = results.getMetaData().isSigned(1);
+        String query = getBoundingValsQuery();
+        LOG.info("BoundingValsQuery: " + query);
 
-      // MySQL has an unsigned integer which we need to allocate space for
-      if (sqlDataType == Types.INTEGER && !isSigned){
-          sqlDataType = Types.BIGINT;
+        results = statement.executeQuery(query);
+        results.next();
       }
 
-      DBSplitter splitter = getSplitter(sqlDataType, splitLimit);
-      if (null == splitter) {
-        throw new IOException("Sqoop does not have the splitter for the given"
-          + " SQL data type. Please use either different split column (argument"
-          + " --split-by) or lower the number of mappers to 1. Unknown SQL data"
-          + " type: " + sqlDataType);
-      }
+      DBSplitter splitter = getSplitter(results, splitLimit);
 
+      if (subranges > 1) {
+        return getSubrangeSplits(splitter, job.getConfiguration(), results,
+            targetNumTasks, subranges);
+      }
       try {
         return splitter.split(job.getConfiguration(), results,
                   getDBConf().getInputOrderBy());
@@ -206,6 +222,11 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
     } catch (SQLException e) {
       throw new IOException(e);
     } finally {
+      if (capped) {
+        org.apache.sqoop.config.ConfigurationHelper.setConfNumMaps(
+            job.getConfiguration(), numMaps);
+      }
+
       // More-or-less ignore SQL exceptions here, but log in case we need it.
       try {
         if (null != results) {
@@ -223,6 +244,109 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
         LOG.debug("SQLException closing statement: " + se.toString());
       }
 
+      try {
+        if (null != connection) {
+          connection.commit();
+          closeConnection();
+        }
+      } catch (SQLException se) {
+        LOG.debug("SQLException committing split transaction: "
+            + se.toString());
+      }
+    }
+  }
+
+  /**
+   * @return the splitter of the values of the first column of the bounding
+   * query results.
+   */
+  private DBSplitter getSplitter(ResultSet results, long splitLimit)
+      throws SQLException, IOException {
+    // Based on the type of the results, use a different mechanism
+    // for interpolating split points (i.e., numeric splits, text splits,
+    // dates, etc.)
+    int sqlDataType = results.getMetaData().getColumnType(1);
+    boolean isSigned = results.getMetaData().isSigned(1);
+
+    // MySQL has an unsigned integer which we need to allocate space for
+    if (sqlDataType == Types.INTEGER && !isSigned){
+        sqlDataType = Types.BIGINT;
+    }
+
+    DBSplitter splitter = getSplitter(sqlDataType, splitLimit);
+    if (null == splitter) {
+      throw new IOException("Sqoop does not have the splitter for the given"
+        + " SQL data type. Please use either different split column (argument"
+        + " --split-by) or lower the number of mappers to 1. Unknown SQL data"
+        + " type: " + sqlDataType);
+    }
+    return splitter;
+  }
+
+  /**
+   * Make one or more data-driven splits within each partition of the
+   * table, so that every task reads from a single partition. The tasks are
+   * shared out in proportion to the estimated rows of the partitions.
+   */
+  private List<InputSplit> getPartitionSplits(Configuration conf,
+      List<TablePartition> partitions, int numTasks, long splitLimit)
+      throws IOException {
+    long totalRows = 0;
+    for (TablePartition partition : partitions) {
+      totalRows += Math.max(0, partition.getRows());
+    }
+
+    List<InputSplit> splits = new ArrayList<InputSplit>();
+    int numMaps = ConfigurationHelper.getConfNumMaps(conf);
+    Statement statement = null;
+    Connection connection = getConnection();
+    try {
+      statement = connection.createStatement();
+      for (TablePartition partition : partitions) {
+        int partitionTasks = 1;
+        if (totalRows > 0 && partition.getRows() > 0) {
+          partitionTasks = (int) Math.max(1, Math.round(
+              (double) numTasks * partition.getRows() / totalRows));
+        }
+        if (1 == partitionTasks && splitLimit <= 0) {
+          splits.add(new PartitionDBInputSplit("1=1", "1=1", partition));
+          continue;
+        }
+
+        String query = getBoundingValsQuery(partition);
+        LOG.info("BoundingValsQuery of partition " + partition + ": "
+            + query);
+        ResultSet results = statement.executeQuery(query);
+        try {
+          results.next();
+          DBSplitter splitter = getSplitter(results, splitLimit);
+          org.apache.sqoop.config.ConfigurationHelper.setConfNumMaps(conf,
+              partitionTasks);
+          for (InputSplit split
+              : splitter.split(conf, results, getDBConf().getInputOrderBy())) {
+            DataDrivenDBInputSplit range = (DataDrivenDBInputSplit) split;
+            splits.add(new PartitionDBInputSplit(range.getLowerClause(),
+                range.getUpperClause(), partition));
+          }
+        } catch (ValidationException e) {
+          throw new IOException(e);
+        } finally {
+          results.close();
+        }
+      }
+    } catch (SQLException e) {
+      throw new IOException(e);
+    } finally {
+      org.apache.sqoop.config.ConfigurationHelper.setConfNumMaps(conf,
+          numMaps);
+      try {
+        if (null != statement) {
+          statement.close();
+        }
+      } catch (SQLException se) {
+        LOG.debug("SQLException closing statement: " + se.toString());
+      }
+
       try {
         connection.commit();
         closeConnection();
@@ -231,6 +355,102 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
             + se.toString());
       }
     }
+    LOG.info("Made " + splits.size() + " splits of " + partitions.size()
+        + " partitions");
+    return splits;
+  }
+
+  /**
+   * @return the number of sub-ranges each split is divided into, to be
+   * read concurrently by one task; 1 if splits are read whole.
+   */
+  protected int getSubranges(Configuration conf) {
+    int subranges = getDBConf().getInputSubranges();
+    if (subranges > 1
+        && conf.getLong(SplitCheckpoint.CHECKPOINT_ROWS_KEY, 0) > 0) {
+      LOG.info("Not dividing checkpointed splits into sub-ranges");
+      return 1;
+    }
+    return Math.max(1, subranges);
+  }
+
+  /**
+   * Split the input into numTasks * subranges data-driven splits, and
+   * group consecutive ones into numTasks splits of their sub-ranges.
+   */
+  private List<InputSplit> getSubrangeSplits(DBSplitter splitter,
+      Configuration conf, ResultSet results, int numTasks, int subranges)
+      throws SQLException, IOException {
+    List<InputSplit> ranges;
+    int numMaps = ConfigurationHelper.getConfNumMaps(conf);
+    org.apache.sqoop.config.ConfigurationHelper.setConfNumMaps(conf,
+        numTasks * subranges);
+    try {
+      ranges = splitter.split(conf, results, getDBConf().getInputOrderBy());
+    } catch (ValidationException e) {
+      throw new IOException(e);
+    } finally {
+      org.apache.sqoop.config.ConfigurationHelper.setConfNumMaps(conf,
+          numMaps);
+    }
+
+    List<InputSplit> splits = new ArrayList<InputSplit>();
+    int groups = Math.min(numTasks, ranges.size());
+    for (int i = 0; i < groups; i++) {
+      List<InputSplit> group = ranges.subList(i * ranges.size() / groups,
+          (i + 1) * ranges.size() / groups);
+      if (group.size() == 1) {
+        splits.add(group.get(0));
+        continue;
+      }
+      List<com.cloudera.sqoop.mapreduce.db.DataDrivenDBInputFormat
+          .DataDrivenDBInputSplit> groupRanges = new ArrayList<com.cloudera
+              .sqoop.mapreduce.db.DataDrivenDBInputFormat
+              .DataDrivenDBInputSplit>();
+      for (InputSplit range : group) {
+        groupRanges.add((com.cloudera.sqoop.mapreduce.db
+            .DataDrivenDBInputFormat.DataDrivenDBInputSplit) range);
+      }
+      splits.add(new SubrangeDBInputSplit(groupRanges));
+    }
+    LOG.info("Grouped " + ranges.size() + " sub-ranges into " + splits.size()
+        + " splits");
+    return splits;
+  }
+
+  /**
+   * @return a reader of the split, which reads the sub-ranges of a
+   * SubrangeDBInputSplit concurrently over a connection each.
+   */
+  @Override
+  public RecordReader<LongWritable, T> createRecordReader(InputSplit split,
+      TaskAttemptContext context) throws IOException, InterruptedException {
+    if (!(split instanceof SubrangeDBInputSplit)) {
+      return super.createRecordReader(split, context);
+    }
+    List<org.apache.sqoop.mapreduce.db.DBRecordReader<T>> readers =
+        new ArrayList<org.apache.sqoop.mapreduce.db.DBRecordReader<T>>();
+    try {
+      for (DBInputSplit subrange
+          : ((SubrangeDBInputSplit) split).getSubranges()) {
+        RecordReader<LongWritable, T> reader = createDBRecordReader(subrange,
+            context.getConfiguration());
+        // The reader closes the connection it was given.
+        releaseConnection();
+        if (!(reader instanceof org.apache.sqoop.mapreduce.db.DBRecordReader)) {
+          reader.close();
+          throw new IOException("Cannot read sub-ranges with "
+              + reader.getClass().getName());
+        }
+        readers.add((org.apache.sqoop.mapreduce.db.DBRecordReader<T>) reader);
+      }
+    } catch (IOException ioe) {
+      for (RecordReader<LongWritable, T> reader : readers) {
+        reader.close();
+      }
+      throw ioe;
+    }
+    return new ParallelDBRecordReader<T>(readers);
   }
 
   /**
@@ -262,6 +482,30 @@ protected String getBoundingValsQuery() {
     return query.toString();
   }
 
+  /**
+   * @return a query which returns the minimum and maximum values for
+   * the order-by column within a partition of the table.
+   */
+  protected String getBoundingValsQuery(TablePartition partition) {
+    StringBuilder query = new StringBuilder();
+
+    String splitCol = getDBConf().getInputOrderBy();
+    query.append("SELECT MIN(").append(splitCol).append("), ");
+    query.append("MAX(").append(splitCol).append(") FROM ");
+    if (null != partition.getTableExpression()) {
+      query.append(partition.getTableExpression());
+    } else {
+      query.append(getDBConf().getInputTableName());
+    }
+    String conditions = partition.getConditions(
+        getDBConf().getInputConditions());
+    if (null != conditions) {
+      query.append(" WHERE ( " + conditions + " )");
+    }
+
+    return query.toString();
+  }
+
   protected RecordReader<LongWritable, T> createDBRecordReader(
       DBInputSplit split, Configuration conf) throws IOException {
 
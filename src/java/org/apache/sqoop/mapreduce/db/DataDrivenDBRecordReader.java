@@ -20,11 +20,15 @@
 
 import java.io.IOException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.sqoop.lib.SqoopRecord;
 import org.apache.sqoop.mapreduce.DBWritable;
 
 import com.cloudera.sqoop.mapreduce.db.DBConfiguration;
@@ -46,6 +50,24 @@
 
   private String dbProductName; // database manufacturer string.
 
+  // Checkpoints of the split, if enabled for this task.
+  private SplitCheckpoint checkpoint;
+  private boolean checkpointDue;
+  private Object lastKey;
+  private boolean lastKeyKnown;
+  private long rowsSinceCheckpoint;
+  // Rows of the split returned so far, including the ones covered by the
+  // checkpoint of an earlier attempt.
+  private long rowCount;
+
+  // Once set, the split is read from after this split column value
+  // instead of from its lower bound.
+  private Object resumeKey;
+
+  // Position of the split column among the fields of the records, or -1.
+  private int splitKeyIndex = -1;
+  private Object[] fieldValues;
+
   // CHECKSTYLE:OFF
   // TODO(aaron): Refactor constructor to use fewer arguments.
   /**
@@ -67,13 +89,210 @@ public float getProgress() throws IOException {
     return isDone() ? 1.0f : 0.0f;
   }
 
+  /**
+   * Set up checkpoints of the split if they are enabled, and continue from
+   * the checkpoint of an earlier attempt of the task if there is one.
+   */
+  @Override
+  public void initialize(InputSplit inputSplit, TaskAttemptContext context)
+      throws IOException, InterruptedException {
+    super.initialize(inputSplit, context);
+    SplitCheckpoint splitCheckpoint = SplitCheckpoint.forTask(context);
+    if (null == splitCheckpoint) {
+      return;
+    }
+    String reason = null;
+    if (!splitCheckpoint.hasWriter()) {
+      reason = "the output format does not support them";
+      SplitCheckpoint.release(context);
+    } else if (getDBConf().getInputQuery() != null) {
+      reason = "the import uses a free-form query";
+    } else if (hasLargeObjectFields()) {
+      reason = "the records have large object fields";
+    } else if (!locateSplitKey()) {
+      reason = "the split column is not imported";
+    }
+    if (null != reason) {
+      LOG.warn("Not checkpointing the split because " + reason);
+      return;
+    }
+
+    this.checkpoint = splitCheckpoint;
+    if (null != checkpoint.getLastKey()) {
+      LOG.info("Resuming split after " + getDBConf().getInputOrderBy()
+          + " = " + checkpoint.getLastKey() + "; " + checkpoint.getRows()
+          + " rows were imported by an earlier attempt");
+      resumeAfter(checkpoint.getLastKey());
+      rowCount = checkpoint.getRows();
+    }
+  }
+
+  /**
+   * Find the split column among the fields of the records, so that its
+   * value can be read from a record by position.
+   * @return true if the records include the split column.
+   */
+  protected boolean locateSplitKey() {
+    if (splitKeyIndex >= 0) {
+      return true;
+    }
+    String splitCol = getDBConf().getInputOrderBy();
+    T record = createValue();
+    if (null == splitCol || !(record instanceof SqoopRecord)) {
+      return false;
+    }
+    // Strip the quotes the connection manager escaped the column with.
+    int len = splitCol.length();
+    if (len > 2 && "[\"`".indexOf(splitCol.charAt(0)) >= 0
+        && "]\"`".indexOf(splitCol.charAt(len - 1)) >= 0) {
+      splitCol = splitCol.substring(1, len - 1);
+    }
+    String [] names = ((SqoopRecord) record).getFieldNames();
+    for (int i = 0; i < names.length && splitKeyIndex < 0; i++) {
+      if (names[i].equals(splitCol)) {
+        splitKeyIndex = i;
+      }
+    }
+    for (int i = 0; i < names.length && splitKeyIndex < 0; i++) {
+      if (names[i].equalsIgnoreCase(splitCol)) {
+        splitKeyIndex = i;
+      }
+    }
+    fieldValues = new Object[names.length];
+    return splitKeyIndex >= 0;
+  }
+
+  /**
+   * @return the split column value of a record, or null if it is unknown.
+   * {@link #locateSplitKey()} must have been called first.
+   */
+  protected Object getSplitKey(T record) {
+    if (splitKeyIndex < 0 || null == record) {
+      return null;
+    }
+    ((SqoopRecord) record).getFieldValues(fieldValues);
+    return fieldValues[splitKeyIndex];
+  }
+
+  /**
+   * Read the rest of the split from after the given split column value the
+   * next time the query is run.
+   */
+  protected void resumeAfter(Object splitKey) {
+    this.resumeKey = splitKey;
+  }
+
+  /**
+   * @return the condition on the lower end of the split, which is moved up
+   * once the split is resumed.
+   */
+  protected String getLowerClause() {
+    if (null != resumeKey) {
+      return getDBConf().getInputOrderBy() + " > ?";
+    }
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit dataSplit =
+        (DataDrivenDBInputFormat.DataDrivenDBInputSplit) getSplit();
+    return dataSplit.getLowerClause();
+  }
+
+  @Override
+  protected void setQueryParameters(PreparedStatement stmt)
+      throws SQLException {
+    if (null != resumeKey) {
+      stmt.setObject(1, resumeKey);
+    }
+  }
+
+  /**
+   * @return true if the rows must be read in split column order, which is
+   * the case when the split is checkpointed.
+   */
+  protected boolean isSplitOrdered() {
+    return null != checkpoint;
+  }
+
+  @Override
+  public boolean nextKeyValue() throws IOException {
+    if (null == checkpoint) {
+      return super.nextKeyValue();
+    }
+    // The record returned last has been written out by now. Its key is
+    // kept in case this call fails and is retried, as the record may be
+    // overwritten by the failed read.
+    if (checkpointDue && !lastKeyKnown) {
+      lastKey = getSplitKey(getCurrentValue());
+      lastKeyKnown = true;
+    }
+    if (!super.nextKeyValue()) {
+      return false;
+    }
+    lastKeyKnown = false;
+    rowCount++;
+    rowsSinceCheckpoint++;
+    if (checkpointDue) {
+      // Only checkpoint between rows with split column values the
+      // database finds different, so that resuming after the value skips
+      // exactly the rows written.
+      Object key = getSplitKey(getCurrentValue());
+      if (null != lastKey && !SplitCheckpoint.isSameKey(lastKey, key)) {
+        if (SplitCheckpoint.isSupportedKey(lastKey)) {
+          checkpoint.commit(lastKey, rowCount - 1);
+          checkpointDue = false;
+          rowsSinceCheckpoint = 1;
+        } else {
+          LOG.warn("Not checkpointing the split because split column values"
+              + " of type " + lastKey.getClass().getName()
+              + " cannot be recorded");
+          checkpoint = null;
+        }
+      }
+    } else if (rowsSinceCheckpoint >= checkpoint.getCheckpointRows()) {
+      checkpointDue = true;
+    }
+    return true;
+  }
+
+  /**
+   * @return the partition of the table the split is part of, or null.
+   */
+  protected TablePartition getPartition() {
+    if (getSplit() instanceof PartitionDBInputSplit) {
+      return ((PartitionDBInputSplit) getSplit()).getPartition();
+    }
+    return null;
+  }
+
+  /**
+   * @return what to select the rows from: the table, or the partition
+   * of a partition split.
+   */
+  protected String getFromTable() {
+    TablePartition partition = getPartition();
+    if (null != partition && null != partition.getTableExpression()) {
+      return partition.getTableExpression();
+    }
+    return getTableName();
+  }
+
+  /**
+   * @return the user's conditions, and those selecting the partition of a
+   * partition split.
+   */
+  @Override
+  protected String getConditions() {
+    TablePartition partition = getPartition();
+    if (null != partition) {
+      return partition.getConditions(super.getConditions());
+    }
+    return super.getConditions();
+  }
+
   /** Returns the query for selecting the records,
    * subclasses can override this for custom behaviour.*/
   protected String getSelectQuery() {
     DataDrivenDBInputFormat.DataDrivenDBInputSplit dataSplit =
         (DataDrivenDBInputFormat.DataDrivenDBInputSplit) getSplit();
-    return getSelectQuery(dataSplit.getLowerClause(),
-        dataSplit.getUpperClause());
+    return getSelectQuery(getLowerClause(), dataSplit.getUpperClause());
   }
 
   /** Returns the query for selecting the records, with lower and upper
@@ -105,7 +324,7 @@ protected String getSelectQuery(String lowerClause, String upperClause) {
         }
       }
 
-      query.append(" FROM ").append(tableName);
+      query.append(" FROM ").append(getFromTable());
       if (!dbProductName.startsWith("ORACLE")
           && !dbProductName.startsWith("DB2")
           && !dbProductName.startsWith("MICROSOFT SQL SERVER")
@@ -123,6 +342,9 @@ protected String getSelectQuery(String lowerClause, String upperClause) {
       // Now append the conditions associated with our split.
       query.append(conditionClauses.toString());
 
+      if (isSplitOrdered()) {
+        query.append(" ORDER BY ").append(dbConf.getInputOrderBy());
+      }
     } else {
       // User provided the query. We replace the special token with
       // our WHERE clause.
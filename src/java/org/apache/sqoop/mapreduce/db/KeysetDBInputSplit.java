@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.Text;
+
+import com.cloudera.sqoop.mapreduce.db.DBInputFormat;
+
+/**
+ * A DBInputSplit that selects its rows by a range of values of a unique
+ * key instead of by their offsets. The row offsets are kept to report
+ * progress with.
+ */
+public class KeysetDBInputSplit extends DBInputFormat.DBInputSplit {
+
+  private String lowerBoundClause;
+  private String upperBoundClause;
+
+  /**
+   * Default Constructor.
+   */
+  public KeysetDBInputSplit() {
+  }
+
+  /**
+   * Convenience Constructor.
+   * @param start the index of the first row to select
+   * @param end the index of the last row to select
+   * @param lower the condition the keys of the rows are above, or null
+   * if the split has no lower bound
+   * @param upper the condition the keys of the rows are at or below, or
+   * null if the split has no upper bound
+   */
+  public KeysetDBInputSplit(long start, long end, String lower,
+      String upper) {
+    super(start, end);
+    this.lowerBoundClause = lower;
+    this.upperBoundClause = upper;
+  }
+
+  /**
+   * @return the condition the keys of the rows are above, or null.
+   */
+  public String getLowerBoundClause() {
+    return lowerBoundClause;
+  }
+
+  /**
+   * @return the condition the keys of the rows are at or below, or null.
+   */
+  public String getUpperBoundClause() {
+    return upperBoundClause;
+  }
+
+  /**
+   * @return the condition selecting the rows of the split, or null if it
+   * selects every row.
+   */
+  public String getKeyConditions() {
+    if (null == lowerBoundClause) {
+      return upperBoundClause;
+    } else if (null == upperBoundClause) {
+      return lowerBoundClause;
+    }
+    return lowerBoundClause + " AND " + upperBoundClause;
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public void readFields(DataInput input) throws IOException {
+    super.readFields(input);
+    lowerBoundClause = input.readBoolean() ? Text.readString(input) : null;
+    upperBoundClause = input.readBoolean() ? Text.readString(input) : null;
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public void write(DataOutput output) throws IOException {
+    super.write(output);
+    writeClause(output, lowerBoundClause);
+    writeClause(output, upperBoundClause);
+  }
+
+  private static void writeClause(DataOutput output, String clause)
+      throws IOException {
+    output.writeBoolean(null != clause);
+    if (null != clause) {
+      Text.writeString(output, clause);
+    }
+  }
+}
@@ -0,0 +1,374 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.mapreduce.InputSplit;
+
+/**
+ * Splits a table on the values of a unique, non-null key, for
+ * DBInputFormat. One ordered scan of the key finds the key values at the
+ * split boundaries, and each split then selects the rows between two of
+ * them. Unlike splits read with LIMIT and OFFSET, the database does not
+ * have to read and skip the rows of all the splits before it.
+ *
+ * The key is the configured keyset columns, or else the primary key of
+ * the table, or else its unique index of the fewest non-null columns.
+ */
+public class KeysetSplitter {
+
+  public static final Log LOG = LogFactory.getLog(
+      KeysetSplitter.class.getName());
+
+  /**
+   * @param dbConf the input configuration.
+   * @param conn the connection to scan the key with.
+   * @param tableName the table to split.
+   * @param conditions the WHERE clause of the input, or null.
+   * @param count the number of rows to split.
+   * @param chunks the number of splits to make.
+   * @return splits of about count / chunks rows each, or null if the table
+   * has no key to split on.
+   */
+  public List<InputSplit> split(DBConfiguration dbConf, Connection conn,
+      String tableName, String conditions, long count, int chunks)
+      throws SQLException {
+    String [] keyCols = getKeyColumns(dbConf, conn, tableName);
+    if (null == keyCols) {
+      LOG.info("Found no unique key of " + tableName + " to split on");
+      return null;
+    }
+
+    long chunkSize = count / chunks;
+    List<InputSplit> splits = new ArrayList<InputSplit>();
+    if (chunks <= 1 || chunkSize == 0) {
+      splits.add(new KeysetDBInputSplit(0, count, null, null));
+      return splits;
+    }
+
+    StringBuilder query = new StringBuilder();
+    query.append("SELECT ").append(StringUtils.join(keyCols, ", "));
+    query.append(" FROM ").append(tableName);
+    if (conditions != null && conditions.length() > 0) {
+      query.append(" WHERE (").append(conditions).append(")");
+    }
+    query.append(" ORDER BY ").append(StringUtils.join(keyCols, ", "));
+    LOG.info("Finding split boundaries with: " + query);
+
+    Statement statement = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY,
+        ResultSet.CONCUR_READ_ONLY);
+    try {
+      Integer fetchSize = dbConf.getFetchSize();
+      if (null != fetchSize) {
+        statement.setFetchSize(fetchSize);
+      }
+      ResultSet results = statement.executeQuery(query.toString());
+      int [] sqlTypes = getKeyTypes(results.getMetaData());
+      if (null == sqlTypes) {
+        return null;
+      }
+
+      String lower = null;
+      long start = 0;
+      long row = 0;
+      // The last split has no upper bound, so the scan stops at the last
+      // boundary.
+      while (splits.size() < chunks - 1 && results.next()) {
+        row++;
+        if (row == start + chunkSize) {
+          String [] values = new String[keyCols.length];
+          for (int i = 0; i < keyCols.length; i++) {
+            values[i] = toLiteral(results, i + 1, sqlTypes[i]);
+            if (null == values[i]) {
+              LOG.warn("Key column " + keyCols[i] + " of " + tableName
+                  + " has null values; cannot split on it");
+              return null;
+            }
+          }
+          String upper = compareClause(keyCols, values, "<", "<=");
+          splits.add(new KeysetDBInputSplit(start, row, lower, upper));
+          lower = compareClause(keyCols, values, ">", ">");
+          start = row;
+        }
+      }
+      splits.add(new KeysetDBInputSplit(start, Math.max(start, count), lower,
+          null));
+      results.close();
+    } finally {
+      statement.close();
+    }
+    return splits;
+  }
+
+  /**
+   * @return a condition that compares the key columns in order to the
+   * values; e.g. with operators "&lt;" and "&lt;=", "(A &lt; 1) OR (A = 1
+   * AND B &lt;= 2)" for the columns A and B and the values 1 and 2.
+   * @param op the comparison of all but the last column.
+   * @param lastOp the comparison of the last column.
+   */
+  static String compareClause(String [] cols, String [] values, String op,
+      String lastOp) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("(");
+    for (int i = 0; i < cols.length; i++) {
+      if (i > 0) {
+        sb.append(" OR ");
+      }
+      if (cols.length > 1) {
+        sb.append("(");
+      }
+      for (int j = 0; j < i; j++) {
+        sb.append(cols[j]).append(" = ").append(values[j]).append(" AND ");
+      }
+      sb.append(cols[i]).append(' ').append(i == cols.length - 1 ? lastOp : op)
+          .append(' ').append(values[i]);
+      if (cols.length > 1) {
+        sb.append(")");
+      }
+    }
+    sb.append(")");
+    return sb.toString();
+  }
+
+  /**
+   * @return the SQL types of the key columns, or null if they cannot all
+   * be written as literals.
+   */
+  private int [] getKeyTypes(ResultSetMetaData metaData) throws SQLException {
+    int [] sqlTypes = new int[metaData.getColumnCount()];
+    for (int i = 0; i < sqlTypes.length; i++) {
+      sqlTypes[i] = metaData.getColumnType(i + 1);
+      if (!isSupportedType(sqlTypes[i])) {
+        LOG.info("Cannot split on key column " + metaData.getColumnName(i + 1)
+            + " of SQL type " + sqlTypes[i]);
+        return null;
+      }
+    }
+    return sqlTypes;
+  }
+
+  private static boolean isSupportedType(int sqlType) {
+    switch (sqlType) {
+    case Types.TINYINT:
+    case Types.SMALLINT:
+    case Types.INTEGER:
+    case Types.BIGINT:
+    case Types.DECIMAL:
+    case Types.NUMERIC:
+    case Types.CHAR:
+    case Types.VARCHAR:
+    case Types.LONGVARCHAR:
+    case Types.NCHAR:
+    case Types.NVARCHAR:
+    case Types.LONGNVARCHAR:
+    case Types.DATE:
+    case Types.TIME:
+    case Types.TIMESTAMP:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * @return the value of a column of the current row as an SQL literal,
+   * or null if it is null.
+   */
+  protected String toLiteral(ResultSet results, int col, int sqlType)
+      throws SQLException {
+    switch (sqlType) {
+    case Types.TINYINT:
+    case Types.SMALLINT:
+    case Types.INTEGER:
+    case Types.BIGINT:
+      long l = results.getLong(col);
+      return results.wasNull() ? null : Long.toString(l);
+    case Types.DECIMAL:
+    case Types.NUMERIC:
+      BigDecimal bd = results.getBigDecimal(col);
+      return null == bd ? null : bd.toPlainString();
+    case Types.DATE:
+      return dateToString(results.getDate(col));
+    case Types.TIME:
+      return dateToString(results.getTime(col));
+    case Types.TIMESTAMP:
+      return dateToString(results.getTimestamp(col));
+    default:
+      String s = results.getString(col);
+      return null == s ? null : "'" + s.replace("'", "''") + "'";
+    }
+  }
+
+  /**
+   * @return a date, time or timestamp as an SQL literal, or null if it is
+   * null.
+   */
+  protected String dateToString(Date d) {
+    return null == d ? null : "'" + d.toString() + "'";
+  }
+
+  /**
+   * @return the columns of the key to split the table on, or null if it
+   * has none.
+   */
+  protected String [] getKeyColumns(DBConfiguration dbConf, Connection conn,
+      String tableName) throws SQLException {
+    String [] configured = dbConf.getInputKeysetColumns();
+    if (null != configured && configured.length > 0) {
+      return configured;
+    }
+
+    DatabaseMetaData metaData = conn.getMetaData();
+    String schema = null;
+    String table = unquote(tableName);
+    int dot = tableName.lastIndexOf('.');
+    if (dot >= 0) {
+      schema = unquote(tableName.substring(0, dot));
+      table = unquote(tableName.substring(dot + 1));
+    }
+    // The metadata may hold the names in another case than the query.
+    String [][] names = {
+      { schema, table },
+      { upper(schema), upper(table) },
+      { lower(schema), lower(table) },
+    };
+    for (String [] name : names) {
+      String [] keyCols = getPrimaryKey(metaData, name[0], name[1]);
+      if (null == keyCols) {
+        keyCols = getUniqueIndex(metaData, name[0], name[1]);
+      }
+      if (null != keyCols) {
+        LOG.info("Splitting " + tableName + " on key "
+            + StringUtils.join(keyCols, ", "));
+        return keyCols;
+      }
+    }
+    return null;
+  }
+
+  private static String [] getPrimaryKey(DatabaseMetaData metaData,
+      String schema, String table) throws SQLException {
+    Map<Integer, String> keyCols = new TreeMap<Integer, String>();
+    ResultSet results = metaData.getPrimaryKeys(null, schema, table);
+    if (null == results) {
+      return null;
+    }
+    try {
+      while (results.next()) {
+        keyCols.put(results.getInt("KEY_SEQ"),
+            results.getString("COLUMN_NAME"));
+      }
+    } finally {
+      results.close();
+    }
+    return keyCols.isEmpty() ? null
+        : keyCols.values().toArray(new String[keyCols.size()]);
+  }
+
+  /**
+   * @return the columns of the unique index of the fewest columns that
+   * are all non-null, or null if there is none.
+   */
+  private static String [] getUniqueIndex(DatabaseMetaData metaData,
+      String schema, String table) throws SQLException {
+    Set<String> notNull = new HashSet<String>();
+    ResultSet results = metaData.getColumns(null, schema, table, null);
+    if (null == results) {
+      return null;
+    }
+    try {
+      while (results.next()) {
+        if (results.getInt("NULLABLE") == DatabaseMetaData.columnNoNulls) {
+          notNull.add(results.getString("COLUMN_NAME"));
+        }
+      }
+    } finally {
+      results.close();
+    }
+
+    Map<String, Map<Integer, String>> indexes =
+        new LinkedHashMap<String, Map<Integer, String>>();
+    results = metaData.getIndexInfo(null, schema, table, true, true);
+    if (null == results) {
+      return null;
+    }
+    try {
+      while (results.next()) {
+        String indexName = results.getString("INDEX_NAME");
+        if (results.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic
+            || null == indexName) {
+          continue;
+        }
+        Map<Integer, String> cols = indexes.get(indexName);
+        if (null == cols) {
+          cols = new TreeMap<Integer, String>();
+          indexes.put(indexName, cols);
+        }
+        cols.put((int) results.getShort("ORDINAL_POSITION"),
+            results.getString("COLUMN_NAME"));
+      }
+    } finally {
+      results.close();
+    }
+
+    String [] best = null;
+    for (Map<Integer, String> cols : indexes.values()) {
+      if (notNull.containsAll(cols.values())
+          && (null == best || cols.size() < best.length)) {
+        best = cols.values().toArray(new String[cols.size()]);
+      }
+    }
+    return best;
+  }
+
+  private static String unquote(String name) {
+    if (name.length() > 1 && "\"`[".indexOf(name.charAt(0)) >= 0) {
+      return name.substring(1, name.length() - 1);
+    }
+    return name;
+  }
+
+  private static String upper(String name) {
+    return null == name ? null : name.toUpperCase();
+  }
+
+  private static String lower(String name) {
+    return null == name ? null : name.toLowerCase();
+  }
+}
@@ -76,7 +76,10 @@ protected String getSelectQuery() {
       }
 
       query.append(" FROM ").append(tableName);
-      if (conditions != null && conditions.length() > 0) {
+      String keyConditions = getKeyConditions();
+      if (null != keyConditions) {
+        appendConditions(query, conditions, keyConditions);
+      } else if (conditions != null && conditions.length() > 0) {
         query.append(" WHERE ").append(conditions);
       }
       String orderBy = dbConf.getInputOrderBy();
@@ -90,7 +93,8 @@ protected String getSelectQuery() {
 
     try {
       DBInputFormat.DBInputSplit split = getSplit();
-      if (split.getLength() > 0 && split.getStart() > 0) {
+      if (split.getLength() > 0 && split.getStart() > 0
+          && !(split instanceof KeysetDBInputSplit)) {
         String querystring = query.toString();
 
         query = new StringBuilder();
@@ -0,0 +1,237 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.sqoop.lib.ColumnBatch;
+import org.apache.sqoop.mapreduce.DBWritable;
+
+/**
+ * Reads the sub-ranges of a SubrangeDBInputSplit concurrently, each with
+ * its own record reader and connection on its own thread, and returns
+ * their rows in the order they arrive.
+ *
+ * The rows are read into a fixed pool of records, as in
+ * ResultSetPrefetcher: the threads fill free records and queue them, and
+ * each record is handed back once the mapper has moved on to the next.
+ * Records with large object fields have to be loaded from the current row
+ * of their ResultSet, so their sub-ranges are read one after another on
+ * the mapper's thread instead.
+ */
+public class ParallelDBRecordReader<T extends DBWritable>
+    extends RecordReader<LongWritable, T> {
+
+  public static final Log LOG = LogFactory.getLog(
+      ParallelDBRecordReader.class.getName());
+
+  /** Records each sub-range may read ahead of the mapper. */
+  public static final int RECORDS_PER_SUBRANGE = 16;
+
+  // Queued by a thread once its sub-range is read or has failed.
+  private static final Object END_OF_SUBRANGE = new Object();
+
+  private final List<DBRecordReader<T>> readers;
+  private final List<Thread> threads = new ArrayList<Thread>();
+  private BlockingQueue<T> freeRecords;
+  private BlockingQueue<Object> filledRecords;
+
+  private volatile boolean stopped;
+  private volatile Throwable failure;
+  private int finishedReaders;
+
+  // Index of the reader read on the mapper's thread, if not concurrent.
+  private int currentReader;
+  private boolean concurrent;
+
+  private LongWritable key;
+  private T value;
+  private long pos;
+
+  /**
+   * @param readers the readers of the sub-ranges; this reader closes them.
+   */
+  public ParallelDBRecordReader(List<DBRecordReader<T>> readers) {
+    this.readers = new ArrayList<DBRecordReader<T>>(readers);
+  }
+
+  @Override
+  public void initialize(InputSplit split, TaskAttemptContext context)
+      throws IOException, InterruptedException {
+    for (DBRecordReader<T> reader : readers) {
+      reader.initialize(split, context);
+    }
+    if (readers.size() < 2) {
+      return;
+    }
+    if (readers.get(0).hasLargeObjectFields()) {
+      LOG.info("Reading " + readers.size() + " sub-ranges one after another"
+          + " because the records have large object fields");
+      return;
+    }
+    concurrent = true;
+
+    int poolSize = readers.size() * RECORDS_PER_SUBRANGE + 1;
+    freeRecords = new ArrayBlockingQueue<T>(poolSize);
+    for (int i = 0; i < poolSize; i++) {
+      freeRecords.add(readers.get(0).createValue());
+    }
+    // Room for every record plus the end of every sub-range.
+    filledRecords = new ArrayBlockingQueue<Object>(poolSize + readers.size());
+    for (int i = 0; i < readers.size(); i++) {
+      final DBRecordReader<T> reader = readers.get(i);
+      Thread thread = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          readLoop(reader);
+        }
+      }, "subrange-reader-" + i);
+      thread.setDaemon(true);
+      threads.add(thread);
+    }
+    LOG.info("Reading " + readers.size() + " sub-ranges concurrently");
+    for (Thread thread : threads) {
+      thread.start();
+    }
+  }
+
+  private void readLoop(DBRecordReader<T> reader) {
+    LongWritable readerKey = new LongWritable();
+    try {
+      while (!stopped) {
+        T record = freeRecords.take();
+        if (!reader.next(readerKey, record)) {
+          freeRecords.offer(record);
+          break;
+        }
+        filledRecords.put(record);
+      }
+    } catch (InterruptedException ie) {
+      if (!stopped) {
+        failure = ie;
+      }
+    } catch (Throwable t) {
+      failure = t;
+    } finally {
+      filledRecords.offer(END_OF_SUBRANGE);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean nextKeyValue() throws IOException, InterruptedException {
+    if (null == key) {
+      key = new LongWritable();
+    }
+    if (!concurrent) {
+      return nextSequential();
+    }
+    if (null != value) {
+      freeRecords.offer(value);
+      value = null;
+    }
+    while (finishedReaders < readers.size()) {
+      Object next = filledRecords.take();
+      if (next != END_OF_SUBRANGE) {
+        value = (T) next;
+        key.set(pos);
+        pos += value instanceof ColumnBatch ? ((ColumnBatch) value).size() : 1;
+        return true;
+      }
+      finishedReaders++;
+      Throwable t = failure;
+      if (t instanceof IOException) {
+        throw (IOException) t;
+      } else if (t instanceof InterruptedException) {
+        throw (InterruptedException) t;
+      } else if (t != null) {
+        throw new IOException("Failed to read a sub-range", t);
+      }
+    }
+    return false;
+  }
+
+  private boolean nextSequential() throws IOException, InterruptedException {
+    while (currentReader < readers.size()) {
+      DBRecordReader<T> reader = readers.get(currentReader);
+      if (reader.nextKeyValue()) {
+        value = reader.getCurrentValue();
+        key.set(pos);
+        pos += value instanceof ColumnBatch ? ((ColumnBatch) value).size() : 1;
+        return true;
+      }
+      currentReader++;
+      finishedReaders++;
+    }
+    return false;
+  }
+
+  @Override
+  public LongWritable getCurrentKey() {
+    return key;
+  }
+
+  @Override
+  public T getCurrentValue() {
+    return value;
+  }
+
+  @Override
+  public float getProgress() {
+    return finishedReaders / (float) readers.size();
+  }
+
+  @Override
+  public void close() throws IOException {
+    stopped = true;
+    for (Thread thread : threads) {
+      thread.interrupt();
+    }
+    try {
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    }
+    IOException closeFailure = null;
+    for (DBRecordReader<T> reader : readers) {
+      try {
+        reader.close();
+      } catch (IOException ioe) {
+        if (null == closeFailure) {
+          closeFailure = ioe;
+        }
+      }
+    }
+    if (null != closeFailure) {
+      throw closeFailure;
+    }
+  }
+}
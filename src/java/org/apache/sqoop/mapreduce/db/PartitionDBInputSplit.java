@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.cloudera.sqoop.mapreduce.db.DataDrivenDBInputFormat;
+
+/**
+ * A data-driven split of a single partition of the table, which selects
+ * its rows from that partition only.
+ */
+public class PartitionDBInputSplit
+    extends DataDrivenDBInputFormat.DataDrivenDBInputSplit {
+
+  private TablePartition partition;
+
+  /**
+   * Default Constructor.
+   */
+  public PartitionDBInputSplit() {
+    this.partition = new TablePartition();
+  }
+
+  /**
+   * Convenience Constructor.
+   * @param lower the string to be put in the WHERE clause to guard
+   * on the 'lower' end.
+   * @param upper the string to be put in the WHERE clause to guard
+   * on the 'upper' end.
+   * @param partition the partition the split is part of.
+   */
+  public PartitionDBInputSplit(String lower, String upper,
+      TablePartition partition) {
+    super(lower, upper);
+    this.partition = partition;
+  }
+
+  public TablePartition getPartition() {
+    return partition;
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public void readFields(DataInput input) throws IOException {
+    super.readFields(input);
+    partition.readFields(input);
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public void write(DataOutput output) throws IOException {
+    super.write(output);
+    partition.write(output);
+  }
+
+  @Override
+  public String toString() {
+    return partition + ": " + super.toString();
+  }
+}
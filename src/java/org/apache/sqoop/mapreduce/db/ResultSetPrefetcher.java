@@ -0,0 +1,175 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.sqoop.mapreduce.DBWritable;
+import org.apache.sqoop.mapreduce.TaskPhaseMetrics;
+import org.apache.sqoop.mapreduce.TaskPhaseMetrics.Phase;
+
+/**
+ * Reads the rows of a ResultSet on a background thread, ahead of the
+ * consumer. The rows are read into a fixed pool of records: the thread
+ * fills free records and queues them, and the consumer hands each record
+ * back once it is done with it. Fetching from the database thus overlaps
+ * with the consumer's processing, and the number of rows read ahead is
+ * bounded by the size of the pool.
+ *
+ * The ResultSet must not be used by anyone else until the prefetcher has
+ * been stopped.
+ */
+public class ResultSetPrefetcher<T extends DBWritable> {
+
+  public static final Log LOG = LogFactory.getLog(
+      ResultSetPrefetcher.class.getName());
+
+  // Queued after the last record.
+  private static final Object END_OF_RESULTS = new Object();
+
+  private final ResultSet results;
+  private final BlockingQueue<T> freeRecords;
+  private final BlockingQueue<Object> filledRecords;
+  private final Thread thread;
+
+  private TaskPhaseMetrics phaseMetrics = TaskPhaseMetrics.DISABLED;
+
+  private volatile boolean stopped;
+  private volatile Throwable failure;
+  private boolean exhausted;
+
+  /**
+   * @param results the ResultSet to read; positioned before its first row.
+   * @param records the records to read the rows into. The consumer holds
+   *        one of them while the others are being filled, so there must be
+   *        at least two.
+   */
+  public ResultSetPrefetcher(ResultSet results, List<T> records) {
+    if (records.size() < 2) {
+      throw new IllegalArgumentException("At least two records are needed");
+    }
+    this.results = results;
+    this.freeRecords = new ArrayBlockingQueue<T>(records.size());
+    this.freeRecords.addAll(records);
+    this.filledRecords = new ArrayBlockingQueue<Object>(records.size() + 1);
+    this.thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        fetchLoop();
+      }
+    }, "resultset-prefetcher");
+    this.thread.setDaemon(true);
+  }
+
+  /**
+   * Measure fetching and reading the rows; call before start(). The
+   * metrics must not be published before stop() returns.
+   */
+  public void setPhaseMetrics(TaskPhaseMetrics metrics) {
+    this.phaseMetrics = metrics;
+  }
+
+  public void start() {
+    thread.start();
+  }
+
+  private void fetchLoop() {
+    try {
+      while (!stopped) {
+        T record = freeRecords.take();
+        long fetchStart = phaseMetrics.start(Phase.FETCH);
+        boolean hasNext = results.next();
+        phaseMetrics.end(Phase.FETCH, fetchStart);
+        if (!hasNext) {
+          break;
+        }
+        long readStart = phaseMetrics.start(Phase.READ_FIELDS);
+        record.readFields(results);
+        phaseMetrics.end(Phase.READ_FIELDS, readStart);
+        filledRecords.put(record);
+      }
+    } catch (InterruptedException ie) {
+      if (!stopped) {
+        failure = ie;
+      }
+    } catch (Throwable t) {
+      failure = t;
+    } finally {
+      // The queue has room for every record plus the end marker.
+      filledRecords.offer(END_OF_RESULTS);
+    }
+  }
+
+  /**
+   * Wait for the next row.
+   * @return the record holding the next row, or null after the last row.
+   * @throws SQLException if reading the ResultSet failed; the rows read
+   * before the failure are returned first.
+   */
+  @SuppressWarnings("unchecked")
+  public T next() throws SQLException, InterruptedException {
+    if (exhausted) {
+      return null;
+    }
+    Object next = filledRecords.take();
+    if (next != END_OF_RESULTS) {
+      return (T) next;
+    }
+    exhausted = true;
+    Throwable t = failure;
+    if (t instanceof SQLException) {
+      throw (SQLException) t;
+    } else if (t instanceof InterruptedException) {
+      throw (InterruptedException) t;
+    } else if (t != null) {
+      throw new SQLException("Failed to read the next row", t);
+    }
+    return null;
+  }
+
+  /**
+   * Give back a record returned by next() once the consumer is done with it.
+   */
+  public void recycle(T record) {
+    freeRecords.offer(record);
+  }
+
+  /**
+   * @return true once next() has returned null or thrown.
+   */
+  public boolean isExhausted() {
+    return exhausted;
+  }
+
+  /**
+   * Stop reading and wait for the thread to exit. A row being fetched when
+   * this is called is completed first.
+   */
+  public void stop() throws InterruptedException {
+    stopped = true;
+    thread.interrupt();
+    thread.join();
+  }
+}
@@ -31,7 +31,6 @@
 
 import com.cloudera.sqoop.mapreduce.db.DBConfiguration;
 import com.cloudera.sqoop.mapreduce.db.DBInputFormat;
-import com.cloudera.sqoop.mapreduce.db.DataDrivenDBInputFormat;
 
 import  org.apache.sqoop.lib.SqoopRecord;
 
@@ -52,10 +51,9 @@
   // Recover failed reads for RETRY_MAX
   protected static final int RETRY_MAX = 3;
 
-  // Name of the split column used to re-generate selectQueries after
-  // connection failures
-  private String splitColumn;
-  private String lastRecordKey;
+  // Split column value of the last record read, used to re-generate
+  // selectQueries after connection failures
+  private Object lastRecordKey;
 
   public SQLServerDBRecordReader(DBInputFormat.DBInputSplit split,
       Class<T> inputClass, Configuration conf, Connection conn,
@@ -64,23 +62,13 @@ public SQLServerDBRecordReader(DBInputFormat.DBInputSplit split,
     super(split, inputClass, conf, conn, dbConfig, cond, fields, table);
   }
 
-  @Override
-  /** {@inheritDoc} */
-  public T getCurrentValue() {
-    T val = super.getCurrentValue();
-    // Lookup the key of the last read record to use for recovering
-    // As documented, the map may not be null, though it may be empty.
-    Object lastRecordSplitCol = val.getFieldMap().get(splitColumn);
-    lastRecordKey = (lastRecordSplitCol == null) ? null
-        : lastRecordSplitCol.toString();
-    return val;
-  }
-
   /**
    * Load the SQLFailureHandler configured for use by the record reader.
    */
   public void initialize(InputSplit inputSplit, TaskAttemptContext context)
       throws IOException, InterruptedException {
+    super.initialize(inputSplit, context);
+
     // Load the configured connection failure handler
     Configuration conf = getConf();
     if (conf == null) {
@@ -117,17 +105,16 @@ public void initialize(InputSplit inputSplit, TaskAttemptContext context)
     failureHandler.initialize(conf);
 
     // Get the split-by column
-    splitColumn = getDBConf().getInputOrderBy();
+    String splitColumn = getDBConf().getInputOrderBy();
     if (splitColumn == null || splitColumn.length() == 0) {
       throw new IOException("Split column must be set");
     }
 
-    // Ensure the split-column is not escaped so that we can use it to search
-    // in the record map
-    int splitColLen = splitColumn.length();
-    if (splitColLen > 2 && splitColumn.charAt(0) == '['
-      && splitColumn.charAt(splitColLen-1) == ']') {
-      splitColumn = splitColumn.substring(1, splitColLen - 1);
+    // Find the split column among the record fields, so that its value can
+    // be looked up by position
+    if (!locateSplitKey()) {
+      LOG.warn("Split column " + splitColumn + " is not imported; failed "
+          + "reads will restart the split");
     }
   }
 
@@ -142,6 +129,13 @@ public boolean nextKeyValue() throws IOException {
     int retryCount = RETRY_MAX;
     boolean doRetry = true;
 
+    // The record returned last has been written out by now; remember its
+    // key to restart from if the read fails
+    T lastValue = getCurrentValue();
+    if (lastValue != null) {
+      lastRecordKey = getSplitKey(lastValue);
+    }
+
     do {
       try {
         // Try to get the next key/value pairs
@@ -162,6 +156,11 @@ public boolean nextKeyValue() throws IOException {
           configureConnection(conn);
           setConnection(conn);
 
+          // Continue from the last record that was successfully read
+          if (lastRecordKey != null) {
+            resumeAfter(lastRecordKey);
+          }
+
           --retryCount;
           doRetry = (retryCount >= 0);
         } else {
@@ -193,32 +192,4 @@ protected void configureConnection(Connection conn) throws IOException {
       throw new IOException(sqlEx);
     }
   }
-
-  /** Returns the query for selecting the records,
-   * For handling connection recovery we always want to start from the last
-   * record that was successfully read.
-   */
-  protected String getSelectQuery() {
-    // Last seen record key is only expected to be unavailable if no reads
-    // ever happened
-    String selectQuery;
-    if (lastRecordKey == null) {
-      selectQuery = super.getSelectQuery();
-    } else {
-      // If last record key is available, construct the select query to start
-      // from
-      DataDrivenDBInputFormat.DataDrivenDBInputSplit dataSplit =
-          (DataDrivenDBInputFormat.DataDrivenDBInputSplit) getSplit();
-      StringBuilder lowerClause = new StringBuilder();
-      lowerClause.append(getDBConf().getInputOrderBy());
-      lowerClause.append(" > ");
-      lowerClause.append(lastRecordKey.toString());
-
-      // Get the select query with the lowerClause, and split upper clause
-      selectQuery = getSelectQuery(lowerClause.toString(),
-          dataSplit.getUpperClause());
-    }
-
-    return selectQuery;
-  }
 }
@@ -0,0 +1,291 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+
+import org.apache.hadoop.conf.Configuration;
+
+/**
+ * The minimum and maximum values of the split column, found before the
+ * job is submitted, for the input format to split the input on instead of
+ * running its bounding query. Incremental imports find them in the same
+ * query as the new maximum of their check column.
+ *
+ * The bounds are kept in the job configuration along with the split
+ * column and the conditions or query they were found for, and are only
+ * used to split that input.
+ */
+public class SplitBounds {
+
+  /**
+   * If true (the default), incremental append imports find the bounds of
+   * the split column along with the new maximum of the check column.
+   */
+  public static final String INCREMENTAL_BOUNDS_KEY =
+      "sqoop.import.incremental.split.bounds";
+
+  private static final String PREFIX = "sqoop.import.split.bounds";
+  private static final String COLUMN_KEY = PREFIX + ".column";
+  private static final String SOURCE_KEY = PREFIX + ".source";
+  private static final String TYPE_KEY = PREFIX + ".type";
+  private static final String MIN_KEY = PREFIX + ".min";
+  private static final String MAX_KEY = PREFIX + ".max";
+  private static final String ROWS_KEY = PREFIX + ".rows";
+
+  private final int sqlType;
+  private final Object min;
+  private final Object max;
+  private final long rows;
+
+  /**
+   * @param sqlType the SQL type of the split column.
+   * @param min the minimum value, or null.
+   * @param max the maximum value, or null.
+   * @param rows the number of rows between the bounds, or -1 if unknown.
+   */
+  public SplitBounds(int sqlType, Object min, Object max, long rows) {
+    this.sqlType = sqlType;
+    this.min = min;
+    this.max = max;
+    this.rows = rows;
+  }
+
+  public int getSqlType() {
+    return sqlType;
+  }
+
+  public Object getMin() {
+    return min;
+  }
+
+  public Object getMax() {
+    return max;
+  }
+
+  /**
+   * @return the number of rows between the bounds, or -1 if unknown.
+   */
+  public long getRows() {
+    return rows;
+  }
+
+  /**
+   * @return the bounds in two columns of the current row of a result set,
+   * or null if the split column has a type they cannot be kept for.
+   */
+  public static SplitBounds fromResultSet(ResultSet results, int minCol,
+      int maxCol, long rows) throws SQLException {
+    ResultSetMetaData metaData = results.getMetaData();
+    int sqlType = metaData.getColumnType(minCol);
+    // MySQL has an unsigned integer which we need to allocate space for
+    if (sqlType == Types.INTEGER && !metaData.isSigned(minCol)) {
+      sqlType = Types.BIGINT;
+    }
+    if (!isSupportedType(sqlType)) {
+      return null;
+    }
+    return new SplitBounds(sqlType, getValue(results, minCol, sqlType),
+        getValue(results, maxCol, sqlType), rows);
+  }
+
+  private static boolean isSupportedType(int sqlType) {
+    switch (sqlType) {
+    case Types.TINYINT:
+    case Types.SMALLINT:
+    case Types.INTEGER:
+    case Types.BIGINT:
+    case Types.DECIMAL:
+    case Types.NUMERIC:
+    case Types.REAL:
+    case Types.FLOAT:
+    case Types.DOUBLE:
+    case Types.BIT:
+    case Types.BOOLEAN:
+    case Types.CHAR:
+    case Types.VARCHAR:
+    case Types.LONGVARCHAR:
+    case Types.NCHAR:
+    case Types.NVARCHAR:
+    case Types.LONGNVARCHAR:
+    case Types.DATE:
+    case Types.TIME:
+    case Types.TIMESTAMP:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  private static Object getValue(ResultSet results, int col, int sqlType)
+      throws SQLException {
+    Object value;
+    switch (sqlType) {
+    case Types.TINYINT:
+    case Types.SMALLINT:
+    case Types.INTEGER:
+    case Types.BIGINT:
+      value = results.getLong(col);
+      break;
+    case Types.DECIMAL:
+    case Types.NUMERIC:
+      value = results.getBigDecimal(col);
+      break;
+    case Types.REAL:
+    case Types.FLOAT:
+    case Types.DOUBLE:
+      value = results.getDouble(col);
+      break;
+    case Types.BIT:
+    case Types.BOOLEAN:
+      value = results.getBoolean(col);
+      break;
+    case Types.DATE:
+      value = results.getDate(col);
+      break;
+    case Types.TIME:
+      value = results.getTime(col);
+      break;
+    case Types.TIMESTAMP:
+      value = results.getTimestamp(col);
+      break;
+    default:
+      value = results.getString(col);
+      break;
+    }
+    return results.wasNull() ? null : value;
+  }
+
+  private static Object parseValue(String s, int sqlType) {
+    if (null == s) {
+      return null;
+    }
+    switch (sqlType) {
+    case Types.TINYINT:
+    case Types.SMALLINT:
+    case Types.INTEGER:
+    case Types.BIGINT:
+      return Long.valueOf(s);
+    case Types.DECIMAL:
+    case Types.NUMERIC:
+      return new BigDecimal(s);
+    case Types.REAL:
+    case Types.FLOAT:
+    case Types.DOUBLE:
+      return Double.valueOf(s);
+    case Types.BIT:
+    case Types.BOOLEAN:
+      return Boolean.valueOf(s);
+    case Types.DATE:
+      return Date.valueOf(s);
+    case Types.TIME:
+      return Time.valueOf(s);
+    case Types.TIMESTAMP:
+      return Timestamp.valueOf(s);
+    default:
+      return s;
+    }
+  }
+
+  /**
+   * Keep the bounds in a configuration.
+   * @param column the split column, as the input format is configured with.
+   * @param source the conditions or query of the input the bounds are of.
+   */
+  public void store(Configuration conf, String column, String source) {
+    clear(conf);
+    conf.set(COLUMN_KEY, column);
+    if (null != source) {
+      conf.set(SOURCE_KEY, source);
+    }
+    conf.setInt(TYPE_KEY, sqlType);
+    if (null != min) {
+      conf.set(MIN_KEY, min.toString());
+    }
+    if (null != max) {
+      conf.set(MAX_KEY, max.toString());
+    }
+    conf.setLong(ROWS_KEY, rows);
+  }
+
+  /**
+   * @return the bounds kept in a configuration for the given split column
+   * and input, or null if there are none.
+   */
+  public static SplitBounds load(Configuration conf, String column,
+      String source) {
+    String boundsColumn = conf.get(COLUMN_KEY);
+    String boundsSource = conf.get(SOURCE_KEY);
+    if (null == boundsColumn || !boundsColumn.equals(column)
+        || !(null == boundsSource ? null == source
+            : boundsSource.equals(source))) {
+      return null;
+    }
+    int sqlType = conf.getInt(TYPE_KEY, Types.NULL);
+    return new SplitBounds(sqlType, parseValue(conf.get(MIN_KEY), sqlType),
+        parseValue(conf.get(MAX_KEY), sqlType), conf.getLong(ROWS_KEY, -1));
+  }
+
+  /**
+   * Remove any bounds kept in a configuration.
+   */
+  public static void clear(Configuration conf) {
+    conf.unset(COLUMN_KEY);
+    conf.unset(SOURCE_KEY);
+    conf.unset(TYPE_KEY);
+    conf.unset(MIN_KEY);
+    conf.unset(MAX_KEY);
+    conf.unset(ROWS_KEY);
+  }
+
+  /**
+   * @return the bounds as the results of a bounding query: a row of the
+   * minimum and the maximum, on which the cursor is positioned.
+   */
+  public ResultSet toResultSet() throws SQLException {
+    RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+    metaData.setColumnCount(2);
+    for (int i = 1; i <= 2; i++) {
+      metaData.setColumnType(i, sqlType);
+      metaData.setSigned(i, true);
+      metaData.setNullable(i, ResultSetMetaData.columnNullable);
+    }
+    CachedRowSet results = RowSetProvider.newFactory().createCachedRowSet();
+    results.setMetaData(metaData);
+    results.moveToInsertRow();
+    results.updateObject(1, min);
+    results.updateObject(2, max);
+    results.insertRow();
+    results.moveToCurrentRow();
+    results.beforeFirst();
+    results.next();
+    return results;
+  }
+}
@@ -0,0 +1,353 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputCommitter;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+
+/**
+ * Lets a retried import task continue its split where a failed attempt
+ * stopped, instead of reading the whole split again.
+ *
+ * Every so many rows the record reader asks for a checkpoint at a change
+ * of the split column value. The task's output file is then closed and
+ * moved aside as a segment, and the split column value of the last row
+ * written is recorded together with the list of segments. Both live under
+ * the job's temporary output directory, where they survive the failure of
+ * the attempt. A later attempt of the same task starts reading after the
+ * recorded value and adds the recorded segments to its own output when it
+ * finishes. Everything is removed together with the temporary directory
+ * when the job commits.
+ *
+ * The reader and the output format of a task share one instance, which is
+ * looked up by task attempt.
+ */
+public class SplitCheckpoint {
+
+  public static final Log LOG = LogFactory.getLog(
+      SplitCheckpoint.class.getName());
+
+  /**
+   * conf key: the number of rows after which a task checkpoints its split;
+   * 0 disables checkpoints.
+   */
+  public static final String CHECKPOINT_ROWS_KEY =
+      "sqoop.import.checkpoint.rows";
+
+  public static final String CHECKPOINTS_DIR_NAME = "_split_checkpoints";
+
+  private static final String CHECKPOINT_FILE = "checkpoint";
+  private static final String CHECKPOINT_TMP_FILE = "checkpoint.tmp";
+  private static final int CHECKPOINT_VERSION = 1;
+
+  /**
+   * An output that can close its current file and continue in a new one.
+   */
+  public interface SegmentWriter {
+    /**
+     * Close the current output file, move it into the given directory and
+     * continue writing to a new file.
+     * @param index the number of the segment, unique within the task.
+     * @return the name of the segment in the directory.
+     */
+    String rollSegment(Path dir, int index) throws IOException;
+  }
+
+  // Instances shared by the reader and the writer of running tasks.
+  private static final Map<TaskAttemptID, SplitCheckpoint> ACTIVE =
+      new HashMap<TaskAttemptID, SplitCheckpoint>();
+
+  private final FileSystem fs;
+  private final Path dir;
+  private final long checkpointRows;
+
+  private SegmentWriter writer;
+  private Object lastKey;
+  private long rows;
+  private List<String> segments = new ArrayList<String>();
+
+  public SplitCheckpoint(FileSystem fs, Path dir, long checkpointRows)
+      throws IOException {
+    this.fs = fs;
+    this.dir = dir;
+    this.checkpointRows = checkpointRows;
+    load();
+  }
+
+  /**
+   * @return the checkpoint of the task, or null if checkpoints are disabled
+   * or the job has no output directory to keep them in.
+   */
+  public static SplitCheckpoint forTask(TaskAttemptContext context)
+      throws IOException {
+    Configuration conf = context.getConfiguration();
+    long checkpointRows = conf.getLong(CHECKPOINT_ROWS_KEY, 0);
+    TaskAttemptID attempt = context.getTaskAttemptID();
+    if (checkpointRows <= 0 || null == attempt) {
+      return null;
+    }
+    Path outputDir = FileOutputFormat.getOutputPath(context);
+    if (null == outputDir) {
+      return null;
+    }
+    synchronized (ACTIVE) {
+      SplitCheckpoint checkpoint = ACTIVE.get(attempt);
+      if (null == checkpoint) {
+        Path dir = new Path(new Path(new Path(outputDir,
+            FileOutputCommitter.PENDING_DIR_NAME), CHECKPOINTS_DIR_NAME),
+            attempt.getTaskID().toString());
+        checkpoint = new SplitCheckpoint(dir.getFileSystem(conf), dir,
+            checkpointRows);
+        ACTIVE.put(attempt, checkpoint);
+      }
+      return checkpoint;
+    }
+  }
+
+  /**
+   * Forget the checkpoint of a finished task attempt.
+   */
+  public static void release(TaskAttemptContext context) {
+    synchronized (ACTIVE) {
+      ACTIVE.remove(context.getTaskAttemptID());
+    }
+  }
+
+  /** @return the number of rows between checkpoints. */
+  public long getCheckpointRows() {
+    return checkpointRows;
+  }
+
+  /**
+   * @return the split column value of the last row covered by the
+   * checkpoint, or null if there is none.
+   */
+  public Object getLastKey() {
+    return lastKey;
+  }
+
+  /** @return the number of rows covered by the checkpoint. */
+  public long getRows() {
+    return rows;
+  }
+
+  public void setWriter(SegmentWriter segmentWriter) {
+    this.writer = segmentWriter;
+  }
+
+  /** @return true if the task's output can be checkpointed. */
+  public boolean hasWriter() {
+    return null != writer;
+  }
+
+  /**
+   * @return true if split column values of this type can be recorded.
+   *
+   * Resuming reads the rows with split column values the database finds
+   * greater than the recorded one, so the reader must tell apart exactly
+   * the values the database does, and the value must survive being
+   * recorded. Only integer, decimal, date and timestamp values qualify:
+   * strings may compare equal under a case-insensitive or pad-space
+   * collation although they differ in Java, floating point values have
+   * more than one zero, and times lose their fractional seconds.
+   */
+  public static boolean isSupportedKey(Object key) {
+    return key instanceof Integer || key instanceof Long
+        || key instanceof Short || key instanceof Byte
+        || key instanceof BigDecimal || key instanceof BigInteger
+        || key instanceof Date || key instanceof Timestamp;
+  }
+
+  /**
+   * @return true if the database orders two supported split column values
+   * of the same column the same: decimals of different scales may be
+   * equal.
+   */
+  @SuppressWarnings("unchecked")
+  public static boolean isSameKey(Object key, Object other) {
+    if (null == key || null == other
+        || !key.getClass().equals(other.getClass())) {
+      return false;
+    }
+    return ((Comparable<Object>) key).compareTo(other) == 0;
+  }
+
+  /**
+   * Record that every row up to and including the given split column
+   * value has been written, and none after it.
+   * @param key the split column value of the last row written.
+   * @param rowCount the number of rows the task has written in total.
+   */
+  public void commit(Object key, long rowCount) throws IOException {
+    String segment = writer.rollSegment(dir, segments.size());
+    List<String> newSegments = new ArrayList<String>(segments);
+    newSegments.add(segment);
+
+    Path tmp = new Path(dir, CHECKPOINT_TMP_FILE);
+    FSDataOutputStream out = fs.create(tmp, true);
+    try {
+      out.writeInt(CHECKPOINT_VERSION);
+      out.writeLong(rowCount);
+      out.writeUTF(key.getClass().getName());
+      out.writeUTF(key.toString());
+      out.writeInt(newSegments.size());
+      for (String name : newSegments) {
+        out.writeUTF(name);
+      }
+    } finally {
+      out.close();
+    }
+    Path file = new Path(dir, CHECKPOINT_FILE);
+    fs.delete(file, false);
+    if (!fs.rename(tmp, file)) {
+      throw new IOException("Could not rename " + tmp + " to " + file);
+    }
+
+    this.lastKey = key;
+    this.rows = rowCount;
+    this.segments = newSegments;
+    LOG.info("Checkpointed " + rowCount + " rows up to split key " + key);
+  }
+
+  /**
+   * Move the checkpointed segments into the task's output directory, so
+   * that they are committed together with the rest of its output.
+   */
+  public void restoreSegments(Path workDir) throws IOException {
+    for (String name : segments) {
+      Path src = new Path(dir, name);
+      Path dest = new Path(workDir, name);
+      if (!fs.rename(src, dest)) {
+        throw new IOException("Could not move " + src + " to " + dest);
+      }
+    }
+    if (!segments.isEmpty()) {
+      LOG.info("Reused " + segments.size() + " checkpointed output files");
+    }
+    fs.delete(dir, true);
+    segments = Collections.emptyList();
+  }
+
+  /**
+   * Read the checkpoint left by an earlier attempt, and delete any output
+   * it does not cover.
+   */
+  private void load() throws IOException {
+    Path file = new Path(dir, CHECKPOINT_FILE);
+    if (!fs.exists(file)) {
+      // A previous attempt may have died while replacing the checkpoint.
+      file = new Path(dir, CHECKPOINT_TMP_FILE);
+    }
+    if (fs.exists(file)) {
+      try {
+        FSDataInputStream in = fs.open(file);
+        try {
+          if (in.readInt() != CHECKPOINT_VERSION) {
+            throw new IOException("Unknown checkpoint version");
+          }
+          long rowCount = in.readLong();
+          Object key = parseKey(in.readUTF(), in.readUTF());
+          int count = in.readInt();
+          List<String> names = new ArrayList<String>(count);
+          for (int i = 0; i < count; i++) {
+            names.add(in.readUTF());
+          }
+          for (String name : names) {
+            if (!fs.exists(new Path(dir, name))) {
+              throw new IOException("Missing output file " + name);
+            }
+          }
+          this.rows = rowCount;
+          this.lastKey = key;
+          this.segments = names;
+        } finally {
+          in.close();
+        }
+      } catch (IOException ioe) {
+        LOG.warn("Ignoring unusable checkpoint " + file + ": "
+            + ioe.getMessage());
+        this.rows = 0;
+        this.lastKey = null;
+        this.segments = new ArrayList<String>();
+      }
+    }
+
+    FileStatus[] statuses = fs.exists(dir) ? fs.listStatus(dir) : null;
+    if (null != statuses) {
+      Set<String> keep = new HashSet<String>(segments);
+      for (FileStatus stat : statuses) {
+        String name = stat.getPath().getName();
+        if (!keep.contains(name)) {
+          fs.delete(stat.getPath(), true);
+        }
+      }
+    }
+    if (null != lastKey) {
+      LOG.info("Found checkpoint of " + rows + " rows up to split key "
+          + lastKey);
+    }
+  }
+
+  /**
+   * Rebuild a split column value from its class name and string form.
+   */
+  static Object parseKey(String className, String value) throws IOException {
+    if (className.equals(Integer.class.getName())) {
+      return Integer.valueOf(value);
+    } else if (className.equals(Long.class.getName())) {
+      return Long.valueOf(value);
+    } else if (className.equals(Short.class.getName())) {
+      return Short.valueOf(value);
+    } else if (className.equals(Byte.class.getName())) {
+      return Byte.valueOf(value);
+    } else if (className.equals(BigDecimal.class.getName())) {
+      return new BigDecimal(value);
+    } else if (className.equals(BigInteger.class.getName())) {
+      return new BigInteger(value);
+    } else if (className.equals(Date.class.getName())) {
+      return Date.valueOf(value);
+    } else if (className.equals(Timestamp.class.getName())) {
+      return Timestamp.valueOf(value);
+    }
+    throw new IOException("Cannot restore split key of type " + className);
+  }
+}
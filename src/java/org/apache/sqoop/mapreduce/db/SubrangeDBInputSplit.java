@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.cloudera.sqoop.mapreduce.db.DBInputFormat;
+import com.cloudera.sqoop.mapreduce.db.DataDrivenDBInputFormat;
+
+/**
+ * An InputSplit made of several data-driven splits, the sub-ranges of the
+ * split, which one task reads concurrently.
+ */
+public class SubrangeDBInputSplit extends DBInputFormat.DBInputSplit {
+
+  private List<DataDrivenDBInputFormat.DataDrivenDBInputSplit> subranges;
+
+  /**
+   * Default Constructor.
+   */
+  public SubrangeDBInputSplit() {
+    this.subranges =
+        new ArrayList<DataDrivenDBInputFormat.DataDrivenDBInputSplit>();
+  }
+
+  /**
+   * Convenience Constructor.
+   * @param subranges the splits to read together.
+   */
+  public SubrangeDBInputSplit(
+      List<DataDrivenDBInputFormat.DataDrivenDBInputSplit> subranges) {
+    this.subranges =
+        new ArrayList<DataDrivenDBInputFormat.DataDrivenDBInputSplit>(
+            subranges);
+  }
+
+  public List<DataDrivenDBInputFormat.DataDrivenDBInputSplit>
+      getSubranges() {
+    return Collections.unmodifiableList(subranges);
+  }
+
+  /**
+   * @return The total row count in this split.
+   */
+  @Override
+  public long getLength() throws IOException {
+    return 0; // unknown, as for the sub-ranges.
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public void readFields(DataInput input) throws IOException {
+    int count = input.readInt();
+    subranges =
+        new ArrayList<DataDrivenDBInputFormat.DataDrivenDBInputSplit>(count);
+    for (int i = 0; i < count; i++) {
+      DataDrivenDBInputFormat.DataDrivenDBInputSplit subrange =
+          new DataDrivenDBInputFormat.DataDrivenDBInputSplit();
+      subrange.readFields(input);
+      subranges.add(subrange);
+    }
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public void write(DataOutput output) throws IOException {
+    output.writeInt(subranges.size());
+    for (DataDrivenDBInputFormat.DataDrivenDBInputSplit subrange
+        : subranges) {
+      subrange.write(output);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return subranges.toString();
+  }
+}
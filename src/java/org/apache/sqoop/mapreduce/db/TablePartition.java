@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+
+/**
+ * A partition of a table, as listed by the catalog of the database, and
+ * how to select the rows of just that partition.
+ *
+ * A partition is selected either by a table expression that replaces the
+ * table name in the FROM clause (e.g. "t PARTITION (p1)" in MySQL, or the
+ * child table in PostgreSQL), or by a condition that the database prunes
+ * the other partitions with (e.g. "$PARTITION.f(c) = 1" in SQL Server), or
+ * by both.
+ */
+public class TablePartition implements Writable {
+
+  private String name;
+  private String tableExpression;
+  private String condition;
+  private long rows;
+
+  /**
+   * Default Constructor.
+   */
+  public TablePartition() {
+  }
+
+  /**
+   * Convenience Constructor.
+   * @param name the name of the partition, for logging.
+   * @param tableExpression what to select the rows from, or null to select
+   * them from the table.
+   * @param condition the condition the rows of the partition meet, or null.
+   * @param rows the estimated number of rows, or -1 if it is unknown.
+   */
+  public TablePartition(String name, String tableExpression,
+      String condition, long rows) {
+    this.name = name;
+    this.tableExpression = tableExpression;
+    this.condition = condition;
+    this.rows = rows;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return what to select the rows from instead of the table, or null.
+   */
+  public String getTableExpression() {
+    return tableExpression;
+  }
+
+  /**
+   * @return the condition selecting the rows of the partition, or null.
+   */
+  public String getCondition() {
+    return condition;
+  }
+
+  /**
+   * @return the condition selecting the rows of the partition combined
+   * with other conditions, or null if there are none.
+   * @param conditions the conditions on the rows of the table, or null.
+   */
+  public String getConditions(String conditions) {
+    if (null == condition) {
+      return conditions;
+    } else if (null == conditions || conditions.isEmpty()) {
+      return condition;
+    }
+    return "( " + condition + " ) AND ( " + conditions + " )";
+  }
+
+  /**
+   * @return the estimated number of rows, or -1 if it is unknown.
+   */
+  public long getRows() {
+    return rows;
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public void readFields(DataInput input) throws IOException {
+    name = Text.readString(input);
+    tableExpression = readString(input);
+    condition = readString(input);
+    rows = input.readLong();
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public void write(DataOutput output) throws IOException {
+    Text.writeString(output, name);
+    writeString(output, tableExpression);
+    writeString(output, condition);
+    output.writeLong(rows);
+  }
+
+  private static String readString(DataInput input) throws IOException {
+    return input.readBoolean() ? Text.readString(input) : null;
+  }
+
+  private static void writeString(DataOutput output, String s)
+      throws IOException {
+    output.writeBoolean(null != s);
+    if (null != s) {
+      Text.writeString(output, s);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
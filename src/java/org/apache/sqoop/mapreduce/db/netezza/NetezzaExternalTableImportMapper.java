@@ -18,14 +18,14 @@
 
 package org.apache.sqoop.mapreduce.db.netezza;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
@@ -41,6 +41,7 @@
 import org.apache.sqoop.lib.DelimiterSet;
 import org.apache.sqoop.manager.DirectNetezzaManager;
 import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.apache.sqoop.mapreduce.db.netezza.NetezzaRecordPipeline.RecordBatch;
 import org.apache.sqoop.util.FileUploader;
 import org.apache.sqoop.util.PerfCounters;
 import org.apache.sqoop.util.TaskId;
@@ -49,26 +50,38 @@
 
 /**
  * Netezza import mapper using external tables.
+ *
+ * Each task unloads its data slices through one or more external tables
+ * (see {@link DirectNetezzaManager#NETEZZA_IMPORT_STREAMS_OPT}), each
+ * writing to its own FIFO. Every FIFO is drained by a
+ * {@link NetezzaRecordPipeline} which reads and splits the records on
+ * threads of its own, so the mapper thread only writes them out.
  */
 public abstract class NetezzaExternalTableImportMapper<K, V> extends
   AutoProgressMapper<Integer, NullWritable, K, V> {
   /**
-   * Create a named FIFO, and start Netezza import connected to that FIFO. A
-   * File object representing the FIFO is in 'fifoFile'.
+   * Create named FIFOs, and start a Netezza unload connected to each of
+   * them. The File objects representing the FIFOs are in 'fifoFiles'.
    */
 
   private Configuration conf;
   private DBConfiguration dbc;
-  private File fifoFile;
+  private File[] fifoFiles;
   private int numMappers;
   private Connection con;
-  private BufferedReader recordReader;
   public static final Log LOG = LogFactory
     .getLog(NetezzaExternalTableImportMapper.class.getName());
-  private NetezzaJDBCStatementRunner extTableThread;
+  private NetezzaJDBCStatementRunner[] extTableThreads;
+  private NetezzaRecordPipeline[] pipelines;
+  private BlockingQueue<RecordBatch> batches;
   private PerfCounters counter;
   private File taskAttemptDir = null;
-  private String getSqlStatement(int myId) throws IOException {
+
+  /** How often the writer checks on the unloads while waiting for data. */
+  private static final long POLL_INTERVAL_MS = 1000;
+
+  private String getSqlStatement(File fifoFile, int sliceCount,
+      int sliceId) throws IOException {
 
     char fd = (char) conf.getInt(DelimiterSet.OUTPUT_FIELD_DELIM_KEY, ',');
     char qc = (char) conf.getInt(DelimiterSet.OUTPUT_ENCLOSED_BY_KEY, 0);
@@ -131,41 +144,40 @@ private String getSqlStatement(int myId) throws IOException {
     }
     sqlStmt.append(" FROM ").append(dbc.getInputTableName()).append(' ');
     sqlStmt.append("WHERE (DATASLICEID % ");
-    sqlStmt.append(numMappers).append(") = ").append(myId);
+    sqlStmt.append(sliceCount).append(") = ").append(sliceId);
     if (inputConds != null && inputConds.length() > 0) {
       sqlStmt.append(" AND ( ").append(inputConds).append(')');
     }
 
     String stmt = sqlStmt.toString();
-    LOG.debug("SQL generated for external table import for data slice " + myId
-      + "=" + stmt);
+    LOG.debug("SQL generated for external table import for data slice "
+      + sliceId + "=" + stmt);
     return stmt;
   }
 
-  private void initNetezzaExternalTableImport(int myId) throws IOException {
-
-    taskAttemptDir = TaskId.getLocalWorkPath(conf);
-
-    this.fifoFile = new File(taskAttemptDir, ("nzexttable-" + myId + ".txt"));
+  private File createFifo(String name) throws IOException {
+    File fifoFile = new File(taskAttemptDir, name);
     String filename = fifoFile.toString();
-    NamedFifo nf;
     // Create the FIFO itself.
     try {
-      nf = new NamedFifo(this.fifoFile);
+      NamedFifo nf = new NamedFifo(fifoFile);
       nf.create();
+      return nf.getFile();
     } catch (IOException ioe) {
       // Command failed.
       LOG.error("Could not create FIFO file " + filename);
-      this.fifoFile = null;
       throw new IOException(
         "Could not create FIFO for netezza external table import", ioe);
     }
-    String sqlStmt = getSqlStatement(myId);
+  }
+
+  private NetezzaJDBCStatementRunner createStatementRunner(String sqlStmt)
+    throws IOException {
     boolean cleanup = false;
     try {
       con = dbc.getConnection();
-      extTableThread = new NetezzaJDBCStatementRunner(Thread.currentThread(),
-        con, sqlStmt);
+      return new NetezzaJDBCStatementRunner(Thread.currentThread(), con,
+        sqlStmt);
     } catch (SQLException sqle) {
       cleanup = true;
       throw new IOException(sqle);
@@ -181,18 +193,92 @@ private void initNetezzaExternalTableImport(int myId) throws IOException {
       }
       con = null;
     }
-    extTableThread.start();
-    // We need to start the reader end first
+  }
+
+  private void initNetezzaExternalTableImport(int myId) throws IOException {
+
+    taskAttemptDir = TaskId.getLocalWorkPath(conf);
+
+    int streams = Math.max(1,
+      conf.getInt(DirectNetezzaManager.NETEZZA_IMPORT_STREAMS_OPT, 1));
+    // Stream j of mapper myId unloads the data slices congruent to
+    // myId + j * numMappers, so the streams of all the mappers together
+    // cover every data slice exactly once.
+    int sliceCount = numMappers * streams;
 
+    char rd = (char) conf.getInt(DelimiterSet.OUTPUT_RECORD_DELIM_KEY, '\n');
+    char ec = (char) conf.getInt(DelimiterSet.OUTPUT_ESCAPED_BY_KEY, 0);
     final String encoding = conf
         .get(DirectNetezzaManager.NETEZZA_TABLE_ENCODING_OPT);
-    recordReader = new BufferedReader(new InputStreamReader(
-      new FileInputStream(nf.getFile()), (null == encoding ? "UTF-8" : encoding)));
+
+    fifoFiles = new File[streams];
+    extTableThreads = new NetezzaJDBCStatementRunner[streams];
+    pipelines = new NetezzaRecordPipeline[streams];
+    batches = new LinkedBlockingQueue<RecordBatch>();
+    boolean cleanup = true;
+    try {
+      for (int j = 0; j < streams; j++) {
+        fifoFiles[j] = createFifo(streams == 1
+          ? "nzexttable-" + myId + ".txt"
+          : "nzexttable-" + myId + "-" + j + ".txt");
+        extTableThreads[j] = createStatementRunner(
+          getSqlStatement(fifoFiles[j], sliceCount, myId + j * numMappers));
+        // The external table always ends its records with a newline.
+        pipelines[j] = new NetezzaRecordPipeline(fifoFiles[j], '\n',
+          ec > 0 ? '\\' : 0, encoding, Character.toString(rd),
+          NetezzaRecordPipeline.DEFAULT_BUFFER_SIZE,
+          NetezzaRecordPipeline.DEFAULT_BATCH_SIZE, batches);
+      }
+      cleanup = false;
+    } finally {
+      if (cleanup) {
+        closeStreams();
+      }
+    }
+    LOG.info("Importing through " + streams + " external table stream(s)");
+
+    for (int j = 0; j < streams; j++) {
+      // The readers open the FIFOs on their own threads, so it does not
+      // matter which end is opened first.
+      pipelines[j].start();
+      extTableThreads[j].start();
+    }
+  }
+
+  /**
+   * Undo a setup that failed part of the way through: close the
+   * connections of the unloads made so far, none of which were started,
+   * and delete their FIFOs.
+   */
+  private void closeStreams() {
+    for (NetezzaJDBCStatementRunner t : extTableThreads) {
+      if (t != null) {
+        t.close();
+      }
+    }
+    for (File fifoFile : fifoFiles) {
+      if (fifoFile != null && !fifoFile.delete()) {
+        LOG.warn("Could not delete FIFO file " + fifoFile);
+      }
+    }
   }
 
   abstract protected void writeRecord(Text text, Context context)
     throws IOException, InterruptedException;
 
+  /**
+   * @return the first error raised by an unload, or null.
+   */
+  private Throwable getUnloadException() {
+    for (NetezzaJDBCStatementRunner t : extTableThreads) {
+      if (t.hasExceptions()) {
+        t.printException();
+        return t.getException();
+      }
+    }
+    return null;
+  }
+
   public void map(Integer dataSliceId, NullWritable val, Context context)
     throws IOException, InterruptedException {
     conf = context.getConfiguration();
@@ -200,38 +286,62 @@ public void map(Integer dataSliceId, NullWritable val, Context context)
 
     dbc = new DBConfiguration(conf);
     numMappers = ConfigurationHelper.getConfNumMaps(conf);
-    char rd = (char) conf.getInt(DelimiterSet.OUTPUT_RECORD_DELIM_KEY, '\n');
     initNetezzaExternalTableImport(dataSliceId);
     counter = new PerfCounters();
     counter.startClock();
-    Text outputRecord = new Text();
-    if (extTableThread.isAlive()) {
-      try {
-        String inputRecord = recordReader.readLine();
-        while (inputRecord != null) {
-          if (Thread.interrupted()) {
-            if (!extTableThread.isAlive()) {
-              break;
-            }
+    int remaining = pipelines.length;
+    Throwable error = null;
+    try {
+      while (remaining > 0 && error == null) {
+        RecordBatch batch;
+        try {
+          batch = batches.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ie) {
+          // A failing unload interrupts us; anything else is a real
+          // interruption of the task.
+          error = getUnloadException();
+          if (error == null) {
+            throw ie;
           }
-          outputRecord.set(inputRecord + rd);
-          // May be we should set the output to be String for faster performance
-          // There is no real benefit in changing it to Text and then
-          // converting it back in our case
-          writeRecord(outputRecord, context);
-          counter.addBytes(1 + inputRecord.length());
-          inputRecord = recordReader.readLine();
+          break;
         }
-      } finally {
-        recordReader.close();
-        extTableThread.join();
-        counter.stopClock();
-        LOG.info("Transferred " + counter.toString());
-        if (extTableThread.hasExceptions()) {
-          extTableThread.printException();
-          throw new IOException(extTableThread.getException());
+        if (batch == null) {
+          error = getUnloadException();
+          continue;
         }
+        if (batch.isEndOfStream()) {
+          error = batch.getPipeline().getFailure();
+          remaining--;
+          continue;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+          writeRecord(batch.get(i), context);
+        }
+        counter.addBytes(batch.getBytes());
+        batch.recycle();
       }
+    } finally {
+      if (remaining > 0) {
+        for (NetezzaRecordPipeline pipeline : pipelines) {
+          pipeline.abort();
+        }
+      }
+      // Clear an interrupt raised by a failed unload before waiting.
+      Thread.interrupted();
+      for (NetezzaJDBCStatementRunner t : extTableThreads) {
+        t.join();
+      }
+      for (NetezzaRecordPipeline pipeline : pipelines) {
+        pipeline.join();
+      }
+      counter.stopClock();
+      LOG.info("Transferred " + counter.toString());
+    }
+    if (error == null) {
+      error = getUnloadException();
+    }
+    if (error != null) {
+      throw new IOException(error);
     }
   }
 
@@ -66,6 +66,20 @@ public NetezzaJDBCStatementRunner(Thread parent, Connection con,
     this.exception = null;
   }
 
+  /**
+   * Close the connection of a runner that will not be started.
+   */
+  public void close() {
+    if (con != null) {
+      try {
+        con.close();
+      } catch (Exception e) {
+        LOG.debug("Exception closing connection " + e.getMessage());
+      }
+    }
+    con = null;
+  }
+
   public void run() {
     boolean interruptParent = false;
     try {
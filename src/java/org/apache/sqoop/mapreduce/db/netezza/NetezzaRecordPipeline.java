@@ -0,0 +1,388 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db.netezza;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Moves the text unloaded by one Netezza external table from its FIFO to
+ * the mapper in three stages, each on its own thread:
+ * <ol>
+ * <li>a reader fills large reusable byte buffers from the FIFO,</li>
+ * <li>a splitter cuts the buffers into records at unescaped record
+ * delimiters and packs them into reusable batches,</li>
+ * <li>the mapper thread writes the batches out.</li>
+ * </ol>
+ * The stages are connected by queues over fixed pools of buffers and
+ * batches, so a slow stage throttles the ones before it instead of
+ * buffering without limit. Several pipelines can feed the same output
+ * queue; each one ends with an end-of-stream batch.
+ */
+public class NetezzaRecordPipeline {
+
+  public static final Log LOG = LogFactory
+      .getLog(NetezzaRecordPipeline.class.getName());
+
+  /** A group of records handed from the splitter to the writer. */
+  public static final class RecordBatch {
+    private final Text[] records;
+    private final NetezzaRecordPipeline owner;
+    private int size;
+    private long bytes;
+
+    RecordBatch(NetezzaRecordPipeline owner, int capacity) {
+      this.owner = owner;
+      this.records = new Text[capacity];
+      for (int i = 0; i < capacity; i++) {
+        records[i] = new Text();
+      }
+    }
+
+    public int size() {
+      return size;
+    }
+
+    public Text get(int i) {
+      return records[i];
+    }
+
+    /** @return the number of raw bytes in this batch. */
+    public long getBytes() {
+      return bytes;
+    }
+
+    /** @return true if this is the end-of-stream marker of a pipeline. */
+    public boolean isEndOfStream() {
+      return size < 0;
+    }
+
+    /** @return the pipeline this batch came from. */
+    public NetezzaRecordPipeline getPipeline() {
+      return owner;
+    }
+
+    /** Give the batch back to its pipeline once its records are written. */
+    public void recycle() throws InterruptedException {
+      owner.freeBatches.put(this);
+    }
+
+    boolean isFull() {
+      return size == records.length;
+    }
+  }
+
+  /** A filled read buffer. */
+  private static final class Chunk {
+    private final byte[] data;
+    private int length;
+
+    Chunk(int capacity) {
+      data = new byte[capacity];
+    }
+  }
+
+  public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+
+  private static final int NUM_READ_BUFFERS = 4;
+  private static final int NUM_BATCHES = 4;
+
+  private final File fifo;
+  private final InputStream input;
+  private final char recordDelim;
+  private final char escapeChar;
+  private final byte[] terminator;
+  private final CharsetDecoder decoder;
+  private final BlockingQueue<RecordBatch> output;
+
+  private final BlockingQueue<Chunk> freeChunks;
+  private final BlockingQueue<Chunk> filledChunks;
+  private final BlockingQueue<RecordBatch> freeBatches;
+  private final Chunk endOfInput;
+
+  private final Thread readerThread;
+  private final Thread splitterThread;
+  private volatile Throwable failure;
+
+  /**
+   * @param fifo the FIFO the external table writes to; opened by the
+   *        reader thread so that the caller never blocks on the open.
+   * @param recordDelim the record delimiter.
+   * @param escapeChar the escape character, or 0 if none.
+   * @param encoding the encoding of the unloaded text; records are
+   *        transcoded to UTF-8 unless it already is UTF-8.
+   * @param terminator appended to every record in place of its delimiter.
+   * @param bufferSize the size of each read buffer.
+   * @param batchSize the number of records in each batch.
+   * @param output the queue the batches are handed to.
+   */
+  public NetezzaRecordPipeline(File fifo, char recordDelim, char escapeChar,
+      String encoding, String terminator, int bufferSize, int batchSize,
+      BlockingQueue<RecordBatch> output) {
+    this(fifo, null, recordDelim, escapeChar, encoding, terminator,
+        bufferSize, batchSize, output);
+  }
+
+  NetezzaRecordPipeline(File fifo, InputStream input, char recordDelim,
+      char escapeChar, String encoding, String terminator, int bufferSize,
+      int batchSize, BlockingQueue<RecordBatch> output) {
+    this.fifo = fifo;
+    this.input = input;
+    this.recordDelim = recordDelim;
+    this.escapeChar = escapeChar;
+    try {
+      this.terminator = terminator.getBytes("UTF-8");
+    } catch (UnsupportedEncodingException uee) {
+      throw new IllegalStateException(uee);
+    }
+    Charset cs = Charset.forName(null == encoding ? "UTF-8" : encoding);
+    this.decoder = "UTF-8".equals(cs.name()) ? null : cs.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.output = output;
+
+    freeChunks = new ArrayBlockingQueue<Chunk>(NUM_READ_BUFFERS);
+    filledChunks = new ArrayBlockingQueue<Chunk>(NUM_READ_BUFFERS + 1);
+    for (int i = 0; i < NUM_READ_BUFFERS; i++) {
+      freeChunks.add(new Chunk(bufferSize));
+    }
+    freeBatches = new ArrayBlockingQueue<RecordBatch>(NUM_BATCHES);
+    for (int i = 0; i < NUM_BATCHES; i++) {
+      freeBatches.add(new RecordBatch(this, batchSize));
+    }
+    endOfInput = new Chunk(0);
+
+    String name = null == fifo ? "stream" : fifo.getName();
+    readerThread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        readLoop();
+      }
+    }, "netezza-reader-" + name);
+    readerThread.setDaemon(true);
+    splitterThread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        splitLoop();
+      }
+    }, "netezza-splitter-" + name);
+    splitterThread.setDaemon(true);
+  }
+
+  public void start() {
+    readerThread.start();
+    splitterThread.start();
+  }
+
+  /** @return the first error raised by the reader or splitter, if any. */
+  public Throwable getFailure() {
+    return failure;
+  }
+
+  /**
+   * Stop the pipeline threads, for use when the consumer gives up early.
+   */
+  public void abort() {
+    readerThread.interrupt();
+    splitterThread.interrupt();
+    if (fifo != null && readerThread.isAlive()) {
+      // The reader may still be blocked opening the FIFO if the unload
+      // never started. Opening it read-write does not block and gives
+      // the reader a writer, so its open returns and it sees the end of
+      // the stream once we close our end.
+      try {
+        new RandomAccessFile(fifo, "rw").close();
+      } catch (IOException ioe) {
+        LOG.debug("Exception unblocking " + fifo + ": " + ioe.getMessage());
+      }
+    }
+  }
+
+  public void join() throws InterruptedException {
+    readerThread.join();
+    splitterThread.join();
+  }
+
+  private void fail(Throwable t) {
+    if (failure == null) {
+      failure = t;
+    }
+  }
+
+  private void readLoop() {
+    InputStream in = input;
+    try {
+      if (in == null) {
+        in = new FileInputStream(fifo);
+      }
+      while (true) {
+        Chunk chunk = freeChunks.take();
+        int n = in.read(chunk.data, 0, chunk.data.length);
+        if (n < 0) {
+          freeChunks.put(chunk);
+          break;
+        }
+        chunk.length = n;
+        filledChunks.put(chunk);
+      }
+    } catch (InterruptedException ie) {
+      fail(ie);
+    } catch (Throwable t) {
+      LOG.error("Error reading external table data", t);
+      fail(t);
+    } finally {
+      if (in != null) {
+        try {
+          in.close();
+        } catch (IOException ioe) {
+          LOG.debug("Exception closing " + fifo + ": " + ioe.getMessage());
+        }
+      }
+      try {
+        filledChunks.put(endOfInput);
+      } catch (InterruptedException ie) {
+        fail(ie);
+        splitterThread.interrupt();
+      }
+    }
+  }
+
+  private void splitLoop() {
+    // Bytes of a record that continues in the next read buffer.
+    byte[] pending = new byte[1024];
+    int pendingLen = 0;
+    boolean escaped = false;
+    RecordBatch batch = null;
+    try {
+      batch = freeBatches.take();
+      batch.size = 0;
+      batch.bytes = 0;
+      while (true) {
+        Chunk chunk = filledChunks.take();
+        if (chunk == endOfInput) {
+          break;
+        }
+        byte[] data = chunk.data;
+        int start = 0;
+        for (int i = 0; i < chunk.length; i++) {
+          byte b = data[i];
+          if (escaped) {
+            escaped = false;
+          } else if (escapeChar != 0 && b == escapeChar) {
+            escaped = true;
+          } else if (b == recordDelim) {
+            if (pendingLen > 0) {
+              pending = append(pending, pendingLen, data, start, i - start);
+              pendingLen += i - start;
+              addRecord(batch, pending, 0, pendingLen);
+              pendingLen = 0;
+            } else {
+              addRecord(batch, data, start, i - start);
+            }
+            start = i + 1;
+            if (batch.isFull()) {
+              output.put(batch);
+              batch = freeBatches.take();
+              batch.size = 0;
+              batch.bytes = 0;
+            }
+          }
+        }
+        if (start < chunk.length) {
+          pending = append(pending, pendingLen, data, start,
+              chunk.length - start);
+          pendingLen += chunk.length - start;
+        }
+        freeChunks.put(chunk);
+      }
+      if (pendingLen > 0) {
+        // Last record without a trailing delimiter.
+        addRecord(batch, pending, 0, pendingLen);
+      }
+      if (batch.size > 0) {
+        output.put(batch);
+        batch = null;
+      }
+    } catch (InterruptedException ie) {
+      fail(ie);
+    } catch (Throwable t) {
+      LOG.error("Error splitting external table data", t);
+      fail(t);
+    } finally {
+      if (batch == null) {
+        batch = new RecordBatch(this, 0);
+      }
+      batch.size = -1;
+      try {
+        output.put(batch);
+      } catch (InterruptedException ie) {
+        fail(ie);
+      }
+    }
+  }
+
+  private static byte[] append(byte[] dest, int destLen, byte[] src,
+      int srcOff, int len) {
+    byte[] buf = dest;
+    if (destLen + len > buf.length) {
+      buf = new byte[Math.max(buf.length * 2, destLen + len)];
+      System.arraycopy(dest, 0, buf, 0, destLen);
+    }
+    System.arraycopy(src, srcOff, buf, destLen, len);
+    return buf;
+  }
+
+  /**
+   * Store one record in the next slot of the batch, with the terminator in
+   * place of its delimiter. A carriage return before the delimiter is
+   * dropped.
+   */
+  private void addRecord(RecordBatch batch, byte[] data, int off, int len)
+      throws CharacterCodingException {
+    batch.bytes += len + 1;
+    if (len > 0 && data[off + len - 1] == '\r') {
+      len--;
+    }
+    Text text = batch.records[batch.size++];
+    if (decoder == null) {
+      text.set(data, off, len);
+    } else {
+      CharBuffer chars = decoder.decode(ByteBuffer.wrap(data, off, len));
+      text.set(chars.toString());
+    }
+    text.append(terminator, 0, terminator.length);
+  }
+}
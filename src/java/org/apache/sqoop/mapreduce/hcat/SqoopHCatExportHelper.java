@@ -22,7 +22,6 @@
 import java.sql.Date;
 import java.sql.Time;
 import java.sql.Timestamp;
-import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -71,6 +70,41 @@ public class SqoopHCatExportHelper {
   private static boolean debugHCatExportMapper = false;
   private MapWritable colTypesJava;
   private MapWritable colTypesSql;
+  // One converter per field of the SqoopRecord, in getFieldNames() order.
+  private ColumnConverter[] planConverters;
+
+  /**
+   * Converts the values of one HCatalog column to the Java type of its
+   * SqoopRecord field. Values that already have that type are passed
+   * through; others go through convertToSqoop().
+   */
+  private final class ColumnConverter {
+    private final int position;
+    private final HCatFieldSchema.Type fieldType;
+    private final String javaColType;
+    private final String hCatTypeString;
+    private final int sqlType;
+    private final Class<?> passThroughClass;
+
+    ColumnConverter(HCatFieldSchema field, int position, String javaColType,
+      int sqlType) {
+      this.position = position;
+      this.fieldType = field.getType();
+      this.javaColType = javaColType;
+      this.hCatTypeString = field.getTypeString();
+      this.sqlType = sqlType;
+      Class<?> hCatClass = SqoopHCatUtilities.getHCatJavaClass(fieldType);
+      this.passThroughClass = hCatClass != null
+        && javaColType.equals(javaTypeName(hCatClass)) ? hCatClass : null;
+    }
+
+    Object convert(Object hCatVal) throws IOException {
+      if (hCatVal != null && hCatVal.getClass() == passThroughClass) {
+        return hCatVal;
+      }
+      return convertToSqoop(hCatVal, fieldType, javaColType, hCatTypeString);
+    }
+  }
 
   public SqoopHCatExportHelper(Configuration conf)
     throws IOException, InterruptedException {
@@ -118,34 +152,56 @@ public SqoopHCatExportHelper(Configuration conf)
     for (HCatFieldSchema hfs : partitionSchema.getFields()) {
       hCatFullTableSchema.append(hfs);
     }
+    buildConversionPlan();
   }
 
-  public SqoopRecord convertToSqoopRecord(HCatRecord hcr)
-    throws IOException {
+  /**
+   * Resolve once the HCatalog column and the Java type of every field of
+   * the record, so that converting a record needs no lookups by name.
+   */
+  private void buildConversionPlan() throws IOException {
+    String[] fieldNames = sqoopRecord.getFieldNames();
+    planConverters = new ColumnConverter[fieldNames.length];
     Text key = new Text();
-    for (Map.Entry<String, Object> e : sqoopRecord.getFieldMap().entrySet()) {
-      String colName = e.getKey();
-      String hfn = colName.toLowerCase();
+    for (int i = 0; i < fieldNames.length; ++i) {
+      String hfn = fieldNames[i].toLowerCase();
       key.set(hfn);
       String javaColType = colTypesJava.get(key).toString();
       int sqlType = ((IntWritable) colTypesSql.get(key)).get();
-      HCatFieldSchema field =
-        hCatFullTableSchema.get(hfn);
-      HCatFieldSchema.Type fieldType = field.getType();
-      Object hCatVal =
-        hcr.get(hfn, hCatFullTableSchema);
-      String hCatTypeString = field.getTypeString();
-      Object sqlVal = convertToSqoop(hCatVal, fieldType,
-        javaColType, hCatTypeString);
+      Integer pos = hCatFullTableSchema.getPosition(hfn);
+      if (pos == null) {
+        throw new IOException("Unable to lookup " + hfn
+          + " in the hcat schema");
+      }
+      planConverters[i] = new ColumnConverter(hCatFullTableSchema.get(pos),
+        pos, javaColType, sqlType);
+    }
+  }
+
+  /**
+   * @return the name used for the class in the Java column types, which
+   * leaves out the package of the java.lang classes.
+   */
+  private static String javaTypeName(Class<?> cls) {
+    return cls.getName().startsWith("java.lang.")
+      ? cls.getSimpleName() : cls.getName();
+  }
+
+  public SqoopRecord convertToSqoopRecord(HCatRecord hcr)
+    throws IOException {
+    for (int i = 0; i < planConverters.length; ++i) {
+      ColumnConverter converter = planConverters[i];
+      Object hCatVal = hcr.get(converter.position);
+      Object sqlVal = converter.convert(hCatVal);
       if (debugHCatExportMapper) {
         LOG.debug("hCatVal " + hCatVal + " of type "
           + (hCatVal == null ? null : hCatVal.getClass().getName())
           + ",sqlVal " + sqlVal + " of type "
           + (sqlVal == null ? null : sqlVal.getClass().getName())
-          + ",java type " + javaColType + ", sql type = "
-          + SqoopHCatUtilities.sqlTypeString(sqlType));
+          + ",java type " + converter.javaColType + ", sql type = "
+          + SqoopHCatUtilities.sqlTypeString(converter.sqlType));
       }
-      sqoopRecord.setField(colName, sqlVal);
+      sqoopRecord.setField(i, sqlVal);
     }
     return sqoopRecord;
   }
@@ -25,9 +25,13 @@
 import java.sql.SQLException;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -79,7 +83,46 @@ public class SqoopHCatImportHelper {
   private DelimiterSet hiveDelimiters;
   private String[] staticPartitionKeys;
   private int[] hCatFieldPositions;
-  private int colCount;
+  // The conversion plan, built from the first record: the fields of the
+  // SqoopRecord to convert, their positions in the HCatalog record and
+  // their converters. Static partition keys are left out.
+  private Object[] fieldValues;
+  private int[] planFieldIndexes;
+  private ColumnConverter[] planConverters;
+
+  /**
+   * Converts the values of one field of the SqoopRecord to the type of its
+   * HCatalog column. Values that already have the Java class HCatalog uses
+   * for the column are passed through; others go through toHCat().
+   */
+  private final class ColumnConverter {
+    private final String fieldName;
+    private final HCatFieldSchema hfs;
+    private final int position;
+    private final Class<?> passThroughClass;
+    private final boolean replaceDelims;
+
+    ColumnConverter(String fieldName, HCatFieldSchema hfs, int position) {
+      this.fieldName = fieldName;
+      this.hfs = hfs;
+      this.position = position;
+      this.passThroughClass = SqoopHCatUtilities.getHCatJavaClass(
+        hfs.getType());
+      this.replaceDelims = doHiveDelimsReplacement
+        && hfs.getType() == HCatFieldSchema.Type.STRING;
+    }
+
+    Object convert(Object val) {
+      if (val != null && val.getClass() == passThroughClass) {
+        if (replaceDelims) {
+          return FieldFormatter.hiveStringReplaceDelims((String) val,
+            hiveDelimsReplacement, hiveDelimiters);
+        }
+        return val;
+      }
+      return toHCat(val, hfs);
+    }
+  }
 
   public SqoopHCatImportHelper(Configuration conf) throws IOException,
     InterruptedException {
@@ -157,48 +200,62 @@ public HCatRecord convertToHCatRecord(SqoopRecord sqr) throws IOException,
     } catch (SQLException sqlE) {
       throw new IOException(sqlE);
     }
-    if (colCount == -1) {
-      colCount = sqr.getFieldMap().size();
+    if (planConverters == null) {
+      buildConversionPlan(sqr);
     }
-
-    Map<String, Object> fieldMap = sqr.getFieldMap();
+    sqr.getFieldValues(fieldValues);
     HCatRecord result = new DefaultHCatRecord(fieldCount);
 
-    for (Map.Entry<String, Object> entry : fieldMap.entrySet()) {
-      String key = entry.getKey();
-      Object val = entry.getValue();
-      String hfn = key.toLowerCase();
-      boolean skip = false;
-      if (staticPartitionKeys != null && staticPartitionKeys.length > 0) {
-        for (int i = 0; i < staticPartitionKeys.length; ++i) {
-          if (staticPartitionKeys[i].equals(hfn)) {
-            skip = true;
-            break;
-          }
-        }
-      }
-      if (skip) {
-        continue;
-      }
-      HCatFieldSchema hfs = null;
-      try {
-        hfs = hCatFullTableSchema.get(hfn);
-      } catch (Exception e) {
-        throw new IOException("Unable to lookup " + hfn + " in the hcat schema");
-      }
+    for (int i = 0; i < planConverters.length; ++i) {
+      ColumnConverter converter = planConverters[i];
+      Object val = fieldValues[planFieldIndexes[i]];
       if (debugHCatImportMapper) {
-        LOG.debug("SqoopRecordVal: field = " + key + " Val " + val
-          + " of type " + (val == null ? null : val.getClass().getName())
-          + ", hcattype " + hfs.getTypeString());
+        LOG.debug("SqoopRecordVal: field = " + converter.fieldName
+          + " Val " + val + " of type "
+          + (val == null ? null : val.getClass().getName())
+          + ", hcattype " + converter.hfs.getTypeString());
       }
-      Object hCatVal = toHCat(val, hfs);
-
-      result.set(hfn, hCatFullTableSchema, hCatVal);
+      result.set(converter.position, converter.convert(val));
     }
 
     return result;
   }
 
+  /**
+   * Resolve once the HCatalog column of every field of the record, so that
+   * converting a record needs no lookups by name.
+   */
+  private void buildConversionPlan(SqoopRecord sqr) throws IOException {
+    String[] fieldNames = sqr.getFieldNames();
+    List<Integer> indexes = new ArrayList<Integer>(fieldNames.length);
+    List<ColumnConverter> converters =
+      new ArrayList<ColumnConverter>(fieldNames.length);
+    Set<String> skipped = new HashSet<String>();
+    if (staticPartitionKeys != null) {
+      skipped.addAll(Arrays.asList(staticPartitionKeys));
+    }
+    for (int i = 0; i < fieldNames.length; ++i) {
+      String hfn = fieldNames[i].toLowerCase();
+      if (skipped.contains(hfn)) {
+        continue;
+      }
+      Integer pos = hCatFullTableSchema.getPosition(hfn);
+      if (pos == null) {
+        throw new IOException("Unable to lookup " + hfn
+          + " in the hcat schema");
+      }
+      indexes.add(i);
+      converters.add(new ColumnConverter(fieldNames[i],
+        hCatFullTableSchema.get(pos), pos));
+    }
+    fieldValues = new Object[fieldNames.length];
+    planFieldIndexes = new int[indexes.size()];
+    for (int i = 0; i < planFieldIndexes.length; ++i) {
+      planFieldIndexes[i] = indexes.get(i);
+    }
+    planConverters = converters.toArray(new ColumnConverter[converters.size()]);
+  }
+
   private Object toHCat(Object val, HCatFieldSchema hfs) {
     HCatFieldSchema.Type hfsType = hfs.getType();
     if (val == null) {
@@ -1035,6 +1035,41 @@ public static boolean isHadoop1() {
     }
     return false;
   }
+
+  /**
+   * Get the Java class HCatalog uses for the values of a primitive type.
+   * @param hfsType the HCatalog type
+   * @return the class of the values, or null for complex types.
+   */
+  public static Class<?> getHCatJavaClass(HCatFieldSchema.Type hfsType) {
+    switch (hfsType) {
+      case TINYINT:
+        return Byte.class;
+      case SMALLINT:
+        return Short.class;
+      case INT:
+        return Integer.class;
+      case BIGINT:
+        return Long.class;
+      case FLOAT:
+        return Float.class;
+      case DOUBLE:
+        return Double.class;
+      case BOOLEAN:
+        return Boolean.class;
+      case STRING:
+        return String.class;
+      case DATE:
+        return java.sql.Date.class;
+      case TIMESTAMP:
+        return java.sql.Timestamp.class;
+      case BINARY:
+        return byte[].class;
+      default:
+        return null;
+    }
+  }
+
   /**
   * Resolve a database-specific type to HCat data type. Largely follows Sqoop's
   * hive translation.
@@ -32,5 +32,23 @@
 	= "p";
   public static final String MAINFRAME_INPUT_DATASET_TAPE = "mainframe.input.dataset.tape";
 
+  /**
+   * Copybook text describing fixed-length records. When set, datasets are
+   * transferred in binary mode and decoded into typed columns.
+   */
+  public static final String MAINFRAME_INPUT_RECORD_LAYOUT
+      = "mapreduce.mainframe.input.record.layout";
+  /** Character set used to decode text fields of binary records. */
+  public static final String MAINFRAME_INPUT_RECORD_CHARSET
+      = "mapreduce.mainframe.input.record.charset";
+
+  /**
+   * If true (the default), a task that has transferred its own datasets
+   * goes on to take datasets assigned to other tasks that have not been
+   * started yet.
+   */
+  public static final String MAINFRAME_INPUT_DATASET_SHARING
+      = "mapreduce.mainframe.input.dataset.sharing";
+
   public static final String MAINFRAME_FTP_FILE_ENTRY_PARSER_CLASSNAME = "org.apache.sqoop.mapreduce.mainframe.MainframeFTPFileEntryParser";
 }
@@ -0,0 +1,147 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.mainframe;
+
+import java.io.IOException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputCommitter;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+
+/**
+ * Ensures every dataset is transferred by exactly one task when splits
+ * share datasets with each other.
+ *
+ * A task claims a dataset by creating a marker file, named after the
+ * dataset, that holds the task id. Creation fails if the file exists, so
+ * only one task can win. The task id (not the attempt id) is recorded so a
+ * retried attempt can transfer the datasets claimed by the failed one.
+ * The markers live under the job's temporary output directory and are
+ * removed together with it when the job commits.
+ */
+public class MainframeDatasetClaims {
+
+  private static final Log LOG = LogFactory.getLog(
+      MainframeDatasetClaims.class.getName());
+
+  public static final String CLAIMS_DIR_NAME = "_mainframe_claims";
+
+  private static final int OWNER_READ_RETRIES = 3;
+  private static final long OWNER_READ_WAIT_MS = 1000;
+
+  private final FileSystem fs;
+  private final Path claimsDir;
+  private final String owner;
+
+  public MainframeDatasetClaims(FileSystem fs, Path claimsDir, String owner) {
+    this.fs = fs;
+    this.claimsDir = claimsDir;
+    this.owner = owner;
+  }
+
+  /**
+   * @return the claims for this task, or null if dataset sharing is
+   * disabled or the job has no output directory to coordinate through.
+   */
+  public static MainframeDatasetClaims forTask(TaskAttemptContext context)
+      throws IOException {
+    Configuration conf = context.getConfiguration();
+    if (!conf.getBoolean(
+        MainframeConfiguration.MAINFRAME_INPUT_DATASET_SHARING, true)) {
+      return null;
+    }
+    Path outputDir = FileOutputFormat.getOutputPath(context);
+    if (outputDir == null || context.getTaskAttemptID() == null) {
+      return null;
+    }
+    Path dir = new Path(new Path(outputDir,
+        FileOutputCommitter.PENDING_DIR_NAME), CLAIMS_DIR_NAME);
+    return new MainframeDatasetClaims(dir.getFileSystem(conf), dir,
+        context.getTaskAttemptID().getTaskID().toString());
+  }
+
+  /**
+   * Try to claim a dataset for this task.
+   * @return true if this task should transfer the dataset.
+   */
+  public boolean claim(String dataset) throws IOException {
+    Path marker = new Path(claimsDir, dataset);
+    try {
+      FSDataOutputStream out = fs.create(marker, false);
+      try {
+        out.writeUTF(owner);
+      } finally {
+        out.close();
+      }
+      return true;
+    } catch (IOException ioe) {
+      if (!fs.exists(marker)) {
+        throw ioe;
+      }
+    }
+
+    String claimedBy = readOwner(marker);
+    for (int i = 0; claimedBy == null && i < OWNER_READ_RETRIES; i++) {
+      // The winner may still be writing its id.
+      try {
+        Thread.sleep(OWNER_READ_WAIT_MS);
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while reading claim " + marker);
+      }
+      claimedBy = readOwner(marker);
+    }
+    if (claimedBy == null) {
+      // The claiming attempt died before recording its id; take it over.
+      LOG.warn("Taking over abandoned claim for dataset " + dataset);
+      FSDataOutputStream out = fs.create(marker, true);
+      try {
+        out.writeUTF(owner);
+      } finally {
+        out.close();
+      }
+      return true;
+    }
+    if (owner.equals(claimedBy)) {
+      LOG.info("Dataset " + dataset + " was claimed by an earlier attempt "
+          + "of this task");
+      return true;
+    }
+    LOG.info("Dataset " + dataset + " is transferred by " + claimedBy);
+    return false;
+  }
+
+  private String readOwner(Path marker) throws IOException {
+    FSDataInputStream in = fs.open(marker);
+    try {
+      return in.readUTF();
+    } catch (IOException ioe) {
+      return null;
+    } finally {
+      in.close();
+    }
+  }
+}
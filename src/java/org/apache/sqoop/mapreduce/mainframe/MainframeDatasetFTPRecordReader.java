@@ -18,12 +18,16 @@
 
 package org.apache.sqoop.mapreduce.mainframe;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.IOException;
+import java.nio.charset.Charset;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.commons.net.ftp.FTP;
 import org.apache.commons.net.ftp.FTPClient;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.mapreduce.InputSplit;
@@ -33,11 +37,21 @@
 
 /**
  * A RecordReader that returns a record from a mainframe dataset.
+ *
+ * By default datasets are transferred in text mode and every line becomes
+ * a single-field record. If a record layout is configured, datasets are
+ * transferred in binary mode as fixed-length records, which are decoded
+ * into the typed fields of the record.
  */
 public class MainframeDatasetFTPRecordReader <T extends SqoopRecord>
     extends MainframeDatasetRecordReader<T> {
   private FTPClient ftp = null;
   private BufferedReader datasetReader = null;
+  private InputStream datasetStream = null;
+  private String fieldName = null;
+  private MainframeRecordLayout layout = null;
+  private String[] columnNames = null;
+  private byte[] recordBuffer = null;
 
   private static final Log LOG = LogFactory.getLog(
       MainframeDatasetFTPRecordReader.class.getName());
@@ -49,8 +63,23 @@ public void initialize(InputSplit inputSplit,
     super.initialize(inputSplit, taskAttemptContext);
 
     Configuration conf = getConfiguration();
+    String layoutText =
+        conf.get(MainframeConfiguration.MAINFRAME_INPUT_RECORD_LAYOUT);
+    if (layoutText != null) {
+      layout = MainframeRecordLayout.parse(layoutText);
+      layout.setCharset(Charset.forName(conf.get(
+          MainframeConfiguration.MAINFRAME_INPUT_RECORD_CHARSET,
+          MainframeRecordLayout.DEFAULT_CHARSET)));
+      columnNames = layout.getColumnNames();
+      recordBuffer = new byte[layout.getRecordLength()];
+    }
+
     ftp = MainframeFTPClientUtils.getFTPConnection(conf);
     if (ftp != null) {
+		if (layout != null && !ftp.setFileType(FTP.BINARY_FILE_TYPE)) {
+			throw new IOException("Could not switch to binary transfer mode: "
+				+ ftp.getReplyString());
+		}
 		String dsName = conf.get(MainframeConfiguration.MAINFRAME_INPUT_DATASET_NAME);
 		String dsType = conf.get(MainframeConfiguration.MAINFRAME_INPUT_DATASET_TYPE);
 		MainframeDatasetPath p = null;
@@ -73,12 +102,19 @@ public void close() throws IOException {
     if (datasetReader != null) {
       datasetReader.close();
     }
+    if (datasetStream != null) {
+      datasetStream.close();
+    }
     if (ftp != null) {
       MainframeFTPClientUtils.closeFTPConnection(ftp);
     }
   }
 
   protected boolean getNextRecord(T sqoopRecord) throws IOException {
+    if (layout != null) {
+      return getNextBinaryRecord(sqoopRecord);
+    }
+
     String line = null;
     try {
       do {
@@ -112,9 +148,71 @@ protected boolean getNextRecord(T sqoopRecord) throws IOException {
     return false;
   }
 
+  /**
+   * Read the next fixed-length record into the reusable record buffer and
+   * decode it into the SqoopRecord.
+   */
+  private boolean getNextBinaryRecord(T sqoopRecord) throws IOException {
+    try {
+      while (true) {
+        if (datasetStream == null) {
+          String dsName = getNextDataset();
+          if (dsName == null) {
+            return false;
+          }
+          InputStream in = ftp.retrieveFileStream(dsName);
+          if (in == null) {
+            throw new IOException("Could not retrieve " + dsName + ": "
+                + ftp.getReplyString());
+          }
+          datasetStream = new BufferedInputStream(in);
+        }
+        int read = readFully(datasetStream, recordBuffer);
+        if (read == recordBuffer.length) {
+          layout.decode(recordBuffer, columnNames, sqoopRecord);
+          return true;
+        }
+        datasetStream.close();
+        datasetStream = null;
+        if (read > 0) {
+          throw new IOException("Dataset ended with a partial record of "
+              + read + " bytes; expected records of " + recordBuffer.length
+              + " bytes.");
+        }
+        if (!ftp.completePendingCommand()) {
+          throw new IOException("Failed to complete ftp command.");
+        } else {
+          LOG.info("Data transfer completed.");
+        }
+      }
+    } catch (IOException ioe) {
+      throw new IOException("IOException during data transfer: " +
+          ioe.toString());
+    }
+  }
+
+  /**
+   * @return the number of bytes read, which is less than the buffer length
+   * only at the end of the stream.
+   */
+  private static int readFully(InputStream in, byte[] buffer)
+      throws IOException {
+    int total = 0;
+    while (total < buffer.length) {
+      int n = in.read(buffer, total, buffer.length - total);
+      if (n < 0) {
+        break;
+      }
+      total += n;
+    }
+    return total;
+  }
+
   private void convertToSqoopRecord(String line,  SqoopRecord sqoopRecord) {
-    String fieldName
-        = sqoopRecord.getFieldMap().entrySet().iterator().next().getKey();
+    if (fieldName == null) {
+      fieldName
+          = sqoopRecord.getFieldMap().entrySet().iterator().next().getKey();
+    }
     sqoopRecord.setField(fieldName, line);
   }
 }
@@ -19,10 +19,13 @@
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.commons.net.ftp.FTPFile;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.mapreduce.InputFormat;
@@ -38,7 +41,7 @@
 /**
  * A InputFormat that retrieves a list of sequential dataset names in
  * a mainframe partitioned dataset. It then creates splits containing one or
- * more dataset names.
+ * more dataset names, balanced by the dataset sizes in the FTP listing.
  */
 public class MainframeDatasetInputFormat<T extends SqoopRecord>
     extends InputFormat<LongWritable, T>   {
@@ -64,7 +67,7 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
     LOG.info("Dataset type: " + dsType);
     String dsTape = conf.get(MainframeConfiguration.MAINFRAME_INPUT_DATASET_TAPE);
     LOG.info("Dataset on tape?: " + dsTape);
-    List<String> datasets = retrieveDatasets(dsName, conf);
+    List<FTPFile> datasets = retrieveDatasetFiles(dsName, conf);
     if (datasets.isEmpty()) {
       throw new IOException ("No datasets retrieved from " + dsName);
     } else {
@@ -73,19 +76,100 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
       for (int i = 0; i < chunks; i++) {
         splits.add(new MainframeDatasetInputSplit());
       }
+      assignDatasets(datasets, splits);
+      if (chunks > 1 && conf.getBoolean(
+          MainframeConfiguration.MAINFRAME_INPUT_DATASET_SHARING, true)) {
+        shareDatasets(splits);
+      }
+    }
+    return splits;
+  }
 
-      int j = 0;
-      while(j < count) {
-        for (InputSplit sp : splits) {
-          if (j == count) {
-            break;
+  /**
+   * Bin-pack the datasets into the splits by size: the largest remaining
+   * dataset always goes to the split with the fewest bytes so far. Datasets
+   * without a size in the listing count as the average known size.
+   */
+  private void assignDatasets(List<FTPFile> datasets,
+      List<InputSplit> splits) {
+    long knownTotal = 0;
+    int knownCount = 0;
+    for (FTPFile f : datasets) {
+      if (f.getSize() > 0) {
+        knownTotal += f.getSize();
+        knownCount++;
+      }
+    }
+    final long defaultSize = knownCount > 0 ? knownTotal / knownCount : 1;
+
+    List<FTPFile> sorted = new ArrayList<FTPFile>(datasets);
+    Collections.sort(sorted, new Comparator<FTPFile>() {
+      @Override
+      public int compare(FTPFile a, FTPFile b) {
+        long sa = a.getSize() > 0 ? a.getSize() : defaultSize;
+        long sb = b.getSize() > 0 ? b.getSize() : defaultSize;
+        return sa < sb ? 1 : (sa > sb ? -1 : 0);
+      }
+    });
+
+    for (FTPFile f : sorted) {
+      MainframeDatasetInputSplit target = null;
+      for (InputSplit sp : splits) {
+        MainframeDatasetInputSplit split = (MainframeDatasetInputSplit) sp;
+        if (target == null || split.getTotalSize() < target.getTotalSize()) {
+          target = split;
+        }
+      }
+      target.addDataset(f.getName(),
+          f.getSize() > 0 ? f.getSize() : defaultSize);
+    }
+
+    for (InputSplit sp : splits) {
+      MainframeDatasetInputSplit split = (MainframeDatasetInputSplit) sp;
+      LOG.info("Split with " + split.getDatasets().size()
+          + " dataset(s), about "
+          + split.getTotalSize() + " bytes");
+    }
+  }
+
+  /**
+   * Let every split take over datasets of the other splits once it is done
+   * with its own. Each split starts from the end of the other splits'
+   * lists, where their owners will arrive last.
+   */
+  private void shareDatasets(List<InputSplit> splits) {
+    int n = splits.size();
+    List<List<String>> assigned = new ArrayList<List<String>>(n);
+    for (InputSplit sp : splits) {
+      assigned.add(((MainframeDatasetInputSplit) sp).getDatasets());
+    }
+
+    for (int i = 0; i < n; i++) {
+      MainframeDatasetInputSplit split =
+          (MainframeDatasetInputSplit) splits.get(i);
+      // Interleave the other splits' datasets, taking their tails first.
+      boolean added = true;
+      for (int depth = 1; added; depth++) {
+        added = false;
+        for (int k = 1; k < n; k++) {
+          List<String> other = assigned.get((i + k) % n);
+          int idx = other.size() - depth;
+          if (idx >= 0) {
+            split.addSharedDataset(other.get(idx));
+            added = true;
           }
-          ((MainframeDatasetInputSplit)sp).addDataset(datasets.get(j));
-          j++;
         }
       }
     }
-    return splits;
+  }
+
+  /**
+   * @return the datasets to transfer; their size is the estimate from the
+   * FTP listing, or -1 if unknown.
+   */
+  protected List<FTPFile> retrieveDatasetFiles(String dsName,
+      Configuration conf) throws IOException {
+    return MainframeFTPClientUtils.listSequentialDatasetFiles(dsName, conf);
   }
 
   protected List<String> retrieveDatasets(String dsName, Configuration conf)
@@ -22,6 +22,7 @@
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.hadoop.io.Writable;
@@ -30,14 +31,21 @@
 /**
  * A collection of mainframe datasets.
  *
+ * Besides the datasets assigned to it, a split may carry datasets assigned
+ * to other splits. Those are handed out only after the assigned ones, so a
+ * task that finishes early can take over work that has not been started
+ * elsewhere; the record reader claims each dataset before transferring it.
  */
 public class MainframeDatasetInputSplit extends InputSplit implements Writable {
   private List<String> mainframeDatasets;
+  private List<String> sharedDatasets;
+  private long totalSize;
   private String currentDataset;
   private int currentIndex;
 
   public MainframeDatasetInputSplit() {
     mainframeDatasets = new ArrayList<String>();
+    sharedDatasets = new ArrayList<String>();
     currentDataset = null;
     currentIndex = -1;
   }
@@ -46,6 +54,41 @@ public void addDataset(String mainframeDataset) {
     mainframeDatasets.add(mainframeDataset);
   }
 
+  public void addDataset(String mainframeDataset, long size) {
+    mainframeDatasets.add(mainframeDataset);
+    totalSize += size;
+  }
+
+  /**
+   * Add a dataset assigned to another split, which this split may take
+   * once its own datasets are done.
+   */
+  public void addSharedDataset(String mainframeDataset) {
+    sharedDatasets.add(mainframeDataset);
+  }
+
+  /**
+   * @return the datasets assigned to this split.
+   */
+  public List<String> getDatasets() {
+    return Collections.unmodifiableList(mainframeDatasets);
+  }
+
+  /**
+   * @return the estimated number of bytes in the assigned datasets.
+   */
+  public long getTotalSize() {
+    return totalSize;
+  }
+
+  /**
+   * @return true if the current dataset was assigned to this split, rather
+   * than taken over from another split.
+   */
+  public boolean isCurrentDatasetAssigned() {
+    return currentIndex < mainframeDatasets.size();
+  }
+
   public String getCurrentDataset() {
     return currentDataset;
   }
@@ -53,7 +96,12 @@ public String getCurrentDataset() {
   public String getNextDataset() {
     if (hasMore()) {
       currentIndex++;
-      currentDataset = mainframeDatasets.get(currentIndex);
+      if (currentIndex < mainframeDatasets.size()) {
+        currentDataset = mainframeDatasets.get(currentIndex);
+      } else {
+        currentDataset = sharedDatasets.get(
+            currentIndex - mainframeDatasets.size());
+      }
     } else {
       currentDataset = null;
     }
@@ -61,7 +109,8 @@ public String getNextDataset() {
   }
 
   public boolean hasMore() {
-    return currentIndex < (mainframeDatasets.size() -1);
+    return currentIndex
+        < (mainframeDatasets.size() + sharedDatasets.size() - 1);
   }
 
   @Override
@@ -80,6 +129,11 @@ public void write(DataOutput dataOutput) throws IOException {
     for (String ds : mainframeDatasets) {
       dataOutput.writeUTF(ds);
     }
+    dataOutput.writeLong(totalSize);
+    dataOutput.writeInt(sharedDatasets.size());
+    for (String ds : sharedDatasets) {
+      dataOutput.writeUTF(ds);
+    }
   }
 
   @Override
@@ -88,5 +142,10 @@ public void readFields(DataInput dataInput) throws IOException {
     for (int i = 0; i < numberOfDatasets; i++) {
       mainframeDatasets.add(dataInput.readUTF());
     }
+    totalSize = dataInput.readLong();
+    int numberOfShared = dataInput.readInt();
+    for (int i = 0; i < numberOfShared; i++) {
+      sharedDatasets.add(dataInput.readUTF());
+    }
   }
 }
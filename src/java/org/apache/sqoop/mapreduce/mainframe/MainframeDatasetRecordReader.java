@@ -47,6 +47,7 @@ public abstract class MainframeDatasetRecordReader <T extends DBWritable>
   private T datasetRecord;
   private long numberRecordRead;
   private int datasetProcessed;
+  private MainframeDatasetClaims claims;
 
   private static final Log LOG = LogFactory.getLog(
       MainframeDatasetRecordReader.class.getName());
@@ -64,6 +65,7 @@ public void initialize(InputSplit inputSplit,
     datasetRecord = null;
     numberRecordRead = 0;
     datasetProcessed = 0;
+    claims = MainframeDatasetClaims.forTask(taskAttemptContext);
   }
 
   @Override
@@ -94,11 +96,27 @@ public T getCurrentValue() throws IOException, InterruptedException {
 
   @Override
   public float getProgress() throws IOException, InterruptedException {
-    return datasetProcessed / (float)split.getLength();
+    return Math.min(1.0f, datasetProcessed / (float)split.getLength());
   }
 
-  protected String getNextDataset() {
-    String datasetName = split.getNextDataset();
+  /**
+   * @return the next dataset this task should transfer, or null if done.
+   * Datasets are claimed first when they may be shared with other tasks;
+   * without claims, only the datasets assigned to this split are returned.
+   */
+  protected String getNextDataset() throws IOException {
+    String datasetName;
+    while ((datasetName = split.getNextDataset()) != null) {
+      if (claims == null) {
+        if (!split.isCurrentDatasetAssigned()) {
+          return null;
+        }
+        break;
+      }
+      if (claims.claim(datasetName)) {
+        break;
+      }
+    }
     if (datasetName != null) {
       datasetProcessed++;
       LOG.info("Starting transfer of " + datasetName);
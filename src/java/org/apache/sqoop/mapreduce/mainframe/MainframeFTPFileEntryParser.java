@@ -52,6 +52,37 @@ public class MainframeFTPFileEntryParser extends ConfigurableFTPFileEntryParserI
 	private static String dsOrgSeqString = "PS";
 	private static Pattern nonTapePattern = Pattern.compile(NON_TAPE_REGEX);
 
+	// match Used tracks in a dataset listing:
+	// Volume Unit Referred Ext Used Recfm Lrecl BlkSz Dsorg Dsname
+	private static Pattern datasetSizePattern = Pattern.compile(
+		"^\\S+\\s+\\S+\\s+\\d{4}/\\d{2}/\\d{2}\\s+\\d+\\s+(\\d+)\\s+\\S+\\s+\\d+\\s+\\d+\\s+\\S+\\s+\\S+$");
+	// match Size (in lines) in a PDS member listing:
+	// Name VV.MM Created Changed Size Init Mod Id
+	private static Pattern memberSizePattern = Pattern.compile(
+		"^\\S+\\s+\\d+\\.\\d+\\s+\\d{4}/\\d{2}/\\d{2}\\s+\\d{4}/\\d{2}/\\d{2}\\s+\\d{2}:\\d{2}\\s+(\\d+)\\s+\\d+\\s+\\d+\\s+\\S+$");
+	// usable bytes per track of a 3390 volume
+	private static final long BYTES_PER_TRACK = 56664L;
+	// record length assumed for PDS members, which list their size in lines
+	private static final long BYTES_PER_MEMBER_LINE = 80L;
+
+	/**
+	 * Estimate the size in bytes of a dataset or PDS member from its raw
+	 * FTP listing entry.
+	 * @return the estimated size, or -1 if the entry carries no size.
+	 */
+	public static long estimateSize(String entry) {
+		String line = entry.trim();
+		Matcher m = datasetSizePattern.matcher(line);
+		if (m.matches()) {
+			return Long.parseLong(m.group(1)) * BYTES_PER_TRACK;
+		}
+		m = memberSizePattern.matcher(line);
+		if (m.matches()) {
+			return Long.parseLong(m.group(1)) * BYTES_PER_MEMBER_LINE;
+		}
+		return -1;
+	}
+
 	private static final Log LOG = LogFactory.getLog(MainframeFTPFileEntryParser.class.getName());
 
 	public MainframeFTPFileEntryParser() {
@@ -83,9 +114,8 @@ public FTPFile parseFTPEntry(String entry) {
 	        	if (m.matches()) {
 	        		// PO/PO-E = PDS = directory
 	        		// PS = Sequential data set = file
-	        		String size = m.group(2);
 	        		String dsOrg = m.group(3);
-	        		file.setSize(Long.parseLong(size));
+	        		file.setSize(estimateSize(entry));
 	        		LOG.info(String.format("Non tape match: %s, %s, %s", file.getName(), file.getSize(), dsOrg));
 	        		if (dsOrg.equals(dsOrgPDSString) || dsOrg.equals(dsOrgPDSExtendedString)) {
 	        			file.setType(FTPFile.DIRECTORY_TYPE);
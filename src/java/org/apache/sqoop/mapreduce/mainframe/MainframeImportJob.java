@@ -65,6 +65,13 @@ protected void configureInputFormat(Job job, String tableName,
     job.getConfiguration().set(
             MainframeConfiguration.MAINFRAME_INPUT_DATASET_TAPE,
             options.getMainframeInputDatasetTape().toString());
+    if (options.getMainframeRecordLayout() != null) {
+      // Ship the copybook text itself so tasks do not need the local file.
+      job.getConfiguration().set(
+          MainframeConfiguration.MAINFRAME_INPUT_RECORD_LAYOUT,
+          MainframeRecordLayout.readLayoutFile(
+              options.getMainframeRecordLayout()));
+    }
   }
 
   @Override
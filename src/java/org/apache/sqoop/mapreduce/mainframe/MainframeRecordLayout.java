@@ -0,0 +1,477 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.mainframe;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.sqoop.lib.SqoopRecord;
+
+/**
+ * Describes a fixed-length mainframe record using a subset of the COBOL
+ * copybook syntax, and decodes raw (binary mode) records into SqoopRecords.
+ *
+ * Supported elementary items are PIC X/A (EBCDIC text), PIC S9/9 with an
+ * optional implied decimal point V in DISPLAY (zoned decimal), COMP-3 /
+ * PACKED-DECIMAL and COMP / COMP-4 / BINARY usage. Group items and level 88
+ * condition names are accepted and ignored; FILLER items occupy space but do
+ * not produce a column. OCCURS and REDEFINES are not supported.
+ *
+ * Example:
+ * <pre>
+ *   01 CUSTOMER-REC.
+ *      05 CUST-ID      PIC 9(6).
+ *      05 CUST-NAME    PIC X(20).
+ *      05 FILLER       PIC X(2).
+ *      05 BALANCE      PIC S9(7)V99 COMP-3.
+ *      05 VISITS       PIC S9(4) COMP.
+ * </pre>
+ */
+public class MainframeRecordLayout {
+
+  /** How the bytes of a field are encoded. */
+  public enum Usage {
+    TEXT,
+    ZONED,
+    PACKED,
+    BINARY
+  }
+
+  /** An elementary item of the record. */
+  public static final class Field {
+    private final String name;
+    private final Usage usage;
+    private final int offset;
+    private final int length;
+    private final int digits;
+    private final int scale;
+    private final boolean signed;
+    private final int sqlType;
+
+    Field(String name, Usage usage, int offset, int length, int digits,
+        int scale, boolean signed) {
+      this.name = name;
+      this.usage = usage;
+      this.offset = offset;
+      this.length = length;
+      this.digits = digits;
+      this.scale = scale;
+      this.signed = signed;
+      this.sqlType = sqlTypeOf(usage, digits, scale);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Usage getUsage() {
+      return usage;
+    }
+
+    public int getOffset() {
+      return offset;
+    }
+
+    public int getLength() {
+      return length;
+    }
+
+    public int getScale() {
+      return scale;
+    }
+
+    public boolean isFiller() {
+      return name == null;
+    }
+
+    /** @return the java.sql.Types constant for this field's column. */
+    public int getSqlType() {
+      return sqlType;
+    }
+
+    private static int sqlTypeOf(Usage usage, int digits, int scale) {
+      if (usage == Usage.TEXT) {
+        return Types.VARCHAR;
+      } else if (scale > 0 || digits > MAX_LONG_DIGITS) {
+        return Types.DECIMAL;
+      } else if (digits > MAX_INT_DIGITS) {
+        return Types.BIGINT;
+      } else {
+        return Types.INTEGER;
+      }
+    }
+  }
+
+  /** Default character set of text fields: EBCDIC US/Canada. */
+  public static final String DEFAULT_CHARSET = "Cp037";
+
+  private static final int MAX_INT_DIGITS = 9;
+  private static final int MAX_LONG_DIGITS = 18;
+
+  private static final Pattern LEVEL_PATTERN =
+      Pattern.compile("^(\\d{1,2})\\s+([A-Za-z0-9][A-Za-z0-9-]*)(.*)$");
+  private static final Pattern PIC_PATTERN =
+      Pattern.compile("\\bPIC(?:TURE)?\\s+(?:IS\\s+)?(\\S+)",
+          Pattern.CASE_INSENSITIVE);
+  private static final Pattern REPEAT_PATTERN =
+      Pattern.compile("(.)\\((\\d+)\\)");
+
+  private final List<Field> fields;
+  private final List<Field> columns;
+  private final int recordLength;
+  private Charset charset;
+
+  private MainframeRecordLayout(List<Field> fields, int recordLength) {
+    this.fields = Collections.unmodifiableList(fields);
+    List<Field> cols = new ArrayList<Field>();
+    for (Field f : fields) {
+      if (!f.isFiller()) {
+        cols.add(f);
+      }
+    }
+    this.columns = Collections.unmodifiableList(cols);
+    this.recordLength = recordLength;
+    this.charset = Charset.forName(DEFAULT_CHARSET);
+  }
+
+  /** @return all elementary items, including FILLER. */
+  public List<Field> getFields() {
+    return fields;
+  }
+
+  /** @return the items that are imported as columns. */
+  public List<Field> getColumns() {
+    return columns;
+  }
+
+  /** @return the length in bytes of one record. */
+  public int getRecordLength() {
+    return recordLength;
+  }
+
+  public void setCharset(Charset cs) {
+    this.charset = cs;
+  }
+
+  public String[] getColumnNames() {
+    String[] names = new String[columns.size()];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = columns.get(i).getName();
+    }
+    return names;
+  }
+
+  public Map<String, Integer> getColumnTypes() {
+    Map<String, Integer> types = new LinkedHashMap<String, Integer>();
+    for (Field f : columns) {
+      types.put(f.getName(), f.getSqlType());
+    }
+    return types;
+  }
+
+  /**
+   * Decode one record and store each column in the SqoopRecord.
+   * @param record the raw record; must be at least getRecordLength() bytes.
+   * @param names the column names, as returned by getColumnNames().
+   */
+  public void decode(byte[] record, String[] names, SqoopRecord sqoopRecord)
+      throws IOException {
+    for (int i = 0; i < names.length; i++) {
+      sqoopRecord.setField(names[i], decodeField(columns.get(i), record));
+    }
+  }
+
+  /**
+   * Decode a single field of a raw record.
+   */
+  public Object decodeField(Field f, byte[] record) throws IOException {
+    switch (f.usage) {
+    case TEXT:
+      return new String(record, f.offset, f.length, charset);
+    case ZONED:
+      return toValue(f, decodeZoned(f, record));
+    case PACKED:
+      return toValue(f, decodePacked(f, record));
+    case BINARY:
+      return toValue(f, BigInteger.valueOf(decodeBinary(f, record)));
+    default:
+      throw new IOException("Unknown usage " + f.usage);
+    }
+  }
+
+  private static Object toValue(Field f, BigInteger unscaled) {
+    switch (f.sqlType) {
+    case Types.INTEGER:
+      return Integer.valueOf(unscaled.intValue());
+    case Types.BIGINT:
+      return Long.valueOf(unscaled.longValue());
+    default:
+      return new BigDecimal(unscaled, f.scale);
+    }
+  }
+
+  private static BigInteger decodeZoned(Field f, byte[] record)
+      throws IOException {
+    long value = 0;
+    StringBuilder digits = f.digits > MAX_LONG_DIGITS
+        ? new StringBuilder(f.digits) : null;
+    int end = f.offset + f.length;
+    for (int i = f.offset; i < end; i++) {
+      int digit = record[i] & 0x0F;
+      if (digit > 9) {
+        throw new IOException("Invalid zoned decimal digit in field "
+            + f.name);
+      }
+      if (null != digits) {
+        digits.append((char) ('0' + digit));
+      } else {
+        value = value * 10 + digit;
+      }
+    }
+    int zone = (record[end - 1] >> 4) & 0x0F;
+    boolean negative = f.signed && (zone == 0x0D || zone == 0x0B);
+    BigInteger result = null != digits
+        ? new BigInteger(digits.toString()) : BigInteger.valueOf(value);
+    return negative ? result.negate() : result;
+  }
+
+  private static BigInteger decodePacked(Field f, byte[] record)
+      throws IOException {
+    long value = 0;
+    StringBuilder digits = f.digits > MAX_LONG_DIGITS
+        ? new StringBuilder(f.digits + 1) : null;
+    int end = f.offset + f.length;
+    for (int i = f.offset; i < end; i++) {
+      int hi = (record[i] >> 4) & 0x0F;
+      int lo = record[i] & 0x0F;
+      if (hi > 9 || (i < end - 1 && lo > 9)) {
+        throw new IOException("Invalid packed decimal digit in field "
+            + f.name);
+      }
+      if (null != digits) {
+        digits.append((char) ('0' + hi));
+      } else {
+        value = value * 10 + hi;
+      }
+      if (i < end - 1) {
+        if (null != digits) {
+          digits.append((char) ('0' + lo));
+        } else {
+          value = value * 10 + lo;
+        }
+      }
+    }
+    int sign = record[end - 1] & 0x0F;
+    if (sign < 0x0A) {
+      throw new IOException("Invalid packed decimal sign in field " + f.name);
+    }
+    boolean negative = sign == 0x0D || sign == 0x0B;
+    BigInteger result = null != digits
+        ? new BigInteger(digits.toString()) : BigInteger.valueOf(value);
+    return negative ? result.negate() : result;
+  }
+
+  private static long decodeBinary(Field f, byte[] record) {
+    long value = f.signed ? record[f.offset] : record[f.offset] & 0xFF;
+    int end = f.offset + f.length;
+    for (int i = f.offset + 1; i < end; i++) {
+      value = (value << 8) | (record[i] & 0xFF);
+    }
+    return value;
+  }
+
+  /**
+   * Read a copybook from a local file.
+   */
+  public static String readLayoutFile(String path) throws IOException {
+    BufferedReader r = new BufferedReader(new InputStreamReader(
+        new FileInputStream(new File(path)), "UTF-8"));
+    try {
+      StringBuilder sb = new StringBuilder();
+      String line;
+      while ((line = r.readLine()) != null) {
+        sb.append(line).append('\n');
+      }
+      return sb.toString();
+    } finally {
+      r.close();
+    }
+  }
+
+  /**
+   * Parse the text of a copybook into a record layout.
+   */
+  public static MainframeRecordLayout parse(String copybook)
+      throws IOException {
+    StringBuilder text = new StringBuilder();
+    BufferedReader r = new BufferedReader(new StringReader(copybook));
+    String line;
+    while ((line = r.readLine()) != null) {
+      String trimmed = line.trim();
+      // Skip comment lines, either free-form or in the fixed-form
+      // indicator area (column 7).
+      if (trimmed.startsWith("*")
+          || (line.length() > 6 && line.charAt(6) == '*')) {
+        continue;
+      }
+      text.append(trimmed).append(' ');
+    }
+
+    List<Field> fields = new ArrayList<Field>();
+    int offset = 0;
+    for (String entry : text.toString().split("\\.(\\s+|$)")) {
+      String stmt = entry.trim();
+      if (stmt.isEmpty()) {
+        continue;
+      }
+      Matcher m = LEVEL_PATTERN.matcher(stmt);
+      if (!m.matches()) {
+        throw new IOException("Cannot parse record layout entry: " + stmt);
+      }
+      int level = Integer.parseInt(m.group(1));
+      String name = m.group(2);
+      String clauses = " " + m.group(3).trim().toUpperCase() + " ";
+      if (level == 88) {
+        continue;
+      }
+      if (clauses.contains(" OCCURS ") || clauses.contains(" REDEFINES ")) {
+        throw new IOException("OCCURS and REDEFINES are not supported: "
+            + stmt);
+      }
+      Matcher pic = PIC_PATTERN.matcher(clauses);
+      if (!pic.find()) {
+        // Group item; its elementary items describe the layout.
+        continue;
+      }
+
+      Field f = newField(name, pic.group(1), clauses, offset);
+      fields.add(f);
+      offset += f.length;
+    }
+
+    if (fields.isEmpty()) {
+      throw new IOException("Record layout does not define any fields");
+    }
+    return new MainframeRecordLayout(fields, offset);
+  }
+
+  private static Field newField(String cobolName, String picture,
+      String clauses, int offset) throws IOException {
+    String pic = expandPicture(picture.toUpperCase());
+    String name = "FILLER".equalsIgnoreCase(cobolName)
+        ? null : cobolName.replace('-', '_');
+
+    boolean signed = false;
+    int intDigits = 0;
+    int scale = 0;
+    int textLength = 0;
+    boolean afterPoint = false;
+    for (int i = 0; i < pic.length(); i++) {
+      char c = pic.charAt(i);
+      switch (c) {
+      case 'S':
+        signed = true;
+        break;
+      case 'V':
+        afterPoint = true;
+        break;
+      case '9':
+        if (afterPoint) {
+          scale++;
+        } else {
+          intDigits++;
+        }
+        break;
+      case 'X':
+      case 'A':
+        textLength++;
+        break;
+      default:
+        throw new IOException("Unsupported PICTURE character '" + c
+            + "' in " + cobolName);
+      }
+    }
+
+    int digits = intDigits + scale;
+    if (textLength > 0) {
+      if (digits > 0 || signed) {
+        throw new IOException("Mixed alphanumeric and numeric PICTURE in "
+            + cobolName);
+      }
+      return new Field(name, Usage.TEXT, offset, textLength, 0, 0, false);
+    }
+
+    if (clauses.contains(" COMP-3 ") || clauses.contains(" COMPUTATIONAL-3 ")
+        || clauses.contains(" PACKED-DECIMAL ")) {
+      return new Field(name, Usage.PACKED, offset, digits / 2 + 1, digits,
+          scale, signed);
+    } else if (clauses.contains(" COMP ") || clauses.contains(" COMP-4 ")
+        || clauses.contains(" COMPUTATIONAL ")
+        || clauses.contains(" COMPUTATIONAL-4 ")
+        || clauses.contains(" BINARY ")) {
+      int length;
+      if (digits <= 4) {
+        length = 2;
+      } else if (digits <= MAX_INT_DIGITS) {
+        length = 4;
+      } else if (digits <= MAX_LONG_DIGITS) {
+        length = 8;
+      } else {
+        throw new IOException("Binary field " + cobolName
+            + " has more than " + MAX_LONG_DIGITS + " digits");
+      }
+      return new Field(name, Usage.BINARY, offset, length, digits, scale,
+          signed);
+    } else {
+      return new Field(name, Usage.ZONED, offset, digits, digits, scale,
+          signed);
+    }
+  }
+
+  /** Expand repeat counts: "S9(3)V9(2)" becomes "S999V99". */
+  private static String expandPicture(String picture) {
+    Matcher m = REPEAT_PATTERN.matcher(picture);
+    StringBuffer sb = new StringBuffer();
+    while (m.find()) {
+      int count = Integer.parseInt(m.group(2));
+      StringBuilder rep = new StringBuilder(count);
+      for (int i = 0; i < count; i++) {
+        rep.append(m.group(1));
+      }
+      m.appendReplacement(sb, Matcher.quoteReplacement(rep.toString()));
+    }
+    m.appendTail(sb);
+    return sb.toString();
+  }
+}
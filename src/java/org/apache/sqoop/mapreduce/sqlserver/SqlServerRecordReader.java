@@ -63,13 +63,12 @@ protected String getSelectQuery() {
 
     DBConfiguration dbConf = getDBConf();
     String [] fieldNames = getFieldNames();
-    String tableName = getTableName();
     String conditions = getConditions();
 
     // Build the WHERE clauses associated with the data split first.
     // We need them in both branches of this function.
     StringBuilder conditionClauses = new StringBuilder();
-    conditionClauses.append("( ").append(dataSplit.getLowerClause());
+    conditionClauses.append("( ").append(getLowerClause());
     conditionClauses.append(" ) AND ( ").append(dataSplit.getUpperClause());
     conditionClauses.append(" )");
 
@@ -84,7 +83,7 @@ protected String getSelectQuery() {
         }
       }
 
-      query.append(" FROM ").append(tableName);
+      query.append(" FROM ").append(getFromTable());
 
       String tableHints =
         dbConf.getConf().get(SQLServerManager.TABLE_HINTS_PROP);
@@ -102,6 +101,10 @@ protected String getSelectQuery() {
       // Now append the conditions associated with our split.
       query.append(conditionClauses.toString());
 
+      if (isSplitOrdered()) {
+        query.append(" ORDER BY ").append(dbConf.getInputOrderBy());
+      }
+
     } else {
       // User provided the query. We replace the special token with
       // our WHERE clause.
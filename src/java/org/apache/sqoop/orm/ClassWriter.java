@@ -26,16 +26,20 @@
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
+import javax.tools.ToolProvider;
+
 import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.io.BytesWritable;
+import org.apache.sqoop.lib.SchemaSqoopRecord;
 import org.apache.sqoop.mapreduce.ImportJobBase;
 
 import com.cloudera.sqoop.SqoopOptions;
@@ -130,6 +134,39 @@ public class ClassWriter {
   public static final String PROPERTY_CODEGEN_METHODS_MAXCOLS =
       "codegen.methods.maxcols";
 
+  /**
+   * If true, Integer, Long, Float, Double and Boolean columns are generated
+   * as primitive fields whose NULLs are tracked in a bitmap, so that reading
+   * and writing records does not allocate a wrapper object per value.
+   */
+  public static final String PROPERTY_CODEGEN_PRIMITIVE_FIELDS =
+      "codegen.primitive.fields";
+
+  /**
+   * Selects how the record class is built. With "javac" (the default) Java
+   * source is generated and compiled; with "bytecode" the class file is
+   * emitted directly, as a subclass of SchemaSqoopRecord that needs no
+   * compiler. The javac backend falls back to bytecode when no Java
+   * compiler is available.
+   */
+  public static final String PROPERTY_CODEGEN_BACKEND = "codegen.backend";
+
+  public static final String CODEGEN_BACKEND_JAVAC = "javac";
+
+  public static final String CODEGEN_BACKEND_BYTECODE = "bytecode";
+
+  /** The primitive types of the boxed types of primitive field mode. */
+  private static final Map<String, String> PRIMITIVE_TYPES;
+
+  static {
+    PRIMITIVE_TYPES = new HashMap<String, String>();
+    PRIMITIVE_TYPES.put("Integer", "int");
+    PRIMITIVE_TYPES.put("Long", "long");
+    PRIMITIVE_TYPES.put("Float", "float");
+    PRIMITIVE_TYPES.put("Double", "double");
+    PRIMITIVE_TYPES.put("Boolean", "boolean");
+  }
+
   /**
    * This version number is injected into all generated Java classes to denote
    * which version of the ClassWriter's output format was used to generate the
@@ -139,7 +176,7 @@ public class ClassWriter {
    * This number is retrieved by the SqoopRecord.getClassFormatVersion()
    * method.
    */
-  public static final int CLASS_WRITER_VERSION = 3;
+  public static final int CLASS_WRITER_VERSION = 4;
 
   /**
    * Default maximum number of columns per method.
@@ -158,6 +195,11 @@ public class ClassWriter {
   private String tableName;
   private CompilationManager compileManager;
   private boolean bigDecimalFormatString;
+  private boolean primitiveFields;
+
+  // In primitive field mode, the bit of the null bitmap of each column
+  // generated as a primitive field; null otherwise.
+  private Map<String, Integer> nullBits;
 
   /**
    * Creates a new ClassWriter to generate an ORM class for a table
@@ -179,6 +221,8 @@ public ClassWriter(final SqoopOptions opts, final ConnManager connMgr,
     this.maxColumnsPerMethod = this.options.getConf().getInt(
         PROPERTY_CODEGEN_METHODS_MAXCOLS,
         MAX_COLUMNS_PER_METHOD_DEFAULT);
+    this.primitiveFields = this.options.getConf().getBoolean(
+        PROPERTY_CODEGEN_PRIMITIVE_FIELDS, false);
   }
 
   /**
@@ -519,6 +563,96 @@ private String rpcSetterForMaybeNull(String javaType, String outputObj,
         + "    }\n";
   }
 
+  /**
+   * @return the primitive type of the field of a column, or null if the
+   * column is held in an object field.
+   */
+  private String primitiveTypeFor(String colName, String javaType) {
+    if (null == nullBits || !nullBits.containsKey(colName)) {
+      return null;
+    }
+    return PRIMITIVE_TYPES.get(javaType);
+  }
+
+  /**
+   * @return an expression testing the null bit of a primitive field of the
+   * given object.
+   */
+  private String isNullExpr(String obj, String colName) {
+    return obj + ".__sqoop$isNull(" + nullBits.get(colName) + ")";
+  }
+
+  /**
+   * @return a statement setting the null bit of a primitive field.
+   */
+  private String setNullStmt(String colName, String isNull) {
+    return "    __sqoop$setNull(" + nullBits.get(colName) + ", " + isNull
+        + ");\n";
+  }
+
+  /**
+   * @return an expression for the value of a field as an object, boxing
+   * primitive fields.
+   */
+  private String objectValueExpr(String colName, String javaType) {
+    if (null == primitiveTypeFor(colName, javaType)) {
+      return "this." + colName;
+    }
+    return "(" + isNullExpr("this", colName) + " ? null : " + javaType
+        + ".valueOf(this." + colName + "))";
+  }
+
+  /**
+   * @return the name of a primitive type with its first letter in upper
+   * case, as used by DataInput and ResultSet methods.
+   */
+  private static String capitalize(String type) {
+    return Character.toUpperCase(type.charAt(0)) + type.substring(1);
+  }
+
+  /**
+   * Assign a null bit to each column held in a primitive field.
+   */
+  private void assignNullBits(Map<String, Integer> columnTypes,
+      String [] colNames) {
+    if (!primitiveFields) {
+      nullBits = null;
+      return;
+    }
+    nullBits = new HashMap<String, Integer>();
+    for (String col : colNames) {
+      String javaType = toJavaType(col, columnTypes.get(col));
+      if (null != javaType && PRIMITIVE_TYPES.containsKey(javaType)) {
+        nullBits.put(col, nullBits.size());
+      }
+    }
+    if (nullBits.isEmpty()) {
+      nullBits = null;
+    }
+  }
+
+  /**
+   * Generate the null bitmap of the primitive fields and its accessors.
+   */
+  private void generateNullBitmap(StringBuilder sb) {
+    if (null == nullBits) {
+      return;
+    }
+    sb.append("  private long[] __sqoop$null_bits = new long["
+        + ((nullBits.size() + 63) / 64) + "];\n");
+    sb.append("  private boolean __sqoop$isNull(int __bit) {\n");
+    sb.append("    return (__sqoop$null_bits[__bit >>> 6] & (1L << __bit))"
+        + " != 0;\n");
+    sb.append("  }\n");
+    sb.append("  private void __sqoop$setNull(int __bit, boolean __isNull) {\n");
+    sb.append("    if (__isNull) {\n");
+    sb.append("      __sqoop$null_bits[__bit >>> 6] |= 1L << __bit;\n");
+    sb.append("    } else {\n");
+    sb.append("      __sqoop$null_bits[__bit >>> 6] &= ~(1L << __bit);\n");
+    sb.append("    }\n");
+    sb.append("  }\n");
+  }
+
   /**
    * Get the number of methods that should be generated for a particular column
    * set.
@@ -565,6 +699,12 @@ private void generateFields(Map<String, Integer> columnTypes,
         continue;
       }
 
+      String primitiveType = primitiveTypeFor(col, javaType);
+      if (null != primitiveType) {
+        generatePrimitiveField(col, javaType, primitiveType, className, sb);
+        continue;
+      }
+
       sb.append("  private " + javaType + " " + col + ";\n");
       sb.append("  public " + javaType + " get_" + col + "() {\n");
       sb.append("    return " + col + ";\n");
@@ -581,6 +721,48 @@ private void generateFields(Map<String, Integer> columnTypes,
     }
   }
 
+  /**
+   * Generate a primitive member field and its accessors. The get_, set_ and
+   * with_ methods take and return the boxed type, like those of object
+   * fields; overloads and getPrimitive_/isNull_ methods work on primitives.
+   */
+  private void generatePrimitiveField(String col, String javaType,
+      String primitiveType, String className, StringBuilder sb) {
+    String defaultVal = "boolean".equals(primitiveType) ? "false" : "0";
+    sb.append("  private " + primitiveType + " " + col + ";\n");
+    sb.append("  public " + javaType + " get_" + col + "() {\n");
+    sb.append("    return " + objectValueExpr(col, javaType) + ";\n");
+    sb.append("  }\n");
+    sb.append("  public " + primitiveType + " getPrimitive_" + col
+        + "() {\n");
+    sb.append("    return " + col + ";\n");
+    sb.append("  }\n");
+    sb.append("  public boolean isNull_" + col + "() {\n");
+    sb.append("    return " + isNullExpr("this", col) + ";\n");
+    sb.append("  }\n");
+    sb.append("  public void set_" + col + "(" + javaType + " " + col
+        + ") {\n");
+    sb.append(setNullStmt(col, "null == " + col));
+    sb.append("    this." + col + " = null == " + col + " ? " + defaultVal
+        + " : " + col + ";\n");
+    sb.append("  }\n");
+    sb.append("  public void set_" + col + "(" + primitiveType + " " + col
+        + ") {\n");
+    sb.append("    this." + col + " = " + col + ";\n");
+    sb.append(setNullStmt(col, "false"));
+    sb.append("  }\n");
+    sb.append("  public " + className + " with_" + col + "(" + javaType + " "
+        + col + ") {\n");
+    sb.append("    set_" + col + "(" + col + ");\n");
+    sb.append("    return this;\n");
+    sb.append("  }\n");
+    sb.append("  public " + className + " with_" + col + "(" + primitiveType
+        + " " + col + ") {\n");
+    sb.append("    set_" + col + "(" + col + ");\n");
+    sb.append("    return this;\n");
+    sb.append("  }\n");
+  }
+
   /**
    * Generate an equals method that compares the fields for each column.
    * @param columnTypes - mapping from column names to sql types
@@ -649,6 +831,18 @@ private void myGenerateEquals(Map<String, Integer> columnTypes,
         LOG.error("Cannot resolve SQL type " + sqlType);
         continue;
       }
+      String primitiveType = primitiveTypeFor(col, javaType);
+      if (null != primitiveType) {
+        String valuesEqual = "float".equals(primitiveType)
+            || "double".equals(primitiveType)
+            ? capitalize(primitiveType) + ".compare(this." + col + ", that."
+                + col + ") == 0"
+            : "this." + col + " == that." + col;
+        sb.append("    equal = equal && " + isNullExpr("this", col) + " == "
+            + isNullExpr("that", col) + " && (" + isNullExpr("this", col)
+            + " || " + valuesEqual + ");\n");
+        continue;
+      }
       sb.append("    equal = equal && (this." + col + " == null ? that." + col
           + " == null : this." + col + ".equals(that." + col + "));\n");
     }
@@ -730,6 +924,15 @@ private void myGenerateDbRead(Map<String, Integer> columnTypes,
         continue;
       }
 
+      String primitiveType = primitiveTypeFor(col, javaType);
+      if (null != primitiveType) {
+        sb.append("    this." + col + " = JdbcWritableBridge.read"
+            + capitalize(primitiveType) + "Value(" + (i + 1)
+            + ", __dbResults);\n");
+        sb.append(setNullStmt(col, "__dbResults.wasNull()"));
+        continue;
+      }
+
       sb.append("    this." + col + " = JdbcWritableBridge." +  getterMethod
           + "(" + (i + 1) + ", __dbResults);\n");
     }
@@ -896,7 +1099,11 @@ private void myGenerateDbWrite(Map<String, Integer> columnTypes,
         continue;
       }
 
-      if ("writeString".equals(setterMethod) && sqlType == 2002) {
+      if (null != primitiveTypeFor(col, javaType)) {
+        sb.append("    JdbcWritableBridge." + setterMethod + "(" + col + ", "
+            + isNullExpr("this", col) + ", " + (i + 1) + " + __off, "
+            + sqlType + ", __dbStmt);\n");
+      } else if ("writeString".equals(setterMethod) && sqlType == 2002) {
         sb.append("__dbStmt.setString(" + (i + 1) + ", " + col + ");\n");
       } else {
         sb.append("    JdbcWritableBridge." + setterMethod + "(" + col + ", " + (i + 1) + " + __off, " + sqlType
@@ -923,6 +1130,14 @@ private void generateHadoopRead(Map<String, Integer> columnTypes,
 
     sb.append("  public void readFields(DataInput __dataIn) "
         + "throws IOException {\n");
+    if (null != nullBits) {
+      // The null bitmap precedes the fields; null primitive fields are
+      // not written at all.
+      sb.append("    for (int __i = 0; __i < __sqoop$null_bits.length; "
+          + "__i++) {\n");
+      sb.append("      __sqoop$null_bits[__i] = __dataIn.readLong();\n");
+      sb.append("    }\n");
+    }
 
     for (int i = 0; i < numberOfMethods; ++i) {
       sb.append("this.readFields" + i + "(__dataIn);");
@@ -965,6 +1180,15 @@ private void myGenerateHadoopRead(Map<String, Integer> columnTypes,
         continue;
       }
 
+      String primitiveType = primitiveTypeFor(col, javaType);
+      if (null != primitiveType) {
+        sb.append("    if (!" + isNullExpr("this", col) + ") {\n");
+        sb.append("      this." + col + " = __dataIn.read"
+            + capitalize(primitiveType) + "();\n");
+        sb.append("    }\n");
+        continue;
+      }
+
       String getterMethod = rpcGetterForMaybeNull(javaType, "__dataIn", col);
       if (null == getterMethod) {
         LOG.error("No RPC getter method for Java type " + javaType);
@@ -996,6 +1220,9 @@ private void generateCloneMethod(Map<String, Integer> columnTypes,
 
     sb.append("  public Object clone() throws CloneNotSupportedException {\n");
     sb.append("    " + className + " o = (" + className + ") super.clone();\n");
+    if (null != nullBits) {
+      sb.append("    o.__sqoop$null_bits = o.__sqoop$null_bits.clone();\n");
+    }
 
     if (numberOfMethods > 1) {
       for (int i = 0; i < numberOfMethods; ++i) {
@@ -1078,6 +1305,13 @@ private void generateSetField(Map<String, Integer> columnTypes, String[] colName
     sb.append("    }" + sep);
     sb.append("    setters.get(__fieldName).setField(__fieldVal);" + sep);
     sb.append("  }\n" + sep);
+    sb.append("  public void setField(int __fieldIndex, Object __fieldVal) {" + sep);
+    sb.append("    if (__fieldIndex < 0 || __fieldIndex >= __sqoop$indexed_setters.length" + sep);
+    sb.append("        || null == __sqoop$indexed_setters[__fieldIndex]) {" + sep);
+    sb.append("      throw new RuntimeException(\"No such field index:\"+__fieldIndex);" + sep);
+    sb.append("    }" + sep);
+    sb.append("    __sqoop$indexed_setters[__fieldIndex].setField(__fieldVal);" + sep);
+    sb.append("  }\n" + sep);
   }
 
   private void generateConstructorAndInitMethods(Map<String, Integer> colTypes, String[] colNames, String[] rawColNames,
@@ -1096,17 +1330,26 @@ private void generateConstructorAndInitMethods(Map<String, Integer> colTypes, St
           LOG.error("Cannot resolve SQL type " + sqlType);
           continue;
         } else {
-          sb.append("    setters.put(\"" + serializeRawColName(rawColName) + "\", new FieldSetterCommand() {" + sep);
+          sb.append("    __sqoop$indexed_setters[" + i + "] = new FieldSetterCommand() {" + sep);
           sb.append("      @Override" + sep);
           sb.append("      public void setField(Object value) {" + sep);
-          sb.append("        " +typeName+".this." + colName + " = (" + javaType + ")value;" + sep);
+          if (null != primitiveTypeFor(colName, javaType)) {
+            sb.append("        " + typeName + ".this.set_" + colName + "((" + javaType + ")value);" + sep);
+          } else {
+            sb.append("        " +typeName+".this." + colName + " = (" + javaType + ")value;" + sep);
+          }
           sb.append("      }" + sep);
-          sb.append("    });" + sep);
+          sb.append("    };" + sep);
+          sb.append("    setters.put(\"" + serializeRawColName(rawColName) + "\", __sqoop$indexed_setters[" + i + "]);" + sep);
         }
       }
       sb.append("  }" + sep);
     }
     sb.append("  public " + typeName + "() {" + sep);
+    if (null != nullBits) {
+      // Primitive fields start out null, like object fields.
+      sb.append("    Arrays.fill(__sqoop$null_bits, -1L);" + sep);
+    }
     for (int i = 0; i < numberOfMethods; ++i) {
       sb.append("    init" + i + "();" + sep);
     }
@@ -1199,6 +1442,58 @@ private void generateGetFieldMap(Map<String, Integer> columnTypes,
     }
   }
 
+  /**
+   * Generate the getFieldNames() and getFieldValues() methods, which give
+   * positional access to the fields of getFieldMap().
+   * @param columnTypes - mapping from column names to sql types
+   * @param colNames - ordered list of column names for table.
+   * @param rawColNames - the column names used as field map keys.
+   * @param sb - StringBuilder to append code to
+   */
+  private void generateGetFieldValues(Map<String, Integer> columnTypes,
+      String [] colNames, String [] rawColNames, StringBuilder sb) {
+    int numberOfMethods =
+            this.getNumberOfMethods(colNames, maxColumnsPerMethod);
+
+    sb.append("  public String[] getFieldNames() {\n");
+    sb.append("    String[] __sqoop$field_names = new String["
+        + colNames.length + "];\n");
+    for (int i = 0; i < numberOfMethods; ++i) {
+      sb.append("    this.getFieldNames" + i + "(__sqoop$field_names);\n");
+    }
+    sb.append("    return __sqoop$field_names;\n");
+    sb.append("  }\n\n");
+
+    sb.append("  public void getFieldValues(Object[] __sqoop$field_values) {\n");
+    for (int i = 0; i < numberOfMethods; ++i) {
+      sb.append("    this.getFieldValues" + i + "(__sqoop$field_values);\n");
+    }
+    sb.append("  }\n\n");
+
+    for (int methodNumber = 0; methodNumber < numberOfMethods;
+         ++methodNumber) {
+      sb.append("  private void getFieldNames" + methodNumber
+          + "(String[] __sqoop$field_names) {\n");
+      for (int i = methodNumber * maxColumnsPerMethod;
+           i < topBoundary(colNames, methodNumber, maxColumnsPerMethod); ++i) {
+        sb.append("    __sqoop$field_names[" + i + "] = \""
+            + serializeRawColName(rawColNames[i]) + "\";\n");
+      }
+      sb.append("  }\n\n");
+
+      sb.append("  private void getFieldValues" + methodNumber
+          + "(Object[] __sqoop$field_values) {\n");
+      for (int i = methodNumber * maxColumnsPerMethod;
+           i < topBoundary(colNames, methodNumber, maxColumnsPerMethod); ++i) {
+        String javaType = toJavaType(colNames[i],
+            columnTypes.get(colNames[i]));
+        sb.append("    __sqoop$field_values[" + i + "] = "
+            + objectValueExpr(colNames[i], javaType) + ";\n");
+      }
+      sb.append("  }\n\n");
+    }
+  }
+
   /**
    * Generate the getFieldMap() method.
    * @param columnTypes - mapping from column names to sql types
@@ -1219,7 +1514,9 @@ private void myGenerateGetFieldMap(Map<String, Integer> columnTypes,
 
     for (int i = methodNumber * size;
          i < topBoundary(colNames, methodNumber, size); ++i) {
-      sb.append("    __sqoop$field_map.put(\"" + serializeRawColName(rawColNames[i]) + "\", this." + colNames[i] + ");\n");
+      String javaType = toJavaType(colNames[i], columnTypes.get(colNames[i]));
+      sb.append("    __sqoop$field_map.put(\"" + serializeRawColName(rawColNames[i]) + "\", "
+          + objectValueExpr(colNames[i], javaType) + ");\n");
     }
 
     if (wrapInMethod) {
@@ -1336,7 +1633,10 @@ private void myGenerateToString(Map<String, Integer> columnTypes,
 
       first = false;
 
-      String stringExpr = stringifierForType(javaType, col);
+      String stringExpr = null == primitiveTypeFor(col, javaType)
+          ? stringifierForType(javaType, col)
+          : isNullExpr("this", col) + "?\"" + options.getNullNonStringValue()
+              + "\":\"\" + " + col;
       if (null == stringExpr) {
         LOG.error("No toString method for Java type " + javaType);
         continue;
@@ -1461,6 +1761,29 @@ private void parseColumn(String colName, int colType, StringBuilder sb) {
     sb.append("    }\n\n"); // the closing '{' based on code in parseNullVal();
   }
 
+  /**
+   * Helper method for generateParser(). Generates the code that loads one
+   * primitive field from the next element of the field strings list.
+   */
+  private void parsePrimitiveColumn(String colName, String javaType,
+      String primitiveType, StringBuilder sb) {
+    sb.append("    __cur_str = __it.next();\n");
+    sb.append("    if (__cur_str.equals(\""
+        + this.options.getInNullNonStringValue()
+        + "\") || __cur_str.length() == 0) {\n");
+    sb.append("  " + setNullStmt(colName, "true"));
+    sb.append("    } else {\n");
+    if ("boolean".equals(primitiveType)) {
+      sb.append("      this." + colName
+          + " = BooleanParser.valueOf(__cur_str);\n");
+    } else {
+      sb.append("      this." + colName + " = " + javaType + ".parse"
+          + capitalize(primitiveType) + "(__cur_str);\n");
+    }
+    sb.append("  " + setNullStmt(colName, "false"));
+    sb.append("    }\n\n");
+  }
+
   /**
    * Generate the parse() method.
    * @param columnTypes - mapping from column names to sql types
@@ -1538,7 +1861,13 @@ private void myGenerateParser(Map<String, Integer> columnTypes,
          i < topBoundary(colNames, methodNumber, size); ++i) {
       String colName = colNames[i];
       int colType = columnTypes.get(colName);
-      parseColumn(colName, colType, sb);
+      String javaType = toJavaType(colName, colType);
+      String primitiveType = primitiveTypeFor(colName, javaType);
+      if (null != primitiveType) {
+        parsePrimitiveColumn(colName, javaType, primitiveType, sb);
+      } else {
+        parseColumn(colName, colType, sb);
+      }
     }
     sb.append("    } catch (RuntimeException e) {");
     sb.append("    throw new RuntimeException("
@@ -1563,6 +1892,12 @@ private void generateHadoopWrite(Map<String, Integer> columnTypes,
 
     sb.append("  public void write(DataOutput __dataOut) "
         + "throws IOException {\n");
+    if (null != nullBits) {
+      sb.append("    for (int __i = 0; __i < __sqoop$null_bits.length; "
+          + "__i++) {\n");
+      sb.append("      __dataOut.writeLong(__sqoop$null_bits[__i]);\n");
+      sb.append("    }\n");
+    }
 
     if (numberOfMethods > 1) {
       for (int i = 0; i < numberOfMethods; ++i) {
@@ -1610,6 +1945,13 @@ private void myGenerateHadoopWrite(Map<String, Integer> columnTypes,
         continue;
       }
 
+      if (null != primitiveTypeFor(col, javaType)) {
+        sb.append("    if (!" + isNullExpr("this", col) + ") {\n");
+        sb.append("  " + rpcSetterForType(javaType, "__dataOut", col));
+        sb.append("    }\n");
+        continue;
+      }
+
       String setterMethod = rpcSetterForMaybeNull(javaType, "__dataOut", col);
       if (null == setterMethod) {
         LOG.error("No RPC setter method for Java type " + javaType);
@@ -1746,14 +2088,20 @@ public void generate() throws IOException {
       }
     }
 
+    // Get the class name to generate, which includes package components.
+    String className = new TableClassName(options).getClassForTable(tableName);
+
+    if (useBytecodeBackend() && generateBytecode(columnTypes,
+        cleanedColNames, cleanedDbWriteColNames, colNames, className)) {
+      return;
+    }
+
     // Generate the Java code.
     StringBuilder sb = generateClassForColumns(columnTypes,
         cleanedColNames, cleanedDbWriteColNames, colNames);
     // Write this out to a file in the jar output directory.
     // We'll move it to the user-visible CodeOutputDir after compiling.
     String codeOutDir = options.getJarOutputDir();
-    // Get the class name to generate, which includes package components.
-    String className = new TableClassName(options).getClassForTable(tableName);
     // Convert the '.' characters to '/' characters.
     String sourceFilename = className.replace('.', File.separatorChar)
         + ".java";
@@ -1806,6 +2154,135 @@ public void generate() throws IOException {
     }
   }
 
+  /**
+   * @return true if the record class should be emitted as bytecode rather
+   * than compiled from source.
+   */
+  private boolean useBytecodeBackend() throws IOException {
+    String backend = options.getConf().get(PROPERTY_CODEGEN_BACKEND,
+        CODEGEN_BACKEND_JAVAC);
+    if (CODEGEN_BACKEND_BYTECODE.equals(backend)) {
+      return true;
+    } else if (!CODEGEN_BACKEND_JAVAC.equals(backend)) {
+      throw new IOException("Unknown code generation backend: " + backend);
+    }
+    if (null == ToolProvider.getSystemJavaCompiler()) {
+      LOG.info("No Java compiler is available; generating the record class "
+          + "bytecode directly");
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Emit the record class as a subclass of SchemaSqoopRecord and hand it to
+   * the CompilationManager. No source file is written.
+   * @return false if the columns need a compiled record class.
+   */
+  private boolean generateBytecode(Map<String, Integer> columnTypes,
+      String [] colNames, String [] dbWriteColNames, String [] rawColNames,
+      String className) {
+    SchemaSqoopRecord.Schema schema = createRecordSchema(columnTypes,
+        colNames, dbWriteColNames, rawColNames);
+    if (null == schema) {
+      LOG.info("Compiling the record class");
+      return false;
+    }
+    if (primitiveFields) {
+      LOG.info("Bytecode record classes have no primitive fields; ignoring "
+          + PROPERTY_CODEGEN_PRIMITIVE_FIELDS);
+    }
+
+    byte [] classBytes;
+    try {
+      classBytes = RecordClassEmitter.emit(className, schema.encode());
+    } catch (IOException ioe) {
+      LOG.info("Cannot emit the record class bytecode (" + ioe.getMessage()
+          + "); compiling the record class");
+      return false;
+    }
+    LOG.info("Generated record class " + className + " as bytecode");
+    compileManager.addClassFile(className, classBytes);
+    return true;
+  }
+
+  /**
+   * @return the schema of a bytecode record class for the columns, or
+   * null if they need a compiled record class.
+   */
+  private SchemaSqoopRecord.Schema createRecordSchema(
+      Map<String, Integer> columnTypes, String [] colNames,
+      String [] dbWriteColNames, String [] rawColNames) {
+    String [] javaTypes = new String[colNames.length];
+    int [] sqlTypes = new int[colNames.length];
+    Map<String, Integer> fieldIndexes = new HashMap<String, Integer>();
+    for (int i = 0; i < colNames.length; i++) {
+      sqlTypes[i] = columnTypes.get(colNames[i]);
+      javaTypes[i] = toJavaType(colNames[i], sqlTypes[i]);
+      if (null == javaTypes[i]
+          || !SchemaSqoopRecord.Schema.isSupportedType(javaTypes[i])) {
+        LOG.info("Column " + rawColNames[i] + " of Java type "
+            + javaTypes[i] + " has no record schema type");
+        return null;
+      }
+      fieldIndexes.put(colNames[i], i);
+    }
+    int [] dbWriteFields = new int[dbWriteColNames.length];
+    for (int i = 0; i < dbWriteColNames.length; i++) {
+      Integer index = fieldIndexes.get(dbWriteColNames[i]);
+      if (null == index) {
+        LOG.info("Output column " + dbWriteColNames[i] + " is not a field "
+            + "of the record schema");
+        return null;
+      }
+      dbWriteFields[i] = index;
+    }
+
+    SchemaSqoopRecord.Schema schema = new SchemaSqoopRecord.Schema(
+        CLASS_WRITER_VERSION, rawColNames, javaTypes, sqlTypes,
+        dbWriteFields);
+    schema.setOutputDelimiters(options.getOutputDelimiters());
+    schema.setInputDelimiters(options.getInputDelimiters());
+    schema.setNullStrings(literalValue(options.getNullStringValue()),
+        literalValue(options.getNullNonStringValue()),
+        literalValue(options.getInNullStringValue()),
+        literalValue(options.getInNullNonStringValue()));
+    schema.setBigDecimalPlainString(bigDecimalFormatString);
+    schema.setHiveDelims(options.doHiveDropDelims(),
+        null == options.getHiveDelimsReplacement() ? null
+            : literalValue(options.getHiveDelimsReplacement()));
+    return schema;
+  }
+
+  /**
+   * @return the schema of the record class of the table as a bytecode
+   * record class would hold it, or null if its columns need a compiled
+   * record class.
+   */
+  public SchemaSqoopRecord.Schema getRecordSchema() throws IOException {
+    Map<String, Integer> columnTypes = getColumnTypes();
+    if (columnTypes == null) {
+      throw new IOException("No columns to generate for ClassWriter");
+    }
+    String [] colNames = getColumnNames(columnTypes);
+    String [] cleanedColNames = cleanColNames(colNames);
+    for (int i = 0; i < colNames.length; i++) {
+      columnTypes.put(cleanedColNames[i], columnTypes.get(colNames[i]));
+    }
+    String [] dbWriteColNames = options.getDbOutputColumns();
+    return createRecordSchema(columnTypes, cleanedColNames,
+        null == dbWriteColNames ? cleanedColNames
+            : cleanColNames(dbWriteColNames), colNames);
+  }
+
+  /**
+   * @return the value of a string option as the Java string literal the
+   * generated source embeds it in.
+   */
+  private static String literalValue(String option) {
+    return StringEscapeUtils.unescapeJava(String.valueOf(option));
+  }
+
   protected String[] getColumnNames(Map<String, Integer> columnTypes) {
     String [] colNames = options.getColumns();
     if (null == colNames) {
@@ -1947,6 +2424,10 @@ private StringBuilder generateClassForColumns(
     sb.append("  }");
     sb.append("  protected ResultSet __cur_result_set;\n");
     sb.append("  private Map<String, FieldSetterCommand> setters = new HashMap<String, FieldSetterCommand>();\n");
+    assignNullBits(columnTypes, colNames);
+    generateNullBitmap(sb);
+    sb.append("  private FieldSetterCommand[] __sqoop$indexed_setters = new FieldSetterCommand["
+        + colNames.length + "];\n");
     generateConstructorAndInitMethods(columnTypes, colNames, rawColNames, className, sb);
     generateFields(columnTypes, colNames, className, sb);
     generateEquals(columnTypes, colNames, className, sb);
@@ -1959,6 +2440,7 @@ private StringBuilder generateClassForColumns(
     generateParser(columnTypes, colNames, sb);
     generateCloneMethod(columnTypes, colNames, sb);
     generateGetFieldMap(columnTypes, colNames, rawColNames, sb);
+    generateGetFieldValues(columnTypes, colNames, rawColNames, sb);
     generateSetField(columnTypes, colNames, rawColNames, sb);
 
     // TODO(aaron): Generate hashCode(), compareTo(), equals() so it can be a
@@ -26,7 +26,9 @@
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.jar.JarOutputStream;
 import java.util.zip.ZipEntry;
 
@@ -53,6 +55,9 @@
  *
  * Also embeds this program's jar into the lib/ directory inside the compiled
  * jar to ensure that the job runs correctly.
+ *
+ * Classes whose bytecode was generated directly are added to the jar as they
+ * are, without being compiled.
  */
 public class CompilationManager {
 
@@ -68,16 +73,27 @@ public class CompilationManager {
 
   private SqoopOptions options;
   private List<String> sources;
+  private Map<String, byte[]> classFiles;
 
   public CompilationManager(final SqoopOptions opts) {
     options = opts;
     sources = new ArrayList<String>();
+    classFiles = new LinkedHashMap<String, byte[]>();
   }
 
   public void addSourceFile(String sourceName) {
     sources.add(sourceName);
   }
 
+  /**
+   * Add an already generated class to the jar.
+   * @param className the binary name of the class.
+   * @param classBytes the contents of its class file.
+   */
+  public void addClassFile(String className, byte[] classBytes) {
+    classFiles.put(className, classBytes);
+  }
+
   /**
    * locate the hadoop-*-core.jar in $HADOOP_MAPRED_HOME or
    * --hadoop-mapred-home.
@@ -143,6 +159,11 @@ public void compile() throws IOException {
       LOG.debug("Found existing " + jarOutDir);
     }
 
+    if (sources.isEmpty() && !classFiles.isEmpty()) {
+      LOG.debug("No source files to compile");
+      return;
+    }
+
     // Make sure jarOutDir ends with a '/'.
     if (!jarOutDir.endsWith(File.separator)) {
       jarOutDir = jarOutDir + File.separator;
@@ -275,6 +296,10 @@ public String getJarFilename() {
       String [] parts = basename.split("\\.");
       String preExtPart = parts[0];
       return jarOutDir + preExtPart + ".jar";
+    } else if (this.sources.isEmpty() && this.classFiles.size() == 1) {
+      String className = this.classFiles.keySet().iterator().next();
+      return jarOutDir + className.substring(className.lastIndexOf('.') + 1)
+          + ".jar";
     } else {
       return jarOutDir + DEFAULT_CODEGEN_JAR_NAME;
     }
@@ -376,6 +401,14 @@ public void jar() throws IOException {
       jstream = new JarOutputStream(fstream);
 
       addClassFilesFromDir(new File(jarOutDir), jstream);
+      for (Map.Entry<String, byte[]> classFile : classFiles.entrySet()) {
+        String entryName = classFile.getKey().replace('.', '/')
+            + CLASS_EXTENSION;
+        LOG.debug("Got generated class: " + entryName);
+        jstream.putNextEntry(new ZipEntry(entryName));
+        jstream.write(classFile.getValue());
+        jstream.closeEntry();
+      }
       jstream.finish();
     } finally {
       if (null != jstream) {
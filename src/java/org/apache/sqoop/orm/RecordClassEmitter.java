@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.orm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+
+import org.apache.sqoop.lib.SchemaSqoopRecord;
+
+/**
+ * Emits the bytecode of a record class without compiling any source.
+ *
+ * The class is the equivalent of
+ * <pre>
+ * public class &lt;name&gt; extends SchemaSqoopRecord {
+ *   public &lt;name&gt;() {
+ *     super("&lt;schema&gt;");
+ *   }
+ * }
+ * </pre>
+ * so the class file has a fixed layout; only the two strings change.
+ */
+public final class RecordClassEmitter {
+
+  private static final int MAGIC = 0xCAFEBABE;
+  // Java 7 class files; the constructor has no branches, so it needs no
+  // stack map frames.
+  private static final int MAJOR_VERSION = 51;
+
+  private static final int ACC_PUBLIC = 0x0001;
+  private static final int ACC_SUPER = 0x0020;
+
+  private static final int CONSTANT_UTF8 = 1;
+  private static final int CONSTANT_CLASS = 7;
+  private static final int CONSTANT_STRING = 8;
+  private static final int CONSTANT_METHODREF = 10;
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+  // Constant pool indexes.
+  private static final int THIS_CLASS = 2;
+  private static final int SUPER_CLASS = 4;
+  private static final int INIT_NAME = 5;
+  private static final int VOID_DESCRIPTOR = 6;
+  private static final int SUPER_INIT = 9;
+  private static final int SCHEMA_STRING = 11;
+  private static final int CODE_NAME = 12;
+  private static final int CONSTANT_POOL_COUNT = 13;
+
+  private static final int ALOAD_0 = 0x2a;
+  private static final int LDC = 0x12;
+  private static final int INVOKESPECIAL = 0xb7;
+  private static final int RETURN = 0xb1;
+
+  private RecordClassEmitter() {
+  }
+
+  /**
+   * @param className the binary name of the class, e.g. "com.foo.Bar".
+   * @param encodedSchema the schema of the records, as returned by
+   *        SchemaSqoopRecord.Schema.encode().
+   * @return the contents of the class file.
+   * @throws IOException if the schema is too large for a class file
+   * constant.
+   */
+  public static byte [] emit(String className, String encodedSchema)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+
+    out.writeInt(MAGIC);
+    out.writeShort(0);
+    out.writeShort(MAJOR_VERSION);
+
+    out.writeShort(CONSTANT_POOL_COUNT);
+    writeUtf8(out, className.replace('.', '/'));               // 1
+    writeClass(out, 1);                                         // 2
+    writeUtf8(out,
+        SchemaSqoopRecord.class.getName().replace('.', '/'));  // 3
+    writeClass(out, 3);                                         // 4
+    writeUtf8(out, "<init>");                                   // 5
+    writeUtf8(out, "()V");                                      // 6
+    writeUtf8(out, "(Ljava/lang/String;)V");                    // 7
+    out.writeByte(CONSTANT_NAME_AND_TYPE);                      // 8
+    out.writeShort(INIT_NAME);
+    out.writeShort(7);
+    out.writeByte(CONSTANT_METHODREF);                          // 9
+    out.writeShort(SUPER_CLASS);
+    out.writeShort(8);
+    try {
+      writeUtf8(out, encodedSchema);                            // 10
+    } catch (UTFDataFormatException e) {
+      throw new IOException("Record schema of " + encodedSchema.length()
+          + " characters is too large for a class file", e);
+    }
+    out.writeByte(CONSTANT_STRING);                             // 11
+    out.writeShort(10);
+    writeUtf8(out, "Code");                                     // 12
+
+    out.writeShort(ACC_PUBLIC | ACC_SUPER);
+    out.writeShort(THIS_CLASS);
+    out.writeShort(SUPER_CLASS);
+    out.writeShort(0); // interfaces
+    out.writeShort(0); // fields
+
+    out.writeShort(1); // methods
+    out.writeShort(ACC_PUBLIC);
+    out.writeShort(INIT_NAME);
+    out.writeShort(VOID_DESCRIPTOR);
+    out.writeShort(1); // method attributes
+
+    byte [] code = {
+      (byte) ALOAD_0,
+      (byte) LDC, (byte) SCHEMA_STRING,
+      (byte) INVOKESPECIAL, (byte) (SUPER_INIT >> 8), (byte) SUPER_INIT,
+      (byte) RETURN,
+    };
+    out.writeShort(CODE_NAME);
+    out.writeInt(12 + code.length);
+    out.writeShort(2); // max stack
+    out.writeShort(1); // max locals
+    out.writeInt(code.length);
+    out.write(code);
+    out.writeShort(0); // exception table
+    out.writeShort(0); // code attributes
+
+    out.writeShort(0); // class attributes
+    out.close();
+    return bytes.toByteArray();
+  }
+
+  private static void writeUtf8(DataOutputStream out, String str)
+      throws IOException {
+    // writeUTF() writes the length and modified UTF-8 the class file
+    // format uses.
+    out.writeByte(CONSTANT_UTF8);
+    out.writeUTF(str);
+  }
+
+  private static void writeClass(DataOutputStream out, int nameIndex)
+      throws IOException {
+    out.writeByte(CONSTANT_CLASS);
+    out.writeShort(nameIndex);
+  }
+}
@@ -83,6 +83,7 @@ public abstract class BaseSqoopTool extends com.cloudera.sqoop.tool.SqoopTool {
   public static final String TABLE_ARG = "table";
   public static final String STAGING_TABLE_ARG = "staging-table";
   public static final String CLEAR_STAGING_TABLE_ARG = "clear-staging-table";
+  public static final String SPLIT_COMMIT_TABLE_ARG = "split-commit-table";
   public static final String COLUMNS_ARG = "columns";
   public static final String SPLIT_BY_ARG = "split-by";
   public static final String SPLIT_LIMIT_ARG = "split-limit";
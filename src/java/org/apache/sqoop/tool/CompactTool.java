@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.tool;
+
+import java.io.IOException;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.OptionBuilder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.util.StringUtils;
+import com.cloudera.sqoop.SqoopOptions;
+import com.cloudera.sqoop.SqoopOptions.InvalidOptionsException;
+import com.cloudera.sqoop.cli.RelatedOptions;
+import com.cloudera.sqoop.cli.ToolOptions;
+import org.apache.sqoop.mapreduce.CompactJob;
+import org.apache.sqoop.util.LoggingUtils;
+
+/**
+ * Tool that compacts the small files of an imported dataset.
+ */
+public class CompactTool extends com.cloudera.sqoop.tool.BaseSqoopTool {
+
+  public static final Log LOG = LogFactory.getLog(CompactTool.class.getName());
+
+  public CompactTool() {
+    this("compact");
+  }
+
+  public CompactTool(String toolName) {
+    super(toolName);
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public int run(SqoopOptions options) {
+    try {
+      // Configure and execute a MapReduce job to compact the dataset.
+      CompactJob compactJob = new CompactJob(options);
+      if (!compactJob.runCompactJob()) {
+        LOG.error("MapReduce job failed!");
+        return 1;
+      }
+    } catch (IOException ioe) {
+      LOG.error("Encountered IOException running compact job: "
+          + StringUtils.stringifyException(ioe));
+      rethrowIfRequired(options, ioe);
+      return 1;
+    }
+
+    return 0;
+  }
+
+  /**
+   * Construct the set of options that control compaction.
+   * @return the RelatedOptions that can be used to parse the compact
+   * arguments.
+   */
+  protected RelatedOptions getCompactOptions() {
+    RelatedOptions compactOpts = new RelatedOptions("Compact arguments");
+
+    compactOpts.addOption(OptionBuilder.withArgName("file")
+        .hasArg().withDescription("Load class from specified jar file")
+        .withLongOpt(JAR_FILE_NAME_ARG)
+        .create());
+
+    compactOpts.addOption(OptionBuilder.withArgName("name")
+        .hasArg().withDescription("Specify record class name to load")
+        .withLongOpt(CLASS_NAME_ARG)
+        .create());
+
+    compactOpts.addOption(OptionBuilder.withArgName("path")
+        .hasArg().withDescription("Path to the data set to compact")
+        .withLongOpt(TARGET_DIR_ARG)
+        .create());
+
+    // Since the "common" options aren't used in the compact tool,
+    // add these settings here.
+    compactOpts.addOption(OptionBuilder
+        .withDescription("Print more information while working")
+        .withLongOpt(VERBOSE_ARG)
+        .create());
+    compactOpts.addOption(OptionBuilder
+        .withDescription("Print usage instructions")
+        .withLongOpt(HELP_ARG)
+        .create());
+
+    return compactOpts;
+  }
+
+
+  @Override
+  /** Configure the command-line arguments we expect to receive */
+  public void configureOptions(ToolOptions toolOptions) {
+    toolOptions.addUniqueOptions(getCompactOptions());
+  }
+
+
+  @Override
+  /** {@inheritDoc} */
+  public void applyOptions(CommandLine in, SqoopOptions out)
+      throws InvalidOptionsException {
+
+    if (in.hasOption(VERBOSE_ARG)) {
+      LoggingUtils.setDebugLevel();
+      LOG.debug("Enabled debug logging.");
+    }
+
+    if (in.hasOption(HELP_ARG)) {
+      ToolOptions toolOpts = new ToolOptions();
+      configureOptions(toolOpts);
+      printHelp(toolOpts);
+      throw new InvalidOptionsException("");
+    }
+
+    if (in.hasOption(JAR_FILE_NAME_ARG)) {
+      out.setExistingJarName(in.getOptionValue(JAR_FILE_NAME_ARG));
+    }
+
+    if (in.hasOption(CLASS_NAME_ARG)) {
+      out.setClassName(in.getOptionValue(CLASS_NAME_ARG));
+    }
+
+    if (in.hasOption(TARGET_DIR_ARG)) {
+      out.setTargetDir(in.getOptionValue(TARGET_DIR_ARG));
+    }
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public void validateOptions(SqoopOptions options)
+      throws InvalidOptionsException {
+
+    if (hasUnrecognizedArgs(extraArguments)) {
+      throw new InvalidOptionsException(HELP_STR);
+    }
+
+    if (options.getTargetDir() == null) {
+      throw new InvalidOptionsException("Must set the directory to compact "
+          + "with --" + TARGET_DIR_ARG + "." + HELP_STR);
+    }
+  }
+}
@@ -159,6 +159,11 @@ protected RelatedOptions getExportOptions() {
         + "staging table can be deleted")
         .withLongOpt(CLEAR_STAGING_TABLE_ARG)
         .create());
+    exportOpts.addOption(OptionBuilder.withArgName("table-name")
+        .hasArg().withDescription("Table recording the committed splits, "
+        + "used to commit each split once without a staging table")
+        .withLongOpt(SPLIT_COMMIT_TABLE_ARG)
+        .create());
     exportOpts.addOption(OptionBuilder
         .withDescription("Indicates underlying statements "
         + "to be executed in batch mode")
@@ -275,6 +280,10 @@ public void applyOptions(CommandLine in, SqoopOptions out)
         out.setClearStagingTable(true);
       }
 
+      if (in.hasOption(SPLIT_COMMIT_TABLE_ARG)) {
+        out.setSplitCommitTable(in.getOptionValue(SPLIT_COMMIT_TABLE_ARG));
+      }
+
       if (in.hasOption(CALL_ARG)) {
           out.setCall(in.getOptionValue(CALL_ARG));
       }
@@ -343,6 +352,20 @@ protected void validateExportOptions(SqoopOptions options)
       throw new InvalidOptionsException(
           "Option the use a staging table is "
           + "specified as well as a call option.");
+    } else if (options.getSplitCommitTable() != null
+        && (options.getStagingTableName() != null
+        || options.getUpdateKeyCol() != null || options.getCall() != null
+        || options.isDirect())) {
+      // Split commits rely on the generic insert path committing each
+      // task's rows in a single transaction.
+      throw new InvalidOptionsException("Split commit table cannot be used "
+          + "with a staging table, in update mode, with --call or in direct "
+          + "mode.");
+    } else if (options.getSplitCommitTable() != null
+        && options.getSplitCommitTable().equalsIgnoreCase(
+            options.getTableName())) {
+      throw new InvalidOptionsException("Split commit table cannot be the "
+          + "same as the destination table.");
     } else if (options.getCall() != null && options.getUpdateKeyCol() != null) {
         throw new InvalidOptionsException(
           "Option to call a stored procedure"
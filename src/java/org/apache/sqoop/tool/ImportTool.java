@@ -25,6 +25,7 @@
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -37,6 +38,9 @@
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.util.StringUtils;
 import org.apache.sqoop.avro.AvroSchemaMismatchException;
+import org.apache.sqoop.mapreduce.db.SplitBounds;
+import org.apache.sqoop.util.RangeDigestSync;
+import org.apache.sqoop.util.RangeDigests;
 
 import com.cloudera.sqoop.SqoopOptions;
 import com.cloudera.sqoop.SqoopOptions.InvalidOptionsException;
@@ -74,6 +78,14 @@ public class ImportTool extends com.cloudera.sqoop.tool.BaseSqoopTool {
   // store check column type for incremental option
   private int checkColumnType;
 
+  // bounds of the split column found with the incremental import bounds,
+  // and the split column as the input format is configured with it
+  private SplitBounds splitBounds;
+  private String splitBoundsColumn;
+
+  // range digests of the table to keep with a digest import
+  private RangeDigests rangeDigests;
+
   // Set classloader for local job runner
   private ClassLoader prevClassLoader = null;
 
@@ -188,12 +200,17 @@ private void saveIncrementalState(SqoopOptions options)
       case DateLastModified:
         LOG.info(" --incremental lastmodified");
         break;
+      case DigestRanges:
+        LOG.info(" --incremental digest");
+        break;
       default:
         LOG.warn("Undefined incremental mode: " + incrementalMode);
         break;
       }
       LOG.info("  --check-column " + options.getIncrementalTestColumn());
-      LOG.info("  --last-value " + options.getIncrementalLastValue());
+      if (incrementalMode != SqoopOptions.IncrementalMode.DigestRanges) {
+        LOG.info("  --last-value " + options.getIncrementalLastValue());
+      }
       LOG.info("(Consider saving this with 'sqoop job --create')");
     }
   }
@@ -201,30 +218,72 @@ private void saveIncrementalState(SqoopOptions options)
   /**
    * Return the max value in the incremental-import test column. This
    * value must be numeric.
+   *
+   * If a split column is given, the same query finds the bounds of the
+   * split column and the number of the rows after the previous endpoint,
+   * which are kept in splitBounds for the input format to split on.
+   * @param splitCol the split column, or null.
+   * @param prevEndpoint the max value of the previous import, or null.
    */
-  private Object getMaxColumnId(SqoopOptions options) throws SQLException {
+  private Object getMaxColumnId(SqoopOptions options, String splitCol,
+      String prevEndpoint) throws SQLException {
     StringBuilder sb = new StringBuilder();
     String query;
+    String checkCol = manager.escapeColName(options.getIncrementalTestColumn());
+    String alias = "sqoop_import_query_alias";
 
     sb.append("SELECT MAX(");
-    sb.append(manager.escapeColName(options.getIncrementalTestColumn()));
-    sb.append(") FROM ");
+    sb.append(checkCol);
+    sb.append(")");
+    if (null != splitCol) {
+      String boundsCol = splitCol;
+      if (options.getTableName() != null) {
+        boundsCol = manager.escapeColName(splitCol);
+      } else if (splitCol.lastIndexOf('.') >= 0) {
+        // Qualify the column by the alias of the query instead.
+        boundsCol = alias + splitCol.substring(splitCol.lastIndexOf('.'));
+      }
+      sb.append(", MIN(").append(boundsCol).append(")");
+      sb.append(", MAX(").append(boundsCol).append(")");
+      sb.append(", COUNT(*)");
+    }
+    sb.append(" FROM ");
+
+    // The bounds are of the rows after the previous endpoint only.
+    String after = null;
+    if (null != splitCol && null != prevEndpoint) {
+      after = checkCol + " > " + prevEndpoint;
+    }
 
     if (options.getTableName() != null) {
       // Table import
       sb.append(manager.escapeTableName(options.getTableName()));
 
       String where = options.getWhereClause();
-      if (null != where) {
+      if (null != where && null != after) {
+        sb.append(" WHERE ");
+        sb.append(after);
+        sb.append(" AND (");
+        sb.append(where);
+        sb.append(")");
+      } else if (null != where) {
         sb.append(" WHERE ");
         sb.append(where);
+      } else if (null != after) {
+        sb.append(" WHERE ");
+        sb.append(after);
       }
       query = sb.toString();
     } else {
       // Free form table based import
       sb.append("(");
       sb.append(options.getSqlQuery());
-      sb.append(") sqoop_import_query_alias");
+      sb.append(") ");
+      sb.append(alias);
+      if (null != after) {
+        sb.append(" WHERE ");
+        sb.append(after);
+      }
 
       query = sb.toString().replaceAll("\\$CONDITIONS", "(1 = 1)");
     }
@@ -244,6 +303,11 @@ private Object getMaxColumnId(SqoopOptions options) throws SQLException {
 
       ResultSetMetaData rsmd = rs.getMetaData();
       checkColumnType = rsmd.getColumnType(1);
+      if (null != splitCol) {
+        splitBounds = SplitBounds.fromResultSet(rs, 2, 3, rs.getLong(4));
+        splitBoundsColumn = options.getTableName() != null
+            ? manager.escapeColName(splitCol) : splitCol;
+      }
       if (checkColumnType == Types.TIMESTAMP) {
         return rs.getTimestamp(1);
       } else if (checkColumnType == Types.DATE) {
@@ -282,6 +346,44 @@ private boolean isDateTimeColumn(int columnType) {
         || (columnType == Types.TIME);
   }
 
+  /**
+   * @return the split column of an append import to find the bounds of
+   * along with the max value of the check column, or null if the input
+   * format has to find them itself or need not find them at all.
+   */
+  private String getIncrementalSplitColumn(SqoopOptions options) {
+    if (options.getNumMappers() <= 1 || options.getBoundaryQuery() != null
+        || !options.getConf().getBoolean(SplitBounds.INCREMENTAL_BOUNDS_KEY,
+            true)) {
+      return null;
+    }
+    String splitCol = options.getSplitByCol();
+    if (options.getTableName() != null) {
+      if (null == splitCol) {
+        splitCol = manager.getPrimaryKey(options.getTableName());
+      }
+    } else if (null != splitCol && null != manager.getInputBoundsQuery(
+        splitCol, options.getSqlQuery().replace("$CONDITIONS", "(1 = 1)"))) {
+      // The connection manager finds the bounds of queries its own way.
+      return null;
+    }
+    return splitCol;
+  }
+
+  /**
+   * @return a value of the check column as it is written in a query.
+   */
+  private String toQueryEndpoint(String value, int columnType) {
+    if (isDateTimeColumn(columnType) && null != value
+        && !value.startsWith("\'") && !value.endsWith("\'")) {
+      // Incremental imports based on date/time should be 'quoted' in
+      // ANSI SQL. If the user didn't specify single-quotes, put them
+      // around, here.
+      return manager.datetimeToQueryString(value, columnType);
+    }
+    return value;
+  }
+
     /**
    * Initialize the constraints which set the incremental import range.
    * @return false if an import is not necessary, because the dataset has not
@@ -301,12 +403,29 @@ private boolean initIncrementalConstraints(SqoopOptions options,
 
     SqoopOptions.IncrementalMode incrementalMode = options.getIncrementalMode();
     String nextIncrementalValue = null;
+    splitBounds = null;
+    SplitBounds.clear(options.getConf());
+    rangeDigests = null;
+    if (incrementalMode == SqoopOptions.IncrementalMode.DigestRanges) {
+      return initDigestConstraints(options);
+    }
 
     Object nextVal;
     switch (incrementalMode) {
     case AppendRows:
       try {
-        nextVal = getMaxColumnId(options);
+        String splitCol = getIncrementalSplitColumn(options);
+        String prevValue = options.getIncrementalLastValue();
+        if (null != splitCol && null != prevValue) {
+          Integer columnType = manager.getColumnTypes(options.getTableName(),
+              options.getSqlQuery()).get(options.getIncrementalTestColumn());
+          if (null == columnType) {
+            splitCol = null;
+          } else {
+            prevValue = toQueryEndpoint(prevValue, columnType);
+          }
+        }
+        nextVal = getMaxColumnId(options, splitCol, prevValue);
         if (isDateTimeColumn(checkColumnType)) {
           nextIncrementalValue = (nextVal == null) ? null
             : manager.datetimeToQueryString(nextVal.toString(),
@@ -318,6 +437,11 @@ private boolean initIncrementalConstraints(SqoopOptions options,
         } else {
           nextIncrementalValue = (nextVal == null) ? null : nextVal.toString();
         }
+        if (null != splitCol && null != prevValue && null == nextVal) {
+          // No rows are after the previous endpoint.
+          LOG.info("No new rows detected since last import.");
+          return false;
+        }
       } catch (SQLException sqlE) {
         throw new IOException(sqlE);
       }
@@ -349,16 +473,8 @@ private boolean initIncrementalConstraints(SqoopOptions options,
     // Build the WHERE clause components that are used to import
     // only this incremental section.
     StringBuilder sb = new StringBuilder();
-    String prevEndpoint = options.getIncrementalLastValue();
-
-    if (isDateTimeColumn(checkColumnType) && null != prevEndpoint
-        && !prevEndpoint.startsWith("\'") && !prevEndpoint.endsWith("\'")) {
-      // Incremental imports based on date/time should be 'quoted' in
-      // ANSI SQL. If the user didn't specify single-quotes, put them
-      // around, here.
-      prevEndpoint = manager.datetimeToQueryString(prevEndpoint,
-          checkColumnType);
-    }
+    String prevEndpoint = toQueryEndpoint(options.getIncrementalLastValue(),
+        checkColumnType);
 
     String checkColName = manager.escapeColName(
         options.getIncrementalTestColumn());
@@ -422,6 +538,12 @@ private boolean initIncrementalConstraints(SqoopOptions options,
         "$CONDITIONS", sb.toString());
       options.setSqlQuery(newQuery);
     }
+    if (null != splitBounds) {
+      // The input format splits this input on the bounds.
+      splitBounds.store(options.getConf(), splitBoundsColumn,
+          options.getTableName() != null ? options.getWhereClause()
+          : options.getSqlQuery());
+    }
     // Save this state for next time.
     SqoopOptions recordOptions = options.getParent();
     if (null == recordOptions) {
@@ -433,6 +555,83 @@ private boolean initIncrementalConstraints(SqoopOptions options,
     return true;
   }
 
+  /**
+   * Initialize the constraints of a digest import, which imports the key
+   * ranges whose digests changed since the previous import.
+   * @return false if an import is not necessary, because no range changed.
+   */
+  private boolean initDigestConstraints(SqoopOptions options)
+      throws ImportException, IOException {
+    String tableName = options.getTableName();
+    String keyCol = options.getIncrementalTestColumn();
+    Integer keyType = manager.getColumnTypes(tableName, null).get(keyCol);
+    if (null == keyType || (keyType != Types.TINYINT
+        && keyType != Types.SMALLINT && keyType != Types.INTEGER
+        && keyType != Types.BIGINT)) {
+      throw new ImportException("The check column " + keyCol + " of a "
+          + "digest import must be an integer column of " + tableName);
+    }
+    String [] colNames = options.getColumns();
+    if (null == colNames) {
+      colNames = manager.getColumnNames(tableName);
+    }
+
+    Path targetDir = getOutputPath(options, tableName, false);
+    FileSystem fs = targetDir.getFileSystem(options.getConf());
+    RangeDigests previous = RangeDigests.read(fs,
+        new Path(targetDir, RangeDigests.FILE_NAME));
+    if (null == previous && fs.exists(targetDir)) {
+      LOG.info("No range digests in " + targetDir + "; replacing it with "
+          + "a full import");
+    }
+
+    if (null == manager.getRowHashExpression(colNames)) {
+      throw new ImportException("Digests of rows are not supported by "
+          + manager.getClass().getName());
+    }
+    List<long[]> changed;
+    try {
+      RangeDigestSync sync = new RangeDigestSync(manager, tableName, keyCol,
+          colNames, options.getWhereClause(), options.getConf());
+      changed = sync.findChangedRanges(previous);
+      rangeDigests = sync.getDigests();
+    } catch (SQLException sqlE) {
+      throw new IOException(sqlE);
+    }
+
+    if (null == changed) {
+      // Everything is imported, and replaces any existing records.
+      changed = new ArrayList<long[]>();
+      changed.add(new long[] { Long.MIN_VALUE, Long.MAX_VALUE });
+    } else if (changed.isEmpty()) {
+      LOG.info("No changed key ranges detected since last import.");
+      return false;
+    } else {
+      String where = RangeDigestSync.toCondition(
+          manager.escapeColName(keyCol), changed);
+      if (null != options.getWhereClause()) {
+        where = where + " AND (" + options.getWhereClause() + ")";
+      }
+      options.setWhereClause(where);
+    }
+    // Deleted rows leave no records to merge, so the changed ranges of the
+    // existing records are dropped altogether.
+    options.getConf().set(MergeJob.MERGE_REPLACED_RANGES_KEY,
+        RangeDigestSync.formatRanges(changed));
+    options.setMergeKeyCol(keyCol);
+    return true;
+  }
+
+  /**
+   * Keep the range digests of a digest import with its records.
+   */
+  private void writeRangeDigests(FileSystem fs, Path dir)
+      throws IOException {
+    if (null != rangeDigests) {
+      rangeDigests.write(fs, new Path(dir, RangeDigests.FILE_NAME));
+    }
+  }
+
   /**
    * Merge HDFS output directories
    */
@@ -469,6 +668,7 @@ protected void lastModifiedMerge(SqoopOptions options, ImportJobContext context)
           fs.rename(userDestDir, tmpDir);
           fs.rename(destDir, userDestDir);
           fs.delete(tmpDir, true);
+          writeRangeDigests(fs, userDestDir);
         } else {
           LOG.error("Merge MapReduce job failed!");
         }
@@ -485,6 +685,7 @@ protected void lastModifiedMerge(SqoopOptions options, ImportJobContext context)
         if(!fs.rename(context.getDestination(), userDestDir)) {
           throw new RuntimeException("Couldn't move data from temporary directory " + context.getDestination() + " to final destination " + userDestDir);
         }
+        writeRangeDigests(fs, userDestDir);
       }
     }
   }
@@ -525,7 +726,8 @@ protected boolean importTable(SqoopOptions options, String tableName,
     if (options.isAppendMode()) {
       AppendUtils app = new AppendUtils(context);
       app.append();
-    } else if (options.getIncrementalMode() == SqoopOptions.IncrementalMode.DateLastModified) {
+    } else if (options.getIncrementalMode() == SqoopOptions.IncrementalMode.DateLastModified
+        || options.getIncrementalMode() == SqoopOptions.IncrementalMode.DigestRanges) {
       lastModifiedMerge(options, context);
     }
 
@@ -566,7 +768,8 @@ private void deleteTargetDir(ImportJobContext context) throws IOException {
    */
   private Path getOutputPath(SqoopOptions options, String tableName) {
     return getOutputPath(options, tableName, options.isAppendMode()
-        || options.getIncrementalMode().equals(SqoopOptions.IncrementalMode.DateLastModified));
+        || options.getIncrementalMode().equals(SqoopOptions.IncrementalMode.DateLastModified)
+        || options.getIncrementalMode().equals(SqoopOptions.IncrementalMode.DigestRanges));
   }
 
   /**
@@ -793,7 +996,8 @@ protected RelatedOptions getIncrementalOptions() {
     incrementalOpts.addOption(OptionBuilder.withArgName("import-type")
         .hasArg()
         .withDescription(
-        "Define an incremental import of type 'append' or 'lastmodified'")
+        "Define an incremental import of type 'append', 'lastmodified' "
+        + "or 'digest'")
         .withLongOpt(INCREMENT_TYPE_ARG)
         .create());
     incrementalOpts.addOption(OptionBuilder.withArgName("column")
@@ -868,10 +1072,12 @@ private void applyIncrementalOptions(CommandLine in, SqoopOptions out)
         out.setAppendMode(true);
       } else if ("lastmodified".equals(incrementalTypeStr)) {
         out.setIncrementalMode(SqoopOptions.IncrementalMode.DateLastModified);
+      } else if ("digest".equals(incrementalTypeStr)) {
+        out.setIncrementalMode(SqoopOptions.IncrementalMode.DigestRanges);
       } else {
         throw new InvalidOptionsException("Unknown incremental import mode: "
-            + incrementalTypeStr + ". Use 'append' or 'lastmodified'."
-            + HELP_STR);
+            + incrementalTypeStr + ". Use 'append', 'lastmodified' or "
+            + "'digest'." + HELP_STR);
       }
     }
 
@@ -1153,6 +1359,36 @@ private void validateIncrementalOptions(SqoopOptions options)
           + INCREMENT_TYPE_ARG + " lastmodified cannot be used in conjunction with --"
           + FMT_AVRODATAFILE_ARG + "." + HELP_STR);
     }
+
+    if (options.getIncrementalMode()
+        == SqoopOptions.IncrementalMode.DigestRanges) {
+      if (options.getTableName() == null) {
+        throw new InvalidOptionsException("--" + INCREMENT_TYPE_ARG
+            + " digest requires --" + TABLE_ARG + "." + HELP_STR);
+      } else if (options.isAppendMode()) {
+        throw new InvalidOptionsException("--" + INCREMENT_TYPE_ARG
+            + " digest cannot be used in conjunction with --" + APPEND_ARG
+            + "." + HELP_STR);
+      } else if (options.doHiveImport()) {
+        throw new InvalidOptionsException("--" + INCREMENT_TYPE_ARG
+            + " digest cannot be used in conjunction with --"
+            + HIVE_IMPORT_ARG + "." + HELP_STR);
+      } else if (options.getFileLayout()
+          == SqoopOptions.FileLayout.AvroDataFile) {
+        throw new InvalidOptionsException("--" + INCREMENT_TYPE_ARG
+            + " digest cannot be used in conjunction with --"
+            + FMT_AVRODATAFILE_ARG + "." + HELP_STR);
+      } else if (options.getMergeKeyCol() != null
+          && !options.getMergeKeyCol().equals(
+              options.getIncrementalTestColumn())) {
+        // The changed ranges are ranges of the check column, and replace
+        // the records with those keys.
+        throw new InvalidOptionsException("--" + INCREMENT_TYPE_ARG
+            + " digest merges by its --" + INCREMENT_COL_ARG
+            + "; --" + MERGE_KEY_ARG + " must be the same column."
+            + HELP_STR);
+      }
+    }
   }
 
   @Override
@@ -18,6 +18,8 @@
 
 package org.apache.sqoop.tool;
 
+import java.io.File;
+
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.OptionBuilder;
 import org.apache.commons.logging.Log;
@@ -39,6 +41,7 @@ public class MainframeImportTool extends ImportTool {
   public static final String DS_ARG = "dataset";
   public static final String DS_TYPE_ARG = "datasettype";
   public static final String DS_TAPE_ARG = "tape";
+  public static final String RECORD_LAYOUT_ARG = "record-layout";
 
   public MainframeImportTool() {
     super("import-mainframe", false);
@@ -70,6 +73,12 @@ protected RelatedOptions getImportOptions() {
     		.hasArg().withDescription("Dataset is on tape (true|false)")
     		.withLongOpt(DS_TAPE_ARG)
     		.create());
+    importOpts.addOption(OptionBuilder.withArgName("file")
+        .hasArg()
+        .withDescription("Copybook describing fixed-length records; "
+            + "enables binary transfer with typed columns")
+        .withLongOpt(RECORD_LAYOUT_ARG)
+        .create());
 
     addValidationOpts(importOpts);
 
@@ -167,6 +176,10 @@ public void applyOptions(CommandLine in, SqoopOptions out)
     	// set default tape value to false
     	out.setMainframeInputDatasetTape("false");
     }
+
+    if (in.hasOption(RECORD_LAYOUT_ARG)) {
+      out.setMainframeRecordLayout(in.getOptionValue(RECORD_LAYOUT_ARG));
+    }
   }
 
   @Override
@@ -189,6 +202,11 @@ protected void validateImportOptions(SqoopOptions options)
 		throw new InvalidOptionsException(
 				"--" + DS_TAPE_ARG + " specified is invalid. " + HELP_STR);
 	}
+    String layoutFile = options.getMainframeRecordLayout();
+    if (layoutFile != null && !new File(layoutFile).canRead()) {
+      throw new InvalidOptionsException("--" + RECORD_LAYOUT_ARG
+          + " file " + layoutFile + " cannot be read. " + HELP_STR);
+    }
     super.validateImportOptions(options);
   }
 }
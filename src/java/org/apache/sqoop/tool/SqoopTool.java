@@ -74,6 +74,8 @@ public abstract class SqoopTool {
 
     registerTool("codegen", CodeGenTool.class,
         "Generate code to interact with database records");
+    registerTool("compact", CompactTool.class,
+        "Compact the small files of an imported dataset");
     registerTool("create-hive-table", CreateHiveTableTool.class,
         "Import a table definition into Hive");
     registerTool("eval", EvalSqlTool.class,
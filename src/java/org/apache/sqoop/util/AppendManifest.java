@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * The record of the files appended to a directory, and of the partition
+ * number the next appended file gets, kept in the directory itself so
+ * that appending to it does not need to list it.
+ *
+ * The manifest is replaced by writing a new one next to it and renaming
+ * that over it; if the rename is cut short, the new manifest is read
+ * instead.
+ */
+public class AppendManifest {
+
+  public static final Log LOG = LogFactory.getLog(
+      AppendManifest.class.getName());
+
+  /** The name of the manifest file in an append dir. */
+  public static final String FILE_NAME = "_sqoop_append_manifest";
+
+  private static final String NEW_SUFFIX = ".new";
+  private static final String HEADER = "# sqoop append manifest";
+  private static final String NEXT = "next\t";
+
+  private int nextPartition;
+  private final List<String> files = new ArrayList<String>();
+
+  public AppendManifest(int nextPartition) {
+    this.nextPartition = nextPartition;
+  }
+
+  public int getNextPartition() {
+    return nextPartition;
+  }
+
+  public void setNextPartition(int nextPartition) {
+    this.nextPartition = nextPartition;
+  }
+
+  /**
+   * @return the names of the files appended to the dir, in the order they
+   * were appended.
+   */
+  public List<String> getFiles() {
+    return Collections.unmodifiableList(files);
+  }
+
+  public void addFiles(Collection<String> names) {
+    files.addAll(names);
+  }
+
+  /**
+   * @return the manifest of a dir, or null if it has none.
+   */
+  public static AppendManifest read(FileSystem fs, Path dir)
+      throws IOException {
+    Path path = new Path(dir, FILE_NAME);
+    if (!fs.exists(path)) {
+      path = new Path(dir, FILE_NAME + NEW_SUFFIX);
+      if (!fs.exists(path)) {
+        return null;
+      }
+      LOG.info("Recovering the append manifest of " + dir);
+    }
+
+    BufferedReader r = new BufferedReader(
+        new InputStreamReader(fs.open(path), "UTF-8"));
+    try {
+      String header = r.readLine();
+      String next = r.readLine();
+      if (null == header || !header.startsWith(HEADER)
+          || null == next || !next.startsWith(NEXT)) {
+        throw new IOException("Not an append manifest: " + path);
+      }
+      AppendManifest manifest = new AppendManifest(
+          Integer.parseInt(next.substring(NEXT.length())));
+      String line;
+      while (null != (line = r.readLine())) {
+        if (!line.isEmpty()) {
+          manifest.files.add(line);
+        }
+      }
+      return manifest;
+    } catch (NumberFormatException nfe) {
+      throw new IOException("Invalid partition number in " + path, nfe);
+    } finally {
+      r.close();
+    }
+  }
+
+  /**
+   * Replace the manifest of a dir with this one.
+   */
+  public void write(FileSystem fs, Path dir) throws IOException {
+    Path path = new Path(dir, FILE_NAME);
+    Path newPath = new Path(dir, FILE_NAME + NEW_SUFFIX);
+    Writer w = new BufferedWriter(
+        new OutputStreamWriter(fs.create(newPath, true), "UTF-8"));
+    try {
+      w.write(HEADER + "\n");
+      w.write(NEXT + nextPartition + "\n");
+      for (String name : files) {
+        w.write(name + "\n");
+      }
+    } finally {
+      w.close();
+    }
+
+    // rename does not replace an existing file on every filesystem.
+    if (fs.exists(path) && !fs.delete(path, false)) {
+      throw new IOException("Could not delete " + path);
+    }
+    if (!fs.rename(newPath, path)) {
+      throw new IOException("Could not rename " + newPath + " to " + path);
+    }
+  }
+}
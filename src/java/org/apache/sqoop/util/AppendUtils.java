@@ -20,7 +20,17 @@
 
 import java.io.IOException;
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -45,6 +55,17 @@ public class AppendUtils {
 
   private static final Pattern DATA_PART_PATTERN = Pattern.compile("part.*-([0-9]{" + PARTITION_DIGITS + "}+).*");
 
+  /**
+   * Whether to keep an {@link AppendManifest} in the target dir, so that
+   * the next partition number is read from it instead of found by listing
+   * the dir.
+   */
+  public static final String MANIFEST_KEY = "sqoop.append.manifest";
+
+  /** The number of threads that move the imported files in parallel. */
+  public static final String MOVE_THREADS_KEY = "sqoop.append.move.threads";
+  public static final int DEFAULT_MOVE_THREADS = 8;
+
   private ImportJobContext context = null;
 
   public AppendUtils(ImportJobContext context) {
@@ -72,7 +93,10 @@ public void append() throws IOException {
     }
     FileSystem fs = userDestDir.getFileSystem(options.getConf());
 
-    int nextPartition = 0;
+    // Hive moves the files out of the dir, and would take the manifest too.
+    boolean useManifest = !options.doHiveImport()
+        && options.getConf().getBoolean(MANIFEST_KEY, true);
+    AppendManifest manifest = null;
 
     if (!fs.exists(tempDir)) {
       // This occurs if there was no source (tmp) dir. This might happen
@@ -87,15 +111,34 @@ public void append() throws IOException {
     if (!fs.exists(userDestDir)) {
       LOG.info("Creating missing output directory - " + userDestDir.getName());
       fs.mkdirs(userDestDir);
-      nextPartition = 0;
+      manifest = new AppendManifest(0);
     } else {
       LOG.info("Appending to directory " + userDestDir.getName());
-      // Get the right next partition for the imported files
-      nextPartition = getNextPartition(fs, userDestDir);
+      if (useManifest) {
+        manifest = AppendManifest.read(fs, userDestDir);
+      }
+      if (null == manifest) {
+        // Get the right next partition for the imported files
+        List<String> existingFiles = new ArrayList<String>();
+        manifest = new AppendManifest(
+            getNextPartition(fs, userDestDir, existingFiles));
+        manifest.addFiles(existingFiles);
+      } else {
+        LOG.info("Using partition " + manifest.getNextPartition()
+            + " from the append manifest");
+      }
     }
 
     // move files
-    moveFiles(fs, tempDir, userDestDir, nextPartition);
+    List<String> movedFiles = new ArrayList<String>();
+    int nextPartition = moveFiles(fs, tempDir, userDestDir,
+        manifest.getNextPartition(), movedFiles);
+
+    if (useManifest) {
+      manifest.setNextPartition(nextPartition);
+      manifest.addFiles(movedFiles);
+      manifest.write(fs, userDestDir);
+    }
 
     // delete temporary path
     LOG.debug("Deleting temporary folder " + tempDir.getName());
@@ -104,10 +147,10 @@ public void append() throws IOException {
 
   /**
    * Returns the greatest partition number available for appending, for data
-   * files in targetDir.
+   * files in targetDir, and collects the names of the data files.
    */
-  private int getNextPartition(FileSystem fs, Path targetDir)
-      throws IOException {
+  private int getNextPartition(FileSystem fs, Path targetDir,
+      Collection<String> dataFiles) throws IOException {
 
     int nextPartition = 0;
     FileStatus[] existingFiles = fs.listStatus(targetDir);
@@ -117,6 +160,7 @@ private int getNextPartition(FileSystem fs, Path targetDir)
           String filename = fileStat.getPath().getName();
           Matcher mat = DATA_PART_PATTERN.matcher(filename);
           if (mat.matches()) {
+            dataFiles.add(filename);
             int thisPart = Integer.parseInt(mat.group(1));
             if (thisPart >= nextPartition) {
               nextPartition = thisPart;
@@ -140,9 +184,16 @@ private int getNextPartition(FileSystem fs, Path targetDir)
    * Directories are moved without restriction.  Note that the serial
    * number of directories bears no relation to the file partition
    * numbering.
+   *
+   * The data files are numbered in the order of their names, and renamed
+   * in parallel.
+   *
+   * @param movedFiles collects the new names of the moved files.
+   * @return the partition number after the greatest one used.
    */
-  private void moveFiles(FileSystem fs, Path sourceDir, Path targetDir,
-      int partitionStart) throws IOException {
+  private int moveFiles(final FileSystem fs, Path sourceDir,
+      final Path targetDir, int partitionStart,
+      Collection<String> movedFiles) throws IOException {
 
     /* list files in the source dir and check for errors */
 
@@ -158,12 +209,10 @@ private void moveFiles(FileSystem fs, Path sourceDir, Path targetDir,
     /* state used throughout the entire move operation */
 
     // pad the data partition number thusly
-    NumberFormat partFormat = NumberFormat.getInstance();
-    partFormat.setMinimumIntegerDigits(PARTITION_DIGITS);
-    partFormat.setGroupingUsed(false);
+    NumberFormat partFormat = getPartFormat();
 
-    // where the data partitioning is currently at
-    int dataPart = partitionStart;
+    // the data files, moved after the loop
+    List<Path> dataFiles = new ArrayList<Path>();
 
 
     /* loop through all top-level files and copy matching ones */
@@ -205,22 +254,7 @@ private void moveFiles(FileSystem fs, Path sourceDir, Path targetDir,
           LOG.debug("Directory: " + sourceFilename + " renamed to: " + destPath.getName());
         }
       } else if (DATA_PART_PATTERN.matcher(sourceFilename).matches()) {    // move only matching top-level files
-        do {
-          // clear the builder in case this isn't the first iteration
-          destFilename.setLength(0);
-
-          // name-nnnnn
-          destFilename
-            .append(getFilename(sourceFilename))
-            .append(partFormat.format(dataPart++));
-
-          // .ext?
-          String extension = getFileExtension(sourceFilename);
-          if (extension != null)
-            destFilename.append(getFileExtension(sourceFilename));
-        } while (!fs.rename(fileStatus.getPath(), new Path(targetDir, destFilename.toString())));
-
-        LOG.debug("Filename: " + sourceFilename + " repartitioned to: " + destFilename.toString());
+        dataFiles.add(fileStatus.getPath());
       } else {
         // Generated Parquet files do not follow the pattern "part-m-([0-9]{5}).ext", so that these
         // files cannot be moved to target directory expectedly. We simply check file extension.
@@ -229,15 +263,116 @@ private void moveFiles(FileSystem fs, Path sourceDir, Path targetDir,
           Path targetFilename = new Path(targetDir, sourceFilename.toString());
           fileMoved = fs.rename(fileStatus.getPath(), targetFilename);
         }
-        if (!fileMoved) {    // ignore everything else
+        if (fileMoved) {
+          movedFiles.add(sourceFilename);
+        } else {    // ignore everything else
           LOG.debug("Filename: " + sourceFilename + " ignored");
         }
       }
     }
+
+    if (dataFiles.isEmpty()) {
+      return partitionStart;
+    }
+
+    // Each file gets the next number in order; the numbers after them are
+    // handed out to files whose destination turns out to be taken.
+    Path [] sorted = dataFiles.toArray(new Path[dataFiles.size()]);
+    Arrays.sort(sorted);
+    final AtomicInteger sparePart =
+        new AtomicInteger(partitionStart + sorted.length);
+    int threads = Math.min(sorted.length, Math.max(1, context.getOptions()
+        .getConf().getInt(MOVE_THREADS_KEY, DEFAULT_MOVE_THREADS)));
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<String>> moves = new ArrayList<Future<String>>();
+      for (int i = 0; i < sorted.length; i++) {
+        final Path source = sorted[i];
+        final int dataPart = partitionStart + i;
+        moves.add(pool.submit(new Callable<String>() {
+          @Override
+          public String call() throws IOException {
+            return moveDataFile(fs, source, targetDir, dataPart, sparePart);
+          }
+        }));
+      }
+      for (Future<String> move : moves) {
+        movedFiles.add(move.get());
+      }
+    } catch (InterruptedException ie) {
+      throw new IOException("Interrupted while moving files", ie);
+    } catch (ExecutionException ee) {
+      if (ee.getCause() instanceof IOException) {
+        throw (IOException) ee.getCause();
+      }
+      throw new IOException("Could not move files", ee.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    return sparePart.get();
+  }
+
+  /**
+   * Moves a data file to targetDir as partition dataPart, or as the next
+   * spare partition if that one is taken.
+   *
+   * @return the new name of the file.
+   */
+  private String moveDataFile(FileSystem fs, Path source, Path targetDir,
+      int dataPart, AtomicInteger sparePart) throws IOException {
+    String sourceFilename = source.getName();
+    Path destPath;
+    while (true) {
+      destPath = new Path(targetDir, getPartFilename(sourceFilename, dataPart));
+      // rename may replace an existing file, so look before renaming.
+      if (!fs.exists(destPath) && fs.rename(source, destPath)) {
+        break;
+      }
+      dataPart = sparePart.getAndIncrement();
+    }
+
+    LOG.debug("Filename: " + sourceFilename + " repartitioned to: "
+        + destPath.getName());
+    return destPath.getName();
+  }
+
+  /**
+   * @return the partition number of a data file, or -1 if the name is not
+   * that of a data file.
+   */
+  public static int getPartition(String filename) {
+    Matcher mat = DATA_PART_PATTERN.matcher(filename);
+    if (!mat.matches()) {
+      return -1;
+    }
+    return Integer.parseInt(mat.group(1));
+  }
+
+  /**
+   * @return the name of a data file renumbered as partition dataPart.
+   */
+  public static String getPartFilename(String filename, int dataPart) {
+    // name-nnnnn.ext?
+    StringBuilder destFilename = new StringBuilder()
+      .append(getFilename(filename))
+      .append(getPartFormat().format(dataPart));
+    String extension = getFileExtension(filename);
+    if (extension != null) {
+      destFilename.append(extension);
+    }
+    return destFilename.toString();
+  }
+
+  /** returns the format of partition numbers. */
+  private static NumberFormat getPartFormat() {
+    NumberFormat partFormat = NumberFormat.getInstance();
+    partFormat.setMinimumIntegerDigits(PARTITION_DIGITS);
+    partFormat.setGroupingUsed(false);
+    return partFormat;
   }
 
   /** returns the name component of a file. */
-  private String getFilename(String filename) {
+  private static String getFilename(String filename) {
     String result = null;
     int pos = filename.lastIndexOf(FILEPART_SEPARATOR);
     if (pos != -1) {
@@ -254,7 +389,7 @@ private String getFilename(String filename) {
   }
 
   /** returns the extension component of a filename. */
-  private String getFileExtension(String filename) {
+  private static String getFileExtension(String filename) {
     int pos = filename.lastIndexOf(FILEEXT_SEPARATOR);
     if (pos != -1) {
       return filename.substring(pos, filename.length());
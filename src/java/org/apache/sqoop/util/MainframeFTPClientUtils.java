@@ -39,6 +39,7 @@
 import org.apache.sqoop.mapreduce.db.DBConfiguration;
 import org.apache.sqoop.mapreduce.mainframe.MainframeConfiguration;
 import org.apache.sqoop.mapreduce.mainframe.MainframeDatasetPath;
+import org.apache.sqoop.mapreduce.mainframe.MainframeFTPFileEntryParser;
 
 /**
  * Utility methods used when accessing a mainframe server through FTP client.
@@ -54,6 +55,19 @@ private MainframeFTPClientUtils() {
 
   public static List<String> listSequentialDatasets(String pdsName, Configuration conf) throws IOException {
     List<String> datasets = new ArrayList<String>();
+    for (FTPFile f : listSequentialDatasetFiles(pdsName, conf)) {
+      datasets.add(f.getName());
+    }
+    return datasets;
+  }
+
+  /**
+   * List the sequential datasets to transfer, together with their size
+   * estimated from the FTP listing (-1 if the listing has no size).
+   */
+  public static List<FTPFile> listSequentialDatasetFiles(String pdsName,
+      Configuration conf) throws IOException {
+    List<FTPFile> datasets = new ArrayList<FTPFile>();
     String dsName = pdsName;
     String fileName = "";
     MainframeDatasetPath p = null;
@@ -110,7 +124,7 @@ public static List<String> listSequentialDatasets(String pdsName, Configuration
 					// only add datasets if default behaviour of partitioned data sets
 					// or if it is a sequential data set, only add if the file name matches exactly
 					if (!isSequentialDs || isSequentialDs && f.getName().equals(fileName) && !fileName.equals("")) {
-						datasets.add(f.getName());
+						datasets.add(f);
 					}
 				}
 			}
@@ -121,7 +135,7 @@ public static List<String> listSequentialDatasets(String pdsName, Configuration
 			}
 			if (ftpFiles.length > 0 && ftpFiles[ftpFiles.length-1].getType() == FTPFile.FILE_TYPE) {
 				// for GDG - add the last file in the collection
-				datasets.add(ftpFiles[ftpFiles.length-1].getName());
+				datasets.add(ftpFiles[ftpFiles.length-1]);
 			}
 		}
       }
@@ -133,6 +147,11 @@ public static List<String> listSequentialDatasets(String pdsName, Configuration
         closeFTPConnection(ftp);
       }
     }
+    for (FTPFile f : datasets) {
+      if (f.getSize() <= 0 && f.getRawListing() != null) {
+        f.setSize(MainframeFTPFileEntryParser.estimateSize(f.getRawListing()));
+      }
+    }
     return datasets;
   }
 
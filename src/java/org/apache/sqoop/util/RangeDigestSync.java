@@ -0,0 +1,348 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.sqoop.manager.ConnManager;
+import org.apache.sqoop.util.RangeDigests.Digest;
+
+/**
+ * Finds the ranges of an integer key of a table whose rows changed since
+ * the range digests of a previous import were taken.
+ *
+ * The digests of the table are computed in the database, by summing the
+ * hashes of the rows, and compared with the previous digests first for a
+ * few wide ranges of the keys. Only the ranges that differ are narrowed
+ * down, each step querying the database for the ranges still in question,
+ * until the leaves of the digests are reached.
+ */
+public class RangeDigestSync {
+
+  public static final Log LOG = LogFactory.getLog(
+      RangeDigestSync.class.getName());
+
+  /**
+   * The most leaves to divide the keys of a table into; leaves are merged
+   * into wider ones when the keys grow past them.
+   */
+  public static final String LEAVES_KEY = "sqoop.import.digest.leaves";
+  public static final int DEFAULT_LEAVES = 4096;
+
+  /** The number of ranges each range is narrowed down into. */
+  public static final String FANOUT_KEY = "sqoop.import.digest.fanout";
+  public static final int DEFAULT_FANOUT = 16;
+
+  private final ConnManager manager;
+  private final String tableName;
+  private final String keyCol;
+  private final String hashExpr;
+  private final String whereClause;
+  private final int leaves;
+  private final int fanout;
+
+  private RangeDigests digests;
+
+  /**
+   * @param manager the connection manager of the database.
+   * @param tableName the table to digest.
+   * @param keyCol the integer key column, unescaped.
+   * @param colNames the columns to digest, unescaped.
+   * @param whereClause the conditions of the rows to digest, or null.
+   * @throws IllegalArgumentException if the connection manager cannot hash
+   * rows.
+   */
+  public RangeDigestSync(ConnManager manager, String tableName,
+      String keyCol, String [] colNames, String whereClause,
+      Configuration conf) {
+    this.manager = manager;
+    this.tableName = tableName;
+    this.keyCol = manager.escapeColName(keyCol);
+    this.hashExpr = manager.getRowHashExpression(colNames);
+    if (null == hashExpr) {
+      throw new IllegalArgumentException("Digests of rows are not "
+          + "supported by " + manager.getClass().getName());
+    }
+    this.whereClause = whereClause;
+    this.leaves = Math.max(1, conf.getInt(LEAVES_KEY, DEFAULT_LEAVES));
+    this.fanout = Math.max(2, conf.getInt(FANOUT_KEY, DEFAULT_FANOUT));
+  }
+
+  /**
+   * @return the digests of the table as of the last call to
+   * {@link #findChangedRanges(RangeDigests)}.
+   */
+  public RangeDigests getDigests() {
+    return digests;
+  }
+
+  /**
+   * Compare the rows of the table with previous digests of them.
+   * @param previous the digests of the previous import, or null if there
+   * was none.
+   * @return the key ranges whose rows changed, as pairs of their first key
+   * and the key after their last; or null if there are no previous
+   * digests, and the whole table has to be imported.
+   */
+  public List<long[]> findChangedRanges(RangeDigests previous)
+      throws SQLException {
+    Connection conn = manager.getConnection();
+    Statement statement = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY,
+        ResultSet.CONCUR_READ_ONLY);
+    try {
+      long [] bounds = getKeyBounds(statement);
+      if (null == previous) {
+        long width = 1;
+        if (null != bounds) {
+          width = Math.max(1, (bounds[1] - bounds[0]) / leaves + 1);
+        }
+        digests = new RangeDigests(null == bounds ? 0 : bounds[0], width);
+        for (Map.Entry<Long, Digest> leaf
+            : getNodeDigests(statement, 1, null).entrySet()) {
+          digests.setLeaf(leaf.getKey(), leaf.getValue());
+        }
+        LOG.info("Took digests of " + digests.getLeaves().size()
+            + " key ranges of " + digests.getWidth() + " keys");
+        return null;
+      }
+
+      digests = new RangeDigests(previous);
+      long lastLeaf = digests.getLeaves().isEmpty() ? 0
+          : digests.getLeaves().lastKey();
+      if (null != bounds) {
+        digests.extendTo(bounds[0]);
+        // The leaves may have been shifted up.
+        lastLeaf = Math.max(digests.getLeaves().isEmpty() ? 0
+            : digests.getLeaves().lastKey(), digests.getLeaf(bounds[1]));
+      }
+      while (lastLeaf >= leaves) {
+        digests.coarsen();
+        lastLeaf /= 2;
+      }
+
+      // Start from few enough nodes to compare them all at once.
+      long leavesPerNode = 1;
+      while (lastLeaf / leavesPerNode >= fanout) {
+        leavesPerNode *= fanout;
+      }
+
+      SortedSet<Long> candidates = null;
+      List<Long> changedLeaves = new ArrayList<Long>();
+      while (null == candidates || !candidates.isEmpty()) {
+        Map<Long, Digest> current =
+            getNodeDigests(statement, leavesPerNode, candidates);
+        Map<Long, Digest> stored = digests.getNodes(leavesPerNode);
+        SortedSet<Long> nodes = candidates;
+        if (null == nodes) {
+          nodes = new TreeSet<Long>(current.keySet());
+          nodes.addAll(stored.keySet());
+        }
+
+        SortedSet<Long> changed = new TreeSet<Long>();
+        for (long node : nodes) {
+          Digest digest = current.get(node);
+          if (!getDigest(stored, node).equals(getDigest(current, node))) {
+            changed.add(node);
+            if (leavesPerNode == 1) {
+              digests.setLeaf(node, digest);
+            }
+          }
+        }
+        LOG.debug(changed.size() + " of " + nodes.size() + " ranges of "
+            + leavesPerNode + " leaves changed");
+
+        if (leavesPerNode == 1) {
+          changedLeaves.addAll(changed);
+          break;
+        }
+        leavesPerNode /= fanout;
+        candidates = new TreeSet<Long>();
+        for (long node : changed) {
+          for (long child = node * fanout; child < (node + 1) * fanout;
+              child++) {
+            candidates.add(child);
+          }
+        }
+      }
+
+      List<long[]> ranges = toKeyRanges(changedLeaves, 1);
+      LOG.info("Found " + changedLeaves.size() + " changed key ranges of "
+          + digests.getWidth() + " keys");
+      return ranges;
+    } finally {
+      statement.close();
+    }
+  }
+
+  private static Digest getDigest(Map<Long, Digest> nodes, long node) {
+    Digest digest = nodes.get(node);
+    return null == digest ? Digest.EMPTY : digest;
+  }
+
+  /**
+   * @return the minimum and the maximum key of the table, or null if it
+   * holds no rows.
+   */
+  private long [] getKeyBounds(Statement statement) throws SQLException {
+    String query = "SELECT MIN(" + keyCol + "), MAX(" + keyCol + ") FROM "
+        + manager.escapeTableName(tableName)
+        + (null == whereClause ? "" : " WHERE " + whereClause);
+    LOG.debug("Key bounds query: " + query);
+    ResultSet rs = statement.executeQuery(query);
+    try {
+      rs.next();
+      long min = rs.getLong(1);
+      if (rs.wasNull()) {
+        return null;
+      }
+      return new long[] { min, rs.getLong(2) };
+    } finally {
+      rs.close();
+    }
+  }
+
+  /**
+   * @return the digests of the rows of the table by node, for nodes of
+   * leavesPerNode leaves, of the given nodes or else of all of them.
+   */
+  private Map<Long, Digest> getNodeDigests(Statement statement,
+      long leavesPerNode, SortedSet<Long> nodes) throws SQLException {
+    String node = "FLOOR((" + keyCol + " - (" + digests.getBase() + ")) / "
+        + (digests.getWidth() * leavesPerNode) + ")";
+    StringBuilder sb = new StringBuilder();
+    sb.append("SELECT ").append(node).append(", COUNT(*), SUM(")
+        .append(hashExpr).append(") FROM ")
+        .append(manager.escapeTableName(tableName));
+    List<String> conditions = new ArrayList<String>();
+    if (null != whereClause) {
+      conditions.add("(" + whereClause + ")");
+    }
+    if (null != nodes) {
+      conditions.add(toCondition(keyCol,
+          toKeyRanges(nodes, leavesPerNode)));
+    }
+    for (int i = 0; i < conditions.size(); i++) {
+      sb.append(i == 0 ? " WHERE " : " AND ").append(conditions.get(i));
+    }
+    sb.append(" GROUP BY ").append(node);
+    LOG.debug("Digest query: " + sb);
+
+    Map<Long, Digest> digestsByNode = new HashMap<Long, Digest>();
+    ResultSet rs = statement.executeQuery(sb.toString());
+    try {
+      while (rs.next()) {
+        long index = rs.getLong(1);
+        if (rs.wasNull()) {
+          continue; // rows without a key.
+        }
+        BigDecimal sum = rs.getBigDecimal(3);
+        digestsByNode.put(index, new Digest(rs.getLong(2),
+            null == sum ? BigInteger.ZERO : sum.toBigInteger()));
+      }
+    } finally {
+      rs.close();
+    }
+    return digestsByNode;
+  }
+
+  /**
+   * @return the key ranges of the given nodes, with consecutive nodes
+   * joined into one range.
+   */
+  private List<long[]> toKeyRanges(Iterable<Long> nodes,
+      long leavesPerNode) {
+    List<long[]> ranges = new ArrayList<long[]>();
+    long [] range = null;
+    for (long node : nodes) {
+      long lower = digests.getLowerKey(node * leavesPerNode);
+      long upper = digests.getLowerKey((node + 1) * leavesPerNode);
+      if (null != range && range[1] == lower) {
+        range[1] = upper;
+      } else {
+        range = new long[] { lower, upper };
+        ranges.add(range);
+      }
+    }
+    return ranges;
+  }
+
+  /**
+   * @return a condition on a key column that selects the rows of the
+   * given key ranges.
+   * @param escapedKeyCol the key column, escaped.
+   */
+  public static String toCondition(String escapedKeyCol,
+      List<long[]> ranges) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("(");
+    for (int i = 0; i < ranges.size(); i++) {
+      if (i > 0) {
+        sb.append(" OR ");
+      }
+      sb.append("(").append(escapedKeyCol).append(" >= ")
+          .append(ranges.get(i)[0]).append(" AND ").append(escapedKeyCol)
+          .append(" < ").append(ranges.get(i)[1]).append(")");
+    }
+    sb.append(")");
+    return sb.toString();
+  }
+
+  /**
+   * @return key ranges written as "first:after,first:after...", as
+   * {@link #parseRanges(String)} reads them.
+   */
+  public static String formatRanges(List<long[]> ranges) {
+    StringBuilder sb = new StringBuilder();
+    for (long [] range : ranges) {
+      sb.append(sb.length() == 0 ? "" : ",").append(range[0]).append(":")
+          .append(range[1]);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @return the key ranges written by {@link #formatRanges(List)}.
+   */
+  public static List<long[]> parseRanges(String s) {
+    List<long[]> ranges = new ArrayList<long[]>();
+    for (String range : s.split(",")) {
+      if (range.isEmpty()) {
+        continue;
+      }
+      int colon = range.indexOf(':');
+      ranges.add(new long[] { Long.parseLong(range.substring(0, colon)),
+          Long.parseLong(range.substring(colon + 1)) });
+    }
+    return ranges;
+  }
+}
@@ -0,0 +1,267 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Digests of the rows of a table by ranges of an integer key.
+ *
+ * The keys are divided into leaves of a width from a base key: leaf i
+ * holds the keys from base + i * width up to, but not including,
+ * base + (i + 1) * width. The digest of a leaf is the number of its rows
+ * and the sum of their hashes. Both add up, so the digest of a range of
+ * consecutive leaves is the sum of the digests of the leaves, and leaves
+ * can be merged into wider ones as the keys grow.
+ */
+public class RangeDigests {
+
+  /** The name of the file the digests are kept in, in the target dir. */
+  public static final String FILE_NAME = "_sqoop_digests";
+
+  private static final String HEADER = "# sqoop range digests";
+
+  /**
+   * The number of rows of a range and the sum of their hashes.
+   */
+  public static class Digest {
+    public static final Digest EMPTY = new Digest(0, BigInteger.ZERO);
+
+    private final long count;
+    private final BigInteger sum;
+
+    public Digest(long count, BigInteger sum) {
+      this.count = count;
+      this.sum = sum;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public BigInteger getSum() {
+      return sum;
+    }
+
+    public Digest add(Digest other) {
+      return new Digest(count + other.count, sum.add(other.sum));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Digest)) {
+        return false;
+      }
+      Digest other = (Digest) o;
+      return count == other.count && sum.equals(other.sum);
+    }
+
+    @Override
+    public int hashCode() {
+      return (int) count * 31 + sum.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return count + "\t" + sum;
+    }
+  }
+
+  private long base;
+  private long width;
+  private final TreeMap<Long, Digest> leaves = new TreeMap<Long, Digest>();
+
+  /**
+   * @param base the first key of leaf 0.
+   * @param width the number of keys in a leaf.
+   */
+  public RangeDigests(long base, long width) {
+    if (width < 1) {
+      throw new IllegalArgumentException("Invalid leaf width " + width);
+    }
+    this.base = base;
+    this.width = width;
+  }
+
+  /**
+   * Copy constructor.
+   */
+  public RangeDigests(RangeDigests other) {
+    this(other.base, other.width);
+    leaves.putAll(other.leaves);
+  }
+
+  public long getBase() {
+    return base;
+  }
+
+  public long getWidth() {
+    return width;
+  }
+
+  /**
+   * @return the leaf of a key, which must not be below the base.
+   */
+  public long getLeaf(long key) {
+    return (key - base) / width;
+  }
+
+  /**
+   * @return the first key of a leaf.
+   */
+  public long getLowerKey(long leaf) {
+    return base + leaf * width;
+  }
+
+  /**
+   * @return the digests of the leaves that hold rows, by leaf.
+   */
+  public SortedMap<Long, Digest> getLeaves() {
+    return Collections.unmodifiableSortedMap(leaves);
+  }
+
+  /**
+   * Set the digest of a leaf; an empty digest or null removes it.
+   */
+  public void setLeaf(long leaf, Digest digest) {
+    if (null == digest || digest.getCount() == 0) {
+      leaves.remove(leaf);
+    } else {
+      leaves.put(leaf, digest);
+    }
+  }
+
+  /**
+   * @return the digests of the ranges of leavesPerNode consecutive leaves
+   * which hold rows, by their index; node n holds the leaves from
+   * n * leavesPerNode.
+   */
+  public Map<Long, Digest> getNodes(long leavesPerNode) {
+    Map<Long, Digest> nodes = new TreeMap<Long, Digest>();
+    for (Map.Entry<Long, Digest> leaf : leaves.entrySet()) {
+      long node = leaf.getKey() / leavesPerNode;
+      Digest digest = nodes.get(node);
+      nodes.put(node, null == digest ? leaf.getValue()
+          : digest.add(leaf.getValue()));
+    }
+    return nodes;
+  }
+
+  /**
+   * Move the base down to a key, by a whole number of leaves, so that the
+   * key is in a leaf too.
+   */
+  public void extendTo(long key) {
+    if (key >= base) {
+      return;
+    }
+    long shift = (base - key + width - 1) / width;
+    TreeMap<Long, Digest> shifted = new TreeMap<Long, Digest>();
+    for (Map.Entry<Long, Digest> leaf : leaves.entrySet()) {
+      shifted.put(leaf.getKey() + shift, leaf.getValue());
+    }
+    leaves.clear();
+    leaves.putAll(shifted);
+    base -= shift * width;
+  }
+
+  /**
+   * Merge each pair of leaves into one leaf of twice the width; leaf i
+   * becomes part of leaf i / 2.
+   */
+  public void coarsen() {
+    TreeMap<Long, Digest> merged = new TreeMap<Long, Digest>(getNodes(2));
+    leaves.clear();
+    leaves.putAll(merged);
+    width *= 2;
+  }
+
+  /**
+   * @return the digests kept in a file, or null if there is no such file.
+   */
+  public static RangeDigests read(FileSystem fs, Path path)
+      throws IOException {
+    if (!fs.exists(path)) {
+      return null;
+    }
+    BufferedReader r = new BufferedReader(
+        new InputStreamReader(fs.open(path), "UTF-8"));
+    try {
+      String header = r.readLine();
+      if (null == header || !header.startsWith(HEADER)) {
+        throw new IOException("Not a range digest file: " + path);
+      }
+      RangeDigests digests = null;
+      long base = 0;
+      String line;
+      while (null != (line = r.readLine())) {
+        String [] fields = line.split("\t");
+        if (fields[0].equals("base")) {
+          base = Long.parseLong(fields[1]);
+        } else if (fields[0].equals("width")) {
+          digests = new RangeDigests(base, Long.parseLong(fields[1]));
+        } else if (null != digests && fields.length == 3) {
+          digests.setLeaf(Long.parseLong(fields[0]), new Digest(
+              Long.parseLong(fields[1]), new BigInteger(fields[2])));
+        } else {
+          throw new IOException("Invalid line in " + path + ": " + line);
+        }
+      }
+      if (null == digests) {
+        throw new IOException("No leaf width in " + path);
+      }
+      return digests;
+    } catch (NumberFormatException nfe) {
+      throw new IOException("Invalid number in " + path, nfe);
+    } finally {
+      r.close();
+    }
+  }
+
+  /**
+   * Write the digests to a file, replacing it.
+   */
+  public void write(FileSystem fs, Path path) throws IOException {
+    Writer w = new BufferedWriter(
+        new OutputStreamWriter(fs.create(path, true), "UTF-8"));
+    try {
+      w.write(HEADER + "\n");
+      w.write("base\t" + base + "\n");
+      w.write("width\t" + width + "\n");
+      for (Map.Entry<Long, Digest> leaf : leaves.entrySet()) {
+        w.write(leaf.getKey() + "\t" + leaf.getValue() + "\n");
+      }
+    } finally {
+      w.close();
+    }
+  }
+}
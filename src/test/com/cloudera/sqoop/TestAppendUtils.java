@@ -41,10 +41,12 @@
 import com.cloudera.sqoop.testutil.ImportJobTestCase;
 import com.cloudera.sqoop.tool.ImportTool;
 import com.cloudera.sqoop.util.AppendUtils;
+import org.apache.sqoop.util.AppendManifest;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -311,5 +313,41 @@ public void testAppendSrcDoesNotExist() throws IOException {
     utils.append();
   }
 
+  /**
+   * Appends after the first keep a manifest of the target dir, and number
+   * their files from it.
+   */
+  @Test
+  public void testAppendManifest() throws IOException {
+    ArrayList args = getOutputlessArgv(false, false, HsqldbTestServer.getFieldNames(), getConf());
+    String targetDir = getWarehouseDir() + "/tempTargetDir";
+    args.add("--target-dir");
+    args.add(targetDir);
+
+    Path output = new Path(targetDir);
+    runAppendTest(args, output);
+
+    FileSystem fs = FileSystem.get(getConf());
+    AppendManifest manifest = AppendManifest.read(fs, output);
+    assertNotNull(manifest);
+    assertEquals(2, manifest.getNextPartition());
+    assertEquals(2, manifest.getFiles().size());
+
+    // The next append is numbered from the manifest, without listing the
+    // dir; a file added behind its back is not overwritten.
+    FileStatus[] fileStatuses = listFiles(fs, output);
+    Arrays.sort(fileStatuses, new StatusPathComparator());
+    Path stray = new Path(output, fileStatuses[0].getPath().getName()
+        .replace("00000", "00002"));
+    fs.create(stray).close();
+    runUncleanImport((String[]) args.toArray(new String[0]));
+
+    manifest = AppendManifest.read(fs, output);
+    assertEquals(4, manifest.getNextPartition());
+    assertEquals(3, manifest.getFiles().size());
+    assertEquals(0, fs.getFileStatus(stray).getLen());
+    assertTrue(manifest.getFiles().get(2).contains("00003"));
+  }
+
 }
 
@@ -30,6 +30,7 @@
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import com.cloudera.sqoop.testutil.BaseSqoopTestCase;
@@ -43,7 +44,13 @@
 import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.hadoop.io.compress.CompressionCodecFactory;
 import org.apache.hadoop.io.compress.Decompressor;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.sqoop.mapreduce.CombineFileSplit;
+import org.apache.sqoop.mapreduce.ExportInputFormat;
+import org.apache.sqoop.mapreduce.ExportSplitCommitTable;
+import org.apache.sqoop.orm.ClassWriter;
 
 import com.cloudera.sqoop.lib.RecordParser;
 import com.cloudera.sqoop.lib.SqoopRecord;
@@ -591,6 +598,156 @@ public void testMultiMapTextExportWithStaging()
     verifyExport(RECORDS_PER_MAP * NUM_FILES);
   }
 
+  /**
+   * @return the name of the split commit table to be used for testing.
+   */
+  public String getSplitCommitTableName() {
+    return getTableName() + "_SPLITS";
+  }
+
+  private void dropSplitCommitTable() throws SQLException {
+    Connection conn = getConnection();
+    PreparedStatement statement = conn.prepareStatement(
+        getDropTableStatement(getSplitCommitTableName()));
+    try {
+      statement.executeUpdate();
+      conn.commit();
+    } finally {
+      statement.close();
+    }
+  }
+
+  private int getSplitCommitCount() throws SQLException {
+    Connection conn = getConnection();
+    PreparedStatement statement = conn.prepareStatement(
+        "SELECT COUNT(*) FROM " + getSplitCommitTableName());
+    try {
+      ResultSet rs = statement.executeQuery();
+      try {
+        rs.next();
+        return rs.getInt(1);
+      } finally {
+        rs.close();
+      }
+    } finally {
+      statement.close();
+    }
+  }
+
+  /**
+   * Run 2 mappers committing each split with a marker; the markers are
+   * removed once the export succeeds.
+   */
+  @Test
+  public void testMultiMapTextExportWithSplitCommits()
+      throws IOException, SQLException {
+
+    final int RECORDS_PER_MAP = 10;
+    final int NUM_FILES = 2;
+
+    for (int f = 0; f < NUM_FILES; f++) {
+      createTextFile(f, RECORDS_PER_MAP, false);
+    }
+
+    createTable();
+    dropSplitCommitTable();
+    runExport(getArgv(true, 5, 1, "--split-commit-table",
+        getSplitCommitTableName()));
+    verifyExport(RECORDS_PER_MAP * NUM_FILES);
+    assertEquals(0, getSplitCommitCount());
+  }
+
+  /**
+   * Mark the chunks of the given input files as committed by an earlier
+   * run of the single-task export, as if that run had held them in a split
+   * of their own.
+   */
+  private void commitChunks(String exportId, String... fileNames)
+      throws IOException, SQLException {
+    Configuration conf = new Configuration();
+    if (!BaseSqoopTestCase.isOnPhysicalCluster()) {
+      conf.set(CommonArgs.FS_DEFAULT_NAME, CommonArgs.LOCAL_FS);
+    }
+    Job job = new Job(conf);
+    FileInputFormat.addInputPath(job, getTablePath());
+    ExportInputFormat.setNumMapTasks(job, 1);
+    CombineFileSplit split =
+        (CombineFileSplit) new ExportInputFormat().getSplits(job).get(0);
+
+    List<String> chunkKeys = new ArrayList<String>();
+    for (int i = 0; i < split.getNumPaths(); i++) {
+      if (Arrays.asList(fileNames).contains(split.getPath(i).getName())) {
+        chunkKeys.add(ExportSplitCommitTable.getChunkKey(split.getPath(i),
+            split.getOffset(i), split.getLength(i)));
+      }
+    }
+    assertEquals(fileNames.length, chunkKeys.size());
+
+    Connection conn = getConnection();
+    ExportSplitCommitTable splitCommits = new ExportSplitCommitTable(
+        getSplitCommitTableName(), exportId);
+    splitCommits.createIfMissing(conn);
+    PreparedStatement marker =
+        splitCommits.getMarkerStatement(conn, chunkKeys, 10);
+    try {
+      marker.executeBatch();
+    } finally {
+      marker.close();
+    }
+    conn.commit();
+  }
+
+  /** Splits with a commit marker from an earlier run are not exported. */
+  @Test
+  public void testSplitCommitsSkipCommittedSplits()
+      throws IOException, SQLException {
+
+    final int RECORDS_PER_MAP = 10;
+    final int NUM_FILES = 2;
+
+    for (int f = 0; f < NUM_FILES; f++) {
+      createTextFile(f, RECORDS_PER_MAP, false);
+    }
+
+    createTable();
+    dropSplitCommitTable();
+    commitChunks("earlier-run", "part0.txt", "part1.txt");
+
+    runExport(getArgv(true, 10, 10, "-D",
+        ExportSplitCommitTable.EXPORT_ID_KEY + "=earlier-run",
+        "--split-commit-table", getSplitCommitTableName()));
+    verifyExport(0);
+    assertEquals(0, getSplitCommitCount());
+  }
+
+  /**
+   * A resumed export that groups the input into its splits differently
+   * exports exactly the chunks the earlier run did not commit.
+   */
+  @Test
+  public void testSplitCommitsWithRegroupedSplits()
+      throws IOException, SQLException {
+
+    final int RECORDS_PER_MAP = 10;
+    final int NUM_FILES = 2;
+
+    for (int f = 0; f < NUM_FILES; f++) {
+      createTextFile(f, RECORDS_PER_MAP, false);
+    }
+
+    createTable();
+    dropSplitCommitTable();
+    // The earlier run had a split per file, and committed the second one.
+    commitChunks("earlier-run", "part1.txt");
+
+    // This run's single split holds both files; only the first is left.
+    runExport(getArgv(true, 10, 10, "-D",
+        ExportSplitCommitTable.EXPORT_ID_KEY + "=earlier-run",
+        "--split-commit-table", getSplitCommitTableName()));
+    verifyExport(RECORDS_PER_MAP);
+    assertEquals(0, getSplitCommitCount());
+  }
+
   /** Export some rows from a SequenceFile, make sure they import correctly. */
   @Test
   public void testSequenceFileExport() throws Exception {
@@ -712,6 +869,34 @@ public String getType() {
     assertColMinAndMax(forIdx(0), gen);
   }
 
+  /** Export numeric columns through primitive generated fields. */
+  @Test
+  public void testBigIntColWithPrimitiveFields()
+      throws IOException, SQLException {
+    final int TOTAL_RECORDS = 10;
+
+    ColumnGenerator gen = new ColumnGenerator() {
+      public String getExportText(int rowNum) {
+        long val = (long) rowNum * 1000000000;
+        return "" + val;
+      }
+      public String getVerifyText(int rowNum) {
+        long val = (long) rowNum * 1000000000;
+        return "" + val;
+      }
+      public String getType() {
+        return getBigIntType();
+      }
+    };
+
+    createTextFile(0, TOTAL_RECORDS, false, gen);
+    createTable(gen);
+    runExport(getArgv(true, 10, 10, "-D",
+        ClassWriter.PROPERTY_CODEGEN_PRIMITIVE_FIELDS + "=true"));
+    verifyExport(TOTAL_RECORDS);
+    assertColMinAndMax(forIdx(0), gen);
+  }
+
   protected String pad(int n) {
     if (n <= 9) {
       return "0" + n;
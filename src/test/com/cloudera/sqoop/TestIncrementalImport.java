@@ -29,6 +29,7 @@
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.logging.Log;
@@ -287,6 +288,17 @@ public void clearDir(String tableName) {
    * in order.
    */
   public void assertDirOfNumbers(String tableName, int expectedNums) {
+    assertDirOfNumbers(tableName, expectedNums, true);
+  }
+
+  /**
+   * Look at a directory that should contain files full of an imported 'id'
+   * column. Assert that all numbers in [0, expectedNums) are present,
+   * in order if inOrder is true. The files of several mappers are not
+   * necessarily numbered in the order of their ids.
+   */
+  public void assertDirOfNumbers(String tableName, int expectedNums,
+      boolean inOrder) {
     try {
       FileSystem fs = FileSystem.getLocal(new Configuration());
       Path warehouse = new Path(BaseSqoopTestCase.LOCAL_WAREHOUSE_DIR);
@@ -302,7 +314,8 @@ public void assertDirOfNumbers(String tableName, int expectedNums) {
       // Read all the files in sorted order, adding the value lines to the list.
       List<String> receivedNums = new ArrayList<String>();
       for (String fileName : fileNames) {
-        if (fileName.startsWith("_") || fileName.startsWith(".")) {
+        String name = new Path(fileName).getName();
+        if (name.startsWith("_") || name.startsWith(".")) {
           continue;
         }
 
@@ -324,9 +337,17 @@ public void assertDirOfNumbers(String tableName, int expectedNums) {
 
       assertEquals(expectedNums, receivedNums.size());
 
+      List<Integer> nums = new ArrayList<Integer>();
+      for (String num : receivedNums) {
+        nums.add(Integer.valueOf(num));
+      }
+      if (!inOrder) {
+        Collections.sort(nums);
+      }
+
       // Compare the received values with the expected set.
       for (int i = 0; i < expectedNums; i++) {
-        assertEquals((int) i, (int) Integer.valueOf(receivedNums.get(i)));
+        assertEquals((int) i, (int) nums.get(i));
       }
     } catch (Exception e) {
       fail("Got unexpected exception: " + StringUtils.stringifyException(e));
@@ -354,7 +375,8 @@ public void assertDirOfNumbersAndTimestamps(String tableName, int expectedNums)
       // Read all the files in sorted order, adding the value lines to the list.
       List<String> receivedNums = new ArrayList<String>();
       for (String fileName : fileNames) {
-        if (fileName.startsWith("_") || fileName.startsWith(".")) {
+        String name = new Path(fileName).getName();
+        if (name.startsWith("_") || name.startsWith(".")) {
           continue;
         }
 
@@ -783,6 +805,222 @@ public void testAppend() throws Exception {
     assertDirOfNumbers(TABLE_NAME, 20);
   }
 
+  @Test
+  public void testAppendWithSplitBounds() throws Exception {
+    // Import with several mappers, splitting on the bounds found along
+    // with the new maximum of the check column.
+
+    final String TABLE_NAME = "appendSplitBounds";
+    createIdTable(TABLE_NAME, 10);
+
+    List<String> args = getArgListForTable(TABLE_NAME, false, true);
+    args.set(args.size() - 1, "4");
+    args.add("--split-by");
+    args.add("ID");
+    createJob(TABLE_NAME, args);
+    runJob(TABLE_NAME);
+    assertDirOfNumbers(TABLE_NAME, 10, false);
+
+    // Add fewer rows than mappers.
+    insertIdRows(TABLE_NAME, 10, 13);
+
+    runJob(TABLE_NAME);
+    assertDirOfNumbers(TABLE_NAME, 13, false);
+
+    // No new rows; nothing is imported.
+    runJob(TABLE_NAME);
+    assertDirOfNumbers(TABLE_NAME, 13, false);
+  }
+
+  /**
+   * Run statements against the source database.
+   */
+  private void executeUpdates(String... statements) throws SQLException {
+    SqoopOptions options = new SqoopOptions();
+    options.setConnectString(SOURCE_DB_URL);
+    HsqldbManager manager = new HsqldbManager(options);
+    Connection c = manager.getConnection();
+    for (String statement : statements) {
+      PreparedStatement s = c.prepareStatement(statement);
+      try {
+        s.executeUpdate();
+      } finally {
+        s.close();
+      }
+    }
+    c.commit();
+  }
+
+  /**
+   * @return the sorted lines of the data files of an imported table.
+   */
+  private List<String> readDirLines(String tableName) throws IOException {
+    FileSystem fs = FileSystem.getLocal(new Configuration());
+    Path tableDir = new Path(BaseSqoopTestCase.LOCAL_WAREHOUSE_DIR,
+        tableName);
+    List<String> lines = new ArrayList<String>();
+    for (FileStatus stat : fs.listStatus(tableDir)) {
+      String name = stat.getPath().getName();
+      if (stat.isDir() || name.startsWith("_") || name.startsWith(".")) {
+        continue;
+      }
+      BufferedReader r = new BufferedReader(
+          new InputStreamReader(fs.open(stat.getPath())));
+      try {
+        String line;
+        while (null != (line = r.readLine())) {
+          lines.add(line);
+        }
+      } finally {
+        r.close();
+      }
+    }
+    Collections.sort(lines);
+    return lines;
+  }
+
+  @Test
+  public void testDigestImport() throws Exception {
+    // Import a table, then change, delete and add rows anywhere in it;
+    // only the key ranges that changed are imported and merged.
+
+    final String TABLE_NAME = "digestImport";
+    clearDir(TABLE_NAME);
+    List<String> expected = new ArrayList<String>();
+    List<String> inserts = new ArrayList<String>();
+    executeUpdates("CREATE TABLE \"" + TABLE_NAME
+        + "\" (ID INT NOT NULL, NAME VARCHAR(16))");
+    for (int i = 0; i < 10; i++) {
+      inserts.add("INSERT INTO \"" + TABLE_NAME + "\" VALUES (" + i
+          + ", 'name" + i + "')");
+      expected.add(i + ",name" + i);
+    }
+    executeUpdates(inserts.toArray(new String[0]));
+
+    List<String> args = new ArrayList<String>();
+    args.add("--connect");
+    args.add(SOURCE_DB_URL);
+    args.add("--table");
+    args.add(TABLE_NAME);
+    args.add("--warehouse-dir");
+    args.add(BaseSqoopTestCase.LOCAL_WAREHOUSE_DIR);
+    args.add("--incremental");
+    args.add("digest");
+    args.add("--check-column");
+    args.add("ID");
+    args.add("-m");
+    args.add("1");
+    createJob(TABLE_NAME, args);
+    runJob(TABLE_NAME);
+    assertEquals(expected, readDirLines(TABLE_NAME));
+    FileSystem fs = FileSystem.getLocal(new Configuration());
+    Path digests = new Path(new Path(BaseSqoopTestCase.LOCAL_WAREHOUSE_DIR,
+        TABLE_NAME), org.apache.sqoop.util.RangeDigests.FILE_NAME);
+    assertTrue(fs.exists(digests));
+
+    executeUpdates(
+        "UPDATE \"" + TABLE_NAME + "\" SET NAME = NULL WHERE ID = 3",
+        "DELETE FROM \"" + TABLE_NAME + "\" WHERE ID = 7",
+        "INSERT INTO \"" + TABLE_NAME + "\" VALUES (40, 'name40')");
+    expected.set(3, "3,null");
+    expected.remove("7,name7");
+    expected.add("40,name40");
+    Collections.sort(expected);
+
+    runJob(TABLE_NAME);
+    assertEquals(expected, readDirLines(TABLE_NAME));
+    assertTrue(fs.exists(digests));
+
+    // Nothing changed; the dataset stays the same.
+    runJob(TABLE_NAME);
+    assertEquals(expected, readDirLines(TABLE_NAME));
+  }
+
+  @Test
+  public void testDigestImportCoarsensLeaves() throws Exception {
+    // Keys past the last leaf widen the leaves, rather than adding more.
+    final String TABLE_NAME = "digestImportCoarsen";
+    clearDir(TABLE_NAME);
+    List<String> expected = new ArrayList<String>();
+    List<String> inserts = new ArrayList<String>();
+    executeUpdates("CREATE TABLE \"" + TABLE_NAME
+        + "\" (ID INT NOT NULL, NAME VARCHAR(16))");
+    for (int i = 0; i < 8; i++) {
+      inserts.add("INSERT INTO \"" + TABLE_NAME + "\" VALUES (" + i
+          + ", 'name" + i + "')");
+      expected.add(i + ",name" + i);
+    }
+    executeUpdates(inserts.toArray(new String[0]));
+
+    List<String> args = new ArrayList<String>();
+    args.add("--connect");
+    args.add(SOURCE_DB_URL);
+    args.add("--table");
+    args.add(TABLE_NAME);
+    args.add("--warehouse-dir");
+    args.add(BaseSqoopTestCase.LOCAL_WAREHOUSE_DIR);
+    args.add("--incremental");
+    args.add("digest");
+    args.add("--check-column");
+    args.add("ID");
+    args.add("-m");
+    args.add("1");
+    Configuration conf = newConf();
+    conf.setInt(org.apache.sqoop.util.RangeDigestSync.LEAVES_KEY, 4);
+    createJob(TABLE_NAME, args, conf);
+    runJob(TABLE_NAME, conf);
+    FileSystem fs = FileSystem.getLocal(new Configuration());
+    Path path = new Path(new Path(BaseSqoopTestCase.LOCAL_WAREHOUSE_DIR,
+        TABLE_NAME), org.apache.sqoop.util.RangeDigests.FILE_NAME);
+    assertEquals(2, org.apache.sqoop.util.RangeDigests.read(fs, path)
+        .getWidth());
+
+    executeUpdates(
+        "UPDATE \"" + TABLE_NAME + "\" SET NAME = 'changed' WHERE ID = 2",
+        "INSERT INTO \"" + TABLE_NAME + "\" VALUES (30, 'name30')");
+    expected.set(2, "2,changed");
+    expected.add("30,name30");
+    Collections.sort(expected);
+    runJob(TABLE_NAME, conf);
+    assertEquals(expected, readDirLines(TABLE_NAME));
+    org.apache.sqoop.util.RangeDigests digests =
+        org.apache.sqoop.util.RangeDigests.read(fs, path);
+    assertEquals(8, digests.getWidth());
+    assertEquals(2, digests.getLeaves().size());
+  }
+
+  @Test
+  public void testDigestImportMovedSeparator() throws Exception {
+    // Moving text from one value to the next changes the digest of the row.
+    final String TABLE_NAME = "digestImportMovedSeparator";
+    clearDir(TABLE_NAME);
+    executeUpdates("CREATE TABLE \"" + TABLE_NAME
+        + "\" (ID INT NOT NULL, A VARCHAR(16), B VARCHAR(16))",
+        "INSERT INTO \"" + TABLE_NAME + "\" VALUES (1, 'a|.b', 'c')");
+
+    List<String> args = new ArrayList<String>();
+    args.add("--connect");
+    args.add(SOURCE_DB_URL);
+    args.add("--table");
+    args.add(TABLE_NAME);
+    args.add("--warehouse-dir");
+    args.add(BaseSqoopTestCase.LOCAL_WAREHOUSE_DIR);
+    args.add("--incremental");
+    args.add("digest");
+    args.add("--check-column");
+    args.add("ID");
+    args.add("-m");
+    args.add("1");
+    createJob(TABLE_NAME, args);
+    runJob(TABLE_NAME);
+    assertEquals(Arrays.asList("1,a|.b,c"), readDirLines(TABLE_NAME));
+
+    executeUpdates("UPDATE \"" + TABLE_NAME
+        + "\" SET A = 'a', B = 'b|.c' WHERE ID = 1");
+    runJob(TABLE_NAME);
+    assertEquals(Arrays.asList("1,a,b|.c"), readDirLines(TABLE_NAME));
+  }
+
   @Test
   public void testEmptyLastModified() throws Exception {
     final String TABLE_NAME = "emptyLastModified";
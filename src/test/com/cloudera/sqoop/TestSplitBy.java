@@ -26,6 +26,7 @@
 import org.apache.hadoop.io.IOUtils;
 import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.sqoop.mapreduce.db.DBConfiguration;
 
 import com.cloudera.sqoop.SqoopOptions.InvalidOptionsException;
 import com.cloudera.sqoop.orm.CompilationManager;
@@ -45,6 +46,9 @@
  */
 public class TestSplitBy extends ImportJobTestCase {
 
+  // Number of rows to read ahead of the mapper; 0 reads synchronously.
+  private int prefetchRecords = 0;
+
   /**
    * Create the argv to pass to Sqoop.
    * @return the argv as an array of strings.
@@ -60,6 +64,10 @@ public class TestSplitBy extends ImportJobTestCase {
 
     if (includeHadoopFlags) {
       CommonArgs.addHadoopFlags(args);
+      if (prefetchRecords > 0) {
+        args.add("-D");
+        args.add(DBConfiguration.PREFETCH_RECORDS + "=" + prefetchRecords);
+      }
     }
 
     args.add("--table");
@@ -163,4 +171,10 @@ public void testSplitBySecondCol() throws IOException {
     String splitByCol = "INTFIELD2";
     runSplitByTest(splitByCol, HsqldbTestServer.getFirstColSum());
   }
+
+  @Test
+  public void testSplitByWithPrefetch() throws IOException {
+    prefetchRecords = 2;
+    runSplitByTest("INTFIELD1", HsqldbTestServer.getFirstColSum());
+  }
 }
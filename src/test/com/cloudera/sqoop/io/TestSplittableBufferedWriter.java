@@ -24,8 +24,10 @@
 import java.io.InputStreamReader;
 import java.io.File;
 import java.io.FileInputStream;
+import java.util.Arrays;
 import java.util.zip.GZIPInputStream;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -33,7 +35,9 @@
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.hadoop.io.compress.GzipCodec;
+import org.apache.hadoop.util.ReflectionUtils;
 
 import com.cloudera.sqoop.testutil.ImportJobTestCase;
 
@@ -315,4 +319,90 @@ public void testSplittingGzipFile() throws IOException {
         new GZIPInputStream(new FileInputStream(new File(getWriteDir(),
         "splitz-00001.gz"))), expectedLines1);
   }
+
+  /**
+   * Write lines through a stream compressing on several threads, and
+   * check the codec reads them back.
+   * @return the lines written.
+   */
+  private String [] runParallelCompressionTest(
+      Class<? extends CompressionCodec> codecClass) throws IOException {
+    Configuration conf = getConf();
+    conf.setInt(SplittingOutputStream.COMPRESS_THREADS_KEY, 3);
+    conf.setInt(SplittingOutputStream.COMPRESS_BLOCK_SIZE_KEY, 16);
+    CompressionCodec codec = ReflectionUtils.newInstance(codecClass, conf);
+    SplittingOutputStream os = new SplittingOutputStream(conf,
+        getWritePath(), "parallel-", 0, codec);
+    SplittableBufferedWriter w = new SplittableBufferedWriter(os, true);
+    String [] expectedLines = new String[100];
+    try {
+      for (int i = 0; i < expectedLines.length; i++) {
+        expectedLines[i] = "This is string " + i + "!";
+        w.write(expectedLines[i]);
+        w.newLine();
+        if (i == 50) {
+          w.flush();
+        }
+      }
+    } finally {
+      w.close();
+    }
+
+    String filename = "parallel-00000" + codec.getDefaultExtension();
+    verifyFileExists(new Path(getWritePath(), filename));
+    verifyFileContents(codec.createInputStream(new FileInputStream(
+        new File(getWriteDir(), filename))), expectedLines);
+    return expectedLines;
+  }
+
+  @Test
+  public void testParallelGzipFile() throws IOException {
+    String [] expectedLines = runParallelCompressionTest(GzipCodec.class);
+
+    // The file is a series of gzip members, which gzip reads as one.
+    verifyFileContents(
+        new GZIPInputStream(new FileInputStream(new File(getWriteDir(),
+        "parallel-00000.gz"))), expectedLines);
+  }
+
+  @Test
+  public void testSplittingParallelGzipFile() throws IOException {
+    // Blocks still compressing when a line ends count toward the file, so
+    // a file grows past its limit by about a line at most.
+    final long cutoff = 400;
+    Configuration conf = getConf();
+    conf.setInt(SplittingOutputStream.COMPRESS_THREADS_KEY, 3);
+    conf.setInt(SplittingOutputStream.COMPRESS_BLOCK_SIZE_KEY, 16);
+    SplittingOutputStream os = new SplittingOutputStream(conf,
+        getWritePath(), "parallel-", cutoff, new GzipCodec());
+    String [] expectedLines = new String[200];
+    try {
+      for (int i = 0; i < expectedLines.length; i++) {
+        expectedLines[i] = "This is string " + i + "!";
+        os.write((expectedLines[i] + "\n").getBytes("UTF-8"));
+        os.allowSplit();
+      }
+    } finally {
+      os.close();
+    }
+
+    // A line of up to two blocks compresses to less than 100 bytes.
+    FileSystem fs = FileSystem.getLocal(conf);
+    FileStatus [] files = fs.globStatus(
+        new Path(getWritePath(), "parallel-*.gz"));
+    assertTrue(files.length > 1);
+    Arrays.sort(files);
+    StringBuilder contents = new StringBuilder();
+    for (int i = 0; i < files.length; i++) {
+      if (i < files.length - 1) {
+        assertTrue(files[i].getPath() + " has " + files[i].getLen()
+            + " bytes", files[i].getLen() < cutoff + 100);
+      }
+      contents.append(IOUtils.toString(new GZIPInputStream(
+          new FileInputStream(new File(files[i].getPath().toUri()))),
+          "UTF-8"));
+    }
+    assertEquals(Arrays.asList(expectedLines),
+        Arrays.asList(contents.toString().split("\n")));
+  }
 }
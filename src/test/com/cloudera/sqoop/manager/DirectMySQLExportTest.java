@@ -147,6 +147,17 @@ public void testMultiTxExport() throws IOException, SQLException {
         "-D", MySQLExportMapper.MYSQL_CHECKPOINT_BYTES_KEY + "=10");
   }
 
+  /**
+   * Test an export through LOAD DATA LOCAL INFILE over JDBC, committing
+   * several times.
+   */
+  @Test
+  public void testLocalInfileExport() throws IOException, SQLException {
+    multiFileTest(2, 20, 1,
+        "-D", MySQLExportMapper.MYSQL_LOCAL_INFILE_KEY + "=true",
+        "-D", MySQLExportMapper.MYSQL_CHECKPOINT_BYTES_KEY + "=10");
+  }
+
   /**
    * Test an authenticated export using mysqlimport.
    */
@@ -24,15 +24,21 @@
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.Map;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
 
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
 import org.apache.hadoop.util.Shell;
 import org.junit.After;
 import org.junit.Before;
@@ -47,10 +53,12 @@
 import com.cloudera.sqoop.testutil.ImportJobTestCase;
 import com.cloudera.sqoop.tool.ImportTool;
 import com.cloudera.sqoop.util.ClassLoaderStack;
+import org.apache.sqoop.lib.SqoopRecord;
 import org.junit.rules.ExpectedException;
 
 import java.lang.reflect.Field;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -586,6 +594,284 @@ public void testEqualsMethod() throws IOException, ClassNotFoundException,
     }
   }
 
+  /**
+   * Test the positional field accessors against the field map.
+   */
+  @Test
+  public void testPositionalFieldAccess() throws Exception {
+    String [] argv = {
+      "--bindir",
+      JAR_GEN_DIR,
+      "--outdir",
+      CODE_GEN_DIR,
+      "--class-name",
+      OVERRIDE_CLASS_AND_PACKAGE_NAME,
+    };
+
+    File ormJarFile = runGenerationTest(argv, OVERRIDE_CLASS_AND_PACKAGE_NAME);
+    ClassLoader prevClassLoader = ClassLoaderStack.addJarFile(
+        ormJarFile.getCanonicalPath(),
+        OVERRIDE_CLASS_AND_PACKAGE_NAME);
+    Class tableClass = Class.forName(
+        OVERRIDE_CLASS_AND_PACKAGE_NAME,
+        true,
+        Thread.currentThread().getContextClassLoader());
+    SqoopRecord record = (SqoopRecord) tableClass.newInstance();
+
+    String [] fieldNames = record.getFieldNames();
+    assertArrayEquals(new String [] {"INTFIELD1", "INTFIELD2"}, fieldNames);
+
+    record.setField(0, Integer.valueOf(1));
+    record.setField(1, Integer.valueOf(2));
+    Object [] values = new Object[fieldNames.length];
+    record.getFieldValues(values);
+    assertArrayEquals(new Object [] {1, 2}, values);
+    Map<String, Object> fieldMap = record.getFieldMap();
+    for (int i = 0; i < fieldNames.length; i++) {
+      assertEquals(fieldMap.get(fieldNames[i]), values[i]);
+    }
+
+    try {
+      record.setField(2, Integer.valueOf(3));
+      fail("Expected an exception for a missing field index");
+    } catch (RuntimeException re) {
+      // expected.
+    }
+
+    if (null != prevClassLoader) {
+      ClassLoaderStack.setCurrentClassLoader(prevClassLoader);
+    }
+  }
+
+  private static final String PRIMITIVE_TABLE_NAME = "PRIMITIVE_FIELDS";
+
+  /**
+   * Test the classes generated with primitive fields and a null bitmap.
+   */
+  @Test
+  public void testPrimitiveFields() throws Exception {
+    try (Connection conn = testServer.getConnection();
+        Statement stmt = conn.createStatement()) {
+      stmt.executeUpdate("DROP TABLE \"" + PRIMITIVE_TABLE_NAME
+          + "\" IF EXISTS");
+      stmt.executeUpdate("CREATE TABLE \"" + PRIMITIVE_TABLE_NAME
+          + "\" (ID INT, BIG BIGINT, DBL DOUBLE, FLAG BOOLEAN, "
+          + "NAME VARCHAR(10))");
+      stmt.executeUpdate("INSERT INTO \"" + PRIMITIVE_TABLE_NAME
+          + "\" VALUES (1, 10000000000, 1.5, TRUE, 'one')");
+      stmt.executeUpdate("INSERT INTO \"" + PRIMITIVE_TABLE_NAME
+          + "\" VALUES (2, NULL, NULL, NULL, NULL)");
+      conn.commit();
+    }
+
+    options.getConf().setBoolean(
+        ClassWriter.PROPERTY_CODEGEN_PRIMITIVE_FIELDS, true);
+    String [] argv = {
+      "--bindir",
+      JAR_GEN_DIR,
+      "--outdir",
+      CODE_GEN_DIR,
+    };
+    File ormJarFile = runGenerationTest(argv, PRIMITIVE_TABLE_NAME,
+        PRIMITIVE_TABLE_NAME);
+    ClassLoader prevClassLoader = ClassLoaderStack.addJarFile(
+        ormJarFile.getCanonicalPath(), PRIMITIVE_TABLE_NAME);
+    Class tableClass = Class.forName(PRIMITIVE_TABLE_NAME, true,
+        Thread.currentThread().getContextClassLoader());
+    assertEquals(int.class, tableClass.getDeclaredField("ID").getType());
+    assertEquals(String.class, tableClass.getDeclaredField("NAME").getType());
+
+    SqoopRecord full = (SqoopRecord) tableClass.newInstance();
+    SqoopRecord nulls = (SqoopRecord) tableClass.newInstance();
+    // A new record starts out with every field null.
+    assertTrue((Boolean) tableClass.getMethod("isNull_ID").invoke(full));
+    assertNull(tableClass.getMethod("get_ID").invoke(full));
+
+    try (Connection conn = testServer.getConnection();
+        Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT * FROM \""
+            + PRIMITIVE_TABLE_NAME + "\" ORDER BY ID")) {
+      assertTrue(rs.next());
+      full.readFields(rs);
+      assertTrue(rs.next());
+      nulls.readFields(rs);
+    }
+
+    assertEquals(1, tableClass.getMethod("getPrimitive_ID").invoke(full));
+    assertEquals(Long.valueOf(10000000000L),
+        tableClass.getMethod("get_BIG").invoke(full));
+    Map<String, Object> fieldMap = full.getFieldMap();
+    assertEquals(Double.valueOf(1.5), fieldMap.get("DBL"));
+    assertEquals(Boolean.TRUE, fieldMap.get("FLAG"));
+    assertEquals("1,10000000000,1.5,true,one", full.toString(false));
+
+    assertFalse((Boolean) tableClass.getMethod("isNull_ID").invoke(nulls));
+    assertTrue((Boolean) tableClass.getMethod("isNull_BIG").invoke(nulls));
+    fieldMap = nulls.getFieldMap();
+    assertNull(fieldMap.get("BIG"));
+    assertNull(fieldMap.get("DBL"));
+    assertNull(fieldMap.get("FLAG"));
+    assertEquals("2,null,null,null,null", nulls.toString(false));
+    assertFalse(full.equals(nulls));
+
+    // Writable, parse() and clone() preserve values and nulls.
+    for (SqoopRecord record : new SqoopRecord [] {full, nulls}) {
+      DataOutputBuffer out = new DataOutputBuffer();
+      record.write(out);
+      DataInputBuffer in = new DataInputBuffer();
+      in.reset(out.getData(), out.getLength());
+      SqoopRecord copy = (SqoopRecord) tableClass.newInstance();
+      copy.readFields(in);
+      assertEquals(record, copy);
+
+      SqoopRecord parsed = (SqoopRecord) tableClass.newInstance();
+      parsed.parse(record.toString(false).replace("null", ""));
+      assertEquals(record.getFieldMap().get("BIG"),
+          parsed.getFieldMap().get("BIG"));
+      assertEquals(record.getFieldMap().get("FLAG"),
+          parsed.getFieldMap().get("FLAG"));
+
+      SqoopRecord cloned = (SqoopRecord) record.clone();
+      assertEquals(record, cloned);
+      Object big = record.getFieldMap().get("BIG");
+      tableClass.getMethod("set_BIG", Long.class).invoke(cloned,
+          (Object) null);
+      assertNull(cloned.getFieldMap().get("BIG"));
+      assertEquals(big, record.getFieldMap().get("BIG"));
+    }
+
+    tableClass.getMethod("set_BIG", long.class).invoke(nulls, 5L);
+    assertEquals(Long.valueOf(5L), nulls.getFieldMap().get("BIG"));
+
+    if (null != prevClassLoader) {
+      ClassLoaderStack.setCurrentClassLoader(prevClassLoader);
+    }
+  }
+
+  private static final String BYTECODE_TABLE_NAME = "BYTECODE_FIELDS";
+
+  /**
+   * Test that a record class emitted as bytecode behaves like the compiled
+   * one.
+   */
+  @Test
+  public void testBytecodeRecordClass() throws Exception {
+    try (Connection conn = testServer.getConnection();
+        Statement stmt = conn.createStatement()) {
+      stmt.executeUpdate("DROP TABLE \"" + BYTECODE_TABLE_NAME
+          + "\" IF EXISTS");
+      stmt.executeUpdate("CREATE TABLE \"" + BYTECODE_TABLE_NAME
+          + "\" (ID INT, BIG BIGINT, DBL DOUBLE, FLAG BOOLEAN, "
+          + "NAME VARCHAR(20), DT DATE, TS TIMESTAMP, AMOUNT DECIMAL(10,2), "
+          + "BIN VARBINARY(8))");
+      stmt.executeUpdate("INSERT INTO \"" + BYTECODE_TABLE_NAME
+          + "\" VALUES (1, 10000000000, 1.5, TRUE, 'one two', "
+          + "'2016-02-29', '2016-02-29 10:11:12.5', 12.50, '01ff')");
+      stmt.executeUpdate("INSERT INTO \"" + BYTECODE_TABLE_NAME
+          + "\" VALUES (2, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL)");
+      conn.commit();
+    }
+
+    String [] argv = {
+      "--bindir",
+      JAR_GEN_DIR,
+      "--outdir",
+      CODE_GEN_DIR,
+      "--class-name",
+      "CompiledRecord",
+    };
+    File compiledJar = runGenerationTest(argv, "CompiledRecord",
+        BYTECODE_TABLE_NAME);
+
+    options.getConf().set(ClassWriter.PROPERTY_CODEGEN_BACKEND,
+        ClassWriter.CODEGEN_BACKEND_BYTECODE);
+    options.setClassName("bytecode.EmittedRecord");
+    CompilationManager compileMgr = new CompilationManager(options);
+    new ClassWriter(options, manager, BYTECODE_TABLE_NAME, compileMgr)
+        .generate();
+    compileMgr.compile();
+    compileMgr.jar();
+    assertFalse("No source should be generated", new File(CODE_GEN_DIR,
+        "bytecode" + File.separator + "EmittedRecord.java").exists());
+
+    ClassLoader prevClassLoader = ClassLoaderStack.addJarFile(
+        compiledJar.getCanonicalPath(), "CompiledRecord");
+    Class compiledClass = Class.forName("CompiledRecord", true,
+        Thread.currentThread().getContextClassLoader());
+    ClassLoaderStack.addJarFile(compileMgr.getJarFilename(),
+        "bytecode.EmittedRecord");
+    Class emittedClass = Class.forName("bytecode.EmittedRecord", true,
+        Thread.currentThread().getContextClassLoader());
+
+    SqoopRecord [] emittedRows = new SqoopRecord[2];
+    try (Connection conn = testServer.getConnection();
+        Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT * FROM \""
+            + BYTECODE_TABLE_NAME + "\" ORDER BY ID")) {
+      for (int i = 0; i < emittedRows.length; i++) {
+        assertTrue(rs.next());
+        SqoopRecord compiled = (SqoopRecord) compiledClass.newInstance();
+        compiled.readFields(rs);
+        SqoopRecord emitted = (SqoopRecord) emittedClass.newInstance();
+        emitted.readFields(rs);
+        emittedRows[i] = emitted;
+
+        assertEquals(compiled.getClassFormatVersion(),
+            emitted.getClassFormatVersion());
+        assertEquals(compiled.toString(), emitted.toString());
+        assertEquals(compiled.getFieldMap(), emitted.getFieldMap());
+        assertArrayEquals(compiled.getFieldNames(), emitted.getFieldNames());
+
+        // The serialized forms are the same.
+        DataOutputBuffer compiledOut = new DataOutputBuffer();
+        compiled.write(compiledOut);
+        DataOutputBuffer emittedOut = new DataOutputBuffer();
+        emitted.write(emittedOut);
+        assertArrayEquals(
+            Arrays.copyOf(compiledOut.getData(), compiledOut.getLength()),
+            Arrays.copyOf(emittedOut.getData(), emittedOut.getLength()));
+        DataInputBuffer in = new DataInputBuffer();
+        in.reset(compiledOut.getData(), compiledOut.getLength());
+        SqoopRecord copy = (SqoopRecord) emittedClass.newInstance();
+        copy.readFields(in);
+        assertEquals(emitted, copy);
+
+        SqoopRecord parsed = (SqoopRecord) emittedClass.newInstance();
+        parsed.parse(compiled.toString(false));
+        assertEquals(compiled.toString(), parsed.toString());
+
+        SqoopRecord cloned = (SqoopRecord) emitted.clone();
+        assertEquals(emitted, cloned);
+        cloned.setField("NAME", "changed");
+        assertFalse(emitted.equals(cloned));
+      }
+      assertFalse(rs.next());
+    }
+
+    // write(PreparedStatement) binds the columns in order.
+    emittedRows[0].setField("ID", Integer.valueOf(3));
+    try (Connection conn = testServer.getConnection();
+        PreparedStatement stmt = conn.prepareStatement("INSERT INTO \""
+            + BYTECODE_TABLE_NAME + "\" VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+      assertEquals(9, emittedRows[0].write(stmt, 0));
+      stmt.executeUpdate();
+      conn.commit();
+    }
+    try (Connection conn = testServer.getConnection();
+        Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT * FROM \""
+            + BYTECODE_TABLE_NAME + "\" WHERE ID = 3")) {
+      assertTrue(rs.next());
+      SqoopRecord inserted = (SqoopRecord) emittedClass.newInstance();
+      inserted.readFields(rs);
+      assertEquals(emittedRows[0], inserted);
+    }
+
+    if (null != prevClassLoader) {
+      ClassLoaderStack.setCurrentClassLoader(prevClassLoader);
+    }
+  }
+
   private static final String USERMAPPING_CLASS_AND_PACKAGE_NAME =
       "usermapping.pkg.prefix.classname";
 
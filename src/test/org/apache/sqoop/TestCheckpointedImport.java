@@ -0,0 +1,298 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskType;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.apache.sqoop.config.ConfigurationHelper;
+import org.apache.sqoop.lib.SchemaSqoopRecord;
+import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.apache.sqoop.mapreduce.db.DataDrivenDBInputFormat;
+import org.apache.sqoop.mapreduce.db.SplitCheckpoint;
+import org.apache.sqoop.orm.ClassWriter;
+import org.junit.Test;
+
+import com.cloudera.sqoop.testutil.CommonArgs;
+import com.cloudera.sqoop.testutil.ImportJobTestCase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test imports that checkpoint their splits.
+ */
+public class TestCheckpointedImport extends ImportJobTestCase {
+
+  private String [] getArgv(int checkpointRows) {
+    ArrayList<String> args = new ArrayList<String>();
+    CommonArgs.addHadoopFlags(args);
+    args.add("-D");
+    args.add(SplitCheckpoint.CHECKPOINT_ROWS_KEY + "=" + checkpointRows);
+    args.add("--table");
+    args.add(getTableName());
+    args.add("--split-by");
+    args.add("ID");
+    args.add("--warehouse-dir");
+    args.add(getWarehouseDir());
+    args.add("--connect");
+    args.add(getConnectString());
+    args.add("--as-textfile");
+    args.add("--num-mappers");
+    args.add("2");
+    return args.toArray(new String[0]);
+  }
+
+  private List<String> readLines(Path dir, int [] dataFiles)
+      throws IOException {
+    FileSystem fs = FileSystem.getLocal(getConf());
+    List<String> lines = new ArrayList<String>();
+    for (FileStatus stat : fs.listStatus(dir)) {
+      if (!stat.getPath().getName().startsWith("part-")) {
+        continue;
+      }
+      dataFiles[0]++;
+      BufferedReader r = new BufferedReader(new InputStreamReader(
+          fs.open(stat.getPath())));
+      try {
+        String line;
+        while ((line = r.readLine()) != null) {
+          lines.add(line);
+        }
+      } finally {
+        r.close();
+      }
+    }
+    Collections.sort(lines);
+    return lines;
+  }
+
+  @Test
+  public void testCheckpointsKeepEveryRowOnce() throws IOException {
+    // Runs of equal split column values, which must not be cut in two.
+    int [] ids = { 1, 1, 1, 2, 3, 3, 4, 5, 5, 5, 5, 6, 7, 8, 8, 9, 10, 10 };
+    String [] vals = new String[ids.length * 2];
+    List<String> expected = new ArrayList<String>();
+    for (int i = 0; i < ids.length; i++) {
+      vals[2 * i] = Integer.toString(ids[i]);
+      vals[2 * i + 1] = "'row" + i + "'";
+      expected.add(ids[i] + ",row" + i);
+    }
+    Collections.sort(expected);
+    createTableWithColTypesAndNames(new String[] { "ID", "NAME" },
+        new String[] { "INT", "VARCHAR(16)" }, vals);
+
+    runImport(getArgv(2));
+
+    int [] dataFiles = { 0 };
+    assertEquals(expected, readLines(getTablePath(), dataFiles));
+    // Each checkpoint starts a new output file.
+    assertTrue("Expected checkpointed output files, got " + dataFiles[0],
+        dataFiles[0] > 2);
+  }
+
+  /** A record of the ID and NAME columns, without generated code. */
+  public static class Row extends SchemaSqoopRecord {
+    private static final String SCHEMA;
+    static {
+      try {
+        SCHEMA = new Schema(ClassWriter.CLASS_WRITER_VERSION,
+            new String[] { "ID", "NAME" },
+            new String[] { "Integer", "String" },
+            new int[] { Types.INTEGER, Types.VARCHAR },
+            new int[] { 0, 1 }).encode();
+      } catch (IOException ioe) {
+        throw new RuntimeException(ioe);
+      }
+    }
+
+    public Row() {
+      super(SCHEMA);
+    }
+
+    String getLine() {
+      Object [] values = new Object[2];
+      getFieldValues(values);
+      return values[0] + "," + values[1];
+    }
+  }
+
+  /** Keeps the rows a task attempt writes, as its output format would. */
+  private class LineWriter implements SplitCheckpoint.SegmentWriter {
+    private final List<String> lines = new ArrayList<String>();
+
+    @Override
+    public String rollSegment(Path dir, int index) throws IOException {
+      String name = "part-m-00000-" + index;
+      OutputStream out = FileSystem.getLocal(getConf()).create(
+          new Path(dir, name));
+      try {
+        for (String line : lines) {
+          out.write((line + "\n").getBytes("UTF-8"));
+        }
+      } finally {
+        out.close();
+      }
+      lines.clear();
+      return name;
+    }
+  }
+
+  private Configuration getReaderConf(String splitCol) throws IOException {
+    // The password is read from the credentials of a JobConf.
+    Job job = new Job(new JobConf(getConf()));
+    Configuration conf = job.getConfiguration();
+    DBConfiguration.configureDB(conf, "org.hsqldb.jdbcDriver",
+        getConnectString(), (String) null, (String) null);
+    DBConfiguration dbConf = new DBConfiguration(conf);
+    dbConf.setInputClass(Row.class);
+    dbConf.setInputTableName(getTableName());
+    dbConf.setInputFieldNames(new String[] { "ID", "NAME" });
+    dbConf.setInputOrderBy(splitCol);
+    conf.setLong(SplitCheckpoint.CHECKPOINT_ROWS_KEY, 2);
+    ConfigurationHelper.setJobNumMaps(job, 1);
+    FileOutputFormat.setOutputPath(job, getTablePath());
+    return conf;
+  }
+
+  /**
+   * Read the split as an attempt of its task would, writing each row.
+   * @param failAfter the number of rows after which the attempt fails, or
+   * -1 to read the whole split.
+   * @return the rows written since the last checkpoint, and those of the
+   * checkpoints if the attempt succeeds.
+   */
+  private List<String> runAttempt(Configuration conf, InputSplit split,
+      int attempt, int failAfter) throws Exception {
+    TaskAttemptContext context = new TaskAttemptContextImpl(conf,
+        new TaskAttemptID("checkpoint", 1, TaskType.MAP, 0, attempt));
+    SplitCheckpoint checkpoint = SplitCheckpoint.forTask(context);
+    LineWriter writer = new LineWriter();
+    checkpoint.setWriter(writer);
+
+    DataDrivenDBInputFormat<Row> format = new DataDrivenDBInputFormat<Row>();
+    format.setConf(conf);
+    RecordReader<LongWritable, Row> reader =
+        format.createRecordReader(split, context);
+    reader.initialize(split, context);
+    try {
+      while ((failAfter < 0 || writer.lines.size() < failAfter)
+          && reader.nextKeyValue()) {
+        writer.lines.add(reader.getCurrentValue().getLine());
+      }
+    } finally {
+      reader.close();
+      SplitCheckpoint.release(context);
+    }
+
+    List<String> lines = new ArrayList<String>(writer.lines);
+    if (failAfter < 0) {
+      Path workDir = new Path(getWarehouseDir(), "work");
+      FileSystem.getLocal(conf).mkdirs(workDir);
+      checkpoint.restoreSegments(workDir);
+      lines.addAll(readLines(workDir, new int[1]));
+    }
+    Collections.sort(lines);
+    return lines;
+  }
+
+  private List<String> createRows(String [] names) {
+    String [] vals = new String[names.length * 2];
+    List<String> rows = new ArrayList<String>();
+    for (int i = 0; i < names.length; i++) {
+      vals[2 * i] = Integer.toString(i);
+      vals[2 * i + 1] = "'" + names[i] + "'";
+      rows.add(i + "," + names[i]);
+    }
+    Collections.sort(rows);
+    createTableWithColTypesAndNames(new String[] { "ID", "NAME" },
+        new String[] { "INT", "VARCHAR(16)" }, vals);
+    return rows;
+  }
+
+  private InputSplit getSplit(Configuration conf) throws Exception {
+    DataDrivenDBInputFormat<Row> format = new DataDrivenDBInputFormat<Row>();
+    format.setConf(conf);
+    List<InputSplit> splits = format.getSplits(new Job(conf));
+    assertEquals(1, splits.size());
+    return splits.get(0);
+  }
+
+  @Test
+  public void testRetryResumesAfterCheckpoint() throws Exception {
+    String [] names = new String[18];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = "row" + i;
+    }
+    List<String> expected = createRows(names);
+    Configuration conf = getReaderConf("ID");
+    InputSplit split = getSplit(conf);
+
+    // The first attempt fails between checkpoints.
+    runAttempt(conf, split, 0, 11);
+    TaskAttemptContext retry = new TaskAttemptContextImpl(conf,
+        new TaskAttemptID("checkpoint", 1, TaskType.MAP, 0, 1));
+    Object lastKey = SplitCheckpoint.forTask(retry).getLastKey();
+    SplitCheckpoint.release(retry);
+    assertNotNull(lastKey);
+
+    // The retry keeps the checkpointed rows and reads only the rest.
+    assertEquals(expected, runAttempt(conf, split, 1, -1));
+  }
+
+  @Test
+  public void testStringSplitColumnIsNotCheckpointed() throws Exception {
+    // Distinct in Java, but equal under a case-insensitive collation.
+    List<String> expected = createRows(new String[] {
+      "A", "a", "B", "b", "C", "c", "D", "d", "E", "e", "F", "f", });
+    Configuration conf = getReaderConf("NAME");
+    InputSplit split = getSplit(conf);
+
+    runAttempt(conf, split, 0, 7);
+    TaskAttemptContext retry = new TaskAttemptContextImpl(conf,
+        new TaskAttemptID("checkpoint", 1, TaskType.MAP, 0, 1));
+    assertNull(SplitCheckpoint.forTask(retry).getLastKey());
+    SplitCheckpoint.release(retry);
+
+    // The retry reads the whole split again.
+    assertEquals(expected, runAttempt(conf, split, 1, -1));
+  }
+}
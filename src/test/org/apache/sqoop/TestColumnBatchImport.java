@@ -0,0 +1,220 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.mapred.FsInput;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.sqoop.lib.ColumnBatch;
+import org.junit.Test;
+import org.kitesdk.data.DatasetReader;
+import org.kitesdk.data.Datasets;
+
+import com.cloudera.sqoop.testutil.CommonArgs;
+import com.cloudera.sqoop.testutil.ImportJobTestCase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that imports of column batches write the same output as imports
+ * of records.
+ */
+public class TestColumnBatchImport extends ImportJobTestCase {
+
+  private static final String [] NAMES = {
+    "ID", "NUM", "BIG", "FRAC", "AMOUNT", "NAME", "CREATED", "FLAG",
+  };
+
+  private static final String [] TYPES = {
+    "INT", "SMALLINT", "BIGINT", "DOUBLE", "DECIMAL(8,2)", "VARCHAR(32)",
+    "TIMESTAMP", "BOOLEAN",
+  };
+
+  private String [] getArgv(boolean columnar, String layout) {
+    ArrayList<String> args = new ArrayList<String>();
+    CommonArgs.addHadoopFlags(args);
+    args.add("-D");
+    args.add(ColumnBatch.ENABLED_KEY + "=" + columnar);
+    // Smaller than a split, so splits are read in several batches.
+    args.add("-D");
+    args.add(ColumnBatch.SIZE_KEY + "=3");
+    args.add("--table");
+    args.add(getTableName());
+    args.add("--split-by");
+    args.add("ID");
+    args.add("--warehouse-dir");
+    args.add(getWarehouseDir());
+    args.add("--connect");
+    args.add(getConnectString());
+    args.add(layout);
+    args.add("--num-mappers");
+    args.add("2");
+    args.add("--delete-target-dir");
+    if (columnar) {
+      // Fails the import unless the job counted one output record per row.
+      args.add("--validate");
+    }
+    return args.toArray(new String[0]);
+  }
+
+  private void createTable(int rows) {
+    String [] vals = new String[rows * NAMES.length];
+    for (int i = 0; i < rows; i++) {
+      int j = i * NAMES.length;
+      vals[j] = Integer.toString(i);
+      // One row in five has nulls in all but the split column.
+      boolean nulls = i % 5 == 3;
+      vals[j + 1] = nulls ? "NULL" : Integer.toString(i * 7 - 20);
+      vals[j + 2] = nulls ? "NULL" : Long.toString(i * 10000000000L);
+      vals[j + 3] = nulls ? "NULL" : Double.toString(i / 4.0);
+      vals[j + 4] = nulls ? "NULL" : "'" + i + ".25'";
+      vals[j + 5] = nulls ? "NULL" : "'name, " + i + "'";
+      vals[j + 6] = nulls ? "NULL" : "'2017-03-1" + (i % 10) + " 10:20:30'";
+      vals[j + 7] = nulls ? "NULL" : Boolean.toString(i % 2 == 0);
+    }
+    createTableWithColTypesAndNames(NAMES, TYPES, vals);
+  }
+
+  private List<Path> getDataFiles() throws IOException {
+    FileSystem fs = FileSystem.getLocal(getConf());
+    List<Path> files = new ArrayList<Path>();
+    for (FileStatus stat : fs.listStatus(getTablePath())) {
+      if (stat.getPath().getName().startsWith("part-")) {
+        files.add(stat.getPath());
+      }
+    }
+    return files;
+  }
+
+  private List<String> readLines() throws IOException {
+    FileSystem fs = FileSystem.getLocal(getConf());
+    List<String> lines = new ArrayList<String>();
+    for (Path file : getDataFiles()) {
+      BufferedReader r = new BufferedReader(new InputStreamReader(
+          fs.open(file)));
+      try {
+        String line;
+        while ((line = r.readLine()) != null) {
+          lines.add(line);
+        }
+      } finally {
+        r.close();
+      }
+    }
+    Collections.sort(lines);
+    return lines;
+  }
+
+  private List<String> readAvroRecords() throws IOException {
+    List<String> records = new ArrayList<String>();
+    for (Path file : getDataFiles()) {
+      DataFileReader<GenericRecord> reader =
+          new DataFileReader<GenericRecord>(new FsInput(file, getConf()),
+              new GenericDatumReader<GenericRecord>());
+      try {
+        for (GenericRecord record : reader) {
+          records.add(record.toString());
+        }
+      } finally {
+        reader.close();
+      }
+    }
+    Collections.sort(records);
+    return records;
+  }
+
+  private List<String> readParquetRecords() throws IOException {
+    List<String> records = new ArrayList<String>();
+    DatasetReader<GenericRecord> reader = Datasets.load(
+        "dataset:file:" + getTablePath(), GenericRecord.class).newReader();
+    try {
+      for (GenericRecord record : reader) {
+        records.add(record.toString());
+      }
+    } finally {
+      reader.close();
+    }
+    Collections.sort(records);
+    return records;
+  }
+
+  @Test
+  public void testTextImport() throws IOException {
+    createTable(20);
+
+    runImport(getArgv(false, "--as-textfile"));
+    List<String> expected = readLines();
+    runImport(getArgv(true, "--as-textfile"));
+
+    assertEquals(20, expected.size());
+    assertTrue(expected.contains("3,null,null,null,null,null,null,null"));
+    assertEquals(expected, readLines());
+  }
+
+  @Test
+  public void testAvroImport() throws IOException {
+    createTable(20);
+
+    runImport(getArgv(false, "--as-avrodatafile"));
+    List<String> expected = readAvroRecords();
+    runImport(getArgv(true, "--as-avrodatafile"));
+
+    assertEquals(20, expected.size());
+    assertEquals(expected, readAvroRecords());
+  }
+
+  @Test
+  public void testParquetImport() throws IOException {
+    createTable(20);
+
+    runImport(getArgv(false, "--as-parquetfile"));
+    List<String> expected = readParquetRecords();
+    runImport(getArgv(true, "--as-parquetfile"));
+
+    assertEquals(20, expected.size());
+    assertEquals(expected, readParquetRecords());
+  }
+
+  @Test
+  public void testEmptyTable() throws IOException {
+    createTable(0);
+
+    runImport(getArgv(true, "--as-textfile"));
+
+    assertEquals(Collections.emptyList(), readLines());
+  }
+
+  @Test(expected = SQLException.class)
+  public void testBatchesAreNotWritten() throws SQLException {
+    new ColumnBatch().write(null);
+  }
+}
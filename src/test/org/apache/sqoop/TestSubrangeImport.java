@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.sqoop.lib.ColumnBatch;
+import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.junit.Test;
+
+import com.cloudera.sqoop.testutil.CommonArgs;
+import com.cloudera.sqoop.testutil.ImportJobTestCase;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test that imports reading each split as concurrent sub-ranges write the
+ * same rows, in the same number of files, as imports of whole splits.
+ */
+public class TestSubrangeImport extends ImportJobTestCase {
+
+  private static final String [] NAMES = { "ID", "NAME", "VAL" };
+
+  private static final String [] TYPES = { "INT", "VARCHAR(32)", "DOUBLE" };
+
+  private String [] getArgv(int subranges, boolean columnar) {
+    ArrayList<String> args = new ArrayList<String>();
+    CommonArgs.addHadoopFlags(args);
+    args.add("-D");
+    args.add(DBConfiguration.INPUT_SUBRANGES_PROPERTY + "=" + subranges);
+    args.add("-D");
+    args.add(ColumnBatch.ENABLED_KEY + "=" + columnar);
+    args.add("-D");
+    args.add(ColumnBatch.SIZE_KEY + "=4");
+    args.add("--table");
+    args.add(getTableName());
+    args.add("--split-by");
+    args.add("ID");
+    args.add("--warehouse-dir");
+    args.add(getWarehouseDir());
+    args.add("--connect");
+    args.add(getConnectString());
+    args.add("--num-mappers");
+    args.add("2");
+    args.add("--delete-target-dir");
+    return args.toArray(new String[0]);
+  }
+
+  private void createTable(int rows) {
+    String [] vals = new String[rows * NAMES.length];
+    for (int i = 0; i < rows; i++) {
+      int j = i * NAMES.length;
+      vals[j] = Integer.toString(i);
+      vals[j + 1] = i % 7 == 2 ? "NULL" : "'name " + i + "'";
+      vals[j + 2] = Double.toString(i / 8.0);
+    }
+    createTableWithColTypesAndNames(NAMES, TYPES, vals);
+  }
+
+  private List<Path> getDataFiles() throws IOException {
+    FileSystem fs = FileSystem.getLocal(getConf());
+    List<Path> files = new ArrayList<Path>();
+    for (FileStatus stat : fs.listStatus(getTablePath())) {
+      if (stat.getPath().getName().startsWith("part-")) {
+        files.add(stat.getPath());
+      }
+    }
+    return files;
+  }
+
+  private List<String> readLines() throws IOException {
+    FileSystem fs = FileSystem.getLocal(getConf());
+    List<String> lines = new ArrayList<String>();
+    for (Path file : getDataFiles()) {
+      BufferedReader r = new BufferedReader(new InputStreamReader(
+          fs.open(file)));
+      try {
+        String line;
+        while ((line = r.readLine()) != null) {
+          lines.add(line);
+        }
+      } finally {
+        r.close();
+      }
+    }
+    Collections.sort(lines);
+    return lines;
+  }
+
+  @Test
+  public void testSubrangeImport() throws IOException {
+    createTable(100);
+
+    runImport(getArgv(1, false));
+    List<String> expected = readLines();
+    runImport(getArgv(3, false));
+
+    assertEquals(100, expected.size());
+    assertEquals(expected, readLines());
+    assertEquals(2, getDataFiles().size());
+  }
+
+  @Test
+  public void testSubrangeColumnBatchImport() throws IOException {
+    createTable(50);
+
+    runImport(getArgv(1, false));
+    List<String> expected = readLines();
+    runImport(getArgv(4, true));
+
+    assertEquals(expected, readLines());
+  }
+
+  @Test
+  public void testMoreSubrangesThanRows() throws IOException {
+    createTable(3);
+
+    runImport(getArgv(1, false));
+    List<String> expected = readLines();
+    runImport(getArgv(5, false));
+
+    assertEquals(3, expected.size());
+    assertEquals(expected, readLines());
+  }
+}
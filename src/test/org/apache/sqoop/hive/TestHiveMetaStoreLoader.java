@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.hive;
+
+import java.io.IOException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.sqoop.util.SqlTypeMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.cloudera.sqoop.SqoopOptions;
+import com.cloudera.sqoop.testutil.BaseSqoopTestCase;
+import com.cloudera.sqoop.tool.ImportTool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the metastore-based Hive loader without a running metastore.
+ */
+public class TestHiveMetaStoreLoader {
+
+  private Configuration conf;
+  private FileSystem fs;
+  private Path baseDir;
+
+  @Before
+  public void setUp() throws IOException {
+    conf = new Configuration();
+    conf.set("fs.default.name", "file:///");
+    fs = FileSystem.getLocal(conf);
+    baseDir = new Path(BaseSqoopTestCase.TEMP_BASE_DIR,
+        "TestHiveMetaStoreLoader");
+    fs.delete(baseDir, true);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    fs.delete(baseDir, true);
+  }
+
+  private HiveMetaStoreLoader newLoader(String... args) throws Exception {
+    List<String> argv = new ArrayList<String>();
+    argv.add("--map-column-hive");
+    argv.add("id=INT,msg=STRING");
+    argv.addAll(Arrays.asList(args));
+    SqoopOptions options = new ImportTool().parseArguments(
+        argv.toArray(new String[argv.size()]), null, null, false);
+    TableDefWriter writer = new TableDefWriter(options, null,
+        "inputTable", "outputTable", conf, false);
+    Map<String, Integer> colTypes = new SqlTypeMap<String, Integer>();
+    colTypes.put("id", Types.INTEGER);
+    colTypes.put("msg", Types.VARCHAR);
+    writer.setColumnTypes(colTypes);
+    return new HiveMetaStoreLoader(options, conf, writer);
+  }
+
+  private void touch(Path p) throws IOException {
+    fs.create(p).close();
+  }
+
+  @Test
+  public void testNewTable() throws Exception {
+    HiveMetaStoreLoader loader = newLoader(
+        "--hive-partition-key", "ds",
+        "--hive-partition-value", "20110413");
+    Table table = loader.newTable("default", "outputTable");
+
+    assertEquals("outputTable", table.getTableName());
+    assertEquals(2, table.getSd().getCols().size());
+    Map<String, String> cols = new HashMap<String, String>();
+    for (FieldSchema col : table.getSd().getCols()) {
+      cols.put(col.getName(), col.getType());
+    }
+    assertEquals("int", cols.get("id"));
+    assertEquals("string", cols.get("msg"));
+    assertEquals(1, table.getPartitionKeys().size());
+    assertEquals("ds", table.getPartitionKeys().get(0).getName());
+    assertEquals(",",
+        table.getSd().getSerdeInfo().getParameters().get("field.delim"));
+    assertEquals(HiveMetaStoreLoader.TEXT_INPUT_FORMAT,
+        table.getSd().getInputFormat());
+  }
+
+  @Test
+  public void testMoveFilesRenamesClashes() throws Exception {
+    Path src = new Path(baseDir, "src");
+    Path dest = new Path(baseDir, "dest");
+    touch(new Path(src, "part-m-00000"));
+    touch(new Path(src, "_SUCCESS"));
+    touch(new Path(dest, "part-m-00000"));
+
+    newLoader().moveFiles(src, dest);
+
+    assertTrue(fs.exists(new Path(dest, "part-m-00000")));
+    assertTrue(fs.exists(new Path(dest, "part-m-00000_copy_1")));
+    assertFalse(fs.exists(new Path(dest, "_SUCCESS")));
+    assertTrue(fs.exists(new Path(src, "_SUCCESS")));
+  }
+
+  @Test
+  public void testMoveFilesOverwrite() throws Exception {
+    Path src = new Path(baseDir, "src");
+    Path dest = new Path(baseDir, "dest");
+    touch(new Path(src, "part-m-00001"));
+    touch(new Path(dest, "part-m-00000"));
+
+    newLoader("--hive-overwrite").moveFiles(src, dest);
+
+    assertNotNull(fs.listStatus(dest));
+    assertEquals(1, fs.listStatus(dest).length);
+    assertTrue(fs.exists(new Path(dest, "part-m-00001")));
+  }
+}
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the in-memory pipe between two threads.
+ */
+public class TestBufferPipe {
+
+  private ExecutorService pool;
+
+  @Before
+  public void setUp() {
+    pool = Executors.newSingleThreadExecutor();
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  private Future<byte []> readAll(final InputStream in) {
+    return pool.submit(new Callable<byte []>() {
+      @Override
+      public byte [] call() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+          IOUtils.copy(in, bytes);
+        } finally {
+          in.close();
+        }
+        return bytes.toByteArray();
+      }
+    });
+  }
+
+  private static byte [] data(int length, int seed) {
+    byte [] b = new byte[length];
+    for (int i = 0; i < length; i++) {
+      b[i] = (byte) (i * 31 + seed);
+    }
+    return b;
+  }
+
+  @Test
+  public void testStreams() throws Exception {
+    // Much more data than the buffers hold, in several streams.
+    BufferPipe pipe = new BufferPipe(16, 3);
+    for (int stream = 0; stream < 3; stream++) {
+      Future<byte []> read = readAll(pipe.getInputStream());
+      byte [] expected = data(1000 + stream, stream);
+      OutputStream out = pipe.getOutputStream();
+      for (int i = 0; i < expected.length; i += 7) {
+        out.write(expected, i, Math.min(7, expected.length - i));
+      }
+      out.close();
+      assertArrayEquals(expected, read.get());
+    }
+  }
+
+  @Test
+  public void testReaderCloseFailsWriter() throws Exception {
+    BufferPipe pipe = new BufferPipe(16, 2);
+    final InputStream in = pipe.getInputStream();
+    Future<byte []> read = pool.submit(new Callable<byte []>() {
+      @Override
+      public byte [] call() throws IOException {
+        byte [] b = new byte[4];
+        assertEquals(4, in.read(b));
+        in.close();
+        return b;
+      }
+    });
+
+    OutputStream out = pipe.getOutputStream();
+    try {
+      for (int i = 0; i < 100; i++) {
+        out.write(data(16, i));
+      }
+      fail("Writes to a closed pipe should fail");
+    } catch (IOException ioe) {
+      // Expected.
+    }
+    read.get();
+  }
+
+  @Test
+  public void testAbortFailsReader() throws Exception {
+    BufferPipe pipe = new BufferPipe(16, 2);
+    Future<byte []> read = readAll(pipe.getInputStream());
+    OutputStream out = pipe.getOutputStream();
+    out.write(data(20, 0));
+    pipe.abort(new IOException("test"));
+    try {
+      read.get();
+      fail("Reads from an aborted pipe should fail");
+    } catch (ExecutionException ee) {
+      assertTrue(ee.getCause() instanceof IOException);
+      assertEquals("test", ee.getCause().getCause().getMessage());
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.manager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Test;
+import org.postgresql.copy.CopyOut;
+
+import com.cloudera.sqoop.io.SplittableBufferedWriter;
+import com.cloudera.sqoop.io.SplittingOutputStream;
+import com.cloudera.sqoop.testutil.CommonArgs;
+import com.cloudera.sqoop.testutil.ImportJobTestCase;
+import com.cloudera.sqoop.util.PerfCounters;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test writing the rows of a PostgreSQL COPY to HDFS.
+ */
+public class TestDirectPostgresqlCopyRows {
+
+  private Configuration conf;
+  private FileSystem fs;
+  private Path dir;
+
+  /** A CopyOut that returns the given rows. */
+  private static class RowsCopyOut implements CopyOut {
+    private final Iterator<String> rows;
+    private long handled;
+
+    RowsCopyOut(String... rows) {
+      this.rows = Arrays.asList(rows).iterator();
+    }
+
+    @Override
+    public byte [] readFromCopy() throws SQLException {
+      if (!rows.hasNext()) {
+        return null;
+      }
+      handled++;
+      try {
+        return rows.next().getBytes("UTF-8");
+      } catch (IOException ioe) {
+        throw new SQLException(ioe);
+      }
+    }
+
+    @Override
+    public int getFieldCount() {
+      return 1;
+    }
+
+    @Override
+    public int getFormat() {
+      return 0;
+    }
+
+    @Override
+    public int getFieldFormat(int field) {
+      return 0;
+    }
+
+    @Override
+    public boolean isActive() {
+      return rows.hasNext();
+    }
+
+    @Override
+    public void cancelCopy() {
+    }
+
+    @Override
+    public long getHandledRowCount() {
+      return handled;
+    }
+  }
+
+  @Before
+  public void setUp() throws IOException {
+    conf = new Configuration();
+    conf.set(CommonArgs.FS_DEFAULTFS, CommonArgs.LOCAL_FS);
+    fs = FileSystem.getLocal(conf);
+    dir = new Path(ImportJobTestCase.TEMP_BASE_DIR, "copyRowsTest");
+    fs.delete(dir, true);
+  }
+
+  private String readFile(String name) throws IOException {
+    InputStream in = fs.open(new Path(dir, name));
+    try {
+      return IOUtils.toString(in, "UTF-8");
+    } finally {
+      in.close();
+    }
+  }
+
+  @Test
+  public void testCopyRows() throws IOException, SQLException {
+    SplittableBufferedWriter w = new SplittableBufferedWriter(
+        new SplittingOutputStream(conf, dir, "data-", 0, null));
+    PerfCounters counters = new PerfCounters();
+    try {
+      DirectPostgresqlManager.copyRows(
+          new RowsCopyOut("1,one\n", "2,\"two\nlines\"\n", "3,three"),
+          w, '|', counters);
+    } finally {
+      w.close();
+    }
+
+    // Each row ends with the record delimiter instead of a newline.
+    assertEquals("1,one|2,\"two\nlines\"|3,three|", readFile("data-00000"));
+    assertFalse(fs.exists(new Path(dir, "data-00001")));
+  }
+}
@@ -0,0 +1,378 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileConstants;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.mapred.FsInput;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.DefaultCodec;
+import org.apache.sqoop.tool.CompactTool;
+import org.apache.sqoop.util.AppendManifest;
+import org.junit.Before;
+import org.junit.Test;
+
+import parquet.avro.AvroParquetReader;
+import parquet.avro.AvroParquetWriter;
+import parquet.hadoop.ParquetWriter;
+import parquet.hadoop.metadata.CompressionCodecName;
+
+import com.cloudera.sqoop.Sqoop;
+import com.cloudera.sqoop.testutil.CommonArgs;
+
+import static org.junit.Assert.*;
+
+public class TestCompactJob {
+
+  private Configuration conf;
+  private FileSystem fs;
+  private Path dir;
+
+  @Before
+  public void setUp() throws IOException {
+    conf = new Configuration();
+    conf.set(CommonArgs.FS_DEFAULTFS, CommonArgs.LOCAL_FS);
+    conf.set("mapred.job.tracker", "local");
+    conf.setLong(CompactJob.FILE_SIZE_KEY, 1000);
+    fs = FileSystem.getLocal(conf);
+    Path base = new Path(System.getProperty("test.build.data", "/tmp"),
+        "compact");
+    fs.delete(base, true);
+    dir = new Path(base, "dataset");
+    fs.mkdirs(dir);
+  }
+
+  private int runCompactTool() {
+    Sqoop sqoop = new Sqoop(new CompactTool(), conf);
+    return Sqoop.runSqoop(sqoop,
+        new String[] { "--target-dir", dir.toString() });
+  }
+
+  private void runCompact() throws IOException {
+    assertEquals(0, runCompactTool());
+    assertFalse(fs.exists(new Path(dir.getParent(),
+        ".dataset_sqoop_compact")));
+    assertFalse(fs.exists(new Path(dir.getParent(),
+        ".dataset_sqoop_compact_old")));
+  }
+
+  private void writeText(Path path, int first, int count) throws IOException {
+    OutputStream out = fs.create(path);
+    try {
+      for (int i = first; i < first + count; i++) {
+        out.write((i + "\n").getBytes("UTF-8"));
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  /** @return the sorted lines of the data files of the dataset. */
+  private List<String> readLines() throws IOException {
+    List<String> lines = new ArrayList<String>();
+    for (String name : listDataFiles()) {
+      BufferedReader r = new BufferedReader(
+          new InputStreamReader(fs.open(new Path(dir, name)), "UTF-8"));
+      try {
+        String line;
+        while (null != (line = r.readLine())) {
+          lines.add(line);
+        }
+      } finally {
+        r.close();
+      }
+    }
+    Collections.sort(lines);
+    return lines;
+  }
+
+  private List<String> listDataFiles() throws IOException {
+    List<String> names = new ArrayList<String>();
+    for (FileStatus stat : fs.listStatus(dir)) {
+      String name = stat.getPath().getName();
+      if (!name.startsWith("_") && !name.startsWith(".")) {
+        names.add(name);
+      }
+    }
+    Collections.sort(names);
+    return names;
+  }
+
+  private static List<String> numbers(int count) {
+    List<String> lines = new ArrayList<String>();
+    for (int i = 0; i < count; i++) {
+      lines.add(String.valueOf(i));
+    }
+    Collections.sort(lines);
+    return lines;
+  }
+
+  @Test
+  public void testCompactText() throws IOException {
+    // Five small files and one big enough to keep.
+    for (int i = 0; i < 5; i++) {
+      writeText(new Path(dir, "part-m-0000" + i), i * 10, 10);
+    }
+    writeText(new Path(dir, "part-m-00005"), 50, 150);
+    long bigLength = fs.getFileStatus(new Path(dir, "part-m-00005")).getLen();
+    AppendManifest manifest = new AppendManifest(6);
+    manifest.addFiles(listDataFiles());
+    manifest.write(fs, dir);
+
+    runCompact();
+
+    assertEquals(Arrays.asList("part-m-00005", "part-m-00006"),
+        listDataFiles());
+    assertEquals(bigLength,
+        fs.getFileStatus(new Path(dir, "part-m-00005")).getLen());
+    assertEquals(numbers(200), readLines());
+
+    manifest = AppendManifest.read(fs, dir);
+    assertEquals(7, manifest.getNextPartition());
+    assertEquals(Arrays.asList("part-m-00005", "part-m-00006"),
+        manifest.getFiles());
+
+    // Nothing is left to compact.
+    runCompact();
+    assertEquals(Arrays.asList("part-m-00005", "part-m-00006"),
+        listDataFiles());
+  }
+
+  @Test
+  public void testCompactSequenceFiles() throws IOException {
+    for (int i = 0; i < 3; i++) {
+      SequenceFile.Writer writer = SequenceFile.createWriter(fs, conf,
+          new Path(dir, "part-m-0000" + i), LongWritable.class, Text.class,
+          SequenceFile.CompressionType.BLOCK, new DefaultCodec());
+      try {
+        for (int j = 0; j < 10; j++) {
+          writer.append(new LongWritable(i * 10 + j),
+              new Text("row " + (i * 10 + j)));
+        }
+      } finally {
+        writer.close();
+      }
+    }
+
+    runCompact();
+
+    assertEquals(Arrays.asList("part-m-00003"), listDataFiles());
+    SequenceFile.Reader reader = new SequenceFile.Reader(fs,
+        new Path(dir, "part-m-00003"), conf);
+    try {
+      assertTrue(reader.isBlockCompressed());
+      assertEquals(Text.class.getName(), reader.getValueClassName());
+      LongWritable key = new LongWritable();
+      Text value = new Text();
+      List<Long> keys = new ArrayList<Long>();
+      while (reader.next(key, value)) {
+        assertEquals("row " + key.get(), value.toString());
+        keys.add(key.get());
+      }
+      Collections.sort(keys);
+      assertEquals(30, keys.size());
+      assertEquals(Long.valueOf(29), keys.get(29));
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testCompactAvro() throws IOException {
+    Schema schema = new Schema.Parser().parse("{\"type\": \"record\", "
+        + "\"name\": \"Row\", \"fields\": [{\"name\": \"ID\", "
+        + "\"type\": \"int\"}]}");
+    for (int i = 0; i < 3; i++) {
+      DataFileWriter<GenericRecord> writer = new DataFileWriter<GenericRecord>(
+          new GenericDatumWriter<GenericRecord>(schema));
+      writer.setCodec(CodecFactory.deflateCodec(6));
+      writer.create(schema, fs.create(new Path(dir, "part-m-0000" + i
+          + ".avro")));
+      try {
+        for (int j = 0; j < 10; j++) {
+          GenericRecord record = new GenericData.Record(schema);
+          record.put("ID", i * 10 + j);
+          writer.append(record);
+        }
+      } finally {
+        writer.close();
+      }
+    }
+
+    runCompact();
+
+    assertEquals(Arrays.asList("part-m-00003.avro"), listDataFiles());
+    DataFileReader<GenericRecord> reader = new DataFileReader<GenericRecord>(
+        new FsInput(new Path(dir, "part-m-00003.avro"), conf),
+        new GenericDatumReader<GenericRecord>());
+    try {
+      assertEquals(schema, reader.getSchema());
+      assertEquals(DataFileConstants.DEFLATE_CODEC,
+          reader.getMetaString(DataFileConstants.CODEC));
+      int count = 0;
+      while (reader.hasNext()) {
+        reader.next();
+        count++;
+      }
+      assertEquals(30, count);
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testFinishInterruptedSwap() throws IOException {
+    // The dataset was renamed away after the compacted file was staged.
+    Path parent = dir.getParent();
+    Path staging = new Path(parent, ".dataset_sqoop_compact");
+    Path backup = new Path(parent, ".dataset_sqoop_compact_old");
+    fs.rename(dir, backup);
+    writeText(new Path(backup, "part-m-00000"), 0, 10);
+    writeText(new Path(backup, "part-m-00001"), 10, 10);
+    writeText(new Path(backup, "part-m-00002"), 20, 10);
+    writeText(new Path(staging, "part-m-00003"), 0, 20);
+    OutputStream out = fs.create(
+        new Path(staging, CompactJob.COMPACTED_LIST_NAME));
+    out.write("part-m-00000\npart-m-00001\n".getBytes("UTF-8"));
+    out.close();
+
+    // Leave the files alone once the swap is done.
+    conf.setLong(CompactJob.FILE_SIZE_KEY, 40);
+    runCompact();
+
+    assertEquals(Arrays.asList("part-m-00002", "part-m-00003"),
+        listDataFiles());
+    assertEquals(numbers(30), readLines());
+  }
+
+  @Test
+  public void testCompactParquet() throws IOException {
+    Schema schema = new Schema.Parser().parse("{\"type\": \"record\", "
+        + "\"name\": \"Row\", \"fields\": [{\"name\": \"ID\", "
+        + "\"type\": \"int\"}]}");
+    for (int i = 0; i < 3; i++) {
+      ParquetWriter<GenericRecord> writer =
+          new AvroParquetWriter<GenericRecord>(
+              new Path(dir, "file" + i + ".parquet"), schema,
+              CompressionCodecName.SNAPPY, ParquetWriter.DEFAULT_BLOCK_SIZE,
+              ParquetWriter.DEFAULT_PAGE_SIZE, true, conf);
+      try {
+        for (int j = 0; j < 10; j++) {
+          GenericRecord record = new GenericData.Record(schema);
+          record.put("ID", i * 10 + j);
+          writer.write(record);
+        }
+      } finally {
+        writer.close();
+      }
+    }
+    conf.setLong(CompactJob.FILE_SIZE_KEY, 100000);
+
+    runCompact();
+
+    List<String> files = listDataFiles();
+    assertEquals(1, files.size());
+    assertTrue(files.get(0).endsWith(".parquet"));
+    AvroParquetReader<GenericRecord> reader =
+        new AvroParquetReader<GenericRecord>(conf,
+            new Path(dir, files.get(0)));
+    try {
+      List<Integer> ids = new ArrayList<Integer>();
+      GenericRecord record;
+      while (null != (record = reader.read())) {
+        assertEquals(schema, record.getSchema());
+        ids.add((Integer) record.get("ID"));
+      }
+      Collections.sort(ids);
+      assertEquals(30, ids.size());
+      assertEquals(Integer.valueOf(29), ids.get(29));
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testDeleteBackupOfFinishedSwap() throws IOException {
+    // The swap was cut short just before the backup was deleted.
+    Path backup = new Path(dir.getParent(), ".dataset_sqoop_compact_old");
+    writeText(new Path(backup, "part-m-00000"), 0, 10);
+    writeText(new Path(dir, "part-m-00001"), 0, 20);
+    OutputStream out = fs.create(
+        new Path(dir, CompactJob.COMPACTED_LIST_NAME));
+    out.write("part-m-00000\n".getBytes("UTF-8"));
+    out.close();
+
+    runCompact();
+
+    assertFalse(fs.exists(new Path(dir, CompactJob.COMPACTED_LIST_NAME)));
+    assertEquals(Arrays.asList("part-m-00001"), listDataFiles());
+    assertEquals(numbers(20), readLines());
+  }
+
+  @Test
+  public void testRecreatedDirFails() throws IOException {
+    // The dataset was recreated in the middle of a swap.
+    Path parent = dir.getParent();
+    Path staging = new Path(parent, ".dataset_sqoop_compact");
+    Path backup = new Path(parent, ".dataset_sqoop_compact_old");
+    writeText(new Path(backup, "part-m-00000"), 0, 10);
+    writeText(new Path(backup, "part-m-00001"), 10, 10);
+    writeText(new Path(staging, "part-m-00002"), 0, 20);
+    OutputStream out = fs.create(
+        new Path(staging, CompactJob.COMPACTED_LIST_NAME));
+    out.write("part-m-00000\npart-m-00001\n".getBytes("UTF-8"));
+    out.close();
+    writeText(new Path(dir, "part-m-00003"), 20, 10);
+
+    try {
+      runCompactTool();
+      fail("Compacting a recreated dataset should fail");
+    } catch (RuntimeException re) {
+      assertTrue(re.getCause() instanceof IOException);
+    }
+
+    // Nothing is lost or moved.
+    assertEquals(Arrays.asList("part-m-00003"), listDataFiles());
+    assertTrue(fs.exists(new Path(staging, "part-m-00002")));
+    assertTrue(fs.exists(new Path(backup, "part-m-00000")));
+    assertTrue(fs.exists(new Path(backup, "part-m-00001")));
+  }
+}
@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.sql.Statement;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.junit.Test;
+
+import com.cloudera.sqoop.manager.MySQLUtils;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test the LOAD DATA LOCAL INFILE statements of direct MySQL exports.
+ */
+public class TestMySQLLoadDataStatement {
+
+  private Configuration getConf() {
+    Configuration conf = new Configuration();
+    conf.set(MySQLUtils.TABLE_NAME_KEY, "EMPLOYEES");
+    conf.setInt(MySQLUtils.OUTPUT_FIELD_DELIM_KEY, ',');
+    conf.setInt(MySQLUtils.OUTPUT_RECORD_DELIM_KEY, '\n');
+    return conf;
+  }
+
+  @Test
+  public void testDefaultDelimiters() {
+    assertEquals("LOAD DATA LOCAL INFILE 'sqoop-export' INTO TABLE "
+        + "`EMPLOYEES` FIELDS TERMINATED BY 0x2c LINES TERMINATED BY 0xa",
+        MySQLExportMapper.getLoadDataStatement(getConf()));
+  }
+
+  @Test
+  public void testEnclosedEscapedColumns() {
+    Configuration conf = getConf();
+    conf.setInt(MySQLUtils.OUTPUT_FIELD_DELIM_KEY, '\t');
+    conf.setInt(MySQLUtils.OUTPUT_ENCLOSED_BY_KEY, '"');
+    conf.setInt(MySQLUtils.OUTPUT_ESCAPED_BY_KEY, '\\');
+    conf.setStrings(DBConfiguration.INPUT_FIELD_NAMES_PROPERTY,
+        "`ID`", "`NAME`");
+    assertEquals("LOAD DATA LOCAL INFILE 'sqoop-export' INTO TABLE "
+        + "`EMPLOYEES` FIELDS TERMINATED BY 0x9 OPTIONALLY ENCLOSED BY "
+        + "0x22 ESCAPED BY 0x5c LINES TERMINATED BY 0xa (`ID`,`NAME`)",
+        MySQLExportMapper.getLoadDataStatement(conf));
+
+    conf.setBoolean(MySQLUtils.OUTPUT_ENCLOSE_REQUIRED_KEY, true);
+    assertTrue(MySQLExportMapper.getLoadDataStatement(conf).contains(
+        " FIELDS TERMINATED BY 0x9 ENCLOSED BY 0x22 "));
+  }
+
+  @Test
+  public void testUnsupportedDriver() {
+    try {
+      MySQLExportMapper.setLocalInfileInputStream(mock(Statement.class),
+          new ByteArrayInputStream(new byte[0]));
+      fail("Only MySQL statements take a local infile stream");
+    } catch (IOException ioe) {
+      assertTrue(ioe.getMessage().contains(
+          MySQLExportMapper.MYSQL_LOCAL_INFILE_KEY));
+    }
+  }
+}
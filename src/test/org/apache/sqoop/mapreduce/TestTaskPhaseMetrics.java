@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.sqoop.mapreduce.TaskPhaseMetrics.Phase;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test measuring the phases of a task.
+ */
+public class TestTaskPhaseMetrics {
+
+  /** Keeps the sources it was given. */
+  public static class RecordingSink implements TaskMetricsSink {
+    private static List<String> sources = new ArrayList<String>();
+
+    @Override
+    public void publish(TaskAttemptContext context, String source,
+        TaskPhaseMetrics metrics) {
+      sources.add(source + ":" + metrics.getCount(Phase.FETCH));
+    }
+  }
+
+  /** Metrics whose clock moves by a fixed step every time it is read. */
+  private static class FakeClockMetrics extends TaskPhaseMetrics {
+    private long time;
+
+    FakeClockMetrics(int sampleInterval) {
+      super(sampleInterval);
+    }
+
+    @Override
+    protected long now() {
+      time += 100;
+      return time;
+    }
+  }
+
+  private Configuration conf;
+  private Counters counters;
+  private TaskAttemptContext context;
+
+  @Before
+  public void setUp() {
+    conf = new Configuration();
+    counters = new Counters();
+    context = mock(TaskAttemptContext.class);
+    when(context.getConfiguration()).thenReturn(conf);
+    when(context.getCounter(anyString(), anyString())).thenAnswer(
+        new Answer<Counter>() {
+          @Override
+          public Counter answer(InvocationOnMock invocation) {
+            Object [] args = invocation.getArguments();
+            return counters.findCounter((String) args[0], (String) args[1]);
+          }
+        });
+    RecordingSink.sources.clear();
+  }
+
+  private long getCounter(String name) {
+    return counters.findCounter(TaskPhaseMetrics.COUNTER_GROUP, name)
+        .getValue();
+  }
+
+  @Test
+  public void testDisabledByDefault() throws IOException {
+    TaskPhaseMetrics metrics = TaskPhaseMetrics.get(conf);
+    assertSame(TaskPhaseMetrics.DISABLED, metrics);
+    assertFalse(metrics.isEnabled());
+    metrics.end(Phase.FETCH, metrics.start(Phase.FETCH));
+    assertEquals(0, metrics.getCount(Phase.FETCH));
+    metrics.publish(context, "test");
+    assertEquals(0, counters.countCounters());
+  }
+
+  @Test
+  public void testSampling() {
+    FakeClockMetrics metrics = new FakeClockMetrics(4);
+    for (int i = 0; i < 10; i++) {
+      metrics.end(Phase.FETCH, metrics.start(Phase.FETCH));
+    }
+    assertEquals(10, metrics.getCount(Phase.FETCH));
+    // Three of the ten took 100ns each.
+    assertEquals(1000, metrics.getNanos(Phase.FETCH));
+    assertEquals(0, metrics.getCount(Phase.COMMIT));
+    assertEquals(0, metrics.getNanos(Phase.COMMIT));
+  }
+
+  @Test
+  public void testPublish() throws IOException {
+    conf.setBoolean(TaskPhaseMetrics.ENABLED_KEY, true);
+    conf.setInt(TaskPhaseMetrics.SAMPLE_INTERVAL_KEY, 1);
+    conf.set(TaskPhaseMetrics.SINKS_KEY, RecordingSink.class.getName());
+    TaskPhaseMetrics metrics = TaskPhaseMetrics.get(conf);
+    assertTrue(metrics.isEnabled());
+    for (int i = 0; i < 3; i++) {
+      metrics.end(Phase.FETCH, metrics.start(Phase.FETCH));
+    }
+    metrics.end(Phase.QUERY, metrics.start(Phase.QUERY));
+
+    metrics.publish(context, "test");
+    assertEquals(3, getCounter("FETCH_COUNT"));
+    assertEquals(metrics.getNanos(Phase.FETCH), getCounter("FETCH_NANOS"));
+    assertEquals(1, getCounter("QUERY_COUNT"));
+    // Phases never gone through have no counters.
+    assertEquals(4, counters.getGroup(TaskPhaseMetrics.COUNTER_GROUP).size());
+    assertEquals(1, RecordingSink.sources.size());
+    assertEquals("test:3", RecordingSink.sources.get(0));
+  }
+}
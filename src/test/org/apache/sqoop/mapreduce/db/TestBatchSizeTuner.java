@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test tuning the number of rows per round trip.
+ */
+public class TestBatchSizeTuner {
+
+  private static final long MILLIS = 1000000L;
+
+  /**
+   * A tuner whose clock is advanced by the test, by a fixed time per round
+   * trip plus a time per row.
+   */
+  private static class FakeClockTuner extends BatchSizeTuner {
+    private long time;
+
+    FakeClockTuner(int initialSize, int maxSize, long memoryBudget,
+        long tuningMillis) {
+      super("test size", initialSize, maxSize, memoryBudget, tuningMillis);
+    }
+
+    @Override
+    protected long now() {
+      return time;
+    }
+
+    /** Move the given rows in round trips of the current size. */
+    void move(int rows, long tripNanos, long rowNanos) {
+      for (int i = 0; i < rows; i += getSize()) {
+        int trip = Math.min(getSize(), rows - i);
+        time += tripNanos + trip * rowNanos;
+        recordRows(trip);
+      }
+    }
+  }
+
+  @Test
+  public void testDisabledByDefault() {
+    Configuration conf = new Configuration();
+    assertNull(BatchSizeTuner.get(conf, "test size", 100));
+    conf.setBoolean(BatchSizeTuner.ADAPTIVE_KEY, true);
+    assertEquals(100, BatchSizeTuner.get(conf, "test size", 100).getSize());
+  }
+
+  @Test
+  public void testGrowsWhileFaster() {
+    // Round trips dominate, so larger sizes are faster up to the maximum.
+    FakeClockTuner tuner = new FakeClockTuner(100, 1600, Long.MAX_VALUE,
+        60000);
+    tuner.recordRows(0);
+    tuner.move(100000, 10 * MILLIS, 1000);
+    assertFalse(tuner.isTuning());
+    assertEquals(1600, tuner.getSize());
+  }
+
+  @Test
+  public void testSettlesWhenNotFaster() {
+    // Rows dominate, so doubling the size gains nothing.
+    FakeClockTuner tuner = new FakeClockTuner(1000, 10000, Long.MAX_VALUE,
+        60000);
+    tuner.recordRows(0);
+    tuner.move(100000, 1000, MILLIS);
+    assertFalse(tuner.isTuning());
+    assertEquals(1000, tuner.getSize());
+    // A settled tuner ignores any further rows.
+    assertFalse(tuner.recordRows(100000));
+    assertEquals(1000, tuner.getSize());
+  }
+
+  @Test
+  public void testMemoryBudget() throws IOException {
+    FakeClockTuner tuner = new FakeClockTuner(100, 10000, 100 * 1024, 60000);
+    Text row = new Text(new byte[1021]);
+    for (int i = 0; i < 100; i++) {
+      tuner.sampleRow(row);
+    }
+    assertEquals(1024, tuner.getBytesPerRow());
+    tuner.recordRows(0);
+    tuner.move(100000, 10 * MILLIS, 1000);
+    assertFalse(tuner.isTuning());
+    assertEquals(100, tuner.getSize());
+  }
+
+  @Test
+  public void testLimitSize() {
+    FakeClockTuner tuner = new FakeClockTuner(100, 10000, Long.MAX_VALUE,
+        60000);
+    tuner.limitSize(50);
+    assertEquals(50, tuner.getSize());
+    tuner.recordRows(0);
+    tuner.move(100000, 10 * MILLIS, 1000);
+    assertEquals(50, tuner.getSize());
+  }
+
+  @Test
+  public void testTuningTime() {
+    // Still getting faster, but the time for tuning is over.
+    FakeClockTuner tuner = new FakeClockTuner(10, 1000000, Long.MAX_VALUE,
+        1);
+    tuner.recordRows(0);
+    assertTrue(tuner.isTuning());
+    tuner.move(100000, 10 * MILLIS, 1000);
+    assertFalse(tuner.isTuning());
+    assertEquals(10, tuner.getSize());
+  }
+}
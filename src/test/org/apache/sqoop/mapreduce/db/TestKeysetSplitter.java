@@ -0,0 +1,293 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.sqoop.config.ConfigurationHelper;
+import org.apache.sqoop.mapreduce.DBWritable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.cloudera.sqoop.mapreduce.db.DBInputFormat.DBInputSplit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test splitting DBInputFormat tables on a unique key.
+ */
+public class TestKeysetSplitter {
+
+  private static final String DB_URL = "jdbc:hsqldb:mem:keysetsplits";
+  private static final String DRIVER_CLASS = "org.hsqldb.jdbcDriver";
+  private static final String TABLE = "KEYSET_TABLE";
+
+  private Connection connection;
+
+  /**
+   * DBWritable that reads a row as a string.
+   */
+  public static class RowString implements DBWritable {
+    private String row;
+
+    @Override
+    public void readFields(ResultSet rs) throws SQLException {
+      StringBuilder sb = new StringBuilder();
+      int cols = rs.getMetaData().getColumnCount();
+      for (int i = 1; i <= cols; i++) {
+        sb.append(i > 1 ? "," : "").append(rs.getString(i));
+      }
+      row = sb.toString();
+    }
+
+    @Override
+    public void write(PreparedStatement ps) {
+      // not needed.
+    }
+
+    @Override
+    public String toString() {
+      return row;
+    }
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    Class.forName(DRIVER_CLASS);
+    connection = DriverManager.getConnection(DB_URL, "SA", "");
+    connection.setAutoCommit(false);
+    dropTable();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    dropTable();
+    connection.close();
+  }
+
+  private void dropTable() throws SQLException {
+    Statement s = connection.createStatement();
+    try {
+      s.executeUpdate("DROP TABLE " + TABLE);
+    } catch (SQLException e) {
+      // Ignored; the table may not exist.
+    } finally {
+      s.close();
+    }
+    connection.commit();
+  }
+
+  private void createTable(String columns, String... rows)
+      throws SQLException {
+    Statement s = connection.createStatement();
+    try {
+      s.executeUpdate("CREATE TABLE " + TABLE + " (" + columns + ")");
+      for (String row : rows) {
+        s.executeUpdate("INSERT INTO " + TABLE + " VALUES (" + row + ")");
+      }
+    } finally {
+      s.close();
+    }
+    connection.commit();
+  }
+
+  private Configuration getConf(String conditions, String... fields) {
+    // The password is read from the credentials of a JobConf.
+    Configuration conf = new JobConf();
+    DBConfiguration.configureDB(conf, DRIVER_CLASS, DB_URL, (String) null,
+        (String) null);
+    DBConfiguration dbConf = new DBConfiguration(conf);
+    dbConf.setInputClass(RowString.class);
+    dbConf.setInputTableName(TABLE);
+    dbConf.setInputFieldNames(fields);
+    dbConf.setInputConditions(conditions);
+    dbConf.setInputKeysetSplits(true);
+    return conf;
+  }
+
+  private List<InputSplit> getSplits(Configuration conf, int numMaps)
+      throws Exception {
+    DBInputFormat<RowString> format = new DBInputFormat<RowString>();
+    format.setConf(conf);
+    Job job = new Job(conf);
+    ConfigurationHelper.setJobNumMaps(job, numMaps);
+    return format.getSplits(job);
+  }
+
+  /** @return the rows of each split. */
+  private List<List<String>> readSplits(Configuration conf,
+      List<InputSplit> splits) throws Exception {
+    List<List<String>> rows = new ArrayList<List<String>>();
+    for (InputSplit split : splits) {
+      DBInputFormat<RowString> format = new DBInputFormat<RowString>();
+      format.setConf(conf);
+      RecordReader<LongWritable, RowString> reader =
+          format.createDBRecordReader((DBInputSplit) split, conf);
+      reader.initialize(split, null);
+      List<String> splitRows = new ArrayList<String>();
+      while (reader.nextKeyValue()) {
+        splitRows.add(reader.getCurrentValue().toString());
+      }
+      reader.close();
+      rows.add(splitRows);
+    }
+    return rows;
+  }
+
+  private static List<String> all(List<List<String>> splitRows) {
+    List<String> rows = new ArrayList<String>();
+    for (List<String> split : splitRows) {
+      rows.addAll(split);
+    }
+    Collections.sort(rows);
+    return rows;
+  }
+
+  @Test
+  public void testCompareClause() {
+    assertEquals("(A > 1)", KeysetSplitter.compareClause(
+        new String[] { "A" }, new String[] { "1" }, ">", ">"));
+    assertEquals("((A < 1) OR (A = 1 AND B <= 'x'))",
+        KeysetSplitter.compareClause(new String[] { "A", "B" },
+        new String[] { "1", "'x'" }, "<", "<="));
+  }
+
+  @Test
+  public void testSplitWritable() throws Exception {
+    KeysetDBInputSplit split = new KeysetDBInputSplit(10, 20, "(A > 1)",
+        null);
+    DataOutputBuffer out = new DataOutputBuffer();
+    split.write(out);
+    DataInputBuffer in = new DataInputBuffer();
+    in.reset(out.getData(), out.getLength());
+    KeysetDBInputSplit copy = new KeysetDBInputSplit();
+    copy.readFields(in);
+
+    assertEquals(10, copy.getStart());
+    assertEquals(20, copy.getEnd());
+    assertEquals("(A > 1)", copy.getKeyConditions());
+    assertNull(copy.getUpperBoundClause());
+  }
+
+  @Test
+  public void testPrimaryKeySplits() throws Exception {
+    String [] rows = new String[10];
+    List<String> expected = new ArrayList<String>();
+    for (int i = 0; i < rows.length; i++) {
+      // Keys out of insertion order, with gaps.
+      int id = (i * 7) % 10 * 3;
+      rows[i] = id + ", 'name" + id + "'";
+      expected.add(id + ",name" + id);
+    }
+    Collections.sort(expected);
+    createTable("ID INT NOT NULL PRIMARY KEY, NAME VARCHAR(16)", rows);
+
+    Configuration conf = getConf(null, "ID", "NAME");
+    List<InputSplit> splits = getSplits(conf, 3);
+    assertEquals(3, splits.size());
+    for (InputSplit split : splits) {
+      assertTrue(split instanceof KeysetDBInputSplit);
+    }
+    KeysetDBInputSplit first = (KeysetDBInputSplit) splits.get(0);
+    assertNull(first.getLowerBoundClause());
+    assertEquals("(ID <= 6)", first.getUpperBoundClause());
+    assertNull(((KeysetDBInputSplit) splits.get(2)).getUpperBoundClause());
+
+    List<List<String>> splitRows = readSplits(conf, splits);
+    assertEquals(3, splitRows.get(0).size());
+    assertEquals(3, splitRows.get(1).size());
+    assertEquals(4, splitRows.get(2).size());
+    assertEquals(expected, all(splitRows));
+  }
+
+  @Test
+  public void testCompositeUniqueIndexSplits() throws Exception {
+    List<String> rows = new ArrayList<String>();
+    List<String> expected = new ArrayList<String>();
+    for (int i = 0; i < 4; i++) {
+      for (char c = 'a'; c < 'd'; c++) {
+        rows.add("'" + i + "', '" + c + "''s', " + (i * 10 + c));
+        expected.add(i + "," + c + "'s," + (i * 10 + c));
+      }
+    }
+    createTable("GRP VARCHAR(4) NOT NULL, ITEM VARCHAR(4) NOT NULL, VAL INT, "
+        + "UNIQUE (GRP, ITEM)", rows.toArray(new String[0]));
+
+    // With conditions, so the key scan and the splits have to honor them.
+    Configuration conf = getConf("VAL > 0", "GRP", "ITEM", "VAL");
+    List<InputSplit> splits = getSplits(conf, 4);
+    assertEquals(4, splits.size());
+    assertTrue(splits.get(1) instanceof KeysetDBInputSplit);
+    List<List<String>> splitRows = readSplits(conf, splits);
+    for (List<String> split : splitRows) {
+      assertEquals(3, split.size());
+    }
+    Collections.sort(expected);
+    assertEquals(expected, all(splitRows));
+  }
+
+  @Test
+  public void testConfiguredKeyColumns() throws Exception {
+    createTable("ID INT, NAME VARCHAR(16)",
+        "1, 'a'", "2, 'b'", "3, 'c'", "4, 'd'");
+    Configuration conf = getConf(null, "ID", "NAME");
+    new DBConfiguration(conf).setInputKeysetColumns("NAME");
+
+    List<InputSplit> splits = getSplits(conf, 2);
+    assertEquals("(NAME <= 'b')",
+        ((KeysetDBInputSplit) splits.get(0)).getUpperBoundClause());
+    List<String> second = readSplits(conf, splits).get(1);
+    Collections.sort(second);
+    assertEquals(Arrays.asList("3,c", "4,d"), second);
+  }
+
+  @Test
+  public void testNoKeyUsesOffsets() throws Exception {
+    createTable("ID INT, NAME VARCHAR(16)",
+        "1, 'a'", "2, 'b'", "3, 'c'", "4, 'd'");
+    Configuration conf = getConf(null, "ID", "NAME");
+    new DBConfiguration(conf).setInputOrderBy("ID");
+
+    List<InputSplit> splits = getSplits(conf, 2);
+    assertEquals(2, splits.size());
+    assertFalse(splits.get(0) instanceof KeysetDBInputSplit);
+    assertEquals(4, all(readSplits(conf, splits)).size());
+  }
+}
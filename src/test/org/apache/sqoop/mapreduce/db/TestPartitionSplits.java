@@ -0,0 +1,249 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.apache.sqoop.config.ConfigurationHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.cloudera.sqoop.mapreduce.db.DBInputFormat.DBInputSplit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test making data-driven splits within the partitions of a table.
+ */
+public class TestPartitionSplits {
+
+  private static final String DB_URL = "jdbc:hsqldb:mem:partitionsplits";
+  private static final String DRIVER_CLASS = "org.hsqldb.jdbcDriver";
+  private static final String [] TABLES = { "PARTED", "PART_A", "PART_B" };
+
+  private Connection connection;
+
+  @Before
+  public void setUp() throws Exception {
+    Class.forName(DRIVER_CLASS);
+    connection = DriverManager.getConnection(DB_URL, "SA", "");
+    connection.setAutoCommit(false);
+    dropTables();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    dropTables();
+    connection.close();
+  }
+
+  private void dropTables() throws SQLException {
+    Statement s = connection.createStatement();
+    try {
+      for (String table : TABLES) {
+        try {
+          s.executeUpdate("DROP TABLE " + table);
+        } catch (SQLException e) {
+          // Ignored; the table may not exist.
+        }
+      }
+    } finally {
+      s.close();
+    }
+    connection.commit();
+  }
+
+  /** Create a table with the given ids, and a name derived from each. */
+  private void createTable(String table, int from, int to)
+      throws SQLException {
+    Statement s = connection.createStatement();
+    try {
+      s.executeUpdate("CREATE TABLE " + table
+          + " (ID INT NOT NULL, NAME VARCHAR(16))");
+      for (int i = from; i < to; i++) {
+        s.executeUpdate("INSERT INTO " + table + " VALUES (" + i
+            + ", 'name" + i + "')");
+      }
+    } finally {
+      s.close();
+    }
+    connection.commit();
+  }
+
+  private Configuration getConf(String conditions,
+      TablePartition... partitions) {
+    // The password is read from the credentials of a JobConf.
+    Configuration conf = new JobConf();
+    DBConfiguration.configureDB(conf, DRIVER_CLASS, DB_URL, (String) null,
+        (String) null);
+    DBConfiguration dbConf = new DBConfiguration(conf);
+    dbConf.setInputClass(TestKeysetSplitter.RowString.class);
+    dbConf.setInputTableName("PARTED");
+    dbConf.setInputFieldNames(new String[] { "ID", "NAME" });
+    dbConf.setInputConditions(conditions);
+    dbConf.setInputOrderBy("ID");
+    dbConf.setInputPartitions(Arrays.asList(partitions));
+    return conf;
+  }
+
+  private List<InputSplit> getSplits(Configuration conf, int numMaps)
+      throws Exception {
+    DataDrivenDBInputFormat<TestKeysetSplitter.RowString> format =
+        new DataDrivenDBInputFormat<TestKeysetSplitter.RowString>();
+    format.setConf(conf);
+    Job job = new Job(conf);
+    ConfigurationHelper.setJobNumMaps(job, numMaps);
+    return format.getSplits(job);
+  }
+
+  /** @return the ids of the rows of each split. */
+  private List<List<Integer>> readSplits(Configuration conf,
+      List<InputSplit> splits) throws Exception {
+    List<List<Integer>> ids = new ArrayList<List<Integer>>();
+    for (InputSplit split : splits) {
+      DataDrivenDBInputFormat<TestKeysetSplitter.RowString> format =
+          new DataDrivenDBInputFormat<TestKeysetSplitter.RowString>();
+      format.setConf(conf);
+      RecordReader<LongWritable, TestKeysetSplitter.RowString> reader =
+          format.createDBRecordReader((DBInputSplit) split, conf);
+      reader.initialize(split,
+          new TaskAttemptContextImpl(conf, new TaskAttemptID()));
+      List<Integer> splitIds = new ArrayList<Integer>();
+      while (reader.nextKeyValue()) {
+        String row = reader.getCurrentValue().toString();
+        int id = Integer.parseInt(row.substring(0, row.indexOf(',')));
+        assertEquals(id + ",name" + id, row);
+        splitIds.add(id);
+      }
+      reader.close();
+      ids.add(splitIds);
+    }
+    return ids;
+  }
+
+  private static List<Integer> range(int from, int to) {
+    List<Integer> ids = new ArrayList<Integer>();
+    for (int i = from; i < to; i++) {
+      ids.add(i);
+    }
+    return ids;
+  }
+
+  private static List<Integer> all(List<List<Integer>> splitIds, int from,
+      int to) {
+    List<Integer> ids = new ArrayList<Integer>();
+    for (List<Integer> split : splitIds.subList(from, to)) {
+      ids.addAll(split);
+    }
+    Collections.sort(ids);
+    return ids;
+  }
+
+  @Test
+  public void testPartitionsRoundTrip() throws Exception {
+    Configuration conf = getConf(null,
+        new TablePartition("p0", "T PARTITION (p0)", null, 10),
+        new TablePartition("p1", null, "$PARTITION.f(c) = 2", -1));
+    List<TablePartition> partitions =
+        new DBConfiguration(conf).getInputPartitions();
+    assertEquals(2, partitions.size());
+    assertEquals("T PARTITION (p0)", partitions.get(0).getTableExpression());
+    assertNull(partitions.get(0).getCondition());
+    assertEquals(10, partitions.get(0).getRows());
+    assertNull(partitions.get(1).getTableExpression());
+    assertEquals("$PARTITION.f(c) = 2", partitions.get(1).getCondition());
+    assertEquals(-1, partitions.get(1).getRows());
+
+    PartitionDBInputSplit split = new PartitionDBInputSplit("ID >= 1",
+        "ID < 5", partitions.get(1));
+    DataOutputBuffer out = new DataOutputBuffer();
+    split.write(out);
+    DataInputBuffer in = new DataInputBuffer();
+    in.reset(out.getData(), out.getLength());
+    PartitionDBInputSplit copy = new PartitionDBInputSplit();
+    copy.readFields(in);
+    assertEquals("ID >= 1", copy.getLowerClause());
+    assertEquals("ID < 5", copy.getUpperClause());
+    assertEquals("p1", copy.getPartition().getName());
+    assertEquals("$PARTITION.f(c) = 2", copy.getPartition().getCondition());
+  }
+
+  @Test
+  public void testPartitionConditions() throws Exception {
+    createTable("PARTED", 0, 100);
+    Configuration conf = getConf(null,
+        new TablePartition("low", null, "ID < 30", 30),
+        new TablePartition("high", null, "ID >= 30", 70));
+
+    // The tasks are shared out by the rows of the partitions.
+    List<InputSplit> splits = getSplits(conf, 10);
+    assertEquals(10, splits.size());
+    for (InputSplit split : splits) {
+      assertTrue(split instanceof PartitionDBInputSplit);
+    }
+    assertEquals("low",
+        ((PartitionDBInputSplit) splits.get(2)).getPartition().getName());
+    assertEquals("high",
+        ((PartitionDBInputSplit) splits.get(3)).getPartition().getName());
+
+    List<List<Integer>> splitIds = readSplits(conf, splits);
+    assertEquals(range(0, 30), all(splitIds, 0, 3));
+    assertEquals(range(30, 100), all(splitIds, 3, 10));
+  }
+
+  @Test
+  public void testPartitionTables() throws Exception {
+    createTable("PART_A", 0, 20);
+    createTable("PART_B", 20, 25);
+    Configuration conf = getConf("ID <> 7",
+        new TablePartition("a", "PART_A", null, 20),
+        new TablePartition("b", "PART_B", null, 5),
+        new TablePartition("empty", "PART_B", "ID < 0", 0));
+
+    List<InputSplit> splits = getSplits(conf, 4);
+    // Every partition gets a split, however small it is.
+    assertEquals(5, splits.size());
+    List<List<Integer>> splitIds = readSplits(conf, splits);
+    List<Integer> expected = range(0, 20);
+    expected.remove(Integer.valueOf(7));
+    assertEquals(expected, all(splitIds, 0, 3));
+    assertEquals(range(20, 25), all(splitIds, 3, 4));
+    assertEquals(Collections.emptyList(), splitIds.get(4));
+  }
+}
@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.sqoop.mapreduce.DBWritable;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test reading a ResultSet ahead on a background thread.
+ */
+public class TestResultSetPrefetcher {
+
+  /** Holds the value of the current row's first column. */
+  private static class IntRecord implements DBWritable {
+    private int value;
+
+    @Override
+    public void readFields(ResultSet rs) throws SQLException {
+      value = rs.getInt(1);
+    }
+
+    @Override
+    public void write(PreparedStatement stmt) throws SQLException {
+      stmt.setInt(1, value);
+    }
+  }
+
+  /**
+   * @return a ResultSet over the values 0 .. rows - 1 which throws the
+   * given exception instead of advancing past the last row, if any.
+   */
+  private ResultSet resultSet(final int rows, final SQLException failure)
+      throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    final int[] pos = { -1 };
+    when(rs.next()).thenAnswer(new Answer<Boolean>() {
+      @Override
+      public Boolean answer(InvocationOnMock invocation) throws Throwable {
+        if (pos[0] + 1 == rows && failure != null) {
+          throw failure;
+        }
+        pos[0]++;
+        return pos[0] < rows;
+      }
+    });
+    when(rs.getInt(1)).thenAnswer(new Answer<Integer>() {
+      @Override
+      public Integer answer(InvocationOnMock invocation) {
+        return pos[0];
+      }
+    });
+    return rs;
+  }
+
+  private List<IntRecord> records(int n) {
+    List<IntRecord> records = new ArrayList<IntRecord>();
+    for (int i = 0; i < n; i++) {
+      records.add(new IntRecord());
+    }
+    return records;
+  }
+
+  @Test
+  public void testReadsAllRowsInOrder() throws Exception {
+    ResultSetPrefetcher<IntRecord> prefetcher =
+        new ResultSetPrefetcher<IntRecord>(resultSet(1000, null), records(3));
+    prefetcher.start();
+    for (int i = 0; i < 1000; i++) {
+      IntRecord record = prefetcher.next();
+      assertEquals(i, record.value);
+      prefetcher.recycle(record);
+    }
+    assertFalse(prefetcher.isExhausted());
+    assertNull(prefetcher.next());
+    assertTrue(prefetcher.isExhausted());
+    assertNull(prefetcher.next());
+    prefetcher.stop();
+  }
+
+  @Test
+  public void testEmptyResultSet() throws Exception {
+    ResultSetPrefetcher<IntRecord> prefetcher =
+        new ResultSetPrefetcher<IntRecord>(resultSet(0, null), records(2));
+    prefetcher.start();
+    assertNull(prefetcher.next());
+    prefetcher.stop();
+  }
+
+  @Test
+  public void testFailureAfterBufferedRows() throws Exception {
+    SQLException failure = new SQLException("connection reset");
+    ResultSetPrefetcher<IntRecord> prefetcher =
+        new ResultSetPrefetcher<IntRecord>(resultSet(5, failure), records(8));
+    prefetcher.start();
+    for (int i = 0; i < 5; i++) {
+      assertEquals(i, prefetcher.next().value);
+    }
+    try {
+      prefetcher.next();
+      fail("Expected the read failure");
+    } catch (SQLException sqle) {
+      assertEquals(failure, sqle);
+    }
+    assertTrue(prefetcher.isExhausted());
+    prefetcher.stop();
+  }
+
+  @Test
+  public void testStopBeforeEnd() throws Exception {
+    // The consumer holds on to every record, so the thread blocks waiting
+    // for a free one until it is stopped.
+    ResultSetPrefetcher<IntRecord> prefetcher =
+        new ResultSetPrefetcher<IntRecord>(resultSet(100, null), records(2));
+    prefetcher.start();
+    assertEquals(0, prefetcher.next().value);
+    assertEquals(1, prefetcher.next().value);
+    prefetcher.stop();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSingleRecordRejected() throws Exception {
+    new ResultSetPrefetcher<IntRecord>(resultSet(1, null), records(1));
+  }
+}
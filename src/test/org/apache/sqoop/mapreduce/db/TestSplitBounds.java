@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.sqoop.config.ConfigurationHelper;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test splitting on split column bounds kept in the configuration.
+ */
+public class TestSplitBounds {
+
+  private static final String DB_URL = "jdbc:hsqldb:mem:splitbounds";
+  private static final String DRIVER_CLASS = "org.hsqldb.jdbcDriver";
+
+  private Configuration getConf(String conditions) {
+    // The password is read from the credentials of a JobConf.
+    Configuration conf = new JobConf();
+    DBConfiguration.configureDB(conf, DRIVER_CLASS, DB_URL, (String) null,
+        (String) null);
+    DBConfiguration dbConf = new DBConfiguration(conf);
+    dbConf.setInputClass(TestKeysetSplitter.RowString.class);
+    // The table does not exist, so the splits cannot come from a query.
+    dbConf.setInputTableName("NO_SUCH_TABLE");
+    dbConf.setInputFieldNames(new String[] { "ID" });
+    dbConf.setInputConditions(conditions);
+    dbConf.setInputOrderBy("ID");
+    return conf;
+  }
+
+  private List<InputSplit> getSplits(Configuration conf, int numMaps)
+      throws Exception {
+    DataDrivenDBInputFormat<TestKeysetSplitter.RowString> format =
+        new DataDrivenDBInputFormat<TestKeysetSplitter.RowString>();
+    format.setConf(conf);
+    Job job = new Job(conf);
+    ConfigurationHelper.setJobNumMaps(job, numMaps);
+    List<InputSplit> splits = format.getSplits(job);
+    // The number of tasks is only capped for making the splits.
+    assertEquals(numMaps, ConfigurationHelper.getJobNumMaps(job));
+    return splits;
+  }
+
+  @Test
+  public void testStoreAndLoad() throws Exception {
+    Configuration conf = new Configuration(false);
+    Timestamp min = Timestamp.valueOf("2016-01-01 00:00:00.0");
+    Timestamp max = Timestamp.valueOf("2016-02-01 12:30:00.5");
+    new SplitBounds(Types.TIMESTAMP, min, max, 42).store(conf, "TS",
+        "ID > 5");
+
+    SplitBounds bounds = SplitBounds.load(conf, "TS", "ID > 5");
+    assertEquals(Types.TIMESTAMP, bounds.getSqlType());
+    assertEquals(min, bounds.getMin());
+    assertEquals(max, bounds.getMax());
+    assertEquals(42, bounds.getRows());
+
+    ResultSet results = bounds.toResultSet();
+    assertEquals(Types.TIMESTAMP, results.getMetaData().getColumnType(1));
+    assertEquals(min, results.getTimestamp(1));
+    assertEquals(max, results.getTimestamp(2));
+
+    // Only for the same split column and input.
+    assertNull(SplitBounds.load(conf, "ID", "ID > 5"));
+    assertNull(SplitBounds.load(conf, "TS", null));
+    SplitBounds.clear(conf);
+    assertNull(SplitBounds.load(conf, "TS", "ID > 5"));
+  }
+
+  @Test
+  public void testSplitsOnStoredBounds() throws Exception {
+    Configuration conf = getConf("ID > 10");
+    new SplitBounds(Types.INTEGER, 11L, 50L, 40).store(conf, "ID",
+        "ID > 10");
+
+    List<InputSplit> splits = getSplits(conf, 4);
+    assertEquals(4, splits.size());
+    assertEquals("ID >= 11", ((DataDrivenDBInputFormat.DataDrivenDBInputSplit)
+        splits.get(0)).getLowerClause());
+    assertEquals("ID <= 50", ((DataDrivenDBInputFormat.DataDrivenDBInputSplit)
+        splits.get(3)).getUpperClause());
+  }
+
+  @Test
+  public void testFewRowsCapSplits() throws Exception {
+    Configuration conf = getConf(null);
+    new SplitBounds(Types.INTEGER, 100L, 200L, 2).store(conf, "ID", null);
+
+    List<InputSplit> splits = getSplits(conf, 4);
+    assertEquals(2, splits.size());
+    for (InputSplit split : splits) {
+      assertTrue(
+          split instanceof DataDrivenDBInputFormat.DataDrivenDBInputSplit);
+    }
+  }
+}
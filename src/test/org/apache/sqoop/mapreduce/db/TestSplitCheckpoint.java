@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.cloudera.sqoop.testutil.BaseSqoopTestCase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test recording and restoring split checkpoints.
+ */
+public class TestSplitCheckpoint {
+
+  private FileSystem fs;
+  private Path baseDir;
+  private Path checkpointDir;
+  private Path workDir;
+
+  /** Writes one file per segment into the checkpoint directory. */
+  private class FakeWriter implements SplitCheckpoint.SegmentWriter {
+    @Override
+    public String rollSegment(Path dir, int index) throws IOException {
+      String name = "part-m-00000-" + index;
+      touch(new Path(dir, name));
+      return name;
+    }
+  }
+
+  @Before
+  public void setUp() throws IOException {
+    fs = FileSystem.getLocal(new Configuration());
+    baseDir = new Path(BaseSqoopTestCase.TEMP_BASE_DIR, "splitcheckpoint");
+    fs.delete(baseDir, true);
+    checkpointDir = new Path(baseDir, "checkpoint");
+    workDir = new Path(baseDir, "work");
+    fs.mkdirs(workDir);
+  }
+
+  private void touch(Path file) throws IOException {
+    FSDataOutputStream out = fs.create(file, true);
+    out.writeUTF(file.getName());
+    out.close();
+  }
+
+  @Test
+  public void testNoCheckpoint() throws IOException {
+    SplitCheckpoint checkpoint = new SplitCheckpoint(fs, checkpointDir, 10);
+    assertNull(checkpoint.getLastKey());
+    assertEquals(0, checkpoint.getRows());
+    assertFalse(checkpoint.hasWriter());
+  }
+
+  @Test
+  public void testResumeFromCheckpoint() throws IOException {
+    SplitCheckpoint failed = new SplitCheckpoint(fs, checkpointDir, 10);
+    failed.setWriter(new FakeWriter());
+    failed.commit(Long.valueOf(17), 10);
+    failed.commit(Long.valueOf(42), 21);
+    // A segment rolled after the last checkpoint holds rows that the next
+    // attempt reads again.
+    touch(new Path(checkpointDir, "part-m-00000-2"));
+
+    SplitCheckpoint retry = new SplitCheckpoint(fs, checkpointDir, 10);
+    assertEquals(Long.valueOf(42), retry.getLastKey());
+    assertEquals(21, retry.getRows());
+    assertFalse(fs.exists(new Path(checkpointDir, "part-m-00000-2")));
+
+    retry.restoreSegments(workDir);
+    assertTrue(fs.exists(new Path(workDir, "part-m-00000-0")));
+    assertTrue(fs.exists(new Path(workDir, "part-m-00000-1")));
+    assertFalse(fs.exists(new Path(workDir, "part-m-00000-2")));
+    assertFalse(fs.exists(checkpointDir));
+  }
+
+  @Test
+  public void testMissingSegmentDiscardsCheckpoint() throws IOException {
+    SplitCheckpoint failed = new SplitCheckpoint(fs, checkpointDir, 10);
+    failed.setWriter(new FakeWriter());
+    failed.commit("abc", 10);
+    failed.commit("def", 20);
+    fs.delete(new Path(checkpointDir, "part-m-00000-0"), false);
+
+    SplitCheckpoint retry = new SplitCheckpoint(fs, checkpointDir, 10);
+    assertNull(retry.getLastKey());
+    assertEquals(0, retry.getRows());
+    assertFalse(fs.exists(new Path(checkpointDir, "part-m-00000-1")));
+  }
+
+  @Test
+  public void testKeyTypes() throws IOException {
+    Object [] keys = {
+      Integer.valueOf(3), Long.valueOf(-5), new BigDecimal("12.50"),
+      "it's", Date.valueOf("2016-02-29"),
+      Timestamp.valueOf("2016-02-29 10:11:12.5"), Double.valueOf(0.25),
+    };
+    for (Object key : keys) {
+      assertTrue(SplitCheckpoint.isSupportedKey(key));
+      assertEquals(key, SplitCheckpoint.parseKey(key.getClass().getName(),
+          key.toString()));
+    }
+    assertFalse(SplitCheckpoint.isSupportedKey(new Object()));
+  }
+}
@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db.netezza;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.sqoop.mapreduce.db.netezza.NetezzaRecordPipeline.RecordBatch;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the record splitting of the Netezza import pipeline.
+ */
+public class TestNetezzaRecordPipeline {
+
+  private BlockingQueue<RecordBatch> queue =
+      new LinkedBlockingQueue<RecordBatch>();
+
+  private NetezzaRecordPipeline newPipeline(InputStream in, char escape,
+      String encoding, int bufferSize, int batchSize) {
+    return new NetezzaRecordPipeline(null, in, '\n', escape, encoding, "|",
+        bufferSize, batchSize, queue);
+  }
+
+  /**
+   * Drain the batches of the given number of pipelines.
+   */
+  private List<String> drain(int pipelines) throws InterruptedException {
+    List<String> records = new ArrayList<String>();
+    while (pipelines > 0) {
+      RecordBatch batch = queue.take();
+      if (batch.isEndOfStream()) {
+        assertNull(batch.getPipeline().getFailure());
+        pipelines--;
+        continue;
+      }
+      for (int i = 0; i < batch.size(); i++) {
+        records.add(batch.get(i).toString());
+      }
+      batch.recycle();
+    }
+    return records;
+  }
+
+  private InputStream stream(String s, String encoding) throws IOException {
+    return new ByteArrayInputStream(s.getBytes(encoding));
+  }
+
+  @Test
+  public void testRecordsSpanningBuffers() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    List<String> expected = new ArrayList<String>();
+    for (int i = 0; i < 100; i++) {
+      sb.append(i).append(",value").append(i).append('\n');
+      expected.add(i + ",value" + i + "|");
+    }
+    // Tiny buffers and batches, so records straddle reads and batches
+    // are recycled many times.
+    NetezzaRecordPipeline pipeline = newPipeline(
+        stream(sb.toString(), "UTF-8"), (char) 0, null, 7, 3);
+    pipeline.start();
+    assertEquals(expected, drain(1));
+    pipeline.join();
+  }
+
+  @Test
+  public void testEscapedDelimiterAndCarriageReturn() throws Exception {
+    NetezzaRecordPipeline pipeline = newPipeline(
+        stream("a\\\nb\r\nc\nlast", "UTF-8"), '\\', null, 4, 10);
+    pipeline.start();
+    List<String> records = drain(1);
+    assertEquals(3, records.size());
+    assertEquals("a\\\nb|", records.get(0));
+    assertEquals("c|", records.get(1));
+    assertEquals("last|", records.get(2));
+  }
+
+  @Test
+  public void testTranscoding() throws Exception {
+    NetezzaRecordPipeline pipeline = newPipeline(
+        stream("caf\u00e9\n\u00fcber\n", "ISO-8859-1"), (char) 0,
+        "ISO-8859-1", 16, 10);
+    pipeline.start();
+    List<String> records = drain(1);
+    assertEquals("caf\u00e9|", records.get(0));
+    assertEquals("\u00fcber|", records.get(1));
+  }
+
+  @Test
+  public void testSharedOutputQueue() throws Exception {
+    NetezzaRecordPipeline first = newPipeline(
+        stream("1\n2\n3\n", "UTF-8"), (char) 0, null, 2, 2);
+    NetezzaRecordPipeline second = newPipeline(
+        stream("4\n5\n", "UTF-8"), (char) 0, null, 2, 2);
+    first.start();
+    second.start();
+    List<String> records = drain(2);
+    assertEquals(5, records.size());
+    for (int i = 1; i <= 5; i++) {
+      assertTrue(records.contains(i + "|"));
+    }
+  }
+
+  @Test
+  public void testReadFailure() throws Exception {
+    InputStream failing = new InputStream() {
+      @Override
+      public int read() throws IOException {
+        throw new IOException("broken pipe");
+      }
+    };
+    NetezzaRecordPipeline pipeline = newPipeline(failing, (char) 0, null,
+        8, 2);
+    pipeline.start();
+    RecordBatch batch = queue.take();
+    assertTrue(batch.isEndOfStream());
+    assertNotNull(pipeline.getFailure());
+  }
+}
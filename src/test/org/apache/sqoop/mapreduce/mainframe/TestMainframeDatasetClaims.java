@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.mainframe;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.cloudera.sqoop.testutil.BaseSqoopTestCase;
+
+public class TestMainframeDatasetClaims {
+
+  private FileSystem fs;
+  private Path claimsDir;
+
+  @Before
+  public void setUp() throws IOException {
+    fs = FileSystem.getLocal(new Configuration());
+    claimsDir = new Path(BaseSqoopTestCase.TEMP_BASE_DIR,
+        "TestMainframeDatasetClaims");
+    fs.delete(claimsDir, true);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    fs.delete(claimsDir, true);
+  }
+
+  @Test
+  public void testOnlyOneTaskWins() throws IOException {
+    MainframeDatasetClaims first =
+        new MainframeDatasetClaims(fs, claimsDir, "task_m_000000");
+    MainframeDatasetClaims second =
+        new MainframeDatasetClaims(fs, claimsDir, "task_m_000001");
+    Assert.assertTrue(first.claim("A.B.C"));
+    Assert.assertFalse(second.claim("A.B.C"));
+    Assert.assertTrue(second.claim("A.B.D"));
+  }
+
+  @Test
+  public void testRetriedAttemptKeepsClaim() throws IOException {
+    MainframeDatasetClaims attempt0 =
+        new MainframeDatasetClaims(fs, claimsDir, "task_m_000000");
+    MainframeDatasetClaims attempt1 =
+        new MainframeDatasetClaims(fs, claimsDir, "task_m_000000");
+    Assert.assertTrue(attempt0.claim("A.B.C"));
+    Assert.assertTrue(attempt1.claim("A.B.C"));
+  }
+}
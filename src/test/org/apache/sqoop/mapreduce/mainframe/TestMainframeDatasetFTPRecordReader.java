@@ -184,6 +184,8 @@ public void setUp() throws IOException {
           new ByteArrayInputStream("123\n456\n".getBytes()));
       when(mockFTPClient.retrieveFileStream("test2")).thenReturn(
           new ByteArrayInputStream("789\n".getBytes()));
+      when(mockFTPClient.retrieveFileStream("binary")).thenReturn(
+          new ByteArrayInputStream("123456".getBytes("Cp037")));
       when(mockFTPClient.retrieveFileStream("NotComplete")).thenReturn(
           new ByteArrayInputStream("NotComplete\n".getBytes()));
     } catch (IOException e) {
@@ -289,4 +291,27 @@ public void testFTPNotComplete() {
       fail("Got InterruptedException: " + ie.toString());
     }
   }
+
+  @Test
+  public void testReadBinaryRecords() {
+    try {
+      context.getConfiguration().set(
+          MainframeConfiguration.MAINFRAME_INPUT_RECORD_LAYOUT,
+          "05 VAL PIC X(3).");
+      mfDIS = new MainframeDatasetInputSplit();
+      mfDIS.addDataset("binary");
+      mfDFTPRR.initialize(mfDIS, context);
+      Assert.assertTrue("Retrieve of dataset", mfDFTPRR.nextKeyValue());
+      Assert.assertEquals("Decode fixed-length record", "123", mfDFTPRR
+          .getCurrentValue().toString());
+      Assert.assertTrue("Retrieve of dataset", mfDFTPRR.nextKeyValue());
+      Assert.assertEquals("Decode fixed-length record", "456", mfDFTPRR
+          .getCurrentValue().toString());
+      Assert.assertFalse("End of dataset", mfDFTPRR.nextKeyValue());
+    } catch (IOException ioe) {
+      fail("Got IOException: " + ioe.toString());
+    } catch (InterruptedException ie) {
+      fail("Got InterruptedException: " + ie.toString());
+    }
+  }
 }
@@ -109,4 +109,42 @@ public void testRetrieveDatasets() throws IOException {
     Assert.assertEquals("test2", ((MainframeDatasetInputSplit) splits.get(1))
         .getNextDataset().toString());
   }
+
+  @Test
+  public void testSplitsBalancedBySize() throws IOException {
+    FTPFile[] ftpFiles = new FTPFile[4];
+    long[] sizes = { 100, 10, 60, 50 };
+    for (int i = 0; i < ftpFiles.length; i++) {
+      ftpFiles[i] = new FTPFile();
+      ftpFiles[i].setType(FTPFile.FILE_TYPE);
+      ftpFiles[i].setName("ds" + i);
+      ftpFiles[i].setSize(sizes[i]);
+    }
+    when(mockFTPClient.listFiles()).thenReturn(ftpFiles);
+
+    JobConf conf = new JobConf();
+    conf.set(DBConfiguration.URL_PROPERTY, "localhost:12345");
+    conf.set(DBConfiguration.USERNAME_PROPERTY, "user");
+    conf.getCredentials().addSecretKey(
+        new Text(DBConfiguration.PASSWORD_PROPERTY), "pssword".getBytes());
+    conf.set(MainframeConfiguration.MAINFRAME_INPUT_DATASET_NAME, "dsName1");
+    Job job = new Job(conf);
+    ConfigurationHelper.setJobNumMaps(job, 2);
+
+    List<InputSplit> splits = format.getSplits(job);
+    Assert.assertEquals(2, splits.size());
+    MainframeDatasetInputSplit first = (MainframeDatasetInputSplit) splits.get(0);
+    MainframeDatasetInputSplit second =
+        (MainframeDatasetInputSplit) splits.get(1);
+    // ds0 (100) + ds1 (10) against ds2 (60) + ds3 (50).
+    Assert.assertEquals(110, first.getTotalSize());
+    Assert.assertEquals(110, second.getTotalSize());
+    Assert.assertEquals("ds0", first.getNextDataset());
+    Assert.assertEquals("ds1", first.getNextDataset());
+    // Once done, the first split may take the second split's datasets,
+    // starting with the one its owner reaches last.
+    Assert.assertEquals("ds3", first.getNextDataset());
+    Assert.assertEquals("ds2", first.getNextDataset());
+    Assert.assertNull(first.getNextDataset());
+  }
 }
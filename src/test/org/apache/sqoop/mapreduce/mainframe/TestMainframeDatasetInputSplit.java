@@ -116,4 +116,22 @@ public void testWriteRead() {
       Assert.fail("No InterruptedException should be thrown!");
     }
   }
+
+  @Test
+  public void testSharedDatasets() throws IOException {
+    mfDatasetInputSplit.addDataset("dataSet1", 10);
+    mfDatasetInputSplit.addSharedDataset("dataSet2");
+    DataOutputBuffer dob = new DataOutputBuffer();
+    DataInputBuffer dib = new DataInputBuffer();
+    MainframeDatasetInputSplit mfReader = new MainframeDatasetInputSplit();
+    mfDatasetInputSplit.write(dob);
+    dib.reset(dob.getData(), dob.getLength());
+    mfReader.readFields(dib);
+    Assert.assertEquals(10, mfReader.getTotalSize());
+    Assert.assertEquals("dataSet1", mfReader.getNextDataset());
+    Assert.assertTrue(mfReader.isCurrentDatasetAssigned());
+    Assert.assertEquals("dataSet2", mfReader.getNextDataset());
+    Assert.assertFalse(mfReader.isCurrentDatasetAssigned());
+    Assert.assertNull(mfReader.getNextDataset());
+  }
 }
@@ -23,6 +23,7 @@
 
 import org.apache.commons.net.ftp.FTPFile;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -79,4 +80,14 @@ public void testParseFTPEntry() {
 		}
 		assert(i == listing.size()-1);
 	}
+
+	@Test
+	public void testEstimateSize() {
+		Assert.assertEquals(45 * 56664L, MainframeFTPFileEntryParser.estimateSize(
+			"xxx300 3390   2016/05/25  1   45  VB    2349 27998  PS  UNLOAD.EDH.UNLOADED"));
+		Assert.assertEquals(120 * 80L, MainframeFTPFileEntryParser.estimateSize(
+			"MEMBER1   01.01 2016/05/25 2016/05/26 10:15   120   100     0 USER1"));
+		Assert.assertEquals(-1, MainframeFTPFileEntryParser.estimateSize(
+			"x31167 Tape                                 UNLOAD.EDH.UNLOADT"));
+	}
 }
@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.mainframe;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TestMainframeRecordLayout {
+
+  private static final String COPYBOOK =
+        "      * Customer record\n"
+      + "       01 CUSTOMER-REC.\n"
+      + "          05 CUST-ID      PIC 9(6).\n"
+      + "          05 CUST-NAME    PIC X(4).\n"
+      + "          05 FILLER       PIC X(2).\n"
+      + "          05 BALANCE      PIC S9(5)V99 COMP-3.\n"
+      + "          05 VISITS       PIC S9(4) COMP.\n"
+      + "          05 RATE         PIC S9V9(2).\n"
+      + "             88 NO-RATE   VALUE 0.\n";
+
+  @Test
+  public void testParseLayout() throws IOException {
+    MainframeRecordLayout layout = MainframeRecordLayout.parse(COPYBOOK);
+    List<MainframeRecordLayout.Field> fields = layout.getFields();
+
+    assertEquals(6, fields.size());
+    assertEquals(6 + 4 + 2 + 4 + 2 + 3, layout.getRecordLength());
+    assertArrayEquals(
+        new String[] {"CUST_ID", "CUST_NAME", "BALANCE", "VISITS", "RATE"},
+        layout.getColumnNames());
+    assertEquals(Integer.valueOf(Types.INTEGER),
+        layout.getColumnTypes().get("CUST_ID"));
+    assertEquals(Integer.valueOf(Types.VARCHAR),
+        layout.getColumnTypes().get("CUST_NAME"));
+    assertEquals(Integer.valueOf(Types.DECIMAL),
+        layout.getColumnTypes().get("BALANCE"));
+    assertEquals(12, fields.get(3).getOffset());
+    assertEquals(4, fields.get(3).getLength());
+  }
+
+  @Test
+  public void testDecodeRecord() throws IOException {
+    MainframeRecordLayout layout = MainframeRecordLayout.parse(COPYBOOK);
+    byte[] record = new byte[layout.getRecordLength()];
+    // CUST-ID: zoned 001234
+    byte[] id = {(byte) 0xF0, (byte) 0xF0, (byte) 0xF1, (byte) 0xF2,
+        (byte) 0xF3, (byte) 0xF4};
+    System.arraycopy(id, 0, record, 0, id.length);
+    // CUST-NAME: "ABCD" in EBCDIC
+    byte[] name = "ABCD".getBytes(MainframeRecordLayout.DEFAULT_CHARSET);
+    System.arraycopy(name, 0, record, 6, name.length);
+    // BALANCE: packed -12345.67
+    byte[] balance = {0x12, 0x34, 0x56, 0x7D};
+    System.arraycopy(balance, 0, record, 12, balance.length);
+    // VISITS: binary -2
+    record[16] = (byte) 0xFF;
+    record[17] = (byte) 0xFE;
+    // RATE: zoned +1.25
+    record[18] = (byte) 0xF1;
+    record[19] = (byte) 0xF2;
+    record[20] = (byte) 0xC5;
+
+    List<MainframeRecordLayout.Field> cols = layout.getColumns();
+    assertEquals(Integer.valueOf(1234), layout.decodeField(cols.get(0), record));
+    assertEquals("ABCD", layout.decodeField(cols.get(1), record));
+    assertEquals(new BigDecimal("-12345.67"),
+        layout.decodeField(cols.get(2), record));
+    assertEquals(Integer.valueOf(-2), layout.decodeField(cols.get(3), record));
+    assertEquals(new BigDecimal("1.25"),
+        layout.decodeField(cols.get(4), record));
+  }
+
+  @Test
+  public void testInvalidPackedDecimal() throws IOException {
+    MainframeRecordLayout layout =
+        MainframeRecordLayout.parse("05 AMOUNT PIC S9(3) COMP-3.");
+    try {
+      layout.decodeField(layout.getColumns().get(0),
+          new byte[] {0x12, 0x34});
+      fail("Expected IOException for a missing sign nibble");
+    } catch (IOException ioe) {
+      // expected
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testOccursNotSupported() throws IOException {
+    MainframeRecordLayout.parse("05 ITEMS PIC X(3) OCCURS 4 TIMES.");
+  }
+}
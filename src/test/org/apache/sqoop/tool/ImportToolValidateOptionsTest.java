@@ -126,6 +126,29 @@ public void testValidationSucceedsWithHiveImportAndAppendModeAndIncrementalAppen
     importTool.validateOptions(options);
   }
 
+  @Test
+  public void testValidationFailsWithIncrementalDigestAndOtherMergeKey() throws Exception {
+    SqoopOptions options = buildBaseSqoopOptions();
+    options.setIncrementalTestColumn(CHECK_COLUMN_NAME);
+    options.setIncrementalMode(SqoopOptions.IncrementalMode.DigestRanges);
+    options.setMergeKeyCol("otherColumnName");
+
+    thrown.expect(SqoopOptions.InvalidOptionsException.class);
+    thrown.expectMessage("--merge-key must be the same column");
+
+    importTool.validateOptions(options);
+  }
+
+  @Test
+  public void testValidationSucceedsWithIncrementalDigestAndCheckColumnMergeKey() throws Exception {
+    SqoopOptions options = buildBaseSqoopOptions();
+    options.setIncrementalTestColumn(CHECK_COLUMN_NAME);
+    options.setIncrementalMode(SqoopOptions.IncrementalMode.DigestRanges);
+    options.setMergeKeyCol(CHECK_COLUMN_NAME);
+
+    importTool.validateOptions(options);
+  }
+
   @Test
   public void testValidationFailsWithHBaseImportAndFileLayoutDifferentFromTexFile() throws Exception {
     SqoopOptions options = buildBaseSqoopOptions();
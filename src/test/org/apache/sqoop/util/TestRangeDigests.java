@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.util;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.sqoop.util.RangeDigests.Digest;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestRangeDigests {
+
+  private static Digest digest(long count, long sum) {
+    return new Digest(count, BigInteger.valueOf(sum));
+  }
+
+  private static RangeDigests newDigests() {
+    RangeDigests digests = new RangeDigests(100, 10);
+    digests.setLeaf(0, digest(2, 5));
+    digests.setLeaf(1, digest(1, 7));
+    digests.setLeaf(5, digest(3, -4));
+    return digests;
+  }
+
+  @Test
+  public void testLeaves() {
+    RangeDigests digests = newDigests();
+    assertEquals(0, digests.getLeaf(100));
+    assertEquals(1, digests.getLeaf(119));
+    assertEquals(150, digests.getLowerKey(5));
+
+    digests.setLeaf(1, Digest.EMPTY);
+    assertEquals(Arrays.asList(0L, 5L),
+        Arrays.asList(digests.getLeaves().keySet().toArray()));
+  }
+
+  @Test
+  public void testNodesSumLeaves() {
+    Map<Long, Digest> nodes = newDigests().getNodes(4);
+    assertEquals(2, nodes.size());
+    assertEquals(digest(3, 12), nodes.get(0L));
+    assertEquals(digest(3, -4), nodes.get(1L));
+  }
+
+  @Test
+  public void testExtendTo() {
+    RangeDigests digests = newDigests();
+    digests.extendTo(75);
+    assertEquals(70, digests.getBase());
+    assertEquals(digest(2, 5), digests.getLeaves().get(3L));
+    assertEquals(150, digests.getLowerKey(8));
+
+    // Keys above the base leave it alone.
+    digests.extendTo(200);
+    assertEquals(70, digests.getBase());
+  }
+
+  @Test
+  public void testCoarsen() {
+    RangeDigests digests = newDigests();
+    digests.coarsen();
+    assertEquals(100, digests.getBase());
+    assertEquals(20, digests.getWidth());
+    assertEquals(2, digests.getLeaves().size());
+    assertEquals(digest(3, 12), digests.getLeaves().get(0L));
+    assertEquals(digest(3, -4), digests.getLeaves().get(2L));
+    assertEquals(2, digests.getLeaf(150));
+  }
+
+  @Test
+  public void testWriteAndRead() throws Exception {
+    FileSystem fs = FileSystem.getLocal(new Configuration()).getRaw();
+    Path path = new Path(System.getProperty("test.build.data", "/tmp"),
+        "range_digests_" + System.currentTimeMillis());
+    try {
+      assertNull(RangeDigests.read(fs, path));
+      newDigests().write(fs, path);
+      RangeDigests digests = RangeDigests.read(fs, path);
+      assertEquals(100, digests.getBase());
+      assertEquals(10, digests.getWidth());
+      assertEquals(newDigests().getLeaves(), digests.getLeaves());
+    } finally {
+      fs.delete(path, false);
+    }
+  }
+
+  @Test
+  public void testRanges() {
+    List<long[]> ranges = RangeDigestSync.parseRanges("1:5,-10:-2");
+    assertEquals(2, ranges.size());
+    assertArrayEquals(new long[] { -10, -2 }, ranges.get(1));
+    assertEquals("1:5,-10:-2", RangeDigestSync.formatRanges(ranges));
+    assertEquals("((ID >= 1 AND ID < 5) OR (ID >= -10 AND ID < -2))",
+        RangeDigestSync.toCondition("ID", ranges));
+  }
+}